@@ -0,0 +1,136 @@
+package common.util;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户级缓存键索引.
+ * <p>
+ * 写入用户级缓存时在同一管道中把缓存键登记到 phub:cache:index:{module}:{userId} 集合，
+ * 清理时通过一次 SMEMBERS 与一次管道化的 UNLINK 删除，不再使用 KEYS 扫描整个键空间.
+ * 索引的过期时间与最近写入的缓存键一致，已过期的缓存键在下次清理时一并删除.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+@Component
+public class UserCacheKeyRegistry {
+
+    /**
+     * 索引键前缀
+     */
+    private static final String INDEX_KEY_PREFIX = "phub:cache:index:";
+
+    /**
+     * 单条 UNLINK 命令携带的最大键数
+     */
+    private static final int UNLINK_BATCH_SIZE = 500;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    /**
+     * 写入用户级缓存并登记到索引.
+     *
+     * @param userId   用户ID
+     * @param module   缓存模块
+     * @param key      缓存键
+     * @param value    缓存值
+     * @param timeout  过期时间，小于等于0表示不过期
+     * @param timeUnit 时间单位
+     */
+    public void set(String userId, String module, String key, Object value, long timeout, TimeUnit timeUnit) {
+        byte[] rawKey = rawKey(key);
+        byte[] rawIndex = rawKey(indexKey(userId, module));
+        @SuppressWarnings("unchecked")
+        byte[] rawValue = ((RedisSerializer<Object>) redisTemplate.getValueSerializer()).serialize(value);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            if (timeout > 0) {
+                connection.set(rawKey, rawValue, Expiration.from(timeout, timeUnit), RedisStringCommands.SetOption.UPSERT);
+            } else {
+                connection.set(rawKey, rawValue);
+            }
+            register(connection, rawIndex, rawKey, timeout, timeUnit);
+            return null;
+        });
+    }
+
+    /**
+     * 写入用户级缓存（不过期）并登记到索引.
+     *
+     * @param userId 用户ID
+     * @param module 缓存模块
+     * @param key    缓存键
+     * @param value  缓存值
+     */
+    public void set(String userId, String module, String key, Object value) {
+        set(userId, module, key, value, 0, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 删除用户某个缓存模块下登记的全部缓存键，耗时只与该用户的键数相关.
+     *
+     * @param userId    用户ID
+     * @param module    缓存模块
+     * @param knownKeys 额外需要删除的固定缓存键（兼容登记前写入的数据）
+     * @return 删除命令涉及的键数（包含已过期的键）
+     */
+    public int invalidate(String userId, String module, String... knownKeys) {
+        byte[] rawIndex = rawKey(indexKey(userId, module));
+        Set<byte[]> members = redisTemplate.execute((RedisCallback<Set<byte[]>>) connection -> connection.sMembers(rawIndex));
+
+        Set<String> keys = new LinkedHashSet<>(Arrays.asList(knownKeys));
+        if (members != null) {
+            for (byte[] member : members) {
+                keys.add(new String(member, StandardCharsets.UTF_8));
+            }
+        }
+        List<byte[]> rawKeys = new ArrayList<>(keys.size() + 1);
+        for (String key : keys) {
+            rawKeys.add(rawKey(key));
+        }
+        rawKeys.add(rawIndex);
+
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int from = 0; from < rawKeys.size(); from += UNLINK_BATCH_SIZE) {
+                List<byte[]> batch = rawKeys.subList(from, Math.min(from + UNLINK_BATCH_SIZE, rawKeys.size()));
+                connection.keyCommands().unlink(batch.toArray(new byte[0][]));
+            }
+            return null;
+        });
+        return keys.size();
+    }
+
+    private void register(RedisConnection connection, byte[] rawIndex, byte[] rawKey, long timeout, TimeUnit timeUnit) {
+        connection.sAdd(rawIndex, rawKey);
+        if (timeout > 0) {
+            connection.expire(rawIndex, Math.max(1, timeUnit.toSeconds(timeout)));
+        } else {
+            connection.persist(rawIndex);
+        }
+    }
+
+    private String indexKey(String userId, String module) {
+        return INDEX_KEY_PREFIX + module + ":" + userId;
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] rawKey(String key) {
+        return ((RedisSerializer<String>) redisTemplate.getKeySerializer()).serialize(key);
+    }
+}
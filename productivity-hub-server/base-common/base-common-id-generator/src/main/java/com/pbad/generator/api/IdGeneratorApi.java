@@ -1,5 +1,9 @@
 package com.pbad.generator.api;
 
+import com.pbad.generator.domain.SnowflakeIdWorker;
+
+import java.util.List;
+
 /**
  * 分布式id生成api接口（基于 Snowflake 算法）.
  *
@@ -10,12 +14,25 @@ package com.pbad.generator.api;
 public interface IdGeneratorApi {
 
     /**
-     * 获取唯一id（使用默认的workerId和datacenterId）.
+     * 获取唯一id（使用本节点租用的workerId和datacenterId）.
      *
      * @return 唯一id
      */
     String generateId();
 
+    /**
+     * 单次预留的最大数量，批量获取超过时分段预留（每段可能等待时钟推进一毫秒），调用方宜按该大小分批获取
+     */
+    int MAX_BATCH_SIZE = SnowflakeIdWorker.MAX_IDS_PER_CALL;
+
+    /**
+     * 批量获取唯一id（使用本节点租用的workerId和datacenterId），适合批量写入.
+     *
+     * @param count 数量
+     * @return 唯一id列表，按生成顺序递增
+     */
+    List<String> generateIds(int count);
+
     /**
      * 获取唯一id.
      *
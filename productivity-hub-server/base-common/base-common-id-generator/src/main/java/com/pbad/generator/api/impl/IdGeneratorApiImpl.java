@@ -3,8 +3,12 @@ package com.pbad.generator.api.impl;
 import com.pbad.generator.api.IdGeneratorApi;
 import com.pbad.generator.constants.IdGeneratorConstants;
 import com.pbad.generator.domain.SnowflakeIdWorker;
+import com.pbad.generator.worker.WorkerIdLeaseManager;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -16,6 +20,7 @@ import java.util.concurrent.ConcurrentMap;
  * @version: 1.0
  */
 @Service
+@RequiredArgsConstructor
 public class IdGeneratorApiImpl implements IdGeneratorApi {
 
     /**
@@ -29,14 +34,34 @@ public class IdGeneratorApiImpl implements IdGeneratorApi {
      */
     private static final ConcurrentMap<String, SnowflakeIdWorker> ID_WORKER_CACHE = new ConcurrentHashMap<>();
 
+    private final WorkerIdLeaseManager leaseManager;
+
     /**
-     * 获取唯一id（使用默认的workerId和datacenterId）.
+     * 获取唯一id（使用本节点租用的workerId和datacenterId）.
      *
      * @return 唯一id
      */
     @Override
     public String generateId() {
-        return String.valueOf(DEFAULT_ID_WORKER.nextId());
+        return String.valueOf(leaseManager.current().nextId());
+    }
+
+    /**
+     * 批量获取唯一id（使用本节点租用的workerId和datacenterId）.
+     *
+     * @param count 数量
+     * @return 唯一id列表
+     */
+    @Override
+    public List<String> generateIds(int count) {
+        List<String> result = new ArrayList<>(Math.max(count, 0));
+        while (result.size() < count) {
+            long[] ids = leaseManager.current().nextIds(Math.min(count - result.size(), MAX_BATCH_SIZE));
+            for (long id : ids) {
+                result.add(String.valueOf(id));
+            }
+        }
+        return result;
     }
 
     /**
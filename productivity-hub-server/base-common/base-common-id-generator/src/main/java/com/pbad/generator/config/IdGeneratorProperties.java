@@ -23,6 +23,28 @@ public class IdGeneratorProperties {
      */
     private long defaultDatacenterId = 0;
 
+    /**
+     * 默认工作ID是否已按节点唯一分配（或为单实例部署）.
+     * 为 false 时只能使用租约分配的工作ID：未启用租约或没有 Redis 时启动失败，租约获得前拒绝生成；
+     * 为 true 时没有租约的情况下使用默认工作ID.
+     */
+    private boolean fixedWorkerId = false;
+
+    /**
+     * 允许借用的未来毫秒数（序列溢出或小幅时钟回拨时沿用上次时间戳）.
+     */
+    private long maxBorrowMillis = 5;
+
+    /**
+     * 可容忍的时钟回拨毫秒数，超过后拒绝生成.
+     */
+    private long maxBackwardMillis = 5000;
+
+    /**
+     * 工作ID租约配置.
+     */
+    private Lease lease = new Lease();
+
     /**
      * 各模块专属配置.
      */
@@ -40,5 +62,22 @@ public class IdGeneratorProperties {
          */
         private long datacenterId = 0;
     }
-}
 
+    @Data
+    public static class Lease {
+        /**
+         * 是否通过 Redis 自动租用工作ID（关闭或 Redis 不可用时须设置 fixed-worker-id 并为每个节点配置不同的默认工作ID）.
+         */
+        private boolean enabled = true;
+
+        /**
+         * 租约键前缀.
+         */
+        private String keyPrefix = "phub:id:worker:";
+
+        /**
+         * 租约有效期（秒），每 1/3 有效期续约一次.
+         */
+        private int ttlSeconds = 60;
+    }
+}
@@ -1,7 +1,16 @@
 package com.pbad.generator.domain;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
 /**
  * 基于雪花算法生成唯一id.
+ * <p>
+ * 时间戳与毫秒内序列打包在一个 AtomicLong 中（时间戳左移12位 | 序列），通过 CAS 推进，不加锁。
+ * 序列溢出时直接进位到下一毫秒（借用未来时间）；时钟回拨时沿用上次的时间戳继续递增序列，
+ * 借用超过 {@link #maxBorrowMillis} 时等待时钟追上，回拨超过 {@link #maxBackwardMillis} 时拒绝生成.
+ * 批量获取时每次最多预留一毫秒的序列（{@link #MAX_IDS_PER_CALL}），单次调用最多借用一毫秒，不会把状态推到回拨阈值之外.
  *
  * @author: pbad
  * @date: 2023/9/8 11:19
@@ -12,72 +21,97 @@ public class SnowflakeIdWorker {
     /**
      * 开始时间截 (2015-01-01)
      */
-    private final long twepoch = 1420041600000L;
+    private static final long TWEPOCH = 1420041600000L;
 
     /**
      * 机器id所占的位数
      */
-    private final long workerIdBits = 5L;
+    private static final long WORKER_ID_BITS = 5L;
 
     /**
      * 数据标识id所占的位数
      */
-    private final long datacenterIdBits = 5L;
+    private static final long DATACENTER_ID_BITS = 5L;
 
     /**
      * 支持的最大机器id，结果是31 (这个移位算法可以很快的计算出几位二进制数所能表示的最大十进制数)
      */
-    private final long maxWorkerId = -1L ^ (-1L << workerIdBits);
+    public static final long MAX_WORKER_ID = -1L ^ (-1L << WORKER_ID_BITS);
 
     /**
      * 支持的最大数据标识id，结果是31
      */
-    private final long maxDatacenterId = -1L ^ (-1L << datacenterIdBits);
+    public static final long MAX_DATACENTER_ID = -1L ^ (-1L << DATACENTER_ID_BITS);
 
     /**
      * 序列在id中占的位数
      */
-    private final long sequenceBits = 12L;
+    private static final long SEQUENCE_BITS = 12L;
 
     /**
      * 机器ID向左移12位
      */
-    private final long workerIdShift = sequenceBits;
+    private static final long WORKER_ID_SHIFT = SEQUENCE_BITS;
 
     /**
      * 数据标识id向左移17位(12+5)
      */
-    private final long datacenterIdShift = sequenceBits + workerIdBits;
+    private static final long DATACENTER_ID_SHIFT = SEQUENCE_BITS + WORKER_ID_BITS;
 
     /**
      * 时间截向左移22位(5+5+12)
      */
-    private final long timestampLeftShift = sequenceBits + workerIdBits + datacenterIdBits;
+    private static final long TIMESTAMP_LEFT_SHIFT = SEQUENCE_BITS + WORKER_ID_BITS + DATACENTER_ID_BITS;
 
     /**
      * 生成序列的掩码，这里为4095 (0b111111111111=0xfff=4095)
      */
-    private final long sequenceMask = -1L ^ (-1L << sequenceBits);
+    private static final long SEQUENCE_MASK = -1L ^ (-1L << SEQUENCE_BITS);
+
+    /**
+     * 单次批量获取的最大数量（一毫秒的序列数 4096）
+     */
+    public static final int MAX_IDS_PER_CALL = (int) (SEQUENCE_MASK + 1);
+
+    /**
+     * 默认允许借用的未来毫秒数
+     */
+    private static final long DEFAULT_MAX_BORROW_MILLIS = 5L;
+
+    /**
+     * 默认可容忍的时钟回拨毫秒数
+     */
+    private static final long DEFAULT_MAX_BACKWARD_MILLIS = 5000L;
 
     /**
      * 工作机器ID(0~31)
      */
-    private long workerId;
+    private final long workerId;
 
     /**
      * 数据中心ID(0~31)
      */
-    private long datacenterId;
+    private final long datacenterId;
+
+    /**
+     * 数据中心与机器ID在id中的固定部分
+     */
+    private final long nodeBits;
+
+    /**
+     * 允许借用的未来毫秒数
+     */
+    private final long maxBorrowMillis;
 
     /**
-     * 毫秒内序列(0~4095)
+     * 可容忍的时钟回拨毫秒数
      */
-    private long sequence = 0L;
+    private final long maxBackwardMillis;
 
     /**
-     * 上次生成ID的时间截
+     * 上次生成ID的 (时间截 - twepoch) << 12 | 毫秒内序列
      */
-    private long lastTimestamp = -1L;
+    private final AtomicLong state = new AtomicLong();
 
     /**
      * 构造函数
@@ -86,14 +120,49 @@ public class SnowflakeIdWorker {
      * @param datacenterId 数据中心ID (0~31)
      */
     public SnowflakeIdWorker(long workerId, long datacenterId) {
-        if (workerId > maxWorkerId || workerId < 0) {
-            throw new IllegalArgumentException(String.format("worker Id can't be greater than %d or less than 0", maxWorkerId));
+        this(workerId, datacenterId, DEFAULT_MAX_BORROW_MILLIS, DEFAULT_MAX_BACKWARD_MILLIS);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param workerId          工作ID (0~31)
+     * @param datacenterId      数据中心ID (0~31)
+     * @param maxBorrowMillis   允许借用的未来毫秒数
+     * @param maxBackwardMillis 可容忍的时钟回拨毫秒数
+     */
+    public SnowflakeIdWorker(long workerId, long datacenterId, long maxBorrowMillis, long maxBackwardMillis) {
+        this(workerId, datacenterId, maxBorrowMillis, maxBackwardMillis, TWEPOCH);
+    }
+
+    /**
+     * 构造函数，用于接手其他节点用过的工作ID：只生成时间戳大于 lastTimestamp 的ID，
+     * 时钟未超过 lastTimestamp 时先借用（不超过借用窗口）或等待.
+     *
+     * @param workerId          工作ID (0~31)
+     * @param datacenterId      数据中心ID (0~31)
+     * @param maxBorrowMillis   允许借用的未来毫秒数
+     * @param maxBackwardMillis 可容忍的时钟回拨毫秒数
+     * @param lastTimestamp     该工作ID之前可能已使用的最大时间戳（毫秒）
+     */
+    public SnowflakeIdWorker(long workerId, long datacenterId, long maxBorrowMillis, long maxBackwardMillis,
+                             long lastTimestamp) {
+        if (workerId > MAX_WORKER_ID || workerId < 0) {
+            throw new IllegalArgumentException(String.format("worker Id can't be greater than %d or less than 0", MAX_WORKER_ID));
         }
-        if (datacenterId > maxDatacenterId || datacenterId < 0) {
-            throw new IllegalArgumentException(String.format("datacenter Id can't be greater than %d or less than 0", maxDatacenterId));
+        if (datacenterId > MAX_DATACENTER_ID || datacenterId < 0) {
+            throw new IllegalArgumentException(String.format("datacenter Id can't be greater than %d or less than 0", MAX_DATACENTER_ID));
         }
         this.workerId = workerId;
         this.datacenterId = datacenterId;
+        this.nodeBits = (datacenterId << DATACENTER_ID_SHIFT) | (workerId << WORKER_ID_SHIFT);
+        this.maxBorrowMillis = Math.max(0, maxBorrowMillis);
+        // 单次预留最多再借用一毫秒，回拨阈值至少比借用窗口多一毫秒
+        this.maxBackwardMillis = Math.max(this.maxBorrowMillis + 1, maxBackwardMillis);
+        if (lastTimestamp > TWEPOCH) {
+            // 序列置满，下一个ID从 lastTimestamp 的下一毫秒开始
+            this.state.set(((lastTimestamp - TWEPOCH) << SEQUENCE_BITS) | SEQUENCE_MASK);
+        }
     }
 
     /**
@@ -101,47 +170,75 @@ public class SnowflakeIdWorker {
      *
      * @return SnowflakeId
      */
-    public synchronized long nextId() {
-        long timestamp = timeGen();
-        // 如果当前时间小于上一次ID生成的时间戳，说明系统时钟回退过这个时候应当抛出异常
-        if (timestamp < lastTimestamp) {
-            throw new RuntimeException(
-                    String.format("Clock moved backwards.  Refusing to generate id for %d milliseconds", lastTimestamp - timestamp));
+    public long nextId() {
+        return toId(reserve(1));
+    }
+
+    /**
+     * 批量获得连续的ID，一次 CAS 预留整段序列，适合批量写入.
+     *
+     * @param count 数量，不超过 {@link #MAX_IDS_PER_CALL}
+     * @return SnowflakeId 数组，按生成顺序递增
+     */
+    public long[] nextIds(int count) {
+        if (count <= 0) {
+            return new long[0];
         }
-        // 如果是同一时间生成的，则进行毫秒内序列
-        if (lastTimestamp == timestamp) {
-            sequence = (sequence + 1) & sequenceMask;
-            // 毫秒内序列溢出
-            if (sequence == 0) {
-                //阻塞到下一个毫秒,获得新的时间戳
-                timestamp = tilNextMillis(lastTimestamp);
-            }
+        if (count > MAX_IDS_PER_CALL) {
+            throw new IllegalArgumentException(String.format("count can't be greater than %d", MAX_IDS_PER_CALL));
         }
-        // 时间戳改变，毫秒内序列重置
-        else {
-            sequence = 0L;
+        long first = reserve(count);
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = toId(first + i);
         }
-        // 上次生成ID的时间截
-        lastTimestamp = timestamp;
-        // 移位并通过或运算拼到一起组成64位的ID
-        return ((timestamp - twepoch) << timestampLeftShift) //
-                | (datacenterId << datacenterIdShift) //
-                | (workerId << workerIdShift) //
-                | sequence;
+        return ids;
+    }
+
+    public long getWorkerId() {
+        return workerId;
+    }
+
+    public long getDatacenterId() {
+        return datacenterId;
     }
 
     /**
-     * 阻塞到下一个毫秒，直到获得新的时间戳
+     * 预留 count 个连续的 时间戳|序列 值.
      *
-     * @param lastTimestamp 上次生成ID的时间截
-     * @return 当前时间戳
-     */
-    protected long tilNextMillis(long lastTimestamp) {
-        long timestamp = timeGen();
-        while (timestamp <= lastTimestamp) {
-            timestamp = timeGen();
+     * @return 第一个值
+     */
+    private long reserve(int count) {
+        while (true) {
+            long prev = state.get();
+            long now = timeGen() - TWEPOCH;
+            long ahead = (prev >>> SEQUENCE_BITS) - now;
+            long first;
+            if (ahead < 0) {
+                // 进入新的毫秒，序列从0开始
+                first = now << SEQUENCE_BITS;
+            } else if (ahead <= maxBorrowMillis) {
+                // 同一毫秒、序列进位或小幅回拨：沿用上次的时间戳继续递增
+                first = prev + 1;
+            } else if (ahead <= maxBackwardMillis) {
+                // 借用过多或时钟回拨：等待时钟追上
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(ahead - maxBorrowMillis));
+                continue;
+            } else {
+                throw new IllegalStateException(String.format(
+                        "Clock moved backwards.  Refusing to generate id for %d milliseconds", ahead));
+            }
+            if (state.compareAndSet(prev, first + count - 1)) {
+                return first;
+            }
         }
-        return timestamp;
+    }
+
+    private long toId(long packed) {
+        // 移位并通过或运算拼到一起组成64位的ID
+        return ((packed >>> SEQUENCE_BITS) << TIMESTAMP_LEFT_SHIFT)
+                | nodeBits
+                | (packed & SEQUENCE_MASK);
     }
 
     /**
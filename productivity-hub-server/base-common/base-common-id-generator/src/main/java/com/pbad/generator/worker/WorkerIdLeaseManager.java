@@ -0,0 +1,241 @@
+package com.pbad.generator.worker;
+
+import com.pbad.generator.config.IdGeneratorProperties;
+import com.pbad.generator.constants.IdGeneratorConstants;
+import com.pbad.generator.domain.SnowflakeIdWorker;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 工作ID租约管理.
+ * <p>
+ * 数据中心ID与工作ID共 10 位、1024 个槽位（槽位 = 数据中心ID * 32 + 工作ID），每个节点启动时通过 SET NX
+ * 在 Redis 中租用一个空闲槽位并定期续约，集群内各节点使用不同的ID空间。
+ * 默认工作ID只在声明了 {@code fixed-worker-id}（按节点唯一配置或单实例部署）时使用：未声明时关闭租约或没有 Redis
+ * 直接启动失败，Redis 暂不可用时在获得租约前拒绝生成，避免多个节点用同一个默认工作ID生成重复ID；
+ * 默认工作ID对应的槽位不参与租用，避免与租约节点重复.
+ * <p>
+ * 新租到的槽位可能刚被其他节点使用过，上一个持有者最多借用到其停止时间之后 maxBorrowMillis + 1 毫秒，
+ * 因此新的生成器只生成时间戳晚于 租用时间 + maxBorrowMillis + 1 的ID（依赖节点间时钟基本同步）.
+ * <p>
+ * 每次租用或续约成功后按请求发出前的时间记录租约截止时间（早于 Redis 中的实际过期时间）。一旦租用过槽位，
+ * 超过截止时间仍未续约成功就停止生成：先同步重试一次续约或重新租用，仍失败则抛出异常，
+ * 避免租约过期、槽位被其他节点租走后继续用旧工作ID生成重复ID.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+@Slf4j
+@Component
+public class WorkerIdLeaseManager {
+
+    /**
+     * 槽位总数
+     */
+    private static final int SLOT_COUNT = (int) ((SnowflakeIdWorker.MAX_DATACENTER_ID + 1) * (SnowflakeIdWorker.MAX_WORKER_ID + 1));
+
+    /**
+     * 仅当租约仍属于本节点时续期
+     */
+    private static final DefaultRedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then "
+                    + "return redis.call('EXPIRE', KEYS[1], ARGV[2]) else return 0 end", Long.class);
+
+    /**
+     * 仅当租约仍属于本节点时释放
+     */
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then "
+                    + "return redis.call('DEL', KEYS[1]) else return 0 end", Long.class);
+
+    private final IdGeneratorProperties properties;
+    private final StringRedisTemplate redisTemplate;
+    private final String token = UUID.randomUUID().toString();
+
+    /**
+     * 不参与租用的槽位（默认工作ID使用）
+     */
+    private final Set<Integer> reservedSlots = new HashSet<>();
+
+    private ScheduledExecutorService renewExecutor;
+
+    /**
+     * 当前使用的ID生成器
+     */
+    private volatile SnowflakeIdWorker worker;
+
+    /**
+     * 当前租用的槽位，-1 表示未租用（使用默认工作ID）
+     */
+    private volatile int leasedSlot = -1;
+
+    /**
+     * 是否租用过槽位，租用过之后必须持有有效租约才能生成ID
+     */
+    private volatile boolean leaseRequired;
+
+    /**
+     * 租约截止时间（System.nanoTime），超过后停止生成
+     */
+    private volatile long leaseDeadlineNanos;
+
+    public WorkerIdLeaseManager(IdGeneratorProperties properties, ObjectProvider<StringRedisTemplate> redisTemplate) {
+        this.properties = properties;
+        this.redisTemplate = redisTemplate.getIfAvailable();
+        this.worker = newWorker(properties.getDefaultWorkerId(), properties.getDefaultDatacenterId());
+        this.reservedSlots.add(slotOf(IdGeneratorConstants.DEFAULT_WORKER_ID, IdGeneratorConstants.DEFAULT_DATACENTER_ID));
+        this.reservedSlots.add(slotOf(properties.getDefaultWorkerId(), properties.getDefaultDatacenterId()));
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.getLease().isEnabled() || redisTemplate == null) {
+            if (!properties.isFixedWorkerId()) {
+                throw new IllegalStateException("Worker id lease is disabled or Redis is unavailable; set "
+                        + "id-generator.fixed-worker-id=true with a unique default-worker-id/default-datacenter-id per node");
+            }
+            log.info("[IdGenerator] 未启用工作ID租约，使用默认工作ID {}/{}", properties.getDefaultDatacenterId(),
+                    properties.getDefaultWorkerId());
+            return;
+        }
+        if (!properties.isFixedWorkerId()) {
+            // 未获得租约前不使用默认工作ID
+            leaseDeadlineNanos = System.nanoTime();
+            leaseRequired = true;
+        }
+        acquire();
+        long period = Math.max(1, properties.getLease().getTtlSeconds() / 3);
+        renewExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "id-worker-lease");
+            thread.setDaemon(true);
+            return thread;
+        });
+        renewExecutor.scheduleWithFixedDelay(this::renew, period, period, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (renewExecutor != null) {
+            renewExecutor.shutdownNow();
+        }
+        int slot = leasedSlot;
+        if (slot >= 0) {
+            try {
+                redisTemplate.execute(RELEASE_SCRIPT, Collections.singletonList(slotKey(slot)), token);
+            } catch (Exception e) {
+                log.warn("[IdGenerator] 释放工作ID租约失败: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 当前节点的ID生成器.
+     *
+     * @return ID生成器
+     * @throws IllegalStateException 租约已过期且无法续约
+     */
+    public SnowflakeIdWorker current() {
+        if (leaseRequired && System.nanoTime() - leaseDeadlineNanos >= 0) {
+            ensureLease();
+        }
+        return worker;
+    }
+
+    /**
+     * 租约过期时同步重试一次，多个线程同时发现过期时只有一个线程访问 Redis.
+     */
+    private synchronized void ensureLease() {
+        if (System.nanoTime() - leaseDeadlineNanos < 0) {
+            return;
+        }
+        renew();
+        if (System.nanoTime() - leaseDeadlineNanos >= 0) {
+            throw new IllegalStateException("Worker id lease expired, refusing to generate id until it is renewed");
+        }
+    }
+
+    private synchronized void renew() {
+        int slot = leasedSlot;
+        if (slot < 0) {
+            acquire();
+            return;
+        }
+        try {
+            long requestedAt = System.nanoTime();
+            Long renewed = redisTemplate.execute(RENEW_SCRIPT, Collections.singletonList(slotKey(slot)),
+                    token, String.valueOf(properties.getLease().getTtlSeconds()));
+            if (renewed == null || renewed == 0) {
+                log.warn("[IdGenerator] 工作ID租约 {} 已丢失，重新租用", slot);
+                // 槽位可能已被其他节点租走，立即停止使用旧工作ID
+                leaseDeadlineNanos = requestedAt;
+                leasedSlot = -1;
+                acquire();
+                return;
+            }
+            leaseDeadlineNanos = requestedAt + TimeUnit.SECONDS.toNanos(properties.getLease().getTtlSeconds());
+        } catch (Exception e) {
+            log.warn("[IdGenerator] 工作ID租约续期失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 从随机位置开始查找空闲槽位，减少多个节点同时启动时的冲突.
+     */
+    private synchronized void acquire() {
+        try {
+            int start = ThreadLocalRandom.current().nextInt(SLOT_COUNT);
+            for (int i = 0; i < SLOT_COUNT; i++) {
+                int slot = (start + i) % SLOT_COUNT;
+                if (reservedSlots.contains(slot)) {
+                    continue;
+                }
+                long requestedAt = System.nanoTime();
+                Boolean ok = redisTemplate.opsForValue().setIfAbsent(slotKey(slot), token,
+                        properties.getLease().getTtlSeconds(), TimeUnit.SECONDS);
+                if (Boolean.TRUE.equals(ok)) {
+                    // 跳过上一个持有者可能借用过的时间戳
+                    long lastTimestamp = System.currentTimeMillis() + properties.getMaxBorrowMillis() + 1;
+                    worker = new SnowflakeIdWorker(slot & SnowflakeIdWorker.MAX_WORKER_ID, slot >> 5,
+                            properties.getMaxBorrowMillis(), properties.getMaxBackwardMillis(), lastTimestamp);
+                    leasedSlot = slot;
+                    leaseDeadlineNanos = requestedAt + TimeUnit.SECONDS.toNanos(properties.getLease().getTtlSeconds());
+                    leaseRequired = true;
+                    log.info("[IdGenerator] 租用工作ID成功，数据中心ID：{}，工作ID：{}",
+                            worker.getDatacenterId(), worker.getWorkerId());
+                    return;
+                }
+            }
+            log.error("[IdGenerator] 没有空闲的工作ID");
+        } catch (Exception e) {
+            log.warn("[IdGenerator] 租用工作ID失败: {}", e.getMessage());
+        }
+    }
+
+    private SnowflakeIdWorker newWorker(long workerId, long datacenterId) {
+        return new SnowflakeIdWorker(workerId, datacenterId, properties.getMaxBorrowMillis(),
+                properties.getMaxBackwardMillis());
+    }
+
+    private static int slotOf(long workerId, long datacenterId) {
+        return (int) (datacenterId * (SnowflakeIdWorker.MAX_WORKER_ID + 1) + workerId);
+    }
+
+    private String slotKey(int slot) {
+        return properties.getLease().getKeyPrefix() + slot;
+    }
+}
@@ -2,6 +2,8 @@ package common.web.context;
 
 import org.springframework.util.StringUtils;
 
+import java.util.function.Supplier;
+
 /**
  * 请求线程内的登录用户上下文.
  */
@@ -33,5 +35,41 @@ public final class RequestUserContext {
     public static void clear() {
         USER_HOLDER.remove();
     }
+
+    /**
+     * 捕获当前线程的用户上下文，返回在其他线程执行时会还原该上下文的任务.
+     * 任务结束后恢复执行线程原有的上下文（调用方线程直接执行时不会被清空）.
+     */
+    public static <T> Supplier<T> wrap(Supplier<T> task) {
+        RequestUser captured = USER_HOLDER.get();
+        return () -> {
+            RequestUser previous = USER_HOLDER.get();
+            restore(captured);
+            try {
+                return task.get();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    /**
+     * 同 {@link #wrap(Supplier)}，用于无返回值的任务.
+     */
+    public static Runnable wrap(Runnable task) {
+        Supplier<Void> wrapped = wrap(() -> {
+            task.run();
+            return null;
+        });
+        return wrapped::get;
+    }
+
+    private static void restore(RequestUser user) {
+        if (user == null) {
+            USER_HOLDER.remove();
+        } else {
+            USER_HOLDER.set(user);
+        }
+    }
 }
 
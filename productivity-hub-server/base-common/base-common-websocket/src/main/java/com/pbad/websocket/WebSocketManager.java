@@ -100,6 +100,14 @@ public interface WebSocketManager {
      */
     void sendMessageToManyUser(MessageDTO messageDto);
 
+    /**
+     * 给多个人的指定客户端分别发送各自的消息（如携带每人不同的通知ID），不在线的用户直接忽略.
+     *
+     * @param messageDto   推送消息类（提供消息类型与客户端）
+     * @param userMessages 用户账户 -> 消息内容
+     */
+    void sendMessageToEachClientUser(MessageDTO messageDto, Map<String, String> userMessages);
+
     /**
      * 群发消息
      *
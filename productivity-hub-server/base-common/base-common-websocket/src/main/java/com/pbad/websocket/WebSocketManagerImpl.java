@@ -2,22 +2,31 @@ package com.pbad.websocket;
 
 import cn.hutool.core.collection.CollUtil;
 import com.alibaba.fastjson.JSON;
+import com.pbad.websocket.cluster.WebSocketClusterBus;
+import com.pbad.websocket.cluster.WebSocketClusterMetrics;
+import com.pbad.websocket.cluster.WebSocketPresenceRegistry;
 import com.pbad.websocket.exception.WebSocketExceptionMsgEnum;
+import com.pbad.websocket.heartbeat.WebSocketHeartbeatSupervisor;
+import com.pbad.websocket.model.ClusterMessage;
 import com.pbad.websocket.model.MessageDTO;
 import com.pbad.websocket.model.WebSocket;
-import com.pbad.websocket.utils.WebSocketUtil;
+import com.pbad.websocket.send.WebSocketSender;
 import common.util.judge.JudgeParameterUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
  * ClassName: WebSocketManagerImpl
  * description: WebSocketManager实现类
+ * <p>
+ * 连接只保存在本节点；发送时先投递本节点连接，再按在线索引把消息发布到持有目标用户的其他节点.
  *
  * @author: pbad
  * @date: 2023/4/21 9:30
@@ -31,6 +40,13 @@ public class WebSocketManagerImpl implements WebSocketManager {
      */
     private static final Logger LOGGER = LoggerFactory.getLogger(WebSocketManagerImpl.class);
 
+    private static final String UNDERLINE = "_";
+
+    /**
+     * 在线索引登记锁的分段数
+     */
+    private static final int PRESENCE_LOCK_STRIPES = 64;
+
     /**
      * 全局只有一个 WebSocketManager ，才可以定义为非static
      */
@@ -41,6 +57,48 @@ public class WebSocketManagerImpl implements WebSocketManager {
      */
     private final Map<String, Set<String>> accountIdentifyMap = new ConcurrentHashMap<>(100);
 
+    /**
+     * 本节点在线用户数，随 accountIdentifyMap 的增删维护
+     */
+    private final AtomicInteger onlineUsers = new AtomicInteger();
+
+    /**
+     * 按用户分段的锁：首个连接登记与最后一个连接移除在线索引必须与连接集合的增删按同一顺序执行，
+     * 否则断开与重连交错时可能先登记后移除，用户在线却不在索引中
+     */
+    private final Object[] presenceLocks = new Object[PRESENCE_LOCK_STRIPES];
+
+    private final WebSocketPresenceRegistry presenceRegistry;
+    private final WebSocketClusterBus clusterBus;
+    private final WebSocketClusterMetrics clusterMetrics;
+    private final WebSocketSender sender;
+    private final WebSocketHeartbeatSupervisor heartbeatSupervisor;
+
+    public WebSocketManagerImpl(WebSocketPresenceRegistry presenceRegistry,
+                                WebSocketClusterBus clusterBus,
+                                WebSocketClusterMetrics clusterMetrics,
+                                WebSocketSender sender,
+                                WebSocketHeartbeatSupervisor heartbeatSupervisor) {
+        this.presenceRegistry = presenceRegistry;
+        this.clusterBus = clusterBus;
+        this.clusterMetrics = clusterMetrics;
+        this.sender = sender;
+        this.heartbeatSupervisor = heartbeatSupervisor;
+        for (int i = 0; i < presenceLocks.length; i++) {
+            presenceLocks[i] = new Object();
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        clusterBus.bind(this::deliverClusterMessage);
+        heartbeatSupervisor.bind(this::expire);
+        String node = presenceRegistry.getNodeId();
+        clusterMetrics.gauge("websocket.local.sessions", node, connections::size);
+        clusterMetrics.gauge("websocket.local.users", node, onlineUsers::get);
+        clusterMetrics.gauge("websocket.send.pending", node, sender::pendingSize);
+    }
+
     /**
      * 同一用户 单点单点登录时使用
      *
@@ -71,10 +129,29 @@ public class WebSocketManagerImpl implements WebSocketManager {
      */
     @Override
     public void put(String identifier, WebSocket webSocket) {
-        connections.put(identifier, webSocket);
-        Set<String> set = accountIdentifyMap.getOrDefault(webSocket.getUserAccount(), Collections.synchronizedSet(new HashSet<>()));
-        set.add(identifier);
-        accountIdentifyMap.putIfAbsent(webSocket.getUserAccount(), set);
+        if (webSocket.getSession() != null) {
+            sender.open(webSocket.getSession());
+        }
+        WebSocket replaced = connections.put(identifier, webSocket);
+        if (replaced != null && replaced.getSession() != null && replaced.getSession() != webSocket.getSession()) {
+            sender.close(replaced.getSession());
+        }
+        synchronized (presenceLock(webSocket.getUserAccount())) {
+            boolean[] firstSession = new boolean[1];
+            accountIdentifyMap.compute(webSocket.getUserAccount(), (account, set) -> {
+                if (set == null) {
+                    set = Collections.synchronizedSet(new HashSet<>());
+                    firstSession[0] = true;
+                }
+                set.add(identifier);
+                return set;
+            });
+            if (firstSession[0]) {
+                onlineUsers.incrementAndGet();
+                presenceRegistry.register(webSocket.getUserAccount());
+            }
+        }
+        heartbeatSupervisor.track(webSocket);
         //TODO 发送自定义连接事件
     }
 
@@ -90,12 +167,48 @@ public class WebSocketManagerImpl implements WebSocketManager {
         if (removedWebSocket == null) {
             return;
         }
-        accountIdentifyMap.get(removedWebSocket.getUserAccount()).remove(identifier);
+        release(identifier, removedWebSocket);
+    }
+
+    /**
+     * 心跳超时：仅当该连接仍是当前登记的连接时移除（同一标识可能已重新连接）.
+     *
+     * @param webSocket 超时连接
+     */
+    private void expire(WebSocket webSocket) {
+        String identifier = webSocket.getClient() + UNDERLINE + webSocket.getIdentifier();
+        if (connections.remove(identifier, webSocket)) {
+            release(identifier, webSocket);
+        } else {
+            webSocket.closeSession();
+        }
+    }
+
+    private void release(String identifier, WebSocket removedWebSocket) {
+        synchronized (presenceLock(removedWebSocket.getUserAccount())) {
+            boolean[] lastSession = new boolean[1];
+            accountIdentifyMap.computeIfPresent(removedWebSocket.getUserAccount(), (account, set) -> {
+                set.remove(identifier);
+                lastSession[0] = set.isEmpty();
+                return lastSession[0] ? null : set;
+            });
+            if (lastSession[0]) {
+                onlineUsers.decrementAndGet();
+                presenceRegistry.unregister(removedWebSocket.getUserAccount());
+            }
+        }
         // TODO 自定义操作
+        if (removedWebSocket.getSession() != null) {
+            sender.close(removedWebSocket.getSession());
+        }
         // 关闭session连接
         removedWebSocket.closeSession();
     }
 
+    private Object presenceLock(String userAccount) {
+        return presenceLocks[(userAccount.hashCode() & Integer.MAX_VALUE) % PRESENCE_LOCK_STRIPES];
+    }
+
     /**
      * 获取当前机器上的保存的WebSocket
      *
@@ -113,11 +226,7 @@ public class WebSocketManagerImpl implements WebSocketManager {
      */
     @Override
     public int size() {
-        return (int) Collections.unmodifiableMap(accountIdentifyMap)
-                .entrySet()
-                .stream()
-                .filter(e -> !e.getValue().isEmpty())
-                .count();
+        return onlineUsers.get();
     }
 
     /**
@@ -133,12 +242,8 @@ public class WebSocketManagerImpl implements WebSocketManager {
         JudgeParameterUtil.checkNotNull(messageDTO.getMessage(),
                 WebSocketExceptionMsgEnum.MESSAGE_IS_NULL.getErrorCode(),
                 WebSocketExceptionMsgEnum.MESSAGE_IS_NULL.getErrorMessage());
-        String message = JSON.toJSONString(messageDTO);
-        List<WebSocket> list = getList(messageDTO.getUserAccount());
-        if (CollUtil.isEmpty(list)) {
-            LOGGER.info("用户id:  - {}已经离线", messageDTO.getUserAccount());
-        }
-        list.forEach(e -> WebSocketUtil.sendMessageAsync(e.getSession(), message));
+        deliverToUser(messageDTO);
+        publishToUserNodes(ClusterMessage.SCOPE_USER, messageDTO);
     }
 
     /**
@@ -157,16 +262,8 @@ public class WebSocketManagerImpl implements WebSocketManager {
         JudgeParameterUtil.checkNotNull(messageDTO.getClient(),
                 WebSocketExceptionMsgEnum.CLIENT_IS_NULL.getErrorCode(),
                 WebSocketExceptionMsgEnum.CLIENT_IS_NULL.getErrorMessage());
-        String message = JSON.toJSONString(messageDTO);
-        List<WebSocket> list = getList(messageDTO.getUserAccount());
-        if (CollUtil.isEmpty(list)) {
-            LOGGER.info("用户id:  - {}已经离线", messageDTO.getUserAccount());
-        }
-        list.forEach(e -> {
-            if (e.getClient().toLowerCase(Locale.ROOT).equals(messageDTO.getClient().toLowerCase(Locale.ROOT))) {
-                WebSocketUtil.sendMessageAsync(e.getSession(), message);
-            }
-        });
+        deliverToClientUser(messageDTO);
+        publishToUserNodes(ClusterMessage.SCOPE_CLIENT_USER, messageDTO);
     }
 
     /**
@@ -182,20 +279,38 @@ public class WebSocketManagerImpl implements WebSocketManager {
         JudgeParameterUtil.checkNotNull(messageDTO.getMessage(),
                 WebSocketExceptionMsgEnum.MESSAGE_IS_NULL.getErrorCode(),
                 WebSocketExceptionMsgEnum.MESSAGE_IS_NULL.getErrorMessage());
-        String message = JSON.toJSONString(messageDTO);
-        messageDTO.getManyUserAccount()
-                .forEach(e -> {
-                    List<WebSocket> list = getList(e);
-                    if (CollUtil.isEmpty(list)) {
-                        LOGGER.info("用户id:  - {}已经离线", e);
-                    }
-                    //本地能找到就直接发
-                    list.forEach(webSocket -> {
-                        if (webSocket.getClient().toLowerCase(Locale.ROOT).equals(messageDTO.getClient().toLowerCase(Locale.ROOT))) {
-                            WebSocketUtil.sendMessageAsync(webSocket.getSession(), message);
-                        }
-                    });
-                });
+        deliverToManyUser(messageDTO);
+        // 其他节点按持有的用户分组，每个节点只收到一条消息
+        presenceRegistry.locateRemote(messageDTO.getManyUserAccount()).forEach((node, users) -> {
+            MessageDTO subset = new MessageDTO(messageDTO.getType(), messageDTO.getMessage(), messageDTO.getUserAccount(),
+                    messageDTO.getClient(), users, messageDTO.getSummaryMessage());
+            clusterBus.publish(node, new ClusterMessage().setScope(ClusterMessage.SCOPE_MANY_USER).setPayload(subset));
+        });
+    }
+
+    /**
+     * 给多个人的指定客户端分别发送各自的消息.
+     * <p>
+     * 本节点持有的用户直接投递；其他节点按在线索引分组，每个节点只收到一条包含其用户消息的信封，不在线的用户不产生投递.
+     *
+     * @param messageDTO   推送消息类（提供消息类型与客户端）
+     * @param userMessages 用户账户 -> 消息内容
+     */
+    @Override
+    public void sendMessageToEachClientUser(MessageDTO messageDTO, Map<String, String> userMessages) {
+        JudgeParameterUtil.checkNotNull(messageDTO.getClient(),
+                WebSocketExceptionMsgEnum.CLIENT_IS_NULL.getErrorCode(),
+                WebSocketExceptionMsgEnum.CLIENT_IS_NULL.getErrorMessage());
+        if (CollUtil.isEmpty(userMessages)) {
+            return;
+        }
+        deliverToEachClientUser(messageDTO, userMessages);
+        presenceRegistry.locateRemote(userMessages.keySet()).forEach((node, users) -> {
+            Map<String, String> subset = new HashMap<>(users.size() * 2);
+            users.forEach(user -> subset.put(user, userMessages.get(user)));
+            clusterBus.publish(node, new ClusterMessage().setScope(ClusterMessage.SCOPE_EACH_USER)
+                    .setPayload(messageDTO).setUserMessages(subset));
+        });
     }
 
     /**
@@ -208,18 +323,10 @@ public class WebSocketManagerImpl implements WebSocketManager {
         JudgeParameterUtil.checkNotNull(messageDTO.getMessage(),
                 WebSocketExceptionMsgEnum.MESSAGE_IS_NULL.getErrorCode(),
                 WebSocketExceptionMsgEnum.MESSAGE_IS_NULL.getErrorMessage());
-        List<WebSocket> webSockets = accountIdentifyMap.values()
-                .stream()
-                .flatMap(Collection::stream)
-                .collect(Collectors.toSet())
-                .stream()
-                .map(connections::get)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
-        // 本地能找到就直接发
-        if (CollUtil.isNotEmpty(webSockets)) {
-            String message = JSON.toJSONString(messageDTO);
-            webSockets.forEach(e -> WebSocketUtil.sendMessageAsync(e.getSession(), message));
+        deliverToAll(messageDTO);
+        if (presenceRegistry.isEnabled()) {
+            presenceRegistry.remoteNodes().forEach(node ->
+                    clusterBus.publish(node, new ClusterMessage().setScope(ClusterMessage.SCOPE_ALL).setPayload(messageDTO)));
         }
     }
 
@@ -238,6 +345,123 @@ public class WebSocketManagerImpl implements WebSocketManager {
         }
     }
 
+    /**
+     * 投递其他节点转发来的消息，只投递本节点连接.
+     *
+     * @param clusterMessage 消息信封
+     */
+    private void deliverClusterMessage(ClusterMessage clusterMessage) {
+        MessageDTO messageDTO = clusterMessage.getPayload();
+        if (messageDTO == null) {
+            return;
+        }
+        switch (clusterMessage.getScope()) {
+            case ClusterMessage.SCOPE_USER:
+                deliverToUser(messageDTO);
+                break;
+            case ClusterMessage.SCOPE_CLIENT_USER:
+                deliverToClientUser(messageDTO);
+                break;
+            case ClusterMessage.SCOPE_MANY_USER:
+                deliverToManyUser(messageDTO);
+                break;
+            case ClusterMessage.SCOPE_ALL:
+                deliverToAll(messageDTO);
+                break;
+            case ClusterMessage.SCOPE_EACH_USER:
+                if (clusterMessage.getUserMessages() != null) {
+                    deliverToEachClientUser(messageDTO, clusterMessage.getUserMessages());
+                }
+                break;
+            default:
+                LOGGER.warn("未知的跨节点投递范围: {}", clusterMessage.getScope());
+        }
+    }
+
+    /**
+     * 发布到持有该用户连接的其他节点.
+     */
+    private void publishToUserNodes(String scope, MessageDTO messageDTO) {
+        presenceRegistry.locateRemote(Collections.singletonList(messageDTO.getUserAccount()))
+                .keySet()
+                .forEach(node -> clusterBus.publish(node, new ClusterMessage().setScope(scope).setPayload(messageDTO)));
+    }
+
+    private void deliverToUser(MessageDTO messageDTO) {
+        List<WebSocket> list = getList(messageDTO.getUserAccount());
+        if (CollUtil.isEmpty(list)) {
+            LOGGER.debug("用户id:  - {}不在本节点", messageDTO.getUserAccount());
+            return;
+        }
+        String message = JSON.toJSONString(messageDTO);
+        list.forEach(e -> sender.send(e, messageDTO.getType(), message));
+    }
+
+    private void deliverToClientUser(MessageDTO messageDTO) {
+        List<WebSocket> list = getList(messageDTO.getUserAccount());
+        if (CollUtil.isEmpty(list)) {
+            LOGGER.debug("用户id:  - {}不在本节点", messageDTO.getUserAccount());
+            return;
+        }
+        String message = JSON.toJSONString(messageDTO);
+        list.forEach(e -> {
+            if (e.getClient().toLowerCase(Locale.ROOT).equals(messageDTO.getClient().toLowerCase(Locale.ROOT))) {
+                sender.send(e, messageDTO.getType(), message);
+            }
+        });
+    }
+
+    private void deliverToManyUser(MessageDTO messageDTO) {
+        String message = JSON.toJSONString(messageDTO);
+        messageDTO.getManyUserAccount()
+                .forEach(e -> {
+                    //本地能找到就直接发
+                    getList(e).forEach(webSocket -> {
+                        if (webSocket.getClient().toLowerCase(Locale.ROOT).equals(messageDTO.getClient().toLowerCase(Locale.ROOT))) {
+                            sender.send(webSocket, messageDTO.getType(), message);
+                        }
+                    });
+                });
+    }
+
+    private void deliverToEachClientUser(MessageDTO messageDTO, Map<String, String> userMessages) {
+        String client = messageDTO.getClient().toLowerCase(Locale.ROOT);
+        userMessages.forEach((userAccount, userMessage) -> {
+            Set<String> identifiers = accountIdentifyMap.get(userAccount);
+            if (identifiers == null || identifiers.isEmpty()) {
+                return;
+            }
+            String message = null;
+            for (String identifier : identifiers) {
+                WebSocket webSocket = connections.get(identifier);
+                if (webSocket == null || !webSocket.getClient().toLowerCase(Locale.ROOT).equals(client)) {
+                    continue;
+                }
+                if (message == null) {
+                    message = JSON.toJSONString(new MessageDTO().setType(messageDTO.getType()).setClient(messageDTO.getClient())
+                            .setUserAccount(userAccount).setMessage(userMessage));
+                }
+                sender.send(webSocket, messageDTO.getType(), message);
+            }
+        });
+    }
+
+    private void deliverToAll(MessageDTO messageDTO) {
+        List<WebSocket> webSockets = accountIdentifyMap.values()
+                .stream()
+                .flatMap(Collection::stream)
+                .collect(Collectors.toSet())
+                .stream()
+                .map(connections::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        // 本地能找到就直接发，消息只序列化一次，所有连接共享
+        if (CollUtil.isNotEmpty(webSockets)) {
+            String message = JSON.toJSONString(messageDTO);
+            webSockets.forEach(e -> sender.send(e, messageDTO.getType(), message));
+        }
+    }
+
     /**
      * 通过用户标识查询用户
      *
@@ -3,6 +3,8 @@ package com.pbad.websocket.api;
 import com.pbad.websocket.model.MessageDTO;
 import org.springframework.scheduling.annotation.Async;
 
+import java.util.Map;
+
 /**
  * ClassName: WebSocketApi
  * description: WebSocket消息推送接口
@@ -46,6 +48,15 @@ public interface WebSocketApi {
     @Async
     void sendMessageToManyUser(MessageDTO messageDTO);
 
+    /**
+     * 给多人推送各自的消息.
+     *
+     * @param messageDTO   消息（提供消息类型与客户端）
+     * @param userMessages 用户账户 -> 消息内容
+     */
+    @Async
+    void sendMessageToEachClientUser(MessageDTO messageDTO, Map<String, String> userMessages);
+
     /**
      * 消息群发.
      *
@@ -6,6 +6,8 @@ import com.pbad.websocket.model.MessageDTO;
 import com.pbad.websocket.utils.SpringContextUtil;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
+
 /**
  * ClassName: pushWebSocket
  * description: WebSocket消息推送接口实现类
@@ -45,7 +47,7 @@ public class WebSocketApiImpl implements WebSocketApi {
      * @param messageDTO 消息
      */
     @Override
-    public synchronized void sendMessageToUser(MessageDTO messageDTO) {
+    public void sendMessageToUser(MessageDTO messageDTO) {
         getWebSocketManager().sendMessageToUser(messageDTO);
     }
 
@@ -56,7 +58,7 @@ public class WebSocketApiImpl implements WebSocketApi {
      * @param messageDTO 消息
      */
     @Override
-    public synchronized void sendMessageToClientUser(MessageDTO messageDTO) {
+    public void sendMessageToClientUser(MessageDTO messageDTO) {
         getWebSocketManager().sendMessageToClientUser(messageDTO);
     }
 
@@ -67,17 +69,29 @@ public class WebSocketApiImpl implements WebSocketApi {
      * @param messageDTO 消息
      */
     @Override
-    public synchronized void sendMessageToManyUser(MessageDTO messageDTO) {
+    public void sendMessageToManyUser(MessageDTO messageDTO) {
         getWebSocketManager().sendMessageToManyUser(messageDTO);
     }
 
+    /**
+     * 给多人推送各自的消息.
+     * client,userMessages不能为空
+     *
+     * @param messageDTO   消息
+     * @param userMessages 用户账户 -> 消息内容
+     */
+    @Override
+    public void sendMessageToEachClientUser(MessageDTO messageDTO, Map<String, String> userMessages) {
+        getWebSocketManager().sendMessageToEachClientUser(messageDTO, userMessages);
+    }
+
     /**
      * 消息群发
      *
      * message不能为空
      */
     @Override
-    public synchronized void sendMessageToAll(MessageDTO messageDTO) {
+    public void sendMessageToAll(MessageDTO messageDTO) {
         getWebSocketManager().sendMessageToAll(messageDTO);
     }
 
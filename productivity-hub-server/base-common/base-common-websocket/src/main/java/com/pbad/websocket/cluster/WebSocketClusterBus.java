@@ -0,0 +1,127 @@
+package com.pbad.websocket.cluster;
+
+import com.alibaba.fastjson.JSON;
+import com.pbad.websocket.config.WebSocketClusterProperties;
+import com.pbad.websocket.model.ClusterMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * ClassName: WebSocketClusterBus
+ * description: websocket 跨节点消息通道
+ * <p>
+ * 每个节点只订阅自己的频道 node:{nodeId}，发送方根据在线索引把消息直接发布到持有目标用户的节点，
+ * 不再向全部节点广播；Redis 不可用时发送方退化为仅本节点投递.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+@Component
+public class WebSocketClusterBus {
+
+    /**
+     * 日志控制器
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(WebSocketClusterBus.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisConnectionFactory connectionFactory;
+    private final WebSocketClusterProperties properties;
+    private final WebSocketPresenceRegistry presenceRegistry;
+    private final WebSocketClusterMetrics metrics;
+
+    private RedisMessageListenerContainer listenerContainer;
+
+    /**
+     * 本地投递回调，由 WebSocketManager 绑定
+     */
+    private volatile Consumer<ClusterMessage> localDelivery;
+
+    public WebSocketClusterBus(StringRedisTemplate redisTemplate,
+                               RedisConnectionFactory connectionFactory,
+                               WebSocketClusterProperties properties,
+                               WebSocketPresenceRegistry presenceRegistry,
+                               WebSocketClusterMetrics metrics) {
+        this.redisTemplate = redisTemplate;
+        this.connectionFactory = connectionFactory;
+        this.properties = properties;
+        this.presenceRegistry = presenceRegistry;
+        this.metrics = metrics;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(connectionFactory);
+        listenerContainer.addMessageListener((message, pattern) ->
+                        onMessage(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(channel(presenceRegistry.getNodeId())));
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws Exception {
+        if (listenerContainer != null) {
+            listenerContainer.destroy();
+        }
+    }
+
+    /**
+     * 绑定本地投递回调.
+     *
+     * @param localDelivery 收到跨节点消息后的本地投递
+     */
+    public void bind(Consumer<ClusterMessage> localDelivery) {
+        this.localDelivery = localDelivery;
+    }
+
+    /**
+     * 向指定节点发布消息.
+     *
+     * @param targetNode 目标节点
+     * @param message    消息信封
+     */
+    public void publish(String targetNode, ClusterMessage message) {
+        message.setOriginNode(presenceRegistry.getNodeId());
+        message.setPublishedAt(System.currentTimeMillis());
+        try {
+            redisTemplate.convertAndSend(channel(targetNode), JSON.toJSONString(message));
+            metrics.published(message.getScope());
+        } catch (Exception e) {
+            LOGGER.warn("向节点 {} 发布 websocket 消息失败: {}", targetNode, e.getMessage());
+        }
+    }
+
+    private void onMessage(String body) {
+        Consumer<ClusterMessage> delivery = localDelivery;
+        if (delivery == null) {
+            return;
+        }
+        try {
+            ClusterMessage message = JSON.parseObject(body, ClusterMessage.class);
+            delivery.accept(message);
+            metrics.received(presenceRegistry.getNodeId(), message.getScope(), message.getPublishedAt());
+        } catch (Exception e) {
+            LOGGER.warn("处理跨节点 websocket 消息失败: {}", e.getMessage());
+        }
+    }
+
+    private String channel(String nodeId) {
+        return properties.getKeyPrefix() + "node:" + nodeId;
+    }
+}
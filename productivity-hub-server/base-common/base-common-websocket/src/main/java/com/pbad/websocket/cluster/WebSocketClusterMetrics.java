@@ -0,0 +1,93 @@
+package com.pbad.websocket.cluster;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * ClassName: WebSocketClusterMetrics
+ * description: websocket 集群投递指标
+ * <p>
+ * websocket.cluster.published  按投递范围统计发往其他节点的消息数（不区分目标节点，节点标识随机生成，避免指标无限增长）
+ * websocket.cluster.received   本节点收到的跨节点消息数（节点扇入）
+ * websocket.cluster.delivery   发布到本地投递完成的延迟
+ * websocket.send.overflow      连接发送队列溢出次数（按处理策略）
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+@Component
+public class WebSocketClusterMetrics {
+
+    private final MeterRegistry registry;
+
+    public WebSocketClusterMetrics(ObjectProvider<MeterRegistry> registryProvider) {
+        this.registry = registryProvider.getIfAvailable(() -> Metrics.globalRegistry);
+    }
+
+    /**
+     * 记录一次跨节点发布.
+     *
+     * @param scope 投递范围
+     */
+    public void published(String scope) {
+        Counter.builder("websocket.cluster.published")
+                .tag("scope", scope)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * 记录一次跨节点接收及其投递延迟.
+     *
+     * @param node        本节点
+     * @param scope       投递范围
+     * @param publishedAt 发布时间
+     */
+    public void received(String node, String scope, long publishedAt) {
+        Counter.builder("websocket.cluster.received")
+                .tag("node", node)
+                .tag("scope", scope)
+                .register(registry)
+                .increment();
+        long latency = Math.max(0, System.currentTimeMillis() - publishedAt);
+        Timer.builder("websocket.cluster.delivery")
+                .tag("node", node)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry)
+                .record(latency, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 记录一次发送队列溢出.
+     *
+     * @param policy 溢出处理策略
+     */
+    public void sendOverflow(String policy) {
+        Counter.builder("websocket.send.overflow")
+                .tag("policy", policy)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * 注册本节点连接数等瞬时指标.
+     *
+     * @param name     指标名
+     * @param node     本节点
+     * @param supplier 取值函数
+     */
+    public void gauge(String name, String node, Supplier<Number> supplier) {
+        Gauge.builder(name, supplier)
+                .tag("node", node)
+                .register(registry);
+    }
+}
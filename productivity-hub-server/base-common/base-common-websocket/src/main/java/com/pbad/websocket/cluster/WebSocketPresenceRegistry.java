@@ -0,0 +1,344 @@
+package com.pbad.websocket.cluster;
+
+import com.pbad.websocket.config.WebSocketClusterProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ClassName: WebSocketPresenceRegistry
+ * description: 基于 Redis 的用户在线索引（用户 -> 节点）
+ * <p>
+ * presence:{userAccount} 为哈希，字段为持有该用户连接的节点；
+ * nodes 为有序集合，分值为节点最近一次心跳时间，超时节点视为下线，其索引在查询时惰性清理.
+ * 本地的存活节点快照只用于快速路由：不在快照中的节点以有序集合中的心跳分值为准，清理时在脚本内重新读取分值，
+ * 刚启动或快照尚未刷新到的节点不会被误清理.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+@Component
+public class WebSocketPresenceRegistry {
+
+    /**
+     * 日志控制器
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(WebSocketPresenceRegistry.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final WebSocketClusterProperties properties;
+    private final String nodeId;
+
+    /**
+     * 本节点持有连接的用户，用于心跳续期与下线清理
+     */
+    private final Set<String> localUsers = Collections.newSetFromMap(new java.util.concurrent.ConcurrentHashMap<>());
+
+    /**
+     * 存活节点快照，随心跳刷新
+     */
+    private volatile Set<String> aliveNodes = Collections.emptySet();
+
+    /**
+     * 节点心跳已超时（分值不存在或早于 ARGV[2]）时删除各用户索引中的该节点（ARGV[1]），返回删除数；节点存活返回-1
+     */
+    private static final String PURGE_SCRIPT =
+            "local score = redis.call('ZSCORE', KEYS[1], ARGV[1]) "
+                    + "if score and tonumber(score) >= tonumber(ARGV[2]) then return -1 end "
+                    + "local removed = 0 "
+                    + "for i = 2, #KEYS do removed = removed + redis.call('HDEL', KEYS[i], ARGV[1]) end "
+                    + "return removed";
+
+    private ScheduledExecutorService heartbeatExecutor;
+
+    public WebSocketPresenceRegistry(StringRedisTemplate redisTemplate, WebSocketClusterProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        this.nodeId = StringUtils.hasText(properties.getNodeId()) ? properties.getNodeId() : defaultNodeId();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "ws-presence-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // 先同步登记本节点，保证用户登记在线索引前本节点已在存活节点中
+        heartbeat();
+        heartbeatExecutor.scheduleWithFixedDelay(this::heartbeat, properties.getHeartbeatIntervalSeconds(),
+                properties.getHeartbeatIntervalSeconds(), TimeUnit.SECONDS);
+        LOGGER.info("websocket 集群投递已启用，节点标识：{}", nodeId);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (heartbeatExecutor == null) {
+            return;
+        }
+        heartbeatExecutor.shutdownNow();
+        try {
+            List<String> users = new ArrayList<>(localUsers);
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                for (String user : users) {
+                    conn.hDel(presenceKey(user), nodeId);
+                }
+                conn.zRem(nodesKey(), nodeId);
+                return null;
+            });
+        } catch (Exception e) {
+            LOGGER.warn("清理本节点在线索引失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 本节点标识
+     *
+     * @return 节点标识
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * 集群投递是否启用
+     *
+     * @return 是否启用
+     */
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * 用户在本节点建立了第一个连接.
+     *
+     * @param userAccount 用户账户
+     */
+    public void register(String userAccount) {
+        localUsers.add(userAccount);
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            String key = presenceKey(userAccount);
+            redisTemplate.opsForHash().put(key, nodeId, String.valueOf(System.currentTimeMillis()));
+            redisTemplate.expire(key, properties.getPresenceTtlHours(), TimeUnit.HOURS);
+        } catch (DataAccessException e) {
+            LOGGER.warn("登记用户 {} 在线索引失败: {}", userAccount, e.getMessage());
+        }
+    }
+
+    /**
+     * 用户在本节点的最后一个连接已断开.
+     *
+     * @param userAccount 用户账户
+     */
+    public void unregister(String userAccount) {
+        localUsers.remove(userAccount);
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            redisTemplate.opsForHash().delete(presenceKey(userAccount), nodeId);
+        } catch (DataAccessException e) {
+            LOGGER.warn("移除用户 {} 在线索引失败: {}", userAccount, e.getMessage());
+        }
+    }
+
+    /**
+     * 查询持有这些用户连接的其他存活节点（一次管道往返）.
+     *
+     * @param userAccounts 用户账户
+     * @return 节点 -> 该节点持有的用户
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, List<String>> locateRemote(Collection<String> userAccounts) {
+        if (!properties.isEnabled() || userAccounts == null || userAccounts.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<String> users = new ArrayList<>(new HashSet<>(userAccounts));
+        List<Object> results;
+        try {
+            results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                for (String user : users) {
+                    conn.hKeys(presenceKey(user));
+                }
+                return null;
+            });
+        } catch (DataAccessException e) {
+            LOGGER.warn("查询在线索引失败，仅投递本节点: {}", e.getMessage());
+            return Collections.emptyMap();
+        }
+
+        Map<String, List<String>> byNode = new LinkedHashMap<>();
+        for (int i = 0; i < users.size(); i++) {
+            Object nodes = results.get(i);
+            if (!(nodes instanceof Collection)) {
+                continue;
+            }
+            for (String node : (Collection<String>) nodes) {
+                if (!nodeId.equals(node)) {
+                    byNode.computeIfAbsent(node, k -> new ArrayList<>()).add(users.get(i));
+                }
+            }
+        }
+        Set<String> alive = aliveNodes;
+        List<String> unknown = new ArrayList<>();
+        for (String node : byNode.keySet()) {
+            if (!alive.contains(node)) {
+                unknown.add(node);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            Map<String, List<String>> stale = new HashMap<>();
+            for (String node : expiredNodes(unknown)) {
+                stale.put(node, byNode.remove(node));
+            }
+            if (!stale.isEmpty()) {
+                purgeStale(stale);
+            }
+        }
+        return byNode;
+    }
+
+    /**
+     * 其他存活节点
+     *
+     * @return 节点标识集合
+     */
+    public Set<String> remoteNodes() {
+        Set<String> nodes = new HashSet<>(aliveNodes);
+        nodes.remove(nodeId);
+        return nodes;
+    }
+
+    /**
+     * 节点心跳：登记自身、续期本节点用户索引并刷新存活节点快照.
+     */
+    private void heartbeat() {
+        try {
+            long now = System.currentTimeMillis();
+            long expiredBefore = now - TimeUnit.SECONDS.toMillis(properties.getNodeTtlSeconds());
+            List<String> users = new ArrayList<>(localUsers);
+            long presenceTtlSeconds = TimeUnit.HOURS.toSeconds(properties.getPresenceTtlHours());
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                conn.zAdd(nodesKey(), now, nodeId);
+                conn.zRemRangeByScore(nodesKey(), 0, expiredBefore);
+                for (String user : users) {
+                    conn.hSet(presenceKey(user), nodeId, String.valueOf(now));
+                    conn.expire(presenceKey(user), presenceTtlSeconds);
+                }
+                return null;
+            });
+            Set<String> nodes = redisTemplate.opsForZSet().rangeByScore(nodesKey(), expiredBefore, Double.MAX_VALUE);
+            aliveNodes = nodes != null ? new HashSet<>(nodes) : Collections.emptySet();
+        } catch (Exception e) {
+            LOGGER.warn("websocket 节点心跳失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 按有序集合中的心跳分值筛出已超时的节点（不在快照中的节点才需要查询，一次管道往返）.
+     * 查询失败时视为存活，宁可多发布一次也不丢弃索引.
+     */
+    private List<String> expiredNodes(List<String> nodes) {
+        long expiredBefore = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(properties.getNodeTtlSeconds());
+        List<Object> scores;
+        try {
+            scores = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                for (String node : nodes) {
+                    conn.zScore(nodesKey(), node);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            LOGGER.debug("查询节点心跳失败: {}", e.getMessage());
+            return Collections.emptyList();
+        }
+        List<String> expired = new ArrayList<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            Object score = scores.get(i);
+            if (!(score instanceof Number) || ((Number) score).longValue() < expiredBefore) {
+                expired.add(nodes.get(i));
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * 清理下线节点的用户索引，在脚本内重新读取节点心跳，期间恢复心跳的节点不清理.
+     *
+     * @param stale 节点 -> 该节点下的用户
+     */
+    private void purgeStale(Map<String, List<String>> stale) {
+        String expiredBefore = String.valueOf(
+                System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(properties.getNodeTtlSeconds()));
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                stale.forEach((node, users) -> {
+                    String[] keysAndArgs = new String[users.size() + 3];
+                    keysAndArgs[0] = nodesKey();
+                    for (int i = 0; i < users.size(); i++) {
+                        keysAndArgs[i + 1] = presenceKey(users.get(i));
+                    }
+                    keysAndArgs[users.size() + 1] = node;
+                    keysAndArgs[users.size() + 2] = expiredBefore;
+                    conn.eval(PURGE_SCRIPT, ReturnType.INTEGER, users.size() + 1, keysAndArgs);
+                });
+                return null;
+            });
+        } catch (Exception e) {
+            LOGGER.debug("清理下线节点索引失败: {}", e.getMessage());
+        }
+    }
+
+    private String presenceKey(String userAccount) {
+        return properties.getKeyPrefix() + "presence:" + userAccount;
+    }
+
+    private String nodesKey() {
+        return properties.getKeyPrefix() + "nodes";
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,49 @@
+package com.pbad.websocket.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * ClassName: WebSocketClusterProperties
+ * description: websocket 集群投递配置
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "websocket.cluster")
+public class WebSocketClusterProperties {
+
+    /**
+     * 是否启用跨节点投递（关闭后只投递到本节点的连接）
+     */
+    private boolean enabled = true;
+
+    /**
+     * 节点标识，为空时使用 主机名-随机串
+     */
+    private String nodeId;
+
+    /**
+     * Redis 键前缀
+     */
+    private String keyPrefix = "phub:ws:";
+
+    /**
+     * 节点心跳间隔（秒）
+     */
+    private int heartbeatIntervalSeconds = 10;
+
+    /**
+     * 节点存活判定时间（秒），超过该时间未心跳的节点不再投递
+     */
+    private int nodeTtlSeconds = 30;
+
+    /**
+     * 用户在线索引的过期时间（小时），兜底清理异常退出节点留下的索引
+     */
+    private int presenceTtlHours = 24;
+}
@@ -0,0 +1,44 @@
+package com.pbad.websocket.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * ClassName: WebSocketHeartbeatProperties
+ * description: websocket 心跳检测配置
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "websocket.heartbeat")
+public class WebSocketHeartbeatProperties {
+
+    /**
+     * 是否启用空闲连接回收
+     */
+    private boolean enabled = true;
+
+    /**
+     * 连接超过该时间（秒）没有任何心跳或消息即关闭
+     */
+    private int ttlSeconds = 90;
+
+    /**
+     * 连接空闲超过该时间（秒）后发送 ping 帧探测，浏览器会自动回复 pong
+     */
+    private int probeAfterSeconds = 30;
+
+    /**
+     * 时间轮刻度（毫秒）
+     */
+    private long tickMillis = 1000;
+
+    /**
+     * 时间轮槽数
+     */
+    private int wheelSize = 512;
+}
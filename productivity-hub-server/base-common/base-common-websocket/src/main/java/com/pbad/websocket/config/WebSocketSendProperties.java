@@ -0,0 +1,45 @@
+package com.pbad.websocket.config;
+
+import com.pbad.websocket.send.SendOverflowPolicy;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * ClassName: WebSocketSendProperties
+ * description: websocket 发送队列配置
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "websocket.send")
+public class WebSocketSendProperties {
+
+    /**
+     * 单个连接待发送消息上限
+     */
+    private int queueCapacity = 256;
+
+    /**
+     * 队列满时的处理策略
+     */
+    private SendOverflowPolicy overflowPolicy = SendOverflowPolicy.COALESCE;
+
+    /**
+     * 调度写出的线程数，默认 CPU 核数（消息异步写出，线程不等待慢客户端）
+     */
+    private int writerThreads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * 单条消息异步写超时时间（毫秒），超时视为慢客户端并断开
+     */
+    private long sendTimeoutMillis = 10000;
+
+    /**
+     * ping 帧阻塞写超时时间（毫秒），会占用写线程，应保持在数百毫秒以内，超时视为慢客户端并断开
+     */
+    private long pingTimeoutMillis = 300;
+}
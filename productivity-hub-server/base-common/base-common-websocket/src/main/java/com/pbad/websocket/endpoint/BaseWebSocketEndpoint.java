@@ -2,6 +2,7 @@ package com.pbad.websocket.endpoint;
 
 import com.pbad.websocket.WebSocketManager;
 import com.pbad.websocket.model.WebSocket;
+import com.pbad.websocket.send.WebSocketSender;
 import com.pbad.websocket.utils.SpringContextUtil;
 import com.pbad.websocket.utils.WebSocketUtil;
 import common.util.judge.JudgeParameterUtil;
@@ -82,13 +83,27 @@ public class BaseWebSocketEndpoint {
             //更新心跳时间
             if (null != webSocket) {
                 webSocket.setLastHeart(new Date());
-                WebSocketUtil.sendMessageAsync(session, pong);
+                // 与推送消息共用发送队列，避免并发写同一连接
+                SpringContextUtil.getBean(WebSocketSender.class).send(webSocket, pong, pong);
             } else {
                 WebSocketUtil.sendMessageAsync(session, "连接失败");
             }
             return;
         }
-        //收到其他消息的时候
+        //收到其他消息的时候，同样视为连接存活
+        heartbeat(identifier);
         webSocketManager.onMessage(identifier, message);
     }
+
+    /**
+     * 更新心跳时间.
+     *
+     * @param identifier 标识
+     */
+    public void heartbeat(String identifier) {
+        WebSocket webSocket = getWebSocketManager().get(identifier);
+        if (webSocket != null) {
+            webSocket.setLastHeart(new Date());
+        }
+    }
 }
@@ -58,6 +58,18 @@ public class WebSocketEndpoint extends BaseWebSocketEndpoint {
         receiveMessage(client + UNDERLINE + identifier, message, session);
     }
 
+    /**
+     * 收到 pong 帧（服务端 ping 探测的回复）时更新心跳时间.
+     *
+     * @param pong       pong 帧
+     * @param identifier 用户唯一标识
+     * @param client     客户端
+     */
+    @OnMessage
+    public void onPong(PongMessage pong, @PathParam("identifier") String identifier, @PathParam("client") String client) {
+        heartbeat(client + UNDERLINE + identifier);
+    }
+
     /**
      * 连接关闭时.
      *
@@ -0,0 +1,141 @@
+package com.pbad.websocket.heartbeat;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * ClassName: HashedTimingWheel
+ * description: 哈希时间轮
+ * <p>
+ * 每个刻度只处理当前槽中的定时项，添加定时项为 O(1)；超过一圈的定时项记录剩余圈数.
+ * 其他线程添加的定时项先进入待添加队列（只记录到期时间），由刻度线程在每个刻度开始时按当前刻度放入对应的槽，
+ * 槽只由刻度线程读写，不会放进刻度线程刚处理过的槽而晚一整圈触发.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+public class HashedTimingWheel<T> {
+
+    /**
+     * 日志控制器
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(HashedTimingWheel.class);
+
+    private final long tickMillis;
+    private final long tickNanos;
+    private final List<ArrayDeque<Timeout<T>>> buckets;
+    private final ConcurrentLinkedQueue<Timeout<T>> pending = new ConcurrentLinkedQueue<>();
+    private final Consumer<T> onExpired;
+    private final ScheduledExecutorService ticker;
+
+    /**
+     * 刻度的计时起点，第 N 个刻度（从0开始）在起点之后 (N + 1) 个刻度时处理
+     */
+    private volatile long startNanos;
+
+    /**
+     * 下一个待处理的刻度，只由刻度线程读写
+     */
+    private long cursor;
+
+    public HashedTimingWheel(String name, long tickMillis, int wheelSize, Consumer<T> onExpired) {
+        this.tickMillis = Math.max(1, tickMillis);
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(this.tickMillis);
+        this.buckets = new ArrayList<>(Math.max(1, wheelSize));
+        for (int i = 0; i < Math.max(1, wheelSize); i++) {
+            buckets.add(new ArrayDeque<>());
+        }
+        this.startNanos = System.nanoTime();
+        this.onExpired = onExpired;
+        this.ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 启动刻度线程
+     */
+    public void start() {
+        startNanos = System.nanoTime();
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 停止刻度线程，未到期的定时项被丢弃
+     */
+    public void stop() {
+        ticker.shutdownNow();
+    }
+
+    /**
+     * 添加定时项.
+     *
+     * @param item        定时项
+     * @param delayMillis 延迟（毫秒），按刻度向上取整
+     */
+    public void schedule(T item, long delayMillis) {
+        pending.add(new Timeout<>(item, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMillis))));
+    }
+
+    private void tick() {
+        transferPending();
+        ArrayDeque<Timeout<T>> bucket = buckets.get((int) (cursor % buckets.size()));
+        List<T> expired = new ArrayList<>();
+        Iterator<Timeout<T>> it = bucket.iterator();
+        while (it.hasNext()) {
+            Timeout<T> timeout = it.next();
+            if (timeout.rounds > 0) {
+                timeout.rounds--;
+                continue;
+            }
+            it.remove();
+            expired.add(timeout.item);
+        }
+        cursor++;
+        for (T item : expired) {
+            try {
+                onExpired.accept(item);
+            } catch (Exception e) {
+                LOGGER.warn("时间轮定时项处理失败: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * 把待添加的定时项按到期时间放入槽中，已过期的放入当前刻度.
+     */
+    private void transferPending() {
+        Timeout<T> timeout;
+        while ((timeout = pending.poll()) != null) {
+            long elapsed = Math.max(0, timeout.deadlineNanos - startNanos);
+            // 第一个处理时间不早于到期时间的刻度
+            long target = Math.max(cursor, (elapsed + tickNanos - 1) / tickNanos - 1);
+            timeout.rounds = (target - cursor) / buckets.size();
+            buckets.get((int) (target % buckets.size())).add(timeout);
+        }
+    }
+
+    private static final class Timeout<T> {
+        private final T item;
+        private final long deadlineNanos;
+        private long rounds;
+
+        private Timeout(T item, long deadlineNanos) {
+            this.item = item;
+            this.deadlineNanos = deadlineNanos;
+        }
+    }
+}
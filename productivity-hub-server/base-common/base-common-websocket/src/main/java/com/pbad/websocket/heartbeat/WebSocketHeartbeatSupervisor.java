@@ -0,0 +1,112 @@
+package com.pbad.websocket.heartbeat;
+
+import com.pbad.websocket.config.WebSocketHeartbeatProperties;
+import com.pbad.websocket.model.WebSocket;
+import com.pbad.websocket.send.WebSocketSender;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * ClassName: WebSocketHeartbeatSupervisor
+ * description: websocket 空闲连接回收
+ * <p>
+ * 每个连接在时间轮中只有一个检查点：到期时读取最后心跳时间，空闲超过探测时间发送 ping 帧，
+ * 超过 TTL 关闭连接，否则按最后心跳时间重新登记。收到心跳只更新 lastHeart，不操作时间轮.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+@Component
+public class WebSocketHeartbeatSupervisor {
+
+    /**
+     * 日志控制器
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(WebSocketHeartbeatSupervisor.class);
+
+    private final WebSocketHeartbeatProperties properties;
+    private final WebSocketSender sender;
+    private final HashedTimingWheel<WebSocket> wheel;
+
+    /**
+     * 过期连接处理，由 WebSocketManager 绑定
+     */
+    private volatile Consumer<WebSocket> expireHandler;
+
+    public WebSocketHeartbeatSupervisor(WebSocketHeartbeatProperties properties, WebSocketSender sender) {
+        this.properties = properties;
+        this.sender = sender;
+        this.wheel = new HashedTimingWheel<>("ws-heartbeat-wheel", properties.getTickMillis(),
+                properties.getWheelSize(), this::check);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (properties.isEnabled()) {
+            wheel.start();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        wheel.stop();
+    }
+
+    /**
+     * 绑定过期连接处理.
+     *
+     * @param expireHandler 过期连接处理
+     */
+    public void bind(Consumer<WebSocket> expireHandler) {
+        this.expireHandler = expireHandler;
+    }
+
+    /**
+     * 开始监控新连接.
+     *
+     * @param webSocket 连接
+     */
+    public void track(WebSocket webSocket) {
+        if (properties.isEnabled()) {
+            wheel.schedule(webSocket, probeAfterMillis());
+        }
+    }
+
+    private void check(WebSocket webSocket) {
+        if (webSocket.getSession() == null || !webSocket.getSession().isOpen()) {
+            // 连接已正常关闭
+            return;
+        }
+        long ttl = TimeUnit.SECONDS.toMillis(properties.getTtlSeconds());
+        long probeAfter = probeAfterMillis();
+        long idle = System.currentTimeMillis()
+                - (webSocket.getLastHeart() != null ? webSocket.getLastHeart().getTime() : 0L);
+        if (idle >= ttl) {
+            LOGGER.info("连接 {} 已 {} 秒无心跳，关闭连接", webSocket.getIdentifier(), idle / 1000);
+            Consumer<WebSocket> handler = expireHandler;
+            if (handler != null) {
+                handler.accept(webSocket);
+            } else {
+                webSocket.closeSession();
+            }
+            return;
+        }
+        if (idle >= probeAfter) {
+            sender.ping(webSocket);
+            wheel.schedule(webSocket, ttl - idle);
+        } else {
+            wheel.schedule(webSocket, probeAfter - idle);
+        }
+    }
+
+    private long probeAfterMillis() {
+        return TimeUnit.SECONDS.toMillis(Math.min(properties.getProbeAfterSeconds(), properties.getTtlSeconds()));
+    }
+}
@@ -0,0 +1,73 @@
+package com.pbad.websocket.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+import java.util.Map;
+
+/**
+ * ClassName: ClusterMessage
+ * description: 跨节点投递的消息信封
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Accessors(chain = true)
+public class ClusterMessage {
+
+    /**
+     * 投递范围：单人
+     */
+    public static final String SCOPE_USER = "USER";
+
+    /**
+     * 投递范围：单人指定客户端
+     */
+    public static final String SCOPE_CLIENT_USER = "CLIENT_USER";
+
+    /**
+     * 投递范围：多人（manyUserAccount 只包含目标节点持有的用户）
+     */
+    public static final String SCOPE_MANY_USER = "MANY_USER";
+
+    /**
+     * 投递范围：全部在线用户
+     */
+    public static final String SCOPE_ALL = "ALL";
+
+    /**
+     * 投递范围：多人且每人消息内容不同（userMessages 只包含目标节点持有的用户）
+     */
+    public static final String SCOPE_EACH_USER = "EACH_USER";
+
+    /**
+     * 投递范围
+     */
+    private String scope;
+
+    /**
+     * 发送节点
+     */
+    private String originNode;
+
+    /**
+     * 发布时间（毫秒时间戳），用于统计投递延迟
+     */
+    private long publishedAt;
+
+    /**
+     * 推送消息
+     */
+    private MessageDTO payload;
+
+    /**
+     * 逐用户消息内容（用户账户 -> 消息），仅 SCOPE_EACH_USER 使用，类型与客户端取自 payload
+     */
+    private Map<String, String> userMessages;
+}
@@ -0,0 +1,27 @@
+package com.pbad.websocket.send;
+
+/**
+ * ClassName: SendOverflowPolicy
+ * description: 连接发送队列满时的处理策略
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+public enum SendOverflowPolicy {
+
+    /**
+     * 丢弃最早的待发送消息
+     */
+    DROP_OLDEST,
+
+    /**
+     * 用新消息替换队列中同类型的待发送消息，没有同类型消息时丢弃最早的消息
+     */
+    COALESCE,
+
+    /**
+     * 断开慢客户端，由客户端重连后重新拉取
+     */
+    DISCONNECT
+}
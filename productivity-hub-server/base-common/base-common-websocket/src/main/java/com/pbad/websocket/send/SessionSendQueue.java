@@ -0,0 +1,143 @@
+package com.pbad.websocket.send;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Objects;
+
+/**
+ * ClassName: SessionSendQueue
+ * description: 单个连接的有界发送队列
+ * <p>
+ * 入队由任意线程调用，同一时刻最多只有一条消息在写出（writing 标记），上一条写完后才取下一条，
+ * 保证对同一连接的写出是串行的.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+public class SessionSendQueue {
+
+    /**
+     * 入队结果
+     */
+    public enum OfferResult {
+        /**
+         * 已入队，且需要调度写任务
+         */
+        SCHEDULE,
+        /**
+         * 已入队，已有写任务在运行
+         */
+        QUEUED,
+        /**
+         * 队列已满，丢弃了最早的消息
+         */
+        DROPPED,
+        /**
+         * 队列已满，替换了同类型的消息
+         */
+        COALESCED,
+        /**
+         * 队列已满，需要断开连接
+         */
+        OVERFLOW,
+        /**
+         * 队列已关闭
+         */
+        CLOSED
+    }
+
+    private final int capacity;
+    private final SendOverflowPolicy overflowPolicy;
+    private final ArrayDeque<Entry> pending;
+    private boolean writing;
+    private boolean closed;
+
+    public SessionSendQueue(int capacity, SendOverflowPolicy overflowPolicy) {
+        this.capacity = Math.max(1, capacity);
+        this.overflowPolicy = overflowPolicy;
+        this.pending = new ArrayDeque<>(Math.min(this.capacity, 16));
+    }
+
+    /**
+     * 消息入队.
+     *
+     * @param type    消息类型，用于合并同类型消息，可为空
+     * @param payload 已序列化的消息
+     * @return 入队结果
+     */
+    public synchronized OfferResult offer(String type, String payload) {
+        if (closed) {
+            return OfferResult.CLOSED;
+        }
+        boolean dropped = false;
+        if (pending.size() >= capacity) {
+            if (overflowPolicy == SendOverflowPolicy.DISCONNECT) {
+                return OfferResult.OVERFLOW;
+            }
+            if (overflowPolicy == SendOverflowPolicy.COALESCE && type != null && replace(type, payload)) {
+                return OfferResult.COALESCED;
+            }
+            pending.pollFirst();
+            dropped = true;
+        }
+        pending.addLast(new Entry(type, payload));
+        if (!writing) {
+            writing = true;
+            return OfferResult.SCHEDULE;
+        }
+        return dropped ? OfferResult.DROPPED : OfferResult.QUEUED;
+    }
+
+    /**
+     * 取出下一条待发送消息；队列为空时释放写标记并返回null.
+     *
+     * @return 待发送消息
+     */
+    public synchronized String next() {
+        if (closed || pending.isEmpty()) {
+            writing = false;
+            return null;
+        }
+        return pending.pollFirst().payload;
+    }
+
+    /**
+     * 关闭队列并丢弃未发送的消息.
+     */
+    public synchronized void close() {
+        closed = true;
+        pending.clear();
+    }
+
+    /**
+     * 待发送消息数
+     *
+     * @return 消息数
+     */
+    public synchronized int size() {
+        return pending.size();
+    }
+
+    private boolean replace(String type, String payload) {
+        Iterator<Entry> it = pending.descendingIterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if (Objects.equals(type, entry.type)) {
+                entry.payload = payload;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Entry {
+        private final String type;
+        private String payload;
+
+        private Entry(String type, String payload) {
+            this.type = type;
+            this.payload = payload;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.pbad.websocket.send;
+
+import com.pbad.websocket.cluster.WebSocketClusterMetrics;
+import com.pbad.websocket.config.WebSocketSendProperties;
+import com.pbad.websocket.model.WebSocket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.websocket.CloseReason;
+import javax.websocket.Session;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ClassName: WebSocketSender
+ * description: websocket 连接发送器
+ * <p>
+ * 每个连接一个有界发送队列，同一时刻最多一条消息在写出：消息通过 getAsyncRemote().sendText 异步写出，
+ * 写完成回调再调度该连接的下一条，写线程只负责发起写出，不会被停止读取的客户端占住；
+ * ping 帧为阻塞写，超时限制在数百毫秒. 写失败或超时的连接会被关闭.
+ * 避免多个线程同时写同一连接导致的 TEXT_PARTIAL_WRITING 异常，也避免慢客户端在容器缓冲区中无限堆积消息.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+@Component
+public class WebSocketSender {
+
+    /**
+     * 日志控制器
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(WebSocketSender.class);
+
+    /**
+     * Tomcat 阻塞写超时属性
+     */
+    private static final String BLOCKING_SEND_TIMEOUT = "org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT";
+
+    /**
+     * ping 帧占位消息（按引用比较，不会与业务消息混淆）
+     */
+    @SuppressWarnings("StringOperationCanBeSimplified")
+    private static final String PING_FRAME = new String("ping");
+
+    private final WebSocketSendProperties properties;
+    private final WebSocketClusterMetrics metrics;
+    private final ExecutorService writerExecutor;
+
+    /**
+     * sessionId -> 发送队列
+     */
+    private final Map<String, SessionSendQueue> queues = new ConcurrentHashMap<>(100);
+
+    public WebSocketSender(WebSocketSendProperties properties, WebSocketClusterMetrics metrics) {
+        this.properties = properties;
+        this.metrics = metrics;
+        int threads = Math.max(1, properties.getWriterThreads());
+        AtomicInteger index = new AtomicInteger();
+        // 每个连接同一时刻最多一个待执行的写任务，任务队列长度不会超过连接数
+        this.writerExecutor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "ws-send-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writerExecutor.shutdownNow();
+    }
+
+    /**
+     * 为新连接创建发送队列.
+     *
+     * @param session 连接
+     */
+    public void open(Session session) {
+        session.getAsyncRemote().setSendTimeout(properties.getSendTimeoutMillis());
+        // 只有 ping 帧阻塞写，限制其占用写线程的时间
+        session.getUserProperties().put(BLOCKING_SEND_TIMEOUT, properties.getPingTimeoutMillis());
+        queues.put(session.getId(), new SessionSendQueue(properties.getQueueCapacity(), properties.getOverflowPolicy()));
+    }
+
+    /**
+     * 连接关闭后丢弃未发送的消息.
+     *
+     * @param session 连接
+     */
+    public void close(Session session) {
+        SessionSendQueue queue = queues.remove(session.getId());
+        if (queue != null) {
+            queue.close();
+        }
+    }
+
+    /**
+     * 发送消息到连接（异步，按入队顺序写出）.
+     *
+     * @param webSocket 连接
+     * @param type      消息类型，队列满时用于合并同类型消息，可为空
+     * @param payload   已序列化的消息，多个连接可共享同一实例
+     */
+    public void send(WebSocket webSocket, String type, String payload) {
+        Session session = webSocket.getSession();
+        if (session == null) {
+            return;
+        }
+        SessionSendQueue queue = queues.get(session.getId());
+        if (queue == null) {
+            LOGGER.debug("连接 {} 没有发送队列，忽略消息", webSocket.getIdentifier());
+            return;
+        }
+        switch (queue.offer(type, payload)) {
+            case SCHEDULE:
+                schedule(session, queue);
+                break;
+            case DROPPED:
+                metrics.sendOverflow(SendOverflowPolicy.DROP_OLDEST.name());
+                break;
+            case COALESCED:
+                metrics.sendOverflow(SendOverflowPolicy.COALESCE.name());
+                break;
+            case OVERFLOW:
+                metrics.sendOverflow(SendOverflowPolicy.DISCONNECT.name());
+                LOGGER.warn("连接 {} 待发送消息超过 {} 条，断开慢客户端", webSocket.getIdentifier(),
+                        properties.getQueueCapacity());
+                closeSlowConsumer(session, queue);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 发送 ping 帧探测连接（与消息共用发送队列）.
+     *
+     * @param webSocket 连接
+     */
+    public void ping(WebSocket webSocket) {
+        send(webSocket, PING_FRAME, PING_FRAME);
+    }
+
+    /**
+     * 当前连接待发送消息总数
+     *
+     * @return 消息数
+     */
+    public int pendingSize() {
+        int total = 0;
+        for (SessionSendQueue queue : queues.values()) {
+            total += queue.size();
+        }
+        return total;
+    }
+
+    private void schedule(Session session, SessionSendQueue queue) {
+        try {
+            writerExecutor.execute(() -> writeNext(session, queue));
+        } catch (Exception e) {
+            // 线程池已关闭（应用停止中）
+            queue.close();
+        }
+    }
+
+    /**
+     * 写出下一条消息：文本消息异步写出，完成回调中重新调度；ping 帧写完后直接重新调度，让出线程给其他连接.
+     */
+    private void writeNext(Session session, SessionSendQueue queue) {
+        String payload = queue.next();
+        if (payload == null) {
+            return;
+        }
+        if (!session.isOpen()) {
+            queue.close();
+            return;
+        }
+        try {
+            if (payload == PING_FRAME) {
+                session.getBasicRemote().sendPing(ByteBuffer.allocate(0));
+                schedule(session, queue);
+                return;
+            }
+            session.getAsyncRemote().sendText(payload, result -> {
+                if (result.isOK()) {
+                    schedule(session, queue);
+                } else {
+                    writeFailed(session, queue, result.getException());
+                }
+            });
+        } catch (Exception e) {
+            writeFailed(session, queue, e);
+        }
+    }
+
+    private void writeFailed(Session session, SessionSendQueue queue, Throwable e) {
+        LOGGER.warn("连接 {} 写出消息失败，关闭连接: {}", session.getId(), e == null ? null : e.getMessage());
+        closeSlowConsumer(session, queue);
+    }
+
+    private void closeSlowConsumer(Session session, SessionSendQueue queue) {
+        queue.close();
+        try {
+            session.close(new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER, "send queue overflow"));
+        } catch (IOException | IllegalStateException ignored) {
+        }
+    }
+}
@@ -7,6 +7,7 @@ import com.pbad.announcement.domain.vo.AnnouncementStatsVO;
 import com.pbad.announcement.service.AnnouncementService;
 import com.pbad.auth.domain.po.UserPO;
 import com.pbad.auth.mapper.UserMapper;
+import com.pbad.notifications.domain.vo.NotificationBroadcastVO;
 import common.core.domain.ApiResponse;
 import common.core.domain.PageResult;
 import common.web.context.RequestUserContext;
@@ -157,6 +158,21 @@ public class AnnouncementController {
         return ApiResponse.ok(stats);
     }
 
+    /**
+     * 获取公告推送进度.
+     */
+    @GetMapping("/{id}/push-progress")
+    public ApiResponse<NotificationBroadcastVO> getPushProgress(@PathVariable("id") String id) {
+        String userId = RequestUserContext.getUserId();
+        if (!StringUtils.hasText(userId)) {
+            return ApiResponse.unauthorized("未登录或登录已过期");
+        }
+        if (!isAdmin(userId)) {
+            return ApiResponse.fail(403, "仅管理员可以查看公告推送进度");
+        }
+        return ApiResponse.ok(announcementService.getPushProgress(id));
+    }
+
     private boolean isAdmin(String userId) {
         UserPO current = userMapper.selectById(userId);
         if (current == null || current.getRoles() == null) {
@@ -33,5 +33,10 @@ public interface AnnouncementMapper {
      * 查询所有有效的公告（用于立即推送）.
      */
     List<AnnouncementPO> selectActiveAnnouncements();
+
+    /**
+     * 查询全部公告ID.
+     */
+    List<String> selectAllIds();
 }
 
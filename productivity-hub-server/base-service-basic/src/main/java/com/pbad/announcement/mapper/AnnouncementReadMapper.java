@@ -17,5 +17,10 @@ public interface AnnouncementReadMapper {
     List<AnnouncementReadPO> selectByAnnouncementId(@Param("announcementId") String announcementId);
 
     long countByAnnouncementId(@Param("announcementId") String announcementId);
+
+    /**
+     * 查询公告的全部已读用户ID（重建阅读位图时使用）.
+     */
+    List<String> selectUserIdsByAnnouncementId(@Param("announcementId") String announcementId);
 }
 
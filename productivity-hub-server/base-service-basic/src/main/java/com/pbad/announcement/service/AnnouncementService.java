@@ -4,6 +4,7 @@ import com.pbad.announcement.domain.dto.AnnouncementCreateDTO;
 import com.pbad.announcement.domain.dto.AnnouncementUpdateDTO;
 import com.pbad.announcement.domain.vo.AnnouncementVO;
 import com.pbad.announcement.domain.vo.AnnouncementStatsVO;
+import com.pbad.notifications.domain.vo.NotificationBroadcastVO;
 import common.core.domain.PageResult;
 
 import java.util.List;
@@ -59,5 +60,10 @@ public interface AnnouncementService {
      * 获取公告阅读统计.
      */
     AnnouncementStatsVO getStats(String announcementId);
+
+    /**
+     * 获取公告推送进度（立即推送策略），未推送过时返回null.
+     */
+    NotificationBroadcastVO getPushProgress(String announcementId);
 }
 
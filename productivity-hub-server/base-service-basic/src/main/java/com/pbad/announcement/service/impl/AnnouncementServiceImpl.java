@@ -9,9 +9,11 @@ import com.pbad.announcement.domain.vo.AnnouncementStatsVO;
 import com.pbad.announcement.mapper.AnnouncementMapper;
 import com.pbad.announcement.mapper.AnnouncementReadMapper;
 import com.pbad.announcement.service.AnnouncementService;
+import com.pbad.announcement.support.AnnouncementReadState;
 import com.pbad.auth.mapper.UserMapper;
 import com.pbad.generator.api.IdGeneratorApi;
 import com.pbad.notifications.domain.dto.NotificationPublishDTO;
+import com.pbad.notifications.domain.vo.NotificationBroadcastVO;
 import com.pbad.notifications.service.NotificationService;
 import common.core.domain.PageResult;
 import lombok.RequiredArgsConstructor;
@@ -22,6 +24,7 @@ import java.text.SimpleDateFormat;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -33,6 +36,7 @@ public class AnnouncementServiceImpl implements AnnouncementService {
     private final IdGeneratorApi idGeneratorApi;
     private final UserMapper userMapper;
     private final NotificationService notificationService;
+    private final AnnouncementReadState announcementReadState;
 
     private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
 
@@ -94,6 +98,7 @@ public class AnnouncementServiceImpl implements AnnouncementService {
     @Override
     public void delete(String id) {
         announcementMapper.deleteById(id);
+        announcementReadState.evict(id);
         // 删除相关的阅读记录（可选，也可以保留历史记录）
     }
 
@@ -162,32 +167,46 @@ public class AnnouncementServiceImpl implements AnnouncementService {
 
     @Override
     public List<AnnouncementVO> getUnreadByUser(String userId) {
-        List<AnnouncementPO> pos = announcementMapper.selectUnreadByUser(userId);
-        return CollectionUtils.isEmpty(pos)
-                ? Collections.emptyList()
-                : pos.stream().map(po -> {
-                    AnnouncementReadPO readPO = announcementReadMapper.selectByAnnouncementAndUser(po.getId(), userId);
-                    return toVO(po, readPO != null);
-                }).collect(Collectors.toList());
+        List<AnnouncementPO> active = announcementMapper.selectActiveAnnouncements();
+        if (CollectionUtils.isEmpty(active)) {
+            return Collections.emptyList();
+        }
+        Set<String> read = announcementReadState.readAmong(userId,
+                active.stream().map(AnnouncementPO::getId).collect(Collectors.toList()));
+        List<AnnouncementPO> pos = read != null
+                ? active.stream().filter(po -> !read.contains(po.getId())).collect(Collectors.toList())
+                : announcementMapper.selectUnreadByUser(userId);
+        return pos.stream().map(po -> toVO(po, false)).collect(Collectors.toList());
     }
 
     @Override
     public void markRead(String announcementId, String userId) {
-        AnnouncementReadPO readPO = announcementReadMapper.selectByAnnouncementAndUser(announcementId, userId);
-        if (readPO == null) {
-            readPO = new AnnouncementReadPO();
-            readPO.setId(idGeneratorApi.generateId());
-            readPO.setAnnouncementId(announcementId);
-            readPO.setUserId(userId);
-            readPO.setReadAt(DATE_FORMAT.format(new Date()));
+        Boolean firstRead = announcementReadState.markRead(announcementId, userId);
+        if (Boolean.FALSE.equals(firstRead)) {
+            return;
+        }
+        // 首次阅读或位图不可用时写入阅读记录，重复写入由唯一索引忽略
+        AnnouncementReadPO readPO = new AnnouncementReadPO();
+        readPO.setId(idGeneratorApi.generateId());
+        readPO.setAnnouncementId(announcementId);
+        readPO.setUserId(userId);
+        readPO.setReadAt(DATE_FORMAT.format(new Date()));
+        try {
             announcementReadMapper.insert(readPO);
+        } catch (RuntimeException e) {
+            // 阅读记录是位图的数据来源，写入失败时撤销已读位，重试时重新写入
+            if (Boolean.TRUE.equals(firstRead)) {
+                announcementReadState.unmarkRead(announcementId, userId);
+            }
+            throw e;
         }
     }
 
     @Override
     public AnnouncementStatsVO getStats(String announcementId) {
-        long totalUsers = userMapper.selectAll().size();
-        long readUsers = announcementReadMapper.countByAnnouncementId(announcementId);
+        long totalUsers = userMapper.countAll();
+        Long readers = announcementReadState.countReaders(announcementId);
+        long readUsers = readers != null ? readers : announcementReadMapper.countByAnnouncementId(announcementId);
 
         AnnouncementStatsVO stats = new AnnouncementStatsVO();
         stats.setAnnouncementId(announcementId);
@@ -197,19 +216,20 @@ public class AnnouncementServiceImpl implements AnnouncementService {
         return stats;
     }
 
+    @Override
+    public NotificationBroadcastVO getPushProgress(String announcementId) {
+        return notificationService.getBroadcastProgress(announcementId);
+    }
+
     /**
-     * 推送给所有用户（立即推送策略）.
+     * 推送给所有用户（立即推送策略），异步分页执行，进度以公告ID查询.
      */
     private void pushToAllUsers(AnnouncementPO po) {
-        List<com.pbad.auth.domain.po.UserPO> users = userMapper.selectAll();
-        for (com.pbad.auth.domain.po.UserPO user : users) {
-            NotificationPublishDTO dto = new NotificationPublishDTO();
-            dto.setUserId(user.getId());
-            dto.setTitle(po.getTitle());
-            dto.setContent(po.getContent());
-            dto.setPath(po.getLink());
-            notificationService.publish(dto);
-        }
+        NotificationPublishDTO dto = new NotificationPublishDTO();
+        dto.setTitle(po.getTitle());
+        dto.setContent(po.getContent());
+        dto.setPath(po.getLink());
+        notificationService.broadcast(po.getId(), dto);
     }
 
     private AnnouncementVO toVO(AnnouncementPO po, Boolean read) {
@@ -0,0 +1,273 @@
+package com.pbad.announcement.support;
+
+import com.pbad.announcement.mapper.AnnouncementMapper;
+import com.pbad.announcement.mapper.AnnouncementReadMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 公告阅读状态位图.
+ * <p>
+ * 每个用户在 Redis 哈希中分配一个从1开始的稠密序号，每条公告一个位图，第 N 位表示序号为 N 的用户已读；
+ * 第0位是哨兵，表示位图已完整加载。未读判断是对有效公告逐个取位（一次管道），阅读人数是位图的 BITCOUNT，
+ * 都不再扫描阅读记录。阅读记录表仍然保留，作为位图丢失后重建的数据来源.
+ * <p>
+ * 序号哈希中同时保存序号计数与纪元（epoch），位图键包含纪元：序号哈希丢失后重新生成纪元，
+ * 旧序号下的位图不再被使用，新位图从阅读记录重建。Redis 读写失败时返回null，由调用方改用数据库查询.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AnnouncementReadState {
+
+    private static final String ORDINAL_KEY = "phub:announcement:user-ordinal";
+    private static final String BITMAP_KEY_PREFIX = "phub:announcement:read:";
+    private static final String EPOCH_FIELD = "#epoch";
+    private static final int REBUILD_CHUNK_SIZE = 1000;
+
+    /**
+     * 取纪元（不存在时以 ARGV[1] 创建），ARGV[2] 非空时再取该用户的序号（不存在时分配），返回 [纪元, 序号]
+     */
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> SLOT_SCRIPT = new DefaultRedisScript<>(
+            "local epoch = redis.call('HGET', KEYS[1], '" + EPOCH_FIELD + "') "
+                    + "if not epoch then epoch = ARGV[1] redis.call('HSET', KEYS[1], '" + EPOCH_FIELD + "', epoch) end "
+                    + "if ARGV[2] == '' then return {epoch, '0'} end "
+                    + "local ordinal = redis.call('HGET', KEYS[1], ARGV[2]) "
+                    + "if not ordinal then "
+                    + "  ordinal = redis.call('HINCRBY', KEYS[1], '#seq', 1) "
+                    + "  redis.call('HSET', KEYS[1], ARGV[2], ordinal) "
+                    + "end "
+                    + "return {epoch, tostring(ordinal)}", List.class);
+
+    /**
+     * 按阅读记录置位（ARGV[2..] 为用户ID，必要时分配序号），ARGV[1] 为1时最后写入哨兵位
+     */
+    private static final DefaultRedisScript<Long> REBUILD_SCRIPT = new DefaultRedisScript<>(
+            "for i = 2, #ARGV do "
+                    + "  local ordinal = redis.call('HGET', KEYS[1], ARGV[i]) "
+                    + "  if not ordinal then "
+                    + "    ordinal = redis.call('HINCRBY', KEYS[1], '#seq', 1) "
+                    + "    redis.call('HSET', KEYS[1], ARGV[i], ordinal) "
+                    + "  end "
+                    + "  redis.call('SETBIT', KEYS[2], tonumber(ordinal), 1) "
+                    + "end "
+                    + "if ARGV[1] == '1' then redis.call('SETBIT', KEYS[2], 0, 1) end "
+                    + "return #ARGV - 1", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final AnnouncementReadMapper announcementReadMapper;
+    private final AnnouncementMapper announcementMapper;
+
+    /**
+     * 在给定公告中查出用户已读的公告.
+     *
+     * @param userId          用户ID
+     * @param announcementIds 公告ID（通常为当前有效公告）
+     * @return 已读公告ID；读取失败时返回null
+     */
+    public Set<String> readAmong(String userId, List<String> announcementIds) {
+        if (announcementIds.isEmpty()) {
+            return Collections.emptySet();
+        }
+        try {
+            String[] slot = slot(userId);
+            long ordinal = Long.parseLong(slot[1]);
+            List<Object> bits = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                for (String announcementId : announcementIds) {
+                    String key = bitmapKey(slot[0], announcementId);
+                    conn.getBit(key, 0);
+                    conn.getBit(key, ordinal);
+                }
+                return null;
+            });
+            Set<String> read = new HashSet<>();
+            for (int i = 0; i < announcementIds.size(); i++) {
+                String announcementId = announcementIds.get(i);
+                boolean loaded = Boolean.TRUE.equals(bits.get(i * 2));
+                boolean bit = Boolean.TRUE.equals(bits.get(i * 2 + 1));
+                if (!loaded) {
+                    String key = bitmapKey(slot[0], announcementId);
+                    rebuild(key, announcementId);
+                    bit = Boolean.TRUE.equals(redisTemplate.opsForValue().getBit(key, ordinal));
+                }
+                if (bit) {
+                    read.add(announcementId);
+                }
+            }
+            return read;
+        } catch (Exception e) {
+            log.warn("读取用户 {} 的公告阅读状态失败: {}", userId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 标记用户已读.
+     *
+     * @param announcementId 公告ID
+     * @param userId         用户ID
+     * @return 本次由未读变为已读返回true，之前已读返回false；写入失败时返回null
+     */
+    public Boolean markRead(String announcementId, String userId) {
+        try {
+            String[] slot = slot(userId);
+            String key = bitmapKey(slot[0], announcementId);
+            ensureLoaded(key, announcementId);
+            Boolean previous = redisTemplate.opsForValue().setBit(key, Long.parseLong(slot[1]), true);
+            return !Boolean.TRUE.equals(previous);
+        } catch (Exception e) {
+            log.warn("写入用户 {} 的公告阅读状态失败: announcementId={}, {}", userId, announcementId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 撤销本次置位（阅读记录写入失败时调用），使位图与阅读记录保持一致.
+     *
+     * @param announcementId 公告ID
+     * @param userId         用户ID
+     */
+    public void unmarkRead(String announcementId, String userId) {
+        try {
+            String[] slot = slot(userId);
+            redisTemplate.opsForValue().setBit(bitmapKey(slot[0], announcementId), Long.parseLong(slot[1]), false);
+        } catch (Exception e) {
+            // 清除失败时删除位图，下次读取时由阅读记录重建
+            log.warn("撤销用户 {} 的公告阅读状态失败，删除位图: announcementId={}, {}", userId, announcementId, e.getMessage());
+            evict(announcementId);
+        }
+    }
+
+    /**
+     * 统计公告的已读人数.
+     *
+     * @param announcementId 公告ID
+     * @return 已读人数；读取失败时返回null
+     */
+    public Long countReaders(String announcementId) {
+        try {
+            String key = bitmapKey(slot(null)[0], announcementId);
+            ensureLoaded(key, announcementId);
+            Long count = redisTemplate.execute((RedisCallback<Long>) connection ->
+                    ((StringRedisConnection) connection).bitCount(key));
+            // 去掉哨兵位
+            return count == null ? null : Math.max(0, count - 1);
+        } catch (Exception e) {
+            log.warn("统计公告 {} 的已读人数失败: {}", announcementId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 删除公告的位图.
+     *
+     * @param announcementId 公告ID
+     */
+    public void evict(String announcementId) {
+        try {
+            redisTemplate.delete(bitmapKey(slot(null)[0], announcementId));
+        } catch (Exception e) {
+            log.warn("删除公告 {} 的阅读位图失败: {}", announcementId, e.getMessage());
+        }
+    }
+
+    /**
+     * 在事务提交后清除已删除用户在全部公告位图中的已读位并释放其序号（序号不复用）；无事务时立即清除.
+     *
+     * @param userId 用户ID
+     */
+    public void forgetUserAfterCommit(String userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            forgetUser(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                forgetUser(userId);
+            }
+        });
+    }
+
+    private void forgetUser(String userId) {
+        try {
+            Object ordinal = redisTemplate.opsForHash().get(ORDINAL_KEY, userId);
+            if (ordinal == null) {
+                return;
+            }
+            String epoch = slot(null)[0];
+            long offset = Long.parseLong(ordinal.toString());
+            List<String> announcementIds = announcementMapper.selectAllIds();
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                for (String announcementId : announcementIds) {
+                    conn.setBit(bitmapKey(epoch, announcementId), offset, false);
+                }
+                conn.hDel(ORDINAL_KEY, userId);
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("清除用户 {} 的公告阅读状态失败: {}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * 返回 [纪元, 用户序号]，userId 为空时只取纪元.
+     */
+    @SuppressWarnings("unchecked")
+    private String[] slot(String userId) {
+        List<Object> result = redisTemplate.execute(SLOT_SCRIPT, Collections.singletonList(ORDINAL_KEY),
+                String.valueOf(System.currentTimeMillis()), userId == null ? "" : userId);
+        if (result == null || result.size() < 2) {
+            throw new IllegalStateException("分配用户序号失败");
+        }
+        return new String[]{String.valueOf(result.get(0)), String.valueOf(result.get(1))};
+    }
+
+    private void ensureLoaded(String key, String announcementId) {
+        if (!Boolean.TRUE.equals(redisTemplate.opsForValue().getBit(key, 0))) {
+            rebuild(key, announcementId);
+        }
+    }
+
+    /**
+     * 由阅读记录重建位图，分块执行，全部写完后才写入哨兵位.
+     */
+    private void rebuild(String key, String announcementId) {
+        List<String> userIds = announcementReadMapper.selectUserIdsByAnnouncementId(announcementId);
+        int from = 0;
+        do {
+            int to = Math.min(from + REBUILD_CHUNK_SIZE, userIds.size());
+            List<String> args = new ArrayList<>(to - from + 1);
+            args.add(to == userIds.size() ? "1" : "0");
+            args.addAll(userIds.subList(from, to));
+            redisTemplate.execute(REBUILD_SCRIPT, Arrays.asList(ORDINAL_KEY, key), args.toArray());
+            from = to;
+        } while (from < userIds.size());
+        log.debug("重建公告阅读位图: announcementId={}, 已读人数={}", announcementId, userIds.size());
+    }
+
+    private static String bitmapKey(String epoch, String announcementId) {
+        return BITMAP_KEY_PREFIX + epoch + ":" + announcementId;
+    }
+}
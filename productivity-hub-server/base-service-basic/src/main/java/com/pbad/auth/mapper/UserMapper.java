@@ -34,6 +34,22 @@ public interface UserMapper {
      */
     List<UserPO> selectAll();
 
+    /**
+     * 按主键顺序分页查询用户ID（键集分页，配合主键索引不随页数变慢）
+     *
+     * @param lastId 上一页最后一个用户ID，为空表示第一页
+     * @param limit  每页数量
+     * @return 用户ID列表
+     */
+    List<String> selectIdsAfter(@Param("lastId") String lastId, @Param("limit") int limit);
+
+    /**
+     * 统计用户总数
+     *
+     * @return 用户数
+     */
+    long countAll();
+
     /**
      * 更新用户密码
      *
@@ -1,6 +1,7 @@
 package com.pbad.auth.service.impl;
 
 import com.alibaba.fastjson.JSON;
+import com.pbad.announcement.support.AnnouncementReadState;
 import com.pbad.auth.domain.dto.UserCreateDTO;
 import com.pbad.auth.domain.po.UserPO;
 import com.pbad.auth.domain.vo.ManagedUserVO;
@@ -41,6 +42,7 @@ public class UserManagementServiceImpl implements UserManagementService {
     private final IdGeneratorApi idGeneratorApi;
     private final JdbcTemplate jdbcTemplate;
     private final UserRoleUtil userRoleUtil;
+    private final AnnouncementReadState announcementReadState;
 
     @Override
     @Transactional(readOnly = true)
@@ -196,6 +198,7 @@ public class UserManagementServiceImpl implements UserManagementService {
 
             // 10. 删除公告阅读记录
             jdbcTemplate.update("DELETE FROM announcement_read WHERE user_id = ?", userId);
+            announcementReadState.forgetUserAfterCommit(userId);
             log.debug("已删除公告阅读记录，用户ID: {}", userId);
 
             // 11. 删除代码生成器相关数据
@@ -24,6 +24,14 @@ public interface BookmarkUrlService {
      */
     List<BookmarkGroupVO> getUrlGroups();
 
+    /**
+     * 获取指定用户的所有网址（按标签分组），用于无请求上下文的缓存预热
+     *
+     * @param userId 用户ID
+     * @return 分组后的网址列表
+     */
+    List<BookmarkGroupVO> getUrlGroups(String userId);
+
     /**
      * 根据标签ID获取网址列表
      *
@@ -16,9 +16,11 @@ import com.pbad.bookmark.mapper.BookmarkTagMapper;
 import com.pbad.bookmark.mapper.BookmarkUrlMapper;
 import com.pbad.bookmark.mapper.BookmarkUrlTagMapper;
 import com.pbad.bookmark.service.BookmarkUrlService;
+import com.pbad.cache.service.UserCacheService;
 import com.pbad.generator.api.IdGeneratorApi;
 import common.exception.BusinessException;
 import common.util.RedisUtil;
+import common.util.UserCacheKeyRegistry;
 import common.web.context.RequestUserContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -79,11 +81,17 @@ public class BookmarkUrlServiceImpl implements BookmarkUrlService {
     private final BookmarkUrlTagMapper urlTagMapper;
     private final IdGeneratorApi idGeneratorApi;
     private final RedisUtil redisUtil;
+    private final UserCacheKeyRegistry cacheKeyRegistry;
 
     @Override
     @Transactional(readOnly = true)
     public List<BookmarkGroupVO> getUrlGroups() {
-        String userId = getCurrentUserId();
+        return getUrlGroups(getCurrentUserId());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BookmarkGroupVO> getUrlGroups(String userId) {
         List<BookmarkGroupVO> cachedGroups = getCachedGroups(userId);
         if (cachedGroups != null) {
             return cachedGroups;
@@ -412,8 +420,8 @@ public class BookmarkUrlServiceImpl implements BookmarkUrlService {
     private void cacheBookmarkData(List<BookmarkGroupVO> groups, List<BookmarkUrlVO> urls, String userId) {
         String urlCacheKey = getUrlCacheKey(userId);
         String groupCacheKey = getGroupCacheKey(userId);
-        redisUtil.defaultSetKeyNoExpiration(urlCacheKey, urls);
-        redisUtil.defaultSetKeyNoExpiration(groupCacheKey, groups);
+        cacheKeyRegistry.set(userId, UserCacheService.CACHE_MODULE_BOOKMARK, urlCacheKey, urls);
+        cacheKeyRegistry.set(userId, UserCacheService.CACHE_MODULE_BOOKMARK, groupCacheKey, groups);
     }
 
     private List<BookmarkUrlVO> loadAllUrlVOs(String userId) {
@@ -0,0 +1,48 @@
+package com.pbad.cache.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 用户缓存预热配置属性.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.cache.warm-up")
+public class UserCacheWarmUpProperties {
+
+    /**
+     * 预热线程池核心线程数
+     */
+    private int corePoolSize = 2;
+
+    /**
+     * 预热线程池最大线程数
+     */
+    private int maxPoolSize = 4;
+
+    /**
+     * 预热线程池队列容量，队列满时放弃本次预热（缓存在首次访问时回源加载）
+     */
+    private int queueCapacity = 200;
+
+    /**
+     * 已预热状态的保留时间（分钟），过期后再次登录会重新预热
+     */
+    private int loadedTtlMinutes = 30;
+
+    /**
+     * 最多记录的已预热用户数，超出时淘汰最早的记录
+     */
+    private int maxTrackedUsers = 10000;
+
+    /**
+     * 单模块加载锁的分段数
+     */
+    private int lockStripes = 64;
+}
@@ -10,6 +10,13 @@ package com.pbad.cache.service;
  */
 public interface UserCacheService {
 
+    /**
+     * 缓存模块名称常量
+     */
+    String CACHE_MODULE_CONFIG = "config";
+    String CACHE_MODULE_BOOKMARK = "bookmark";
+    String CACHE_MODULE_HOME = "home";
+
     /**
      * 加载指定用户的所有缓存模块.
      * 该方法会异步执行，不会阻塞调用线程.
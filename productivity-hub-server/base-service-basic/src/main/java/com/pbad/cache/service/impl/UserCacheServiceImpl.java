@@ -1,25 +1,34 @@
 package com.pbad.cache.service.impl;
 
 import com.pbad.bookmark.service.BookmarkUrlService;
+import com.pbad.cache.config.UserCacheWarmUpProperties;
 import com.pbad.cache.service.UserCacheService;
 import com.pbad.config.service.ConfigService;
 import com.pbad.home.service.HomeService;
-import common.util.RedisUtil;
-import common.web.context.RequestUser;
-import common.web.context.RequestUserContext;
-import lombok.RequiredArgsConstructor;
+import common.util.UserCacheKeyRegistry;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * 用户缓存服务实现类.
  * 统一管理用户级缓存模块的加载、清理等操作.
+ * <p>
+ * 登录后的缓存预热在独立的有界线程池中执行，各模块并行加载，用户ID显式传入加载器而不依赖线程上下文；
+ * 同一用户的并发预热合并为同一个进行中的任务，已预热状态使用有容量上限、会过期的记录.
  *
  * @author: pbad
  * @date: 2025-01-XX
@@ -27,83 +36,104 @@ import java.util.concurrent.locks.ReentrantLock;
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class UserCacheServiceImpl implements UserCacheService {
 
     private final ConfigService configService;
     private final BookmarkUrlService bookmarkUrlService;
     private final HomeService homeService;
-    private final RedisUtil redisUtil;
+    private final UserCacheKeyRegistry cacheKeyRegistry;
+    private final UserCacheWarmUpProperties properties;
 
     /**
-     * 缓存模块名称常量
+     * 预热线程池（不注册为 Spring Bean，避免接管 {@code @Async} 的默认执行器）
      */
-    public static final String CACHE_MODULE_CONFIG = "config";
-    public static final String CACHE_MODULE_BOOKMARK = "bookmark";
-    public static final String CACHE_MODULE_HOME = "home";
+    private final ThreadPoolTaskExecutor warmUpExecutor;
 
     /**
-     * 用户缓存加载锁，防止并发重复加载
+     * 进行中的预热任务，同一用户的并发预热共享同一个任务，任务结束即移除
      */
-    private final Map<String, ReentrantLock> userCacheLocks = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
 
     /**
-     * 已加载缓存的用户集合（用于快速判断）
+     * 已预热的用户及预热时间（按访问顺序，超出容量淘汰最早的记录）
      */
-    private final Set<String> loadedUsers = ConcurrentHashMap.newKeySet();
+    private final LinkedHashMap<String, Long> loadedUsers;
+
+    /**
+     * 单模块加载的分段锁，防止同一用户的同一模块被并发重复加载
+     */
+    private final ReentrantLock[] moduleLocks;
 
     /**
      * 缓存模块的加载器映射
      */
-    private final Map<String, CacheLoader> cacheLoaders = createCacheLoaders();
+    private final Map<String, CacheLoader> cacheLoaders;
+
+    public UserCacheServiceImpl(ConfigService configService,
+                                BookmarkUrlService bookmarkUrlService,
+                                HomeService homeService,
+                                UserCacheKeyRegistry cacheKeyRegistry,
+                                UserCacheWarmUpProperties properties) {
+        this.configService = configService;
+        this.bookmarkUrlService = bookmarkUrlService;
+        this.homeService = homeService;
+        this.cacheKeyRegistry = cacheKeyRegistry;
+        this.properties = properties;
+
+        int maxTrackedUsers = Math.max(1, properties.getMaxTrackedUsers());
+        this.loadedUsers = new LinkedHashMap<String, Long>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > maxTrackedUsers;
+            }
+        };
+        this.moduleLocks = new ReentrantLock[Math.max(1, properties.getLockStripes())];
+        for (int i = 0; i < moduleLocks.length; i++) {
+            moduleLocks[i] = new ReentrantLock();
+        }
+
+        this.warmUpExecutor = new ThreadPoolTaskExecutor();
+        this.warmUpExecutor.setCorePoolSize(properties.getCorePoolSize());
+        this.warmUpExecutor.setMaxPoolSize(Math.max(properties.getCorePoolSize(), properties.getMaxPoolSize()));
+        this.warmUpExecutor.setQueueCapacity(properties.getQueueCapacity());
+        this.warmUpExecutor.setThreadNamePrefix("user-cache-warmup-");
+        // 队列满时放弃预热，不能退化为在登录线程执行
+        this.warmUpExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        this.warmUpExecutor.setWaitForTasksToCompleteOnShutdown(false);
+        this.warmUpExecutor.initialize();
+
+        this.cacheLoaders = createCacheLoaders();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        warmUpExecutor.shutdown();
+    }
 
     /**
      * 初始化缓存加载器映射，兼容 JDK8 环境。
      */
     private Map<String, CacheLoader> createCacheLoaders() {
-        Map<String, CacheLoader> loaders = new ConcurrentHashMap<>();
+        Map<String, CacheLoader> loaders = new LinkedHashMap<>();
 
         loaders.put(CACHE_MODULE_CONFIG, userId -> {
-            try {
-                // 配置服务不需要用户上下文，直接调用
-                configService.getConfigList(userId);
-                log.debug("[UserCache] 用户 {} 的配置缓存加载完成", userId);
-            } catch (Exception e) {
-                log.error("[UserCache] 用户 {} 的配置缓存加载失败: {}", userId, e.getMessage(), e);
-                throw e;
-            }
+            configService.getConfigList(userId);
+            log.debug("[UserCache] 用户 {} 的配置缓存加载完成", userId);
         });
 
         loaders.put(CACHE_MODULE_BOOKMARK, userId -> {
-            try {
-                // 书签服务需要用户上下文，需要临时设置
-                RequestUserContext.set(RequestUser.builder().userId(userId).username("system").build());
-                try {
-                    bookmarkUrlService.getUrlGroups();
-                    log.debug("[UserCache] 用户 {} 的书签缓存加载完成", userId);
-                } finally {
-                    // 确保清理上下文
-                    RequestUserContext.clear();
-                }
-            } catch (Exception e) {
-                log.error("[UserCache] 用户 {} 的书签缓存加载失败: {}", userId, e.getMessage(), e);
-                throw e;
-            }
+            bookmarkUrlService.getUrlGroups(userId);
+            log.debug("[UserCache] 用户 {} 的书签缓存加载完成", userId);
         });
 
         loaders.put(CACHE_MODULE_HOME, userId -> {
-            try {
-                // 首页服务（天气和每日一签）预加载
-                // 使用默认位置（郑州）进行预加载，用户首次访问天气接口时会根据实际位置更新
-                Double defaultLatitude = 34.7466;
-                Double defaultLongitude = 113.6254;
-                String defaultCityName = "郑州";
-                homeService.preloadUserCache(userId, defaultLatitude, defaultLongitude, defaultCityName, null);
-                log.debug("[UserCache] 用户 {} 的首页缓存（天气和每日一签）加载完成", userId);
-            } catch (Exception e) {
-                log.error("[UserCache] 用户 {} 的首页缓存加载失败: {}", userId, e.getMessage(), e);
-                throw e;
-            }
+            // 首页服务（天气和每日一签）预加载
+            // 使用默认位置（郑州）进行预加载，用户首次访问天气接口时会根据实际位置更新
+            Double defaultLatitude = 34.7466;
+            Double defaultLongitude = 113.6254;
+            String defaultCityName = "郑州";
+            homeService.preloadUserCache(userId, defaultLatitude, defaultLongitude, defaultCityName, null);
+            log.debug("[UserCache] 用户 {} 的首页缓存（天气和每日一签）加载完成", userId);
         });
 
         return loaders;
@@ -118,59 +148,67 @@ public class UserCacheServiceImpl implements UserCacheService {
     }
 
     @Override
-    @Async
     public void loadUserCache(String userId) {
         if (userId == null || userId.isEmpty()) {
             log.warn("[UserCache] 用户ID为空，跳过缓存加载");
             return;
         }
+        warmUp(userId);
+    }
 
-        // 异步方法在新线程中执行，需要设置用户上下文
-        RequestUserContext.set(RequestUser.builder().userId(userId).username("system").build());
-        try {
-            // 获取用户专属的锁
-            ReentrantLock lock = userCacheLocks.computeIfAbsent(userId, k -> new ReentrantLock());
-            
-            // 如果已经加载过，直接返回
-            if (loadedUsers.contains(userId)) {
-                log.debug("[UserCache] 用户 {} 的缓存已加载，跳过", userId);
-                return;
-            }
+    /**
+     * 提交用户缓存预热，立即返回；同一用户已有进行中的预热时返回同一个任务.
+     *
+     * @param userId 用户ID
+     * @return 预热任务
+     */
+    CompletableFuture<Void> warmUp(String userId) {
+        if (isLoaded(userId)) {
+            log.debug("[UserCache] 用户 {} 的缓存已加载，跳过", userId);
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> created = new CompletableFuture<>();
+        CompletableFuture<Void> existing = inFlight.putIfAbsent(userId, created);
+        if (existing != null) {
+            log.debug("[UserCache] 用户 {} 的缓存正在加载，合并本次请求", userId);
+            return existing;
+        }
 
-            lock.lock();
-            try {
-                // 双重检查，防止并发
-                if (loadedUsers.contains(userId)) {
-                    log.debug("[UserCache] 用户 {} 的缓存已加载（双重检查），跳过", userId);
-                    return;
-                }
+        log.info("[UserCache] 开始加载用户 {} 的缓存", userId);
+        long startTime = System.currentTimeMillis();
+        AtomicBoolean rejected = new AtomicBoolean();
+        List<CompletableFuture<Void>> modules = new ArrayList<>(cacheLoaders.size());
+        for (Map.Entry<String, CacheLoader> entry : cacheLoaders.entrySet()) {
+            modules.add(submitModule(userId, entry.getKey(), entry.getValue(), rejected));
+        }
+        CompletableFuture.allOf(modules.toArray(new CompletableFuture[0])).whenComplete((ignored, e) -> {
+            if (rejected.get()) {
+                log.warn("[UserCache] 预热线程池已满，用户 {} 的部分缓存未预热，将在首次访问时加载", userId);
+            } else {
+                markLoaded(userId);
+                log.info("[UserCache] 用户 {} 的缓存加载完成，耗时 {} ms", userId, System.currentTimeMillis() - startTime);
+            }
+            inFlight.remove(userId, created);
+            created.complete(null);
+        });
+        return created;
+    }
 
-                log.info("[UserCache] 开始加载用户 {} 的缓存", userId);
-                long startTime = System.currentTimeMillis();
-
-                // 按顺序加载各个缓存模块
-                for (Map.Entry<String, CacheLoader> entry : cacheLoaders.entrySet()) {
-                    String module = entry.getKey();
-                    CacheLoader loader = entry.getValue();
-                    try {
-                        loader.load(userId);
-                    } catch (Exception e) {
-                        log.error("[UserCache] 用户 {} 的 {} 模块缓存加载失败，继续加载其他模块", userId, module, e);
-                        // 继续加载其他模块，不中断整个流程
-                    }
+    /**
+     * 提交单个模块的加载，失败只记录日志，不影响其他模块.
+     */
+    private CompletableFuture<Void> submitModule(String userId, String module, CacheLoader loader, AtomicBoolean rejected) {
+        try {
+            return CompletableFuture.runAsync(() -> {
+                try {
+                    loader.load(userId);
+                } catch (Exception e) {
+                    log.error("[UserCache] 用户 {} 的 {} 模块缓存加载失败，继续加载其他模块", userId, module, e);
                 }
-
-                long duration = System.currentTimeMillis() - startTime;
-                loadedUsers.add(userId);
-                log.info("[UserCache] 用户 {} 的缓存加载完成，耗时 {} ms", userId, duration);
-            } finally {
-                lock.unlock();
-                // 清理锁（保留一段时间后清理，避免频繁创建）
-                // 这里简化处理，直接保留锁对象
-            }
-        } finally {
-            // 确保清理用户上下文
-            RequestUserContext.clear();
+            }, warmUpExecutor.getThreadPoolExecutor());
+        } catch (RejectedExecutionException e) {
+            rejected.set(true);
+            return CompletableFuture.completedFuture(null);
         }
     }
 
@@ -191,8 +229,8 @@ public class UserCacheServiceImpl implements UserCacheService {
             return;
         }
 
-        // 设置用户上下文（某些服务需要）
-        RequestUserContext.set(RequestUser.builder().userId(userId).username("system").build());
+        ReentrantLock lock = stripe(userId);
+        lock.lock();
         try {
             loader.load(userId);
             log.info("[UserCache] 用户 {} 的 {} 模块缓存加载完成", userId, cacheModule);
@@ -200,8 +238,7 @@ public class UserCacheServiceImpl implements UserCacheService {
             log.error("[UserCache] 用户 {} 的 {} 模块缓存加载失败: {}", userId, cacheModule, e.getMessage(), e);
             throw new RuntimeException("缓存模块加载失败: " + cacheModule, e);
         } finally {
-            // 确保清理上下文
-            RequestUserContext.clear();
+            lock.unlock();
         }
     }
 
@@ -219,11 +256,8 @@ public class UserCacheServiceImpl implements UserCacheService {
         clearUserCacheModule(userId, CACHE_MODULE_BOOKMARK);
         clearUserCacheModule(userId, CACHE_MODULE_HOME);
 
-        // 从已加载集合中移除
-        loadedUsers.remove(userId);
-        
-        // 清理锁
-        userCacheLocks.remove(userId);
+        // 从已加载记录中移除
+        unmarkLoaded(userId);
 
         log.info("[UserCache] 用户 {} 的所有缓存清理完成", userId);
     }
@@ -240,41 +274,26 @@ public class UserCacheServiceImpl implements UserCacheService {
         }
 
         try {
+            int removed;
             switch (cacheModule) {
                 case CACHE_MODULE_CONFIG:
-                    String configKey = String.format("phub:config:list:%s", userId);
-                    redisUtil.delete(configKey);
-                    log.debug("[UserCache] 用户 {} 的配置缓存已清理", userId);
+                    removed = cacheKeyRegistry.invalidate(userId, cacheModule,
+                            String.format("phub:config:list:%s", userId));
                     break;
                 case CACHE_MODULE_BOOKMARK:
-                    String urlKey = String.format("phub:bookmark:urls:%s", userId);
-                    String groupKey = String.format("phub:bookmark:groups:%s", userId);
-                    redisUtil.delete(urlKey);
-                    redisUtil.delete(groupKey);
-                    log.debug("[UserCache] 用户 {} 的书签缓存已清理", userId);
+                    removed = cacheKeyRegistry.invalidate(userId, cacheModule,
+                            String.format("phub:bookmark:urls:%s", userId),
+                            String.format("phub:bookmark:groups:%s", userId));
                     break;
                 case CACHE_MODULE_HOME:
-                    // 清理首页缓存（天气和每日一签）
-                    // 使用通配符删除所有相关的缓存key
-                    String weatherPattern = String.format("phub:home:weather:%s:*", userId);
-                    String dailyQuotePattern = String.format("phub:home:dailyQuote:%s:*", userId);
-                    Set<String> weatherKeys = redisUtil.keys(weatherPattern);
-                    Set<String> dailyQuoteKeys = redisUtil.keys(dailyQuotePattern);
-                    if (weatherKeys != null) {
-                        for (String key : weatherKeys) {
-                            redisUtil.delete(key);
-                        }
-                    }
-                    if (dailyQuoteKeys != null) {
-                        for (String key : dailyQuoteKeys) {
-                            redisUtil.delete(key);
-                        }
-                    }
-                    log.debug("[UserCache] 用户 {} 的首页缓存（天气和每日一签）已清理", userId);
+                    // 天气和每日一签按日期分键，通过索引定位，不再扫描键空间
+                    removed = cacheKeyRegistry.invalidate(userId, cacheModule);
                     break;
                 default:
                     log.warn("[UserCache] 未知的缓存模块: {}", cacheModule);
+                    return;
             }
+            log.debug("[UserCache] 用户 {} 的 {} 模块缓存已清理，键数: {}", userId, cacheModule, removed);
         } catch (Exception e) {
             log.error("[UserCache] 用户 {} 的 {} 模块缓存清理失败: {}", userId, cacheModule, e.getMessage(), e);
         }
@@ -285,7 +304,37 @@ public class UserCacheServiceImpl implements UserCacheService {
         if (userId == null || userId.isEmpty()) {
             return false;
         }
-        return loadedUsers.contains(userId);
+        return isLoaded(userId);
+    }
+
+    private boolean isLoaded(String userId) {
+        synchronized (loadedUsers) {
+            Long loadedAt = loadedUsers.get(userId);
+            if (loadedAt == null) {
+                return false;
+            }
+            if (System.currentTimeMillis() - loadedAt > TimeUnit.MINUTES.toMillis(properties.getLoadedTtlMinutes())) {
+                loadedUsers.remove(userId);
+                return false;
+            }
+            return true;
+        }
+    }
+
+    private void markLoaded(String userId) {
+        synchronized (loadedUsers) {
+            loadedUsers.put(userId, System.currentTimeMillis());
+        }
+    }
+
+    private void unmarkLoaded(String userId) {
+        synchronized (loadedUsers) {
+            loadedUsers.remove(userId);
+        }
+    }
+
+    private ReentrantLock stripe(String userId) {
+        return moduleLocks[(userId.hashCode() & Integer.MAX_VALUE) % moduleLocks.length];
     }
 }
 
@@ -3,6 +3,7 @@ package com.pbad.config.service.impl;
 import com.alibaba.fastjson.JSON;
 import com.pbad.auth.domain.po.UserPO;
 import com.pbad.auth.mapper.UserMapper;
+import com.pbad.cache.service.UserCacheService;
 import com.pbad.config.domain.dto.ConfigCreateOrUpdateDTO;
 import com.pbad.config.domain.dto.ConfigUpdateDTO;
 import com.pbad.config.domain.po.ConfigItemPO;
@@ -13,6 +14,7 @@ import com.pbad.config.mapper.UserConfigMapper;
 import com.pbad.config.service.ConfigService;
 import com.pbad.generator.api.IdGeneratorApi;
 import common.util.RedisUtil;
+import common.util.UserCacheKeyRegistry;
 import common.exception.BusinessException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,6 +29,7 @@ import org.springframework.transaction.support.TransactionTemplate;
 import java.util.List;
 import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -47,6 +50,7 @@ public class ConfigServiceImpl implements ConfigService {
     private final UserMapper userMapper;
     private final IdGeneratorApi idGeneratorApi;
     private final RedisUtil redisUtil;
+    private final UserCacheKeyRegistry cacheKeyRegistry;
     private final PlatformTransactionManager transactionManager;
     
     @Lazy
@@ -57,6 +61,7 @@ public class ConfigServiceImpl implements ConfigService {
     private static final String TEMPLATE_USER_ID = "system";
     private static final String ADMIN_ROLE = "admin";
     private static final String USER_CONFIG_CACHE_KEY = "phub:config:list:%s";
+    private static final long CONFIG_CACHE_TTL_SECONDS = 3600;
 
     @Override
     @Transactional(readOnly = true)
@@ -73,7 +78,8 @@ public class ConfigServiceImpl implements ConfigService {
         }
 
         List<ConfigItemVO> configList = loadConfigListFromDb(userId);
-        redisUtil.defaultSetKey(cacheKey, configList);
+        cacheKeyRegistry.set(userId, UserCacheService.CACHE_MODULE_CONFIG, cacheKey, configList,
+                CONFIG_CACHE_TTL_SECONDS, TimeUnit.SECONDS);
         return configList;
     }
 
@@ -415,7 +421,8 @@ public class ConfigServiceImpl implements ConfigService {
 
     private void refreshUserConfigCache(String userId) {
         List<ConfigItemVO> latestList = loadConfigListFromDb(userId);
-        redisUtil.defaultSetKey(buildCacheKey(userId), latestList);
+        cacheKeyRegistry.set(userId, UserCacheService.CACHE_MODULE_CONFIG, buildCacheKey(userId), latestList,
+                CONFIG_CACHE_TTL_SECONDS, TimeUnit.SECONDS);
     }
 }
 
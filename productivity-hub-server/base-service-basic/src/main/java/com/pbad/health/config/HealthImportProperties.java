@@ -0,0 +1,28 @@
+package com.pbad.health.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 健康记录导入配置属性.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.health.import")
+public class HealthImportProperties {
+
+    /**
+     * 每个分块的行数，一个分块在一个独立事务内写入
+     */
+    private int chunkSize = 1000;
+
+    /**
+     * 单条多行INSERT语句包含的行数
+     */
+    private int rowsPerStatement = 200;
+}
@@ -0,0 +1,43 @@
+package com.pbad.health.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 健康统计并发查询配置属性.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.health.statistics")
+public class HealthStatisticsProperties {
+
+    /**
+     * 是否启用并发查询（关闭后各统计分区在请求线程内顺序执行）
+     */
+    private boolean asyncEnabled = true;
+
+    /**
+     * 查询线程池核心线程数
+     */
+    private int corePoolSize = 8;
+
+    /**
+     * 查询线程池最大线程数
+     */
+    private int maxPoolSize = 16;
+
+    /**
+     * 查询线程池队列容量，队列满时由请求线程直接执行
+     */
+    private int queueCapacity = 200;
+
+    /**
+     * 单次统计请求的整体超时时间（毫秒），超时的分区降级为空
+     */
+    private long timeoutMillis = 3000;
+}
@@ -1,7 +1,9 @@
 package com.pbad.health.controller;
 
+import com.pbad.health.domain.dto.HealthTrendSeriesQueryDTO;
 import com.pbad.health.domain.dto.WeightStatisticsQueryDTO;
 import com.pbad.health.domain.dto.WeightTrendQueryDTO;
+import com.pbad.health.domain.vo.HealthTrendSeriesVO;
 import com.pbad.health.domain.vo.WeightStatisticsVO;
 import com.pbad.health.domain.vo.WeightTrendVO;
 import com.pbad.health.service.HealthWeightStatisticsService;
@@ -70,5 +72,24 @@ public class HealthWeightStatisticsController extends BaseHealthController {
             return ApiResponse.fail("查询体重趋势数据失败：" + e.getMessage());
         }
     }
-}
 
+    /**
+     * 查询长周期体重趋势序列（列式返回，超过点数上限时降采样）.
+     *
+     * @param queryDTO 查询参数
+     * @return 趋势序列
+     */
+    @GetMapping("/trend/series")
+    public ApiResponse<HealthTrendSeriesVO> getTrendSeries(HealthTrendSeriesQueryDTO queryDTO) {
+        try {
+            String userId = getCurrentUserId();
+            HealthTrendSeriesVO vo = statisticsService.getTrendSeries(queryDTO, userId);
+            return ApiResponse.ok(vo);
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("查询体重趋势序列失败", e);
+            return ApiResponse.fail("查询体重趋势序列失败：" + e.getMessage());
+        }
+    }
+}
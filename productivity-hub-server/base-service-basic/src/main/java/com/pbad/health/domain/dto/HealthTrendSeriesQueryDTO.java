@@ -0,0 +1,33 @@
+package com.pbad.health.domain.dto;
+
+import lombok.Data;
+
+/**
+ * 长周期趋势序列查询DTO.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+@Data
+public class HealthTrendSeriesQueryDTO {
+    /**
+     * 开始日期（yyyy-MM-dd），默认结束日期前一年
+     */
+    private String startDate;
+
+    /**
+     * 结束日期（yyyy-MM-dd），默认今天
+     */
+    private String endDate;
+
+    /**
+     * 返回的最大点数，默认500
+     */
+    private Integer maxPoints = 500;
+
+    /**
+     * 降采样方式：lttb（保留形状，默认）/ average（分桶平均）
+     */
+    private String sampling = "lttb";
+}
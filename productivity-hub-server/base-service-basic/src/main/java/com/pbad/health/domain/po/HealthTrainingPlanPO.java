@@ -72,5 +72,9 @@ public class HealthTrainingPlanPO {
      * 更新时间
      */
     private Date updatedAt;
-}
 
+    /**
+     * 计划进度（关联查询结果，非表字段）
+     */
+    private HealthTrainingPlanProgressPO progress;
+}
@@ -0,0 +1,67 @@
+package com.pbad.health.domain.po;
+
+import lombok.Data;
+
+import java.util.Date;
+
+/**
+ * 训练计划进度持久化对象（PO），对应 health_training_plan_progress 表.
+ * <p>
+ * 由运动记录的写入增量维护，读取计划时不再回查运动记录.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+@Data
+public class HealthTrainingPlanProgressPO {
+    /**
+     * 训练计划ID（主键）
+     */
+    private String planId;
+
+    /**
+     * 用户ID
+     */
+    private String userId;
+
+    /**
+     * 已完成训练次数（关联的运动记录数）
+     */
+    private Long sessionCount;
+
+    /**
+     * 累计运动时长（分钟）
+     */
+    private Long totalDurationMinutes;
+
+    /**
+     * 累计消耗卡路里
+     */
+    private Long totalCalories;
+
+    /**
+     * 有运动记录的天数
+     */
+    private Integer activeDays;
+
+    /**
+     * 截止最近一次运动日期的连续运动天数
+     */
+    private Integer currentStreakDays;
+
+    /**
+     * 最长连续运动天数
+     */
+    private Integer longestStreakDays;
+
+    /**
+     * 最近一次运动日期
+     */
+    private Date lastExerciseDate;
+
+    /**
+     * 更新时间
+     */
+    private Date updatedAt;
+}
@@ -0,0 +1,23 @@
+package com.pbad.health.domain.po;
+
+import lombok.Data;
+
+/**
+ * 趋势数据点 PO（按日）.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+@Data
+public class HealthTrendPointPO {
+    /**
+     * 日期（自1970-01-01起的天数）
+     */
+    private Integer epochDay;
+
+    /**
+     * 数值
+     */
+    private Double value;
+}
@@ -3,6 +3,7 @@ package com.pbad.health.domain.vo;
 import lombok.Data;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 /**
  * 健康数据概览VO.
@@ -34,6 +35,11 @@ public class HealthOverviewVO {
      */
     private DataCompleteness dataCompleteness;
 
+    /**
+     * 查询失败或超时而降级为空的分区（exercise/water/weight/dataCompleteness），为空表示数据完整
+     */
+    private List<String> degradedSections;
+
     @Data
     public static class ExerciseOverview {
         private Integer todayDuration;
@@ -0,0 +1,43 @@
+package com.pbad.health.domain.vo;
+
+import lombok.Data;
+
+/**
+ * 长周期趋势序列VO（列式结构，dates 与 values 按下标一一对应）.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+@Data
+public class HealthTrendSeriesVO {
+    /**
+     * 开始日期（yyyy-MM-dd）
+     */
+    private String startDate;
+
+    /**
+     * 结束日期（yyyy-MM-dd）
+     */
+    private String endDate;
+
+    /**
+     * 降采样前的数据点数
+     */
+    private Integer rawPoints;
+
+    /**
+     * 实际使用的降采样方式：none / lttb / average
+     */
+    private String sampling;
+
+    /**
+     * 日期列（yyyy-MM-dd）
+     */
+    private String[] dates;
+
+    /**
+     * 数值列
+     */
+    private double[] values;
+}
@@ -76,6 +76,32 @@ public class TrainingPlanVO {
      */
     private Integer totalCalories;
 
+    /**
+     * 累计运动时长（分钟，统计字段）
+     */
+    private Long totalDurationMinutes;
+
+    /**
+     * 有运动记录的天数（统计字段）
+     */
+    private Integer activeDays;
+
+    /**
+     * 当前连续运动天数（最近一次运动早于昨天时为0，统计字段）
+     */
+    private Integer currentStreakDays;
+
+    /**
+     * 最长连续运动天数（统计字段）
+     */
+    private Integer longestStreakDays;
+
+    /**
+     * 最近一次运动日期（统计字段）
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd", timezone = "GMT+8")
+    private Date lastExerciseDate;
+
     /**
      * 创建时间
      */
@@ -104,6 +104,15 @@ public interface HealthExerciseRecordMapper {
      */
     int batchDeleteByIds(@Param("ids") List<String> ids, @Param("userId") String userId);
 
+    /**
+     * 查询记录关联的训练计划ID（去重，用于批量删除后维护计划进度）
+     *
+     * @param ids    记录ID列表
+     * @param userId 用户ID
+     * @return 训练计划ID列表
+     */
+    List<String> selectTrainingPlanIdsByIds(@Param("ids") List<String> ids, @Param("userId") String userId);
+
     /**
      * 统计运动数据（按日期范围）
      *
@@ -197,5 +206,26 @@ public interface HealthExerciseRecordMapper {
             @Param("sortField") String sortField,
             @Param("sortOrder") String sortOrder
     );
-}
 
+    /**
+     * 查询日期范围内记录的去重键（仅返回id、运动日期、运动类型、训练计划ID，用于导入去重）
+     *
+     * @param userId    用户ID
+     * @param startDate 开始日期
+     * @param endDate   结束日期
+     * @return 运动记录列表
+     */
+    List<HealthExerciseRecordPO> selectImportKeys(
+            @Param("userId") String userId,
+            @Param("startDate") Date startDate,
+            @Param("endDate") Date endDate
+    );
+
+    /**
+     * 批量写入运动记录（多行INSERT，ID已存在时覆盖数据字段）
+     *
+     * @param records 运动记录列表
+     * @return 影响行数
+     */
+    int batchUpsert(@Param("records") List<HealthExerciseRecordPO> records);
+}
@@ -39,6 +39,21 @@ public interface HealthTrainingPlanMapper {
             @Param("planType") String planType
     );
 
+    /**
+     * 查询用户全部训练计划及其进度（单次关联查询）
+     *
+     * @param userId 用户ID
+     * @return 训练计划列表（progress 为空表示尚无进度）
+     */
+    List<HealthTrainingPlanPO> selectListWithProgress(@Param("userId") String userId);
+
+    /**
+     * 查询尚未生成进度的训练计划（仅返回id、user_id，用于启动时补齐进度）
+     *
+     * @return 训练计划列表
+     */
+    List<HealthTrainingPlanPO> selectWithoutProgress();
+
     /**
      * 统计关联的运动记录数
      *
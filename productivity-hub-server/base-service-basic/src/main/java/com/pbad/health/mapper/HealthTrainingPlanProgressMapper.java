@@ -0,0 +1,81 @@
+package com.pbad.health.mapper;
+
+import com.pbad.health.domain.po.HealthTrainingPlanProgressPO;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 训练计划进度Mapper接口.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+@Mapper
+public interface HealthTrainingPlanProgressMapper {
+
+    /**
+     * 追加一条运动记录的增量（仅当运动日期不早于最近一次运动日期时生效，连续天数随之推进）
+     *
+     * @param planId          计划ID
+     * @param userId          用户ID
+     * @param exerciseDate    运动日期
+     * @param durationMinutes 运动时长（分钟）
+     * @param caloriesBurned  消耗卡路里
+     * @return 影响行数（0表示进度行不存在或为补录的历史记录，需要重算）
+     */
+    int applyRecordAdded(
+            @Param("planId") String planId,
+            @Param("userId") String userId,
+            @Param("exerciseDate") Date exerciseDate,
+            @Param("durationMinutes") Integer durationMinutes,
+            @Param("caloriesBurned") Integer caloriesBurned
+    );
+
+    /**
+     * 查询计划进度
+     *
+     * @param planId 计划ID
+     * @param userId 用户ID
+     * @return 计划进度，不存在返回null
+     */
+    HealthTrainingPlanProgressPO selectByPlanId(@Param("planId") String planId, @Param("userId") String userId);
+
+    /**
+     * 汇总计划关联的运动记录（次数、时长、卡路里、最近运动日期）
+     *
+     * @param planId 计划ID
+     * @param userId 用户ID
+     * @return 汇总结果
+     */
+    HealthTrainingPlanProgressPO selectAggregate(@Param("planId") String planId, @Param("userId") String userId);
+
+    /**
+     * 查询计划关联运动记录的运动日期（去重，升序）
+     *
+     * @param planId 计划ID
+     * @param userId 用户ID
+     * @return 运动日期列表
+     */
+    List<Date> selectExerciseDates(@Param("planId") String planId, @Param("userId") String userId);
+
+    /**
+     * 写入或覆盖计划进度
+     *
+     * @param progress 计划进度
+     * @return 影响行数
+     */
+    int upsert(HealthTrainingPlanProgressPO progress);
+
+    /**
+     * 删除计划进度
+     *
+     * @param planId 计划ID
+     * @param userId 用户ID
+     * @return 影响行数
+     */
+    int deleteByPlanId(@Param("planId") String planId, @Param("userId") String userId);
+}
@@ -1,8 +1,10 @@
 package com.pbad.health.mapper;
 
+import com.pbad.health.domain.po.HealthTrendPointPO;
 import com.pbad.health.domain.po.HealthWaterIntakePO;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 
 import java.util.Date;
 import java.util.List;
@@ -168,6 +170,21 @@ public interface HealthWaterIntakeMapper {
             @Param("endDate") Date endDate
     );
 
+    /**
+     * 流式查询每日饮水总量序列（按日期升序）
+     *
+     * @param userId    用户ID
+     * @param startDate 开始日期
+     * @param endDate   结束日期
+     * @param handler   结果处理器
+     */
+    void streamTrendSeries(
+            @Param("userId") String userId,
+            @Param("startDate") Date startDate,
+            @Param("endDate") Date endDate,
+            ResultHandler<HealthTrendPointPO> handler
+    );
+
     /**
      * 查询有记录的日期列表
      *
@@ -1,8 +1,10 @@
 package com.pbad.health.mapper;
 
+import com.pbad.health.domain.po.HealthTrendPointPO;
 import com.pbad.health.domain.po.HealthWeightRecordPO;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 
 import java.util.Date;
 import java.util.List;
@@ -110,6 +112,21 @@ public interface HealthWeightRecordMapper {
             @Param("endDate") Date endDate
     );
 
+    /**
+     * 流式查询体重序列（按记录时间升序，每条记录一行，由调用方按日去重）
+     *
+     * @param userId    用户ID
+     * @param startDate 开始日期
+     * @param endDate   结束日期
+     * @param handler   结果处理器
+     */
+    void streamTrendSeries(
+            @Param("userId") String userId,
+            @Param("startDate") Date startDate,
+            @Param("endDate") Date endDate,
+            ResultHandler<HealthTrendPointPO> handler
+    );
+
     /**
      * 查询指定日期范围内的最新体重记录
      *
@@ -192,5 +209,26 @@ public interface HealthWeightRecordMapper {
      * @return 影响行数
      */
     int batchUpdateBmiByHeight(@Param("userId") String userId, @Param("heightCm") java.math.BigDecimal heightCm);
-}
 
+    /**
+     * 查询日期范围内记录的去重键（仅返回id、记录日期、记录时间，用于导入去重）
+     *
+     * @param userId    用户ID
+     * @param startDate 开始日期
+     * @param endDate   结束日期
+     * @return 体重记录列表
+     */
+    List<HealthWeightRecordPO> selectImportKeys(
+            @Param("userId") String userId,
+            @Param("startDate") Date startDate,
+            @Param("endDate") Date endDate
+    );
+
+    /**
+     * 批量写入体重记录（多行INSERT，ID已存在时覆盖数据字段）
+     *
+     * @param records 体重记录列表
+     * @return 影响行数
+     */
+    int batchUpsert(@Param("records") List<HealthWeightRecordPO> records);
+}
@@ -0,0 +1,47 @@
+package com.pbad.health.runner;
+
+import com.pbad.health.domain.po.HealthTrainingPlanPO;
+import com.pbad.health.mapper.HealthTrainingPlanMapper;
+import com.pbad.health.support.TrainingPlanProgressTracker;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 训练计划进度补齐Runner.
+ * <p>
+ * 进度改为由运动记录写入时维护后，历史计划在首次启动时按已有记录生成一次进度，
+ * 之后启动时查询结果为空，不再产生额外开销.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+@Slf4j
+@Component
+@Order(31)
+@RequiredArgsConstructor
+public class TrainingPlanProgressBackfillRunner implements ApplicationRunner {
+
+    private final HealthTrainingPlanMapper trainingPlanMapper;
+    private final TrainingPlanProgressTracker progressTracker;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            List<HealthTrainingPlanPO> plans = trainingPlanMapper.selectWithoutProgress();
+            if (plans.isEmpty()) {
+                return;
+            }
+            int count = progressTracker.backfill(plans);
+            log.info("[TrainingPlanProgress] 训练计划进度补齐完成，数量：{}", count);
+        } catch (Exception e) {
+            log.warn("[TrainingPlanProgress] 训练计划进度补齐失败: {}", e.getMessage(), e);
+        }
+    }
+}
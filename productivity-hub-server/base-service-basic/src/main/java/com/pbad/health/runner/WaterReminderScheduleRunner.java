@@ -0,0 +1,52 @@
+package com.pbad.health.runner;
+
+import com.pbad.health.mapper.HealthWaterTargetMapper;
+import com.pbad.health.schedule.WaterReminderScheduler;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 饮水提醒调度补齐Runner.
+ * <p>
+ * 为已配置饮水目标但尚未进入调度的用户补齐下一次提醒时间（如首次上线或 Redis 数据丢失），
+ * 已有调度不会被覆盖，多节点同时启动也是幂等的.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+@Slf4j
+@Component
+@Order(30)
+@RequiredArgsConstructor
+public class WaterReminderScheduleRunner implements ApplicationRunner {
+
+    /**
+     * 单次脚本调用写入的用户数
+     */
+    private static final int SEED_BATCH_SIZE = 500;
+
+    private final HealthWaterTargetMapper waterTargetMapper;
+    private final WaterReminderScheduler reminderScheduler;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            List<String> userIds = waterTargetMapper.selectAllUserIds();
+            long added = 0;
+            for (int from = 0; from < userIds.size(); from += SEED_BATCH_SIZE) {
+                added += reminderScheduler.seedIfAbsent(
+                        userIds.subList(from, Math.min(from + SEED_BATCH_SIZE, userIds.size())));
+            }
+            log.info("[WaterReminder] 饮水提醒调度补齐完成，目标用户：{}，新增调度：{}", userIds.size(), added);
+        } catch (Exception e) {
+            log.warn("[WaterReminder] 饮水提醒调度补齐失败: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.pbad.health.schedule;
+
+import com.pbad.health.domain.po.HealthWaterTargetPO;
+import com.pbad.health.mapper.HealthWaterIntakeMapper;
+import com.pbad.health.mapper.HealthWaterTargetMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 饮水提醒调度器.
+ * <p>
+ * 在 Redis 有序集合中为每个用户维护下一次提醒时间（score 为毫秒时间戳），
+ * 饮水记录或目标变更时重新计算；定时轮询只取出已到期的用户，
+ * 每次轮询的开销与到期提醒数成正比，而不是与用户总数成正比.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WaterReminderScheduler {
+
+    /**
+     * 下一次提醒时间有序集合（member=用户ID，score=到期时间戳）
+     */
+    static final String DUE_KEY = "phub:health:water:reminder:due";
+
+    /**
+     * 提醒时段（整点，Asia/Shanghai），与原定时任务一致：8-11点、14-18点
+     */
+    private static final int[] REMINDER_HOURS = {8, 9, 10, 11, 14, 15, 16, 17, 18};
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Shanghai");
+
+    // 默认每日目标饮水量（毫升）
+    private static final int DEFAULT_DAILY_TARGET_ML = 2000;
+
+    /**
+     * 仅在成员不存在时写入（ZADD NX），用于启动时补齐调度
+     */
+    private static final DefaultRedisScript<Long> SEED_SCRIPT = new DefaultRedisScript<>(
+            "local added = 0 "
+                    + "for i = 2, #ARGV do "
+                    + "  added = added + redis.call('ZADD', KEYS[1], 'NX', ARGV[1], ARGV[i]) "
+                    + "end "
+                    + "return added", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final HealthWaterTargetMapper waterTargetMapper;
+    private final HealthWaterIntakeMapper waterIntakeMapper;
+
+    /**
+     * 记录饮水后，下一次提醒至少间隔的分钟数
+     */
+    @Value("${app.health.water-reminder.snooze-minutes:60}")
+    private int snoozeMinutes;
+
+    /**
+     * 饮水记录变更：已达标则推迟到次日，否则在间隔后的下一个提醒时段提醒.
+     *
+     * @param userId 用户ID
+     */
+    public void onIntakeChanged(String userId) {
+        afterCommit(() -> reschedule(userId, ZonedDateTime.now(ZONE).plusMinutes(snoozeMinutes)));
+    }
+
+    /**
+     * 饮水目标变更：已达标则推迟到次日，否则在下一个提醒时段提醒；目标被删除则取消调度.
+     *
+     * @param userId 用户ID
+     */
+    public void onTargetChanged(String userId) {
+        afterCommit(() -> reschedule(userId, ZonedDateTime.now(ZONE)));
+    }
+
+    /**
+     * 在当前时间之后的下一个提醒时段提醒.
+     *
+     * @param userId 用户ID
+     */
+    public void scheduleNextSlot(String userId) {
+        schedule(userId, nextSlot(ZonedDateTime.now(ZONE)));
+    }
+
+    /**
+     * 推迟到次日第一个提醒时段.
+     *
+     * @param userId 用户ID
+     */
+    public void scheduleTomorrow(String userId) {
+        LocalDate tomorrow = LocalDate.now(ZONE).plusDays(1);
+        schedule(userId, tomorrow.atTime(LocalTime.of(REMINDER_HOURS[0], 0)).atZone(ZONE));
+    }
+
+    /**
+     * 取消用户的提醒调度.
+     *
+     * @param userId 用户ID
+     */
+    public void cancel(String userId) {
+        safely(() -> redisTemplate.opsForZSet().remove(DUE_KEY, userId), userId);
+    }
+
+    /**
+     * 认领已到期的提醒：只有成功从集合中移除成员的节点负责处理，避免多节点重复发送.
+     * 处理完成后调用方需重新调度.
+     *
+     * @param now   当前时间戳
+     * @param limit 单次最多认领数量
+     * @return 用户ID -> 原到期时间戳
+     */
+    public Map<String, Long> claimDue(long now, int limit) {
+        Set<ZSetOperations.TypedTuple<String>> due =
+                redisTemplate.opsForZSet().rangeByScoreWithScores(DUE_KEY, 0, now, 0, limit);
+        if (due == null || due.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, Long> claimed = new LinkedHashMap<>();
+        for (ZSetOperations.TypedTuple<String> tuple : due) {
+            Long removed = redisTemplate.opsForZSet().remove(DUE_KEY, tuple.getValue());
+            if (removed != null && removed > 0) {
+                claimed.put(tuple.getValue(), tuple.getScore() != null ? tuple.getScore().longValue() : now);
+            }
+        }
+        return claimed;
+    }
+
+    /**
+     * 为尚未调度的用户补齐下一个提醒时段（已存在的调度不会被覆盖）.
+     *
+     * @param userIds 用户ID列表
+     * @return 新增调度数量
+     */
+    public long seedIfAbsent(Collection<String> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return 0;
+        }
+        List<String> args = new ArrayList<>(userIds.size() + 1);
+        args.add(String.valueOf(nextSlot(ZonedDateTime.now(ZONE)).toInstant().toEpochMilli()));
+        args.addAll(userIds);
+        Long added = redisTemplate.execute(SEED_SCRIPT, Collections.singletonList(DUE_KEY), args.toArray());
+        return added != null ? added : 0;
+    }
+
+    /**
+     * 查询用户今日饮水目标与已饮水量.
+     *
+     * @param userId 用户ID
+     * @return [目标饮水量, 已饮水量]，未配置目标返回null
+     */
+    int[] loadTodayProgress(String userId) {
+        HealthWaterTargetPO target = waterTargetMapper.selectByUserId(userId);
+        if (target == null) {
+            return null;
+        }
+        int targetMl = target.getDailyTargetMl() != null ? target.getDailyTargetMl() : DEFAULT_DAILY_TARGET_ML;
+        Date todayStart = Date.from(LocalDate.now().atStartOfDay(ZoneId.systemDefault()).toInstant());
+        Integer consumedMl = waterIntakeMapper.sumVolumeByDate(userId, todayStart);
+        return new int[]{targetMl, consumedMl != null ? consumedMl : 0};
+    }
+
+    /**
+     * 在事务提交后执行，保证重新计算时读取到已提交的数据；无事务时立即执行.
+     */
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void reschedule(String userId, ZonedDateTime after) {
+        int[] progress;
+        try {
+            progress = loadTodayProgress(userId);
+        } catch (Exception e) {
+            log.warn("查询用户 {} 的饮水进度失败，保持原提醒调度: {}", userId, e.getMessage());
+            return;
+        }
+        if (progress == null) {
+            cancel(userId);
+        } else if (progress[1] >= progress[0]) {
+            scheduleTomorrow(userId);
+        } else {
+            schedule(userId, nextSlot(after));
+        }
+    }
+
+    private void schedule(String userId, ZonedDateTime dueAt) {
+        safely(() -> redisTemplate.opsForZSet().add(DUE_KEY, userId, dueAt.toInstant().toEpochMilli()), userId);
+    }
+
+    /**
+     * 调度失败不影响业务写入，最坏情况由启动补齐或下次变更恢复.
+     */
+    private void safely(Runnable action, String userId) {
+        try {
+            action.run();
+        } catch (Exception e) {
+            log.warn("更新用户 {} 的饮水提醒调度失败: {}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * 计算 after 之后（不含）的下一个提醒时段.
+     */
+    static ZonedDateTime nextSlot(ZonedDateTime after) {
+        ZonedDateTime local = after.withZoneSameInstant(ZONE);
+        LocalDate date = local.toLocalDate();
+        for (int day = 0; day < 2; day++) {
+            for (int hour : REMINDER_HOURS) {
+                ZonedDateTime slot = date.plusDays(day).atTime(hour, 0).atZone(ZONE);
+                if (slot.isAfter(local)) {
+                    return slot;
+                }
+            }
+        }
+        return date.plusDays(2).atTime(REMINDER_HOURS[0], 0).atZone(ZONE);
+    }
+}
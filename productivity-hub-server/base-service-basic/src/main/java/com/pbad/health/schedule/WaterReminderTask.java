@@ -9,6 +9,7 @@ import com.pbad.health.mapper.HealthWaterIntakeMapper;
 import com.pbad.health.mapper.HealthWaterTargetMapper;
 import com.pbad.thirdparty.api.MessageChannelApi;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -25,6 +26,8 @@ import java.util.Map;
 
 /**
  * 钉钉饮水提醒定时任务.
+ * <p>
+ * 按 {@link WaterReminderScheduler} 维护的到期时间逐用户提醒，同时保留手动触发入口.
  *
  * @author: pbad
  * @date: 2025-01-XX
@@ -42,16 +45,97 @@ public class WaterReminderTask {
     private final ConfigService configService;
     private final UserRoleUtil userRoleUtil;
     private final UserMapper userMapper;
+    private final WaterReminderScheduler reminderScheduler;
 
     // 默认每日目标饮水量（毫升）
     private static final int DEFAULT_DAILY_TARGET_ML = 2000;
 
     /**
-     * 每小时整点执行（8:00-11:00, 14:00-18:00）
+     * 单次轮询最多处理的到期提醒数
      */
-    @Scheduled(cron = "0 0 8-11,14-18 * * ?", zone = "Asia/Shanghai")
-    public void sendWaterReminder() {
-        sendWaterReminder(null);
+    @Value("${app.health.water-reminder.batch-size:200}")
+    private int batchSize;
+
+    /**
+     * 到期提醒的最大延迟（分钟），超过则视为过期（如服务停机期间错过的时段），不再补发
+     */
+    @Value("${app.health.water-reminder.grace-minutes:30}")
+    private int graceMinutes;
+
+    /**
+     * 轮询到期的饮水提醒.
+     * <p>
+     * 提醒时间由 {@link WaterReminderScheduler} 按用户维护，饮水记录或目标变更时重新计算，
+     * 这里只处理已到期的用户，不再每个整点扫描全部用户.
+     */
+    @Scheduled(fixedDelayString = "${app.health.water-reminder.poll-interval-millis:60000}")
+    public void dispatchDueReminders() {
+        long now = System.currentTimeMillis();
+        Map<String, Long> dueUsers;
+        try {
+            dueUsers = reminderScheduler.claimDue(now, batchSize);
+        } catch (Exception e) {
+            log.error("获取到期饮水提醒失败: {}", e.getMessage(), e);
+            return;
+        }
+        if (dueUsers.isEmpty()) {
+            return;
+        }
+
+        if (!isTaskEnabled()) {
+            // 全局关闭时仍保留调度，开关恢复后次日继续提醒
+            dueUsers.keySet().forEach(reminderScheduler::scheduleTomorrow);
+            log.info("钉钉饮水提醒任务已被关闭，跳过 {} 个到期提醒", dueUsers.size());
+            return;
+        }
+
+        long graceMillis = graceMinutes * 60_000L;
+        int successCount = 0;
+        for (Map.Entry<String, Long> entry : dueUsers.entrySet()) {
+            String userId = entry.getKey();
+            try {
+                if (now - entry.getValue() > graceMillis) {
+                    log.debug("用户 {} 的饮水提醒已过期，重新调度", userId);
+                    reminderScheduler.onTargetChanged(userId);
+                    continue;
+                }
+                if (dispatchReminder(userId)) {
+                    successCount++;
+                }
+            } catch (Exception e) {
+                reminderScheduler.scheduleNextSlot(userId);
+                log.error("向用户 {} 发送饮水提醒失败: {}", userId, e.getMessage(), e);
+            }
+        }
+
+        log.info("钉钉饮水提醒到期处理完成，到期：{}，发送：{}", dueUsers.size(), successCount);
+    }
+
+    /**
+     * 处理单个到期用户并计算下一次提醒时间
+     *
+     * @return 是否发送了提醒
+     */
+    private boolean dispatchReminder(String userId) {
+        if (userRoleUtil.isSuperAdmin(userId) || !isUserTaskEnabled("waterReminder.enabled", userId)) {
+            reminderScheduler.scheduleTomorrow(userId);
+            return false;
+        }
+
+        int[] progress = reminderScheduler.loadTodayProgress(userId);
+        if (progress == null) {
+            // 未配置饮水目标，配置后由目标变更重新调度
+            reminderScheduler.cancel(userId);
+            return false;
+        }
+        if (progress[1] >= progress[0]) {
+            reminderScheduler.scheduleTomorrow(userId);
+            return false;
+        }
+
+        boolean sent = sendReminderToUser(userId, progress[0], progress[1]);
+        reminderScheduler.scheduleNextSlot(userId);
+        return sent;
     }
 
     /**
@@ -103,7 +187,10 @@ public class WaterReminderTask {
                 }
                 
                 try {
-                    sendReminderToUser(userId);
+                    int targetMl = target.getDailyTargetMl() != null
+                            ? target.getDailyTargetMl()
+                            : DEFAULT_DAILY_TARGET_ML;
+                    sendReminderToUser(userId, targetMl, sumTodayVolume(userId));
                     successCount++;
                 } catch (Exception e) {
                     failCount++;
@@ -119,31 +206,21 @@ public class WaterReminderTask {
 
     /**
      * 向指定用户发送饮水提醒
+     *
+     * @return 是否已发送（未配置Webhook时返回false）
      */
-    private void sendReminderToUser(String userId) {
+    private boolean sendReminderToUser(String userId, int targetMl, int consumedMl) {
         // 从用户专属全局配置中获取钉钉Webhook地址
         String webhookUrl = getConfigValueSafely("dingtalk", "dingtalk.webhook", userId);
         
         if (webhookUrl == null || webhookUrl.trim().isEmpty()) {
             log.debug("用户 {} 的全局配置中未配置钉钉Webhook地址，跳过提醒", userId);
-            return;
+            return false;
         }
         
         // 读取签名配置（如果有）
         String sign = getConfigValueSafely("dingtalk", "dingtalk.sign", userId);
 
-        // 查询用户饮水目标
-        HealthWaterTargetPO target = waterTargetMapper.selectByUserId(userId);
-        int targetMl = target != null && target.getDailyTargetMl() != null
-                ? target.getDailyTargetMl()
-                : DEFAULT_DAILY_TARGET_ML;
-
-        // 查询今日已饮水量
-        LocalDate today = LocalDate.now();
-        Date todayStart = Date.from(today.atStartOfDay(ZoneId.systemDefault()).toInstant());
-        Integer consumedMl = waterIntakeMapper.sumVolumeByDate(userId, todayStart);
-        consumedMl = consumedMl != null ? consumedMl : 0;
-
         // 计算剩余需饮水量
         int remainingMl = Math.max(0, targetMl - consumedMl);
 
@@ -167,6 +244,17 @@ public class WaterReminderTask {
         dingtalkChannelApi.sendMessage(dingTalkPayload, cfg);
 
         log.debug("已向用户 {} 发送饮水提醒", userId);
+        return true;
+    }
+
+    /**
+     * 查询今日已饮水量
+     */
+    private int sumTodayVolume(String userId) {
+        LocalDate today = LocalDate.now();
+        Date todayStart = Date.from(today.atStartOfDay(ZoneId.systemDefault()).toInstant());
+        Integer consumedMl = waterIntakeMapper.sumVolumeByDate(userId, todayStart);
+        return consumedMl != null ? consumedMl : 0;
     }
 
     /**
@@ -1,7 +1,9 @@
 package com.pbad.health.service;
 
+import com.pbad.health.domain.dto.HealthTrendSeriesQueryDTO;
 import com.pbad.health.domain.dto.WaterStatisticsQueryDTO;
 import com.pbad.health.domain.dto.WaterTrendQueryDTO;
+import com.pbad.health.domain.vo.HealthTrendSeriesVO;
 import com.pbad.health.domain.vo.WaterStatisticsVO;
 import com.pbad.health.domain.vo.WaterTrendVO;
 
@@ -33,5 +35,13 @@ public interface HealthWaterStatisticsService {
      * @return 趋势数据
      */
     WaterTrendVO getTrend(WaterTrendQueryDTO queryDTO, String userId);
-}
 
+    /**
+     * 查询长周期饮水趋势序列（按点数上限降采样，列式返回）.
+     *
+     * @param queryDTO 查询DTO
+     * @param userId   用户ID
+     * @return 趋势序列
+     */
+    HealthTrendSeriesVO getTrendSeries(HealthTrendSeriesQueryDTO queryDTO, String userId);
+}
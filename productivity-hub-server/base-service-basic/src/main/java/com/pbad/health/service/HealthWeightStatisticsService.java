@@ -1,7 +1,9 @@
 package com.pbad.health.service;
 
+import com.pbad.health.domain.dto.HealthTrendSeriesQueryDTO;
 import com.pbad.health.domain.dto.WeightStatisticsQueryDTO;
 import com.pbad.health.domain.dto.WeightTrendQueryDTO;
+import com.pbad.health.domain.vo.HealthTrendSeriesVO;
 import com.pbad.health.domain.vo.WeightStatisticsVO;
 import com.pbad.health.domain.vo.WeightTrendVO;
 
@@ -33,5 +35,13 @@ public interface HealthWeightStatisticsService {
      * @return 趋势数据
      */
     WeightTrendVO getTrend(WeightTrendQueryDTO queryDTO, String userId);
-}
 
+    /**
+     * 查询长周期体重趋势序列（按点数上限降采样，列式返回）.
+     *
+     * @param queryDTO 查询DTO
+     * @param userId   用户ID
+     * @return 趋势序列
+     */
+    HealthTrendSeriesVO getTrendSeries(HealthTrendSeriesQueryDTO queryDTO, String userId);
+}
@@ -1,9 +1,15 @@
 package com.pbad.health.service.impl;
 
-import com.pbad.health.domain.dto.ExerciseRecordCreateDTO;
+import com.pbad.generator.api.IdGeneratorApi;
+import com.pbad.health.config.HealthImportProperties;
+import com.pbad.health.domain.po.HealthExerciseRecordPO;
 import com.pbad.health.domain.vo.ExerciseRecordImportResultVO;
+import com.pbad.health.mapper.HealthExerciseRecordMapper;
 import com.pbad.health.service.HealthExerciseRecordImportService;
-import com.pbad.health.service.HealthExerciseRecordService;
+import com.pbad.health.support.HealthRecordBatchWriter;
+import com.pbad.health.support.TrainingPlanProgressTracker;
+import com.pbad.health.util.HealthExcelReader;
+import com.pbad.health.util.HealthValidationUtil;
 import common.exception.BusinessException;
 import common.web.context.RequestUserContext;
 import lombok.RequiredArgsConstructor;
@@ -17,10 +23,16 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
-import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * 运动记录导入服务实现类.
@@ -34,14 +46,11 @@ import java.util.List;
 @RequiredArgsConstructor
 public class HealthExerciseRecordImportServiceImpl implements HealthExerciseRecordImportService {
 
-    private final HealthExerciseRecordService exerciseRecordService;
-
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd");
-
-    // 运动类型枚举值
-    private static final String[] EXERCISE_TYPES = {
-            "跑步", "游泳", "骑行", "力量训练", "瑜伽", "有氧运动", "球类运动", "其他"
-    };
+    private final HealthExerciseRecordMapper exerciseRecordMapper;
+    private final HealthRecordBatchWriter batchWriter;
+    private final HealthImportProperties importProperties;
+    private final TrainingPlanProgressTracker progressTracker;
+    private final IdGeneratorApi idGeneratorApi;
 
     /**
      * 获取当前用户ID
@@ -54,6 +63,10 @@ public class HealthExerciseRecordImportServiceImpl implements HealthExerciseReco
         return userId;
     }
 
+    /**
+     * 流式读取Excel，按分块校验、去重（用户+日期+类型）并批量写入；
+     * 与已存在记录的去重键相同时复用其ID，覆盖数据字段.
+     */
     @Override
     public ExerciseRecordImportResultVO importFromExcel(MultipartFile file) {
         String userId = getCurrentUserId();
@@ -73,233 +86,9 @@ public class HealthExerciseRecordImportServiceImpl implements HealthExerciseReco
         result.setSkipped(0);
         result.setErrors(new ArrayList<>());
 
-        try (Workbook workbook = WorkbookFactory.create(file.getInputStream())) {
-            Sheet sheet = workbook.getSheetAt(0);
-            if (sheet == null) {
-                throw new BusinessException("400", "Excel文件格式不正确");
-            }
-
-            // 读取表头（第一行）
-            Row headerRow = sheet.getRow(0);
-            if (headerRow == null) {
-                throw new BusinessException("400", "Excel文件缺少表头");
-            }
-
-            // 解析表头，获取列索引
-            int colIndexExerciseDate = -1;
-            int colIndexExerciseType = -1;
-            int colIndexDurationMinutes = -1;
-            int colIndexCaloriesBurned = -1;
-            int colIndexDistanceKm = -1;
-            int colIndexHeartRateAvg = -1;
-            int colIndexHeartRateMax = -1;
-            int colIndexTrainingPlan = -1;
-            int colIndexNotes = -1;
-
-            for (int i = 0; i < headerRow.getLastCellNum(); i++) {
-                Cell cell = headerRow.getCell(i);
-                if (cell != null) {
-                    String cellValue = getCellValueAsString(cell).trim();
-                    switch (cellValue) {
-                        case "运动日期":
-                        case "日期":
-                            colIndexExerciseDate = i;
-                            break;
-                        case "运动类型":
-                        case "类型":
-                            colIndexExerciseType = i;
-                            break;
-                        case "运动时长(分钟)":
-                        case "运动时长":
-                        case "时长":
-                        case "时长(分钟)":
-                            colIndexDurationMinutes = i;
-                            break;
-                        case "消耗卡路里(千卡)":
-                        case "消耗卡路里":
-                        case "卡路里":
-                        case "卡路里(千卡)":
-                            colIndexCaloriesBurned = i;
-                            break;
-                        case "运动距离(公里)":
-                        case "运动距离":
-                        case "距离":
-                        case "距离(公里)":
-                            colIndexDistanceKm = i;
-                            break;
-                        case "平均心率(次/分)":
-                        case "平均心率":
-                        case "心率(平均)":
-                            colIndexHeartRateAvg = i;
-                            break;
-                        case "最大心率(次/分)":
-                        case "最大心率":
-                        case "心率(最大)":
-                            colIndexHeartRateMax = i;
-                            break;
-                        case "训练计划":
-                        case "计划":
-                            colIndexTrainingPlan = i;
-                            break;
-                        case "备注":
-                        case "备注信息":
-                            colIndexNotes = i;
-                            break;
-                    }
-                }
-            }
-
-            // 验证必需字段
-            if (colIndexExerciseType < 0) {
-                throw new BusinessException("400", "Excel文件缺少必需字段：运动类型");
-            }
-            if (colIndexDurationMinutes < 0) {
-                throw new BusinessException("400", "Excel文件缺少必需字段：运动时长");
-            }
-
-            // 从第二行开始读取数据
-            int totalRows = sheet.getLastRowNum();
-            result.setTotal(totalRows);
-
-            for (int rowIndex = 1; rowIndex <= totalRows; rowIndex++) {
-                Row row = sheet.getRow(rowIndex);
-                if (row == null) {
-                    result.setSkipped(result.getSkipped() + 1);
-                    continue;
-                }
-
-                try {
-                    // 读取数据
-                    String exerciseDateStr = colIndexExerciseDate >= 0 ? getCellValueAsString(row.getCell(colIndexExerciseDate)) : null;
-                    String exerciseTypeStr = getCellValueAsString(row.getCell(colIndexExerciseType));
-                    String durationMinutesStr = getCellValueAsString(row.getCell(colIndexDurationMinutes));
-                    String caloriesBurnedStr = colIndexCaloriesBurned >= 0 ? getCellValueAsString(row.getCell(colIndexCaloriesBurned)) : null;
-                    String distanceKmStr = colIndexDistanceKm >= 0 ? getCellValueAsString(row.getCell(colIndexDistanceKm)) : null;
-                    String heartRateAvgStr = colIndexHeartRateAvg >= 0 ? getCellValueAsString(row.getCell(colIndexHeartRateAvg)) : null;
-                    String heartRateMaxStr = colIndexHeartRateMax >= 0 ? getCellValueAsString(row.getCell(colIndexHeartRateMax)) : null;
-                    String trainingPlanStr = colIndexTrainingPlan >= 0 ? getCellValueAsString(row.getCell(colIndexTrainingPlan)) : null;
-                    String notes = colIndexNotes >= 0 ? getCellValueAsString(row.getCell(colIndexNotes)) : null;
-
-                    // 验证必需字段
-                    if (exerciseTypeStr == null || exerciseTypeStr.trim().isEmpty()) {
-                        result.setFailed(result.getFailed() + 1);
-                        result.getErrors().add(String.format("第%d行：运动类型不能为空", rowIndex + 1));
-                        continue;
-                    }
-
-                    // 验证运动类型
-                    String exerciseType = exerciseTypeStr.trim();
-                    boolean isValidType = false;
-                    for (String type : EXERCISE_TYPES) {
-                        if (type.equals(exerciseType)) {
-                            isValidType = true;
-                            break;
-                        }
-                    }
-                    if (!isValidType) {
-                        result.setFailed(result.getFailed() + 1);
-                        result.getErrors().add(String.format("第%d行：运动类型无效，应为：%s", rowIndex + 1, String.join("、", EXERCISE_TYPES)));
-                        continue;
-                    }
-
-                    // 验证运动时长
-                    if (durationMinutesStr == null || durationMinutesStr.trim().isEmpty()) {
-                        result.setFailed(result.getFailed() + 1);
-                        result.getErrors().add(String.format("第%d行：运动时长不能为空", rowIndex + 1));
-                        continue;
-                    }
-
-                    Integer durationMinutes;
-                    try {
-                        durationMinutes = Integer.parseInt(durationMinutesStr.trim());
-                        if (durationMinutes < 1 || durationMinutes > 1440) {
-                            result.setFailed(result.getFailed() + 1);
-                            result.getErrors().add(String.format("第%d行：运动时长必须在1-1440分钟之间", rowIndex + 1));
-                            continue;
-                        }
-                    } catch (NumberFormatException e) {
-                        result.setFailed(result.getFailed() + 1);
-                        result.getErrors().add(String.format("第%d行：运动时长格式错误", rowIndex + 1));
-                        continue;
-                    }
-
-                    // 构建创建DTO
-                    ExerciseRecordCreateDTO createDTO = new ExerciseRecordCreateDTO();
-                    createDTO.setExerciseType(exerciseType);
-                    if (StringUtils.hasText(exerciseDateStr)) {
-                        createDTO.setExerciseDate(exerciseDateStr.trim());
-                    }
-                    createDTO.setDurationMinutes(durationMinutes);
-
-                    // 解析可选字段
-                    if (StringUtils.hasText(caloriesBurnedStr)) {
-                        try {
-                            Integer caloriesBurned = Integer.parseInt(caloriesBurnedStr.trim());
-                            if (caloriesBurned > 0) {
-                                createDTO.setCaloriesBurned(caloriesBurned);
-                            }
-                        } catch (NumberFormatException e) {
-                            // 忽略格式错误，不设置该字段
-                        }
-                    }
-
-                    if (StringUtils.hasText(distanceKmStr)) {
-                        try {
-                            BigDecimal distanceKm = new BigDecimal(distanceKmStr.trim());
-                            if (distanceKm.compareTo(BigDecimal.ZERO) > 0) {
-                                createDTO.setDistanceKm(distanceKm);
-                            }
-                        } catch (NumberFormatException e) {
-                            // 忽略格式错误，不设置该字段
-                        }
-                    }
-
-                    if (StringUtils.hasText(heartRateAvgStr)) {
-                        try {
-                            Integer heartRateAvg = Integer.parseInt(heartRateAvgStr.trim());
-                            if (heartRateAvg > 0 && heartRateAvg <= 250) {
-                                createDTO.setHeartRateAvg(heartRateAvg);
-                            }
-                        } catch (NumberFormatException e) {
-                            // 忽略格式错误，不设置该字段
-                        }
-                    }
-
-                    if (StringUtils.hasText(heartRateMaxStr)) {
-                        try {
-                            Integer heartRateMax = Integer.parseInt(heartRateMaxStr.trim());
-                            if (heartRateMax > 0 && heartRateMax <= 250) {
-                                createDTO.setHeartRateMax(heartRateMax);
-                            }
-                        } catch (NumberFormatException e) {
-                            // 忽略格式错误，不设置该字段
-                        }
-                    }
-
-                    // 训练计划ID需要通过计划名称查询，这里暂时不处理，因为需要额外的查询
-                    // 如果后续需要支持，可以通过训练计划名称查询ID
-                    // if (StringUtils.hasText(trainingPlanStr)) {
-                    //     createDTO.setTrainingPlanId(trainingPlanId);
-                    // }
-
-                    if (StringUtils.hasText(notes)) {
-                        createDTO.setNotes(notes.trim());
-                    }
-
-                    // 创建记录
-                    exerciseRecordService.create(createDTO, userId);
-                    result.setSuccess(result.getSuccess() + 1);
-
-                } catch (Exception e) {
-                    result.setFailed(result.getFailed() + 1);
-                    result.getErrors().add(String.format("第%d行：%s", rowIndex + 1, e.getMessage()));
-                    log.error("导入第{}行数据失败", rowIndex + 1, e);
-                }
-            }
-
-        } catch (IOException e) {
-            throw new BusinessException("500", "读取Excel文件失败: " + e.getMessage());
-        }
+        ImportSession session = new ImportSession(userId, result);
+        HealthExcelReader.read(file, false, session);
+        session.finish();
 
         return result;
     }
@@ -359,39 +148,277 @@ public class HealthExerciseRecordImportServiceImpl implements HealthExerciseReco
     }
 
     /**
-     * 获取单元格值（字符串格式）
+     * 单次导入的解析状态：表头列索引、当前分块和导入结果.
      */
-    private String getCellValueAsString(Cell cell) {
-        if (cell == null) {
-            return null;
+    private class ImportSession implements HealthExcelReader.RowHandler {
+
+        private final String userId;
+        private final ExerciseRecordImportResultVO result;
+        private final List<String[]> chunkRows = new ArrayList<>();
+        private final List<Integer> chunkRowIndexes = new ArrayList<>();
+        // 被覆盖的已有记录所属训练计划，导入结束后重算进度
+        private final Set<String> affectedPlanIds = new HashSet<>();
+        private boolean headerResolved;
+        private int lastRowIndex;
+
+        // 表头列索引
+        private int colIndexExerciseDate = -1;
+        private int colIndexExerciseType = -1;
+        private int colIndexDurationMinutes = -1;
+        private int colIndexCaloriesBurned = -1;
+        private int colIndexDistanceKm = -1;
+        private int colIndexHeartRateAvg = -1;
+        private int colIndexHeartRateMax = -1;
+        private int colIndexNotes = -1;
+
+        ImportSession(String userId, ExerciseRecordImportResultVO result) {
+            this.userId = userId;
+            this.result = result;
         }
 
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
-            case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    Date date = cell.getDateCellValue();
-                    if (date != null) {
-                        return DATE_FORMAT.format(date);
-                    }
-                    return null;
-                } else {
-                    // 处理数字，避免科学计数法
-                    double numericValue = cell.getNumericCellValue();
-                    if (numericValue == (long) numericValue) {
-                        return String.valueOf((long) numericValue);
-                    } else {
-                        return String.valueOf(numericValue);
+        @Override
+        public void handle(int rowIndex, String[] cells) {
+            if (!headerResolved) {
+                if (rowIndex != 0) {
+                    throw new BusinessException("400", "Excel文件缺少表头");
+                }
+                resolveHeader(cells);
+                headerResolved = true;
+                return;
+            }
+
+            // 中间的空行计为跳过
+            result.setSkipped(result.getSkipped() + rowIndex - lastRowIndex - 1);
+            lastRowIndex = rowIndex;
+
+            chunkRows.add(cells);
+            chunkRowIndexes.add(rowIndex);
+            if (chunkRows.size() >= importProperties.getChunkSize()) {
+                flushChunk();
+            }
+        }
+
+        void finish() {
+            if (!headerResolved) {
+                throw new BusinessException("400", "Excel文件缺少表头");
+            }
+            flushChunk();
+            result.setTotal(lastRowIndex);
+            if (!affectedPlanIds.isEmpty()) {
+                progressTracker.onRecordsChanged(userId, affectedPlanIds);
+            }
+        }
+
+        private void resolveHeader(String[] headerCells) {
+            for (int i = 0; i < headerCells.length; i++) {
+                if (headerCells[i] == null) {
+                    continue;
+                }
+                switch (headerCells[i].trim()) {
+                    case "运动日期":
+                    case "日期":
+                        colIndexExerciseDate = i;
+                        break;
+                    case "运动类型":
+                    case "类型":
+                        colIndexExerciseType = i;
+                        break;
+                    case "运动时长(分钟)":
+                    case "运动时长":
+                    case "时长":
+                    case "时长(分钟)":
+                        colIndexDurationMinutes = i;
+                        break;
+                    case "消耗卡路里(千卡)":
+                    case "消耗卡路里":
+                    case "卡路里":
+                    case "卡路里(千卡)":
+                        colIndexCaloriesBurned = i;
+                        break;
+                    case "运动距离(公里)":
+                    case "运动距离":
+                    case "距离":
+                    case "距离(公里)":
+                        colIndexDistanceKm = i;
+                        break;
+                    case "平均心率(次/分)":
+                    case "平均心率":
+                    case "心率(平均)":
+                        colIndexHeartRateAvg = i;
+                        break;
+                    case "最大心率(次/分)":
+                    case "最大心率":
+                    case "心率(最大)":
+                        colIndexHeartRateMax = i;
+                        break;
+                    case "备注":
+                    case "备注信息":
+                        colIndexNotes = i;
+                        break;
+                    default:
+                        break;
+                }
+            }
+
+            // 验证必需字段
+            if (colIndexExerciseType < 0) {
+                throw new BusinessException("400", "Excel文件缺少必需字段：运动类型");
+            }
+            if (colIndexDurationMinutes < 0) {
+                throw new BusinessException("400", "Excel文件缺少必需字段：运动时长");
+            }
+        }
+
+        /**
+         * 校验并写入当前分块.
+         */
+        private void flushChunk() {
+            if (chunkRows.isEmpty()) {
+                return;
+            }
+
+            // 分块内按（日期+类型）去重，后出现的行覆盖先出现的行
+            Map<String, HealthExerciseRecordPO> deduplicated = new LinkedHashMap<>();
+            LocalDate minDate = null;
+            LocalDate maxDate = null;
+            for (int i = 0; i < chunkRows.size(); i++) {
+                HealthExerciseRecordPO po = toRecord(chunkRowIndexes.get(i) + 1, chunkRows.get(i));
+                if (po == null) {
+                    continue;
+                }
+                LocalDate date = toLocalDate(po.getExerciseDate());
+                if (deduplicated.put(importKey(date, po.getExerciseType()), po) != null) {
+                    result.setSkipped(result.getSkipped() + 1);
+                }
+                minDate = minDate == null || date.isBefore(minDate) ? date : minDate;
+                maxDate = maxDate == null || date.isAfter(maxDate) ? date : maxDate;
+            }
+            int firstRow = chunkRowIndexes.get(0) + 1;
+            int lastRow = chunkRowIndexes.get(chunkRowIndexes.size() - 1) + 1;
+            chunkRows.clear();
+            chunkRowIndexes.clear();
+            if (deduplicated.isEmpty()) {
+                return;
+            }
+
+            List<HealthExerciseRecordPO> records = new ArrayList<>(deduplicated.values());
+            try {
+                // 复用已存在记录的ID，使重复导入变为覆盖更新
+                for (HealthExerciseRecordPO existing : exerciseRecordMapper.selectImportKeys(userId,
+                        toDate(minDate), toDate(maxDate.plusDays(1)))) {
+                    HealthExerciseRecordPO po = deduplicated.get(
+                            importKey(toLocalDate(existing.getExerciseDate()), existing.getExerciseType()));
+                    if (po != null) {
+                        po.setId(existing.getId());
+                        if (existing.getTrainingPlanId() != null) {
+                            affectedPlanIds.add(existing.getTrainingPlanId());
+                        }
                     }
                 }
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            case FORMULA:
-                return cell.getCellFormula();
-            default:
-                return null;
+                batchWriter.write(HealthExerciseRecordMapper.class, records,
+                        importProperties.getRowsPerStatement(), HealthExerciseRecordMapper::batchUpsert);
+                result.setSuccess(result.getSuccess() + records.size());
+            } catch (Exception e) {
+                result.setFailed(result.getFailed() + records.size());
+                result.getErrors().add(String.format("第%d-%d行：写入失败：%s", firstRow, lastRow, e.getMessage()));
+                log.error("导入第{}-{}行数据失败", firstRow, lastRow, e);
+            }
+        }
+
+        /**
+         * 校验并转换一行数据，校验失败时记录错误并返回null.
+         */
+        private HealthExerciseRecordPO toRecord(int rowNumber, String[] cells) {
+            String exerciseDateStr = cell(cells, colIndexExerciseDate);
+            String exerciseTypeStr = cell(cells, colIndexExerciseType);
+            String durationMinutesStr = cell(cells, colIndexDurationMinutes);
+
+            // 验证运动类型
+            if (!StringUtils.hasText(exerciseTypeStr)) {
+                return reject(rowNumber, "运动类型不能为空");
+            }
+            String exerciseType = exerciseTypeStr.trim();
+            if (!HealthValidationUtil.isValidExerciseType(exerciseType)) {
+                return reject(rowNumber, "运动类型无效，应为：" + HealthValidationUtil.exerciseTypesDescription());
+            }
+
+            // 验证运动时长
+            if (!StringUtils.hasText(durationMinutesStr)) {
+                return reject(rowNumber, "运动时长不能为空");
+            }
+            Integer durationMinutes = HealthValidationUtil.parseIntegerOrNull(durationMinutesStr);
+            if (durationMinutes == null) {
+                return reject(rowNumber, "运动时长格式错误");
+            }
+            if (!HealthValidationUtil.isInRange(durationMinutes, 1, 1440)) {
+                return reject(rowNumber, "运动时长必须在1-1440分钟之间");
+            }
+
+            // 运动日期（默认当天）
+            LocalDate exerciseDate = LocalDate.now();
+            if (StringUtils.hasText(exerciseDateStr)) {
+                try {
+                    exerciseDate = LocalDate.parse(exerciseDateStr.trim());
+                } catch (DateTimeParseException e) {
+                    return reject(rowNumber, "运动日期格式错误，应为yyyy-MM-dd");
+                }
+            }
+
+            HealthExerciseRecordPO po = new HealthExerciseRecordPO();
+            po.setId(idGeneratorApi.generateId());
+            po.setUserId(userId);
+            po.setExerciseType(exerciseType);
+            po.setExerciseDate(toDate(exerciseDate));
+            po.setDurationMinutes(durationMinutes);
+
+            // 解析可选字段，格式错误或超出范围时忽略
+            Integer caloriesBurned = HealthValidationUtil.parseIntegerOrNull(cell(cells, colIndexCaloriesBurned));
+            if (caloriesBurned != null && caloriesBurned > 0) {
+                po.setCaloriesBurned(caloriesBurned);
+            }
+            BigDecimal distanceKm = HealthValidationUtil.parseDecimalOrNull(cell(cells, colIndexDistanceKm));
+            if (distanceKm != null && distanceKm.compareTo(BigDecimal.ZERO) > 0) {
+                po.setDistanceKm(distanceKm);
+            }
+            Integer heartRateAvg = HealthValidationUtil.parseIntegerOrNull(cell(cells, colIndexHeartRateAvg));
+            if (HealthValidationUtil.isInRange(heartRateAvg, 1, 250)) {
+                po.setHeartRateAvg(heartRateAvg);
+            }
+            Integer heartRateMax = HealthValidationUtil.parseIntegerOrNull(cell(cells, colIndexHeartRateMax));
+            if (HealthValidationUtil.isInRange(heartRateMax, 1, 250)) {
+                po.setHeartRateMax(heartRateMax);
+            }
+            String notes = cell(cells, colIndexNotes);
+            if (StringUtils.hasText(notes)) {
+                po.setNotes(notes.trim());
+            }
+
+            Date now = new Date();
+            po.setCreatedAt(now);
+            po.setUpdatedAt(now);
+            return po;
+        }
+
+        private HealthExerciseRecordPO reject(int rowNumber, String message) {
+            result.setFailed(result.getFailed() + 1);
+            result.getErrors().add(String.format("第%d行：%s", rowNumber, message));
+            return null;
         }
     }
-}
 
+    private static String cell(String[] cells, int index) {
+        return index >= 0 && index < cells.length ? cells[index] : null;
+    }
+
+    private static String importKey(LocalDate date, String exerciseType) {
+        return date + "|" + exerciseType;
+    }
+
+    private static Date toDate(LocalDate date) {
+        return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+}
@@ -11,6 +11,7 @@ import com.pbad.health.domain.vo.ExerciseRecordVO;
 import com.pbad.health.mapper.HealthExerciseRecordMapper;
 import com.pbad.health.mapper.HealthTrainingPlanMapper;
 import com.pbad.health.service.HealthExerciseRecordService;
+import com.pbad.health.support.TrainingPlanProgressTracker;
 import common.core.domain.PageResult;
 import common.exception.BusinessException;
 import common.util.DateUtil;
@@ -23,6 +24,8 @@ import org.springframework.util.StringUtils;
 
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -41,6 +44,7 @@ public class HealthExerciseRecordServiceImpl implements HealthExerciseRecordServ
 
     private final HealthExerciseRecordMapper exerciseRecordMapper;
     private final HealthTrainingPlanMapper trainingPlanMapper;
+    private final TrainingPlanProgressTracker progressTracker;
     private final IdGeneratorApi idGeneratorApi;
 
     // 运动类型枚举值
@@ -113,6 +117,7 @@ public class HealthExerciseRecordServiceImpl implements HealthExerciseRecordServ
         }
 
         log.info("用户{}创建运动记录成功，ID: {}", userId, id);
+        progressTracker.onRecordAdded(po);
 
         // 转换为VO并返回
         return convertToVO(po);
@@ -226,6 +231,8 @@ public class HealthExerciseRecordServiceImpl implements HealthExerciseRecordServ
             throw new BusinessException("404", "运动记录不存在");
         }
 
+        String originalPlanId = existingPo.getTrainingPlanId();
+
         // 参数校验
         validateUpdateDTO(updateDTO);
 
@@ -315,6 +322,7 @@ public class HealthExerciseRecordServiceImpl implements HealthExerciseRecordServ
         }
 
         log.info("用户{}更新运动记录成功，ID: {}", userId, id);
+        progressTracker.onRecordsChanged(userId, Arrays.asList(originalPlanId, existingPo.getTrainingPlanId()));
 
         // 转换为VO并返回
         return convertToVO(existingPo);
@@ -340,6 +348,7 @@ public class HealthExerciseRecordServiceImpl implements HealthExerciseRecordServ
         }
 
         log.info("用户{}删除运动记录成功，ID: {}", userId, id);
+        progressTracker.onRecordsChanged(userId, Collections.singletonList(po.getTrainingPlanId()));
     }
 
     @Override
@@ -349,6 +358,9 @@ public class HealthExerciseRecordServiceImpl implements HealthExerciseRecordServ
             throw new BusinessException("400", "记录ID列表不能为空");
         }
 
+        // 删除前记录受影响的训练计划
+        List<String> planIds = exerciseRecordMapper.selectTrainingPlanIdsByIds(ids, userId);
+
         // 批量删除
         int result = exerciseRecordMapper.batchDeleteByIds(ids, userId);
         if (result <= 0) {
@@ -356,6 +368,7 @@ public class HealthExerciseRecordServiceImpl implements HealthExerciseRecordServ
         }
 
         log.info("用户{}批量删除运动记录成功，删除数量: {}", userId, result);
+        progressTracker.onRecordsChanged(userId, planIds);
     }
 
     /**
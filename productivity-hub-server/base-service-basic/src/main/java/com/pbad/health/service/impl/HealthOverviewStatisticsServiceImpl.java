@@ -11,6 +11,7 @@ import com.pbad.health.mapper.HealthWaterTargetMapper;
 import com.pbad.health.mapper.HealthWeightRecordMapper;
 import com.pbad.health.domain.po.HealthWaterTargetPO;
 import com.pbad.health.service.HealthOverviewStatisticsService;
+import com.pbad.health.support.HealthStatisticsExecutor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -22,6 +23,7 @@ import java.time.LocalDate;
 import java.time.YearMonth;
 import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 /**
@@ -41,12 +43,15 @@ public class HealthOverviewStatisticsServiceImpl implements HealthOverviewStatis
     private final HealthWaterTargetMapper waterTargetMapper;
     private final HealthWeightRecordMapper weightRecordMapper;
     private final HealthUserBodyInfoMapper userBodyInfoMapper;
+    private final HealthStatisticsExecutor statisticsExecutor;
 
     // 默认每日目标饮水量（毫升）
     private static final int DEFAULT_DAILY_TARGET_ML = 2000;
 
+    /**
+     * 各统计分区相互独立，并发查询后合并；不开启事务，避免请求线程空占连接.
+     */
     @Override
-    @Transactional(readOnly = true)
     public HealthOverviewVO getOverview(String period, String userId) {
         if (period == null || period.isEmpty()) {
             period = "today";
@@ -59,18 +64,29 @@ public class HealthOverviewStatisticsServiceImpl implements HealthOverviewStatis
         LocalDate weekStart = today.minusDays(6);
         LocalDate monthStart = today.minusDays(29);
 
+        HealthStatisticsExecutor.Batch batch = statisticsExecutor.newBatch();
+        Future<HealthOverviewVO.ExerciseOverview> exercise =
+                batch.fork(() -> buildExerciseOverview(userId, today, weekStart, monthStart));
+        Future<HealthOverviewVO.WaterOverview> water =
+                batch.fork(() -> buildWaterOverview(userId, today, weekStart, monthStart));
+        Future<HealthOverviewVO.WeightOverview> weight =
+                batch.fork(() -> buildWeightOverview(userId, today, weekStart, monthStart));
+        Future<HealthOverviewVO.DataCompleteness> completeness =
+                batch.fork(() -> buildDataCompleteness(userId, monthStart, today));
+
         // 运动概览
-        vo.setExercise(buildExerciseOverview(userId, today, weekStart, monthStart));
+        vo.setExercise(batch.join("exercise", exercise, null));
 
         // 饮水概览
-        vo.setWater(buildWaterOverview(userId, today, weekStart, monthStart));
+        vo.setWater(batch.join("water", water, null));
 
         // 体重概览
-        vo.setWeight(buildWeightOverview(userId, today, weekStart, monthStart));
+        vo.setWeight(batch.join("weight", weight, null));
 
         // 数据完成度
-        vo.setDataCompleteness(buildDataCompleteness(userId, monthStart, today));
+        vo.setDataCompleteness(batch.join("dataCompleteness", completeness, null));
 
+        vo.setDegradedSections(batch.getDegradedSections());
         return vo;
     }
 
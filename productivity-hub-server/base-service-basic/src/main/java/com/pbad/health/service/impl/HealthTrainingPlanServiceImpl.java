@@ -1,14 +1,20 @@
 package com.pbad.health.service.impl;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pbad.generator.api.IdGeneratorApi;
 import com.pbad.health.domain.dto.TrainingPlanCreateDTO;
 import com.pbad.health.domain.dto.TrainingPlanQueryDTO;
 import com.pbad.health.domain.dto.TrainingPlanUpdateDTO;
 import com.pbad.health.domain.po.HealthTrainingPlanPO;
+import com.pbad.health.domain.po.HealthTrainingPlanProgressPO;
 import com.pbad.health.domain.vo.TrainingPlanVO;
 import com.pbad.health.mapper.HealthTrainingPlanMapper;
+import com.pbad.health.mapper.HealthTrainingPlanProgressMapper;
 import com.pbad.health.service.HealthTrainingPlanService;
+import com.pbad.health.support.TrainingPlanProgressTracker;
 import common.exception.BusinessException;
+import common.util.RedisUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -34,8 +40,13 @@ import java.util.stream.Collectors;
 public class HealthTrainingPlanServiceImpl implements HealthTrainingPlanService {
 
     private final HealthTrainingPlanMapper trainingPlanMapper;
+    private final HealthTrainingPlanProgressMapper progressMapper;
+    private final TrainingPlanProgressTracker progressTracker;
+    private final RedisUtil redisUtil;
     private final IdGeneratorApi idGeneratorApi;
 
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
     // 计划类型枚举值
     private static final String[] PLAN_TYPES = {
             "减脂", "增肌", "塑形", "耐力提升", "康复训练", "其他"
@@ -105,6 +116,7 @@ public class HealthTrainingPlanServiceImpl implements HealthTrainingPlanService
         }
 
         log.info("用户{}创建训练计划成功，ID: {}", userId, id);
+        progressTracker.evictUserPlans(userId);
 
         // 转换为VO并返回
         return convertToVO(po);
@@ -113,16 +125,11 @@ public class HealthTrainingPlanServiceImpl implements HealthTrainingPlanService
     @Override
     @Transactional(readOnly = true)
     public List<TrainingPlanVO> queryList(TrainingPlanQueryDTO queryDTO, String userId) {
-        // 查询列表
-        List<HealthTrainingPlanPO> poList = trainingPlanMapper.selectList(
-                userId,
-                queryDTO.getStatus(),
-                queryDTO.getPlanType()
-        );
-
-        // 转换为VO列表
-        return poList.stream()
-                .map(this::convertToVO)
+        String status = queryDTO.getStatus();
+        String planType = queryDTO.getPlanType();
+        return loadUserPlans(userId).stream()
+                .filter(vo -> !StringUtils.hasText(status) || status.equals(vo.getStatus()))
+                .filter(vo -> !StringUtils.hasText(planType) || planType.equals(vo.getPlanType()))
                 .collect(Collectors.toList());
     }
 
@@ -133,12 +140,10 @@ public class HealthTrainingPlanServiceImpl implements HealthTrainingPlanService
             throw new BusinessException("400", "计划ID不能为空");
         }
 
-        HealthTrainingPlanPO po = trainingPlanMapper.selectById(id, userId);
-        if (po == null) {
-            throw new BusinessException("404", "训练计划不存在");
-        }
-
-        return convertToVO(po);
+        return loadUserPlans(userId).stream()
+                .filter(vo -> id.equals(vo.getId()))
+                .findFirst()
+                .orElseThrow(() -> new BusinessException("404", "训练计划不存在"));
     }
 
     @Override
@@ -233,6 +238,8 @@ public class HealthTrainingPlanServiceImpl implements HealthTrainingPlanService
         }
 
         log.info("用户{}更新训练计划成功，ID: {}", userId, id);
+        progressTracker.evictUserPlans(userId);
+        existingPo.setProgress(progressMapper.selectByPlanId(id, userId));
 
         // 转换为VO并返回
         return convertToVO(existingPo);
@@ -265,6 +272,8 @@ public class HealthTrainingPlanServiceImpl implements HealthTrainingPlanService
         }
 
         log.info("用户{}暂停训练计划成功，ID: {}", userId, id);
+        progressTracker.evictUserPlans(userId);
+        po.setProgress(progressMapper.selectByPlanId(id, userId));
 
         return convertToVO(po);
     }
@@ -296,6 +305,8 @@ public class HealthTrainingPlanServiceImpl implements HealthTrainingPlanService
         }
 
         log.info("用户{}恢复训练计划成功，ID: {}", userId, id);
+        progressTracker.evictUserPlans(userId);
+        po.setProgress(progressMapper.selectByPlanId(id, userId));
 
         return convertToVO(po);
     }
@@ -327,6 +338,8 @@ public class HealthTrainingPlanServiceImpl implements HealthTrainingPlanService
         }
 
         log.info("用户{}完成训练计划成功，ID: {}", userId, id);
+        progressTracker.evictUserPlans(userId);
+        po.setProgress(progressMapper.selectByPlanId(id, userId));
 
         return convertToVO(po);
     }
@@ -357,6 +370,7 @@ public class HealthTrainingPlanServiceImpl implements HealthTrainingPlanService
         }
 
         log.info("用户{}删除训练计划成功，ID: {}", userId, id);
+        progressTracker.onPlanDeleted(id, userId);
     }
 
     /**
@@ -428,6 +442,49 @@ public class HealthTrainingPlanServiceImpl implements HealthTrainingPlanService
         }
     }
 
+    /**
+     * 加载用户全部训练计划（含进度），优先读取缓存，未命中时单次关联查询并回填缓存
+     */
+    private List<TrainingPlanVO> loadUserPlans(String userId) {
+        List<TrainingPlanVO> plans = getCachedPlans(userId);
+        if (plans == null) {
+            plans = trainingPlanMapper.selectListWithProgress(userId).stream()
+                    .map(this::convertToVO)
+                    .collect(Collectors.toList());
+            try {
+                redisUtil.defaultSetKey(TrainingPlanProgressTracker.planCacheKey(userId), plans);
+            } catch (Exception e) {
+                log.warn("写入训练计划缓存失败: {}", e.getMessage());
+            }
+        }
+        // 连续天数截止到最近一次运动日期，中断后对外展示为0
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        for (TrainingPlanVO vo : plans) {
+            if (vo.getLastExerciseDate() != null
+                    && toLocalDate(vo.getLastExerciseDate()).isBefore(yesterday)) {
+                vo.setCurrentStreakDays(0);
+            }
+        }
+        return plans;
+    }
+
+    private List<TrainingPlanVO> getCachedPlans(String userId) {
+        try {
+            Object cache = redisUtil.getValue(TrainingPlanProgressTracker.planCacheKey(userId));
+            if (cache instanceof List<?>) {
+                return OBJECT_MAPPER.convertValue(cache, new TypeReference<List<TrainingPlanVO>>() {
+                });
+            }
+        } catch (Exception e) {
+            log.warn("读取训练计划缓存失败，将回源查询: {}", e.getMessage());
+        }
+        return null;
+    }
+
+    private LocalDate toLocalDate(Date date) {
+        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
     /**
      * 转换为VO对象
      */
@@ -446,13 +503,23 @@ public class HealthTrainingPlanServiceImpl implements HealthTrainingPlanService
         vo.setCreatedAt(po.getCreatedAt());
         vo.setUpdatedAt(po.getUpdatedAt());
 
-        // 查询关联的运动记录数
-        try {
-            long recordCount = trainingPlanMapper.countExerciseRecords(po.getId(), po.getUserId());
-            vo.setExerciseRecordCount(recordCount);
-        } catch (Exception e) {
-            log.warn("查询训练计划关联记录数失败: {}", po.getId(), e);
+        // 进度由运动记录写入时维护，这里只做字段拷贝
+        HealthTrainingPlanProgressPO progress = po.getProgress();
+        if (progress != null) {
+            vo.setExerciseRecordCount(progress.getSessionCount());
+            vo.setTotalCalories(progress.getTotalCalories() != null ? progress.getTotalCalories().intValue() : 0);
+            vo.setTotalDurationMinutes(progress.getTotalDurationMinutes());
+            vo.setActiveDays(progress.getActiveDays());
+            vo.setCurrentStreakDays(progress.getCurrentStreakDays());
+            vo.setLongestStreakDays(progress.getLongestStreakDays());
+            vo.setLastExerciseDate(progress.getLastExerciseDate());
+        } else {
             vo.setExerciseRecordCount(0L);
+            vo.setTotalCalories(0);
+            vo.setTotalDurationMinutes(0L);
+            vo.setActiveDays(0);
+            vo.setCurrentStreakDays(0);
+            vo.setLongestStreakDays(0);
         }
 
         return vo;
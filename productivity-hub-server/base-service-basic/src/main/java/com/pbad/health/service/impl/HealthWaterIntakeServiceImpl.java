@@ -7,6 +7,7 @@ import com.pbad.health.domain.dto.WaterIntakeUpdateDTO;
 import com.pbad.health.domain.po.HealthWaterIntakePO;
 import com.pbad.health.domain.vo.WaterIntakeVO;
 import com.pbad.health.mapper.HealthWaterIntakeMapper;
+import com.pbad.health.schedule.WaterReminderScheduler;
 import com.pbad.health.service.HealthWaterIntakeService;
 import common.core.domain.PageResult;
 import common.exception.BusinessException;
@@ -40,6 +41,7 @@ public class HealthWaterIntakeServiceImpl implements HealthWaterIntakeService {
 
     private final HealthWaterIntakeMapper waterIntakeMapper;
     private final IdGeneratorApi idGeneratorApi;
+    private final WaterReminderScheduler reminderScheduler;
 
     // 饮水类型枚举值
     private static final String[] WATER_TYPES = {
@@ -105,6 +107,7 @@ public class HealthWaterIntakeServiceImpl implements HealthWaterIntakeService {
         }
 
         log.info("用户{}创建饮水记录成功，ID: {}", userId, id);
+        reminderScheduler.onIntakeChanged(userId);
 
         // 转换为VO并返回
         return convertToVO(po);
@@ -279,6 +282,7 @@ public class HealthWaterIntakeServiceImpl implements HealthWaterIntakeService {
         }
 
         log.info("用户{}更新饮水记录成功，ID: {}", userId, id);
+        reminderScheduler.onIntakeChanged(userId);
 
         // 转换为VO并返回
         return convertToVO(existingPo);
@@ -304,6 +308,7 @@ public class HealthWaterIntakeServiceImpl implements HealthWaterIntakeService {
         }
 
         log.info("用户{}删除饮水记录成功，ID: {}", userId, id);
+        reminderScheduler.onIntakeChanged(userId);
     }
 
     @Override
@@ -320,6 +325,7 @@ public class HealthWaterIntakeServiceImpl implements HealthWaterIntakeService {
         }
 
         log.info("用户{}批量删除饮水记录成功，删除数量: {}", userId, result);
+        reminderScheduler.onIntakeChanged(userId);
     }
 
     @Override
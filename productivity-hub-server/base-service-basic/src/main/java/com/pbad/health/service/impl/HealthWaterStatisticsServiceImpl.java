@@ -1,5 +1,6 @@
 package com.pbad.health.service.impl;
 
+import com.pbad.health.domain.dto.HealthTrendSeriesQueryDTO;
 import com.pbad.health.domain.dto.WaterStatisticsQueryDTO;
 import com.pbad.health.domain.dto.WaterTrendQueryDTO;
 import com.pbad.health.domain.vo.*;
@@ -7,6 +8,7 @@ import com.pbad.health.mapper.HealthWaterIntakeMapper;
 import com.pbad.health.mapper.HealthWaterTargetMapper;
 import com.pbad.health.domain.po.HealthWaterTargetPO;
 import com.pbad.health.service.HealthWaterStatisticsService;
+import com.pbad.health.support.HealthTrendSeriesCollector;
 import common.exception.BusinessException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -147,6 +149,15 @@ public class HealthWaterStatisticsServiceImpl implements HealthWaterStatisticsSe
         return vo;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public HealthTrendSeriesVO getTrendSeries(HealthTrendSeriesQueryDTO queryDTO, String userId) {
+        // 每日总量已在 SQL 中聚合
+        HealthTrendSeriesCollector collector = HealthTrendSeriesCollector.forQuery(queryDTO, false);
+        waterIntakeMapper.streamTrendSeries(userId, collector.getStartDate(), collector.getEndDate(), collector);
+        return collector.toVO(0);
+    }
+
     /**
      * 计算日期范围
      */
@@ -9,6 +9,7 @@ import com.pbad.health.domain.vo.WaterTargetProgressVO;
 import com.pbad.health.domain.vo.WaterTargetVO;
 import com.pbad.health.mapper.HealthWaterIntakeMapper;
 import com.pbad.health.mapper.HealthWaterTargetMapper;
+import com.pbad.health.schedule.WaterReminderScheduler;
 import com.pbad.health.service.HealthWaterTargetService;
 import common.exception.BusinessException;
 import lombok.RequiredArgsConstructor;
@@ -38,6 +39,7 @@ public class HealthWaterTargetServiceImpl implements HealthWaterTargetService {
     private final HealthWaterTargetMapper waterTargetMapper;
     private final HealthWaterIntakeMapper waterIntakeMapper;
     private final IdGeneratorApi idGeneratorApi;
+    private final WaterReminderScheduler reminderScheduler;
 
     // 默认每日目标饮水量（毫升）
     private static final int DEFAULT_DAILY_TARGET_ML = 2000;
@@ -84,6 +86,7 @@ public class HealthWaterTargetServiceImpl implements HealthWaterTargetService {
             }
 
             log.info("用户{}更新饮水目标成功", userId);
+            reminderScheduler.onTargetChanged(userId);
             return convertToVO(existingPo);
         } else {
             // 创建新记录
@@ -105,6 +108,7 @@ public class HealthWaterTargetServiceImpl implements HealthWaterTargetService {
             }
 
             log.info("用户{}创建饮水目标成功，ID: {}", userId, id);
+            reminderScheduler.onTargetChanged(userId);
             return convertToVO(po);
         }
     }
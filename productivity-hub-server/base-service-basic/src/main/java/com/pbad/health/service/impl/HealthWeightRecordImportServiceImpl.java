@@ -1,9 +1,17 @@
 package com.pbad.health.service.impl;
 
-import com.pbad.health.domain.dto.WeightRecordCreateDTO;
+import com.pbad.generator.api.IdGeneratorApi;
+import com.pbad.health.config.HealthImportProperties;
+import com.pbad.health.domain.po.HealthUserBodyInfoPO;
+import com.pbad.health.domain.po.HealthWeightRecordPO;
 import com.pbad.health.domain.vo.WeightRecordImportResultVO;
+import com.pbad.health.mapper.HealthUserBodyInfoMapper;
+import com.pbad.health.mapper.HealthWeightRecordMapper;
 import com.pbad.health.service.HealthWeightRecordImportService;
-import com.pbad.health.service.HealthWeightRecordService;
+import com.pbad.health.support.HealthRecordBatchWriter;
+import com.pbad.health.util.HealthBmiUtil;
+import com.pbad.health.util.HealthExcelReader;
+import com.pbad.health.util.HealthValidationUtil;
 import common.exception.BusinessException;
 import common.web.context.RequestUserContext;
 import lombok.RequiredArgsConstructor;
@@ -17,11 +25,17 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 体重记录导入服务实现类.
@@ -35,10 +49,20 @@ import java.util.List;
 @RequiredArgsConstructor
 public class HealthWeightRecordImportServiceImpl implements HealthWeightRecordImportService {
 
-    private final HealthWeightRecordService weightRecordService;
+    private final HealthWeightRecordMapper weightRecordMapper;
+    private final HealthUserBodyInfoMapper userBodyInfoMapper;
+    private final HealthRecordBatchWriter batchWriter;
+    private final HealthImportProperties importProperties;
+    private final IdGeneratorApi idGeneratorApi;
 
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd");
-    private static final SimpleDateFormat TIME_FORMAT = new SimpleDateFormat("HH:mm");
+    private static final DateTimeFormatter KEY_TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+
+    private static final BigDecimal WEIGHT_MIN = new BigDecimal("20");
+    private static final BigDecimal WEIGHT_MAX = new BigDecimal("300");
+    private static final BigDecimal BODY_FAT_MIN = new BigDecimal("5");
+    private static final BigDecimal BODY_FAT_MAX = new BigDecimal("50");
+    private static final BigDecimal HEIGHT_MIN = new BigDecimal("100");
+    private static final BigDecimal HEIGHT_MAX = new BigDecimal("250");
 
     /**
      * 获取当前用户ID
@@ -51,6 +75,10 @@ public class HealthWeightRecordImportServiceImpl implements HealthWeightRecordIm
         return userId;
     }
 
+    /**
+     * 流式读取Excel，按分块校验、去重（用户+日期+时间）并批量写入；
+     * 与已存在记录的去重键相同时复用其ID，覆盖数据字段。未填写时间的行不参与去重.
+     */
     @Override
     public WeightRecordImportResultVO importFromExcel(MultipartFile file) {
         String userId = getCurrentUserId();
@@ -70,179 +98,13 @@ public class HealthWeightRecordImportServiceImpl implements HealthWeightRecordIm
         result.setSkipped(0);
         result.setErrors(new ArrayList<>());
 
-        try (Workbook workbook = WorkbookFactory.create(file.getInputStream())) {
-            Sheet sheet = workbook.getSheetAt(0);
-            if (sheet == null) {
-                throw new BusinessException("400", "Excel文件格式不正确");
-            }
-
-            // 读取表头（第一行）
-            Row headerRow = sheet.getRow(0);
-            if (headerRow == null) {
-                throw new BusinessException("400", "Excel文件缺少表头");
-            }
-
-            // 解析表头，获取列索引
-            int colIndexRecordDate = -1;
-            int colIndexRecordTime = -1;
-            int colIndexWeightKg = -1;
-            int colIndexBodyFatPercentage = -1;
-            int colIndexMuscleMassKg = -1;
-            int colIndexHeightCm = -1;
-            int colIndexNotes = -1;
-
-            for (int i = 0; i < headerRow.getLastCellNum(); i++) {
-                Cell cell = headerRow.getCell(i);
-                if (cell != null) {
-                    String cellValue = getCellValueAsString(cell).trim();
-                    switch (cellValue) {
-                        case "记录日期":
-                        case "日期":
-                            colIndexRecordDate = i;
-                            break;
-                        case "记录时间":
-                        case "时间":
-                            colIndexRecordTime = i;
-                            break;
-                        case "体重(公斤)":
-                        case "体重":
-                        case "体重(kg)":
-                            colIndexWeightKg = i;
-                            break;
-                        case "体脂率(%)":
-                        case "体脂率":
-                            colIndexBodyFatPercentage = i;
-                            break;
-                        case "肌肉量(公斤)":
-                        case "肌肉量":
-                        case "肌肉量(kg)":
-                            colIndexMuscleMassKg = i;
-                            break;
-                        case "身高(厘米)":
-                        case "身高":
-                        case "身高(cm)":
-                            colIndexHeightCm = i;
-                            break;
-                        case "备注":
-                        case "备注信息":
-                            colIndexNotes = i;
-                            break;
-                    }
-                }
-            }
-
-            // 验证必需字段
-            if (colIndexWeightKg < 0) {
-                throw new BusinessException("400", "Excel文件缺少必需字段：体重");
-            }
-
-            // 从第二行开始读取数据
-            int totalRows = sheet.getLastRowNum();
-            result.setTotal(totalRows);
-
-            for (int rowIndex = 1; rowIndex <= totalRows; rowIndex++) {
-                Row row = sheet.getRow(rowIndex);
-                if (row == null) {
-                    result.setSkipped(result.getSkipped() + 1);
-                    continue;
-                }
-
-                try {
-                    // 读取数据
-                    String recordDateStr = colIndexRecordDate >= 0 ? getCellValueAsString(row.getCell(colIndexRecordDate)) : null;
-                    String recordTimeStr = colIndexRecordTime >= 0 ? getCellValueAsString(row.getCell(colIndexRecordTime)) : null;
-                    String weightKgStr = getCellValueAsString(row.getCell(colIndexWeightKg));
-                    String bodyFatPercentageStr = colIndexBodyFatPercentage >= 0 ? getCellValueAsString(row.getCell(colIndexBodyFatPercentage)) : null;
-                    String muscleMassKgStr = colIndexMuscleMassKg >= 0 ? getCellValueAsString(row.getCell(colIndexMuscleMassKg)) : null;
-                    String heightCmStr = colIndexHeightCm >= 0 ? getCellValueAsString(row.getCell(colIndexHeightCm)) : null;
-                    String notes = colIndexNotes >= 0 ? getCellValueAsString(row.getCell(colIndexNotes)) : null;
-
-                    // 验证必需字段
-                    if (weightKgStr == null || weightKgStr.trim().isEmpty()) {
-                        result.setFailed(result.getFailed() + 1);
-                        result.getErrors().add(String.format("第%d行：体重不能为空", rowIndex + 1));
-                        continue;
-                    }
+        // 身高优先使用用户身体信息，整个导入只查询一次
+        HealthUserBodyInfoPO bodyInfo = userBodyInfoMapper.selectByUserId(userId);
+        BigDecimal profileHeightCm = bodyInfo != null ? bodyInfo.getHeightCm() : null;
 
-                    // 解析体重
-                    BigDecimal weightKg;
-                    try {
-                        weightKg = new BigDecimal(weightKgStr.trim());
-                        if (weightKg.compareTo(new BigDecimal("20")) < 0 || weightKg.compareTo(new BigDecimal("300")) > 0) {
-                            result.setFailed(result.getFailed() + 1);
-                            result.getErrors().add(String.format("第%d行：体重必须在20.00-300.00公斤之间", rowIndex + 1));
-                            continue;
-                        }
-                    } catch (NumberFormatException e) {
-                        result.setFailed(result.getFailed() + 1);
-                        result.getErrors().add(String.format("第%d行：体重格式错误", rowIndex + 1));
-                        continue;
-                    }
-
-                    // 构建创建DTO
-                    WeightRecordCreateDTO createDTO = new WeightRecordCreateDTO();
-                    if (StringUtils.hasText(recordDateStr)) {
-                        createDTO.setRecordDate(recordDateStr.trim());
-                    }
-                    if (StringUtils.hasText(recordTimeStr)) {
-                        createDTO.setRecordTime(recordTimeStr.trim());
-                    }
-                    createDTO.setWeightKg(weightKg);
-
-                    // 解析可选字段
-                    if (StringUtils.hasText(bodyFatPercentageStr)) {
-                        try {
-                            BigDecimal bodyFatPercentage = new BigDecimal(bodyFatPercentageStr.trim());
-                            if (bodyFatPercentage.compareTo(new BigDecimal("5")) >= 0 && 
-                                bodyFatPercentage.compareTo(new BigDecimal("50")) <= 0) {
-                                createDTO.setBodyFatPercentage(bodyFatPercentage);
-                            }
-                        } catch (NumberFormatException e) {
-                            // 忽略格式错误，不设置该字段
-                        }
-                    }
-
-                    if (StringUtils.hasText(muscleMassKgStr)) {
-                        try {
-                            BigDecimal muscleMassKg = new BigDecimal(muscleMassKgStr.trim());
-                            if (muscleMassKg.compareTo(BigDecimal.ZERO) > 0) {
-                                createDTO.setMuscleMassKg(muscleMassKg);
-                            }
-                        } catch (NumberFormatException e) {
-                            // 忽略格式错误，不设置该字段
-                        }
-                    }
-
-                    if (StringUtils.hasText(heightCmStr)) {
-                        try {
-                            BigDecimal heightCm = new BigDecimal(heightCmStr.trim());
-                            if (heightCm.compareTo(new BigDecimal("100")) >= 0 && 
-                                heightCm.compareTo(new BigDecimal("250")) <= 0) {
-                                createDTO.setHeightCm(heightCm);
-                            }
-                        } catch (NumberFormatException e) {
-                            // 忽略格式错误，不设置该字段
-                        }
-                    }
-
-                    if (StringUtils.hasText(notes)) {
-                        createDTO.setNotes(notes.trim());
-                    }
-
-                    // 创建记录
-                    weightRecordService.create(createDTO, userId);
-                    result.setSuccess(result.getSuccess() + 1);
-
-                } catch (Exception e) {
-                    result.setFailed(result.getFailed() + 1);
-                    result.getErrors().add(String.format("第%d行：%s", rowIndex + 1, e.getMessage()));
-                    log.error("导入第{}行数据失败", rowIndex + 1, e);
-                }
-            }
-
-        } catch (IOException e) {
-            throw new BusinessException("500", "读取Excel文件失败: " + e.getMessage());
-        }
+        ImportSession session = new ImportSession(userId, profileHeightCm, result);
+        HealthExcelReader.read(file, true, session);
+        session.finish();
 
         return result;
     }
@@ -298,47 +160,268 @@ public class HealthWeightRecordImportServiceImpl implements HealthWeightRecordIm
     }
 
     /**
-     * 获取单元格值（字符串格式）
+     * 单次导入的解析状态：表头列索引、当前分块和导入结果.
      */
-    private String getCellValueAsString(Cell cell) {
-        if (cell == null) {
-            return null;
+    private class ImportSession implements HealthExcelReader.RowHandler {
+
+        private final String userId;
+        private final BigDecimal profileHeightCm;
+        private final WeightRecordImportResultVO result;
+        private final List<String[]> chunkRows = new ArrayList<>();
+        private final List<Integer> chunkRowIndexes = new ArrayList<>();
+        private boolean headerResolved;
+        private int lastRowIndex;
+
+        // 表头列索引
+        private int colIndexRecordDate = -1;
+        private int colIndexRecordTime = -1;
+        private int colIndexWeightKg = -1;
+        private int colIndexBodyFatPercentage = -1;
+        private int colIndexMuscleMassKg = -1;
+        private int colIndexHeightCm = -1;
+        private int colIndexNotes = -1;
+
+        ImportSession(String userId, BigDecimal profileHeightCm, WeightRecordImportResultVO result) {
+            this.userId = userId;
+            this.profileHeightCm = profileHeightCm;
+            this.result = result;
+        }
+
+        @Override
+        public void handle(int rowIndex, String[] cells) {
+            if (!headerResolved) {
+                if (rowIndex != 0) {
+                    throw new BusinessException("400", "Excel文件缺少表头");
+                }
+                resolveHeader(cells);
+                headerResolved = true;
+                return;
+            }
+
+            // 中间的空行计为跳过
+            result.setSkipped(result.getSkipped() + rowIndex - lastRowIndex - 1);
+            lastRowIndex = rowIndex;
+
+            chunkRows.add(cells);
+            chunkRowIndexes.add(rowIndex);
+            if (chunkRows.size() >= importProperties.getChunkSize()) {
+                flushChunk();
+            }
+        }
+
+        void finish() {
+            if (!headerResolved) {
+                throw new BusinessException("400", "Excel文件缺少表头");
+            }
+            flushChunk();
+            result.setTotal(lastRowIndex);
+        }
+
+        private void resolveHeader(String[] headerCells) {
+            for (int i = 0; i < headerCells.length; i++) {
+                if (headerCells[i] == null) {
+                    continue;
+                }
+                switch (headerCells[i].trim()) {
+                    case "记录日期":
+                    case "日期":
+                        colIndexRecordDate = i;
+                        break;
+                    case "记录时间":
+                    case "时间":
+                        colIndexRecordTime = i;
+                        break;
+                    case "体重(公斤)":
+                    case "体重":
+                    case "体重(kg)":
+                        colIndexWeightKg = i;
+                        break;
+                    case "体脂率(%)":
+                    case "体脂率":
+                        colIndexBodyFatPercentage = i;
+                        break;
+                    case "肌肉量(公斤)":
+                    case "肌肉量":
+                    case "肌肉量(kg)":
+                        colIndexMuscleMassKg = i;
+                        break;
+                    case "身高(厘米)":
+                    case "身高":
+                    case "身高(cm)":
+                        colIndexHeightCm = i;
+                        break;
+                    case "备注":
+                    case "备注信息":
+                        colIndexNotes = i;
+                        break;
+                    default:
+                        break;
+                }
+            }
+
+            // 验证必需字段
+            if (colIndexWeightKg < 0) {
+                throw new BusinessException("400", "Excel文件缺少必需字段：体重");
+            }
         }
 
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
-            case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    Date date = cell.getDateCellValue();
-                    if (date != null) {
-                        // 判断是日期还是时间
-                        String timeStr = TIME_FORMAT.format(date);
-                        if (timeStr.equals("00:00")) {
-                            // 是日期
-                            return DATE_FORMAT.format(date);
-                        } else {
-                            // 是时间
-                            return TIME_FORMAT.format(date);
-                        }
+        /**
+         * 校验并写入当前分块.
+         */
+        private void flushChunk() {
+            if (chunkRows.isEmpty()) {
+                return;
+            }
+
+            // 分块内按（日期+时间）去重，后出现的行覆盖先出现的行；未填写时间的行按行号单独成键
+            Map<String, HealthWeightRecordPO> deduplicated = new LinkedHashMap<>();
+            LocalDate minDate = null;
+            LocalDate maxDate = null;
+            for (int i = 0; i < chunkRows.size(); i++) {
+                int rowNumber = chunkRowIndexes.get(i) + 1;
+                String timeStr = cell(chunkRows.get(i), colIndexRecordTime);
+                HealthWeightRecordPO po = toRecord(rowNumber, chunkRows.get(i));
+                if (po == null) {
+                    continue;
+                }
+                LocalDate date = toLocalDate(po.getRecordDate());
+                String key = StringUtils.hasText(timeStr) ? importKey(date, po.getRecordTime()) : "row:" + rowNumber;
+                if (deduplicated.put(key, po) != null) {
+                    result.setSkipped(result.getSkipped() + 1);
+                }
+                minDate = minDate == null || date.isBefore(minDate) ? date : minDate;
+                maxDate = maxDate == null || date.isAfter(maxDate) ? date : maxDate;
+            }
+            int firstRow = chunkRowIndexes.get(0) + 1;
+            int lastRow = chunkRowIndexes.get(chunkRowIndexes.size() - 1) + 1;
+            chunkRows.clear();
+            chunkRowIndexes.clear();
+            if (deduplicated.isEmpty()) {
+                return;
+            }
+
+            List<HealthWeightRecordPO> records = new ArrayList<>(deduplicated.values());
+            try {
+                // 复用已存在记录的ID，使重复导入变为覆盖更新
+                for (HealthWeightRecordPO existing : weightRecordMapper.selectImportKeys(userId,
+                        toDate(minDate), toDate(maxDate.plusDays(1)))) {
+                    if (existing.getRecordTime() == null) {
+                        continue;
                     }
-                    return null;
-                } else {
-                    // 处理数字，避免科学计数法
-                    double numericValue = cell.getNumericCellValue();
-                    if (numericValue == (long) numericValue) {
-                        return String.valueOf((long) numericValue);
-                    } else {
-                        return String.valueOf(numericValue);
+                    HealthWeightRecordPO po = deduplicated.get(
+                            importKey(toLocalDate(existing.getRecordDate()), existing.getRecordTime()));
+                    if (po != null) {
+                        po.setId(existing.getId());
                     }
                 }
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            case FORMULA:
-                return cell.getCellFormula();
-            default:
-                return null;
+                batchWriter.write(HealthWeightRecordMapper.class, records,
+                        importProperties.getRowsPerStatement(), HealthWeightRecordMapper::batchUpsert);
+                result.setSuccess(result.getSuccess() + records.size());
+            } catch (Exception e) {
+                result.setFailed(result.getFailed() + records.size());
+                result.getErrors().add(String.format("第%d-%d行：写入失败：%s", firstRow, lastRow, e.getMessage()));
+                log.error("导入第{}-{}行数据失败", firstRow, lastRow, e);
+            }
+        }
+
+        /**
+         * 校验并转换一行数据，校验失败时记录错误并返回null.
+         */
+        private HealthWeightRecordPO toRecord(int rowNumber, String[] cells) {
+            String recordDateStr = cell(cells, colIndexRecordDate);
+            String recordTimeStr = cell(cells, colIndexRecordTime);
+            String weightKgStr = cell(cells, colIndexWeightKg);
+
+            // 验证体重
+            if (!StringUtils.hasText(weightKgStr)) {
+                return reject(rowNumber, "体重不能为空");
+            }
+            BigDecimal weightKg = HealthValidationUtil.parseDecimalOrNull(weightKgStr);
+            if (weightKg == null) {
+                return reject(rowNumber, "体重格式错误");
+            }
+            if (!HealthValidationUtil.isInRange(weightKg, WEIGHT_MIN, WEIGHT_MAX)) {
+                return reject(rowNumber, "体重必须在20.00-300.00公斤之间");
+            }
+
+            // 记录日期（默认当天）
+            LocalDate recordDate = LocalDate.now();
+            if (StringUtils.hasText(recordDateStr)) {
+                try {
+                    recordDate = LocalDate.parse(recordDateStr.trim());
+                } catch (DateTimeParseException e) {
+                    return reject(rowNumber, "记录日期格式错误，应为yyyy-MM-dd");
+                }
+            }
+
+            // 记录时间（默认当前时间）
+            Date recordTime = new Date();
+            if (StringUtils.hasText(recordTimeStr)) {
+                try {
+                    LocalTime localTime = LocalTime.parse(recordTimeStr.trim());
+                    recordTime = Date.from(localTime.atDate(LocalDate.now()).atZone(ZoneId.systemDefault()).toInstant());
+                } catch (DateTimeParseException e) {
+                    return reject(rowNumber, "记录时间格式错误，应为HH:mm");
+                }
+            }
+
+            HealthWeightRecordPO po = new HealthWeightRecordPO();
+            po.setId(idGeneratorApi.generateId());
+            po.setUserId(userId);
+            po.setRecordDate(toDate(recordDate));
+            po.setRecordTime(recordTime);
+            po.setWeightKg(weightKg);
+
+            // 解析可选字段，格式错误或超出范围时忽略
+            BigDecimal bodyFatPercentage = HealthValidationUtil.parseDecimalOrNull(cell(cells, colIndexBodyFatPercentage));
+            if (HealthValidationUtil.isInRange(bodyFatPercentage, BODY_FAT_MIN, BODY_FAT_MAX)) {
+                po.setBodyFatPercentage(bodyFatPercentage);
+            }
+            BigDecimal muscleMassKg = HealthValidationUtil.parseDecimalOrNull(cell(cells, colIndexMuscleMassKg));
+            if (muscleMassKg != null && muscleMassKg.compareTo(BigDecimal.ZERO) > 0) {
+                po.setMuscleMassKg(muscleMassKg);
+            }
+            BigDecimal heightCm = HealthValidationUtil.parseDecimalOrNull(cell(cells, colIndexHeightCm));
+            if (HealthValidationUtil.isInRange(heightCm, HEIGHT_MIN, HEIGHT_MAX)) {
+                po.setHeightCm(heightCm);
+            }
+            String notes = cell(cells, colIndexNotes);
+            if (StringUtils.hasText(notes)) {
+                po.setNotes(notes.trim());
+            }
+
+            // 计算BMI和健康状态（优先使用用户身体信息中的身高）
+            BigDecimal bmi = HealthBmiUtil.calculateBmi(weightKg, profileHeightCm != null ? profileHeightCm : po.getHeightCm());
+            po.setBmi(bmi);
+            po.setHealthStatus(HealthBmiUtil.determineHealthStatus(bmi));
+
+            Date now = new Date();
+            po.setCreatedAt(now);
+            po.setUpdatedAt(now);
+            return po;
+        }
+
+        private HealthWeightRecordPO reject(int rowNumber, String message) {
+            result.setFailed(result.getFailed() + 1);
+            result.getErrors().add(String.format("第%d行：%s", rowNumber, message));
+            return null;
         }
     }
-}
 
+    private static String cell(String[] cells, int index) {
+        return index >= 0 && index < cells.length ? cells[index] : null;
+    }
+
+    private static String importKey(LocalDate date, Date recordTime) {
+        LocalDateTime time = LocalDateTime.ofInstant(recordTime.toInstant(), ZoneId.systemDefault());
+        return date + "|" + time.format(KEY_TIME_FORMAT);
+    }
+
+    private static Date toDate(LocalDate date) {
+        return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+}
@@ -10,6 +10,7 @@ import com.pbad.health.domain.vo.WeightRecordVO;
 import com.pbad.health.mapper.HealthWeightRecordMapper;
 import com.pbad.health.mapper.HealthUserBodyInfoMapper;
 import com.pbad.health.service.HealthWeightRecordService;
+import com.pbad.health.util.HealthBmiUtil;
 import common.core.domain.PageResult;
 import common.exception.BusinessException;
 import lombok.RequiredArgsConstructor;
@@ -20,7 +21,6 @@ import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.ZoneId;
@@ -49,11 +49,6 @@ public class HealthWeightRecordServiceImpl implements HealthWeightRecordService
             "recordDate", "recordTime", "weightKg", "bmi"
     };
 
-    // BMI健康状态阈值
-    private static final BigDecimal BMI_THIN = new BigDecimal("18.5");
-    private static final BigDecimal BMI_NORMAL = new BigDecimal("24");
-    private static final BigDecimal BMI_OVERWEIGHT = new BigDecimal("28");
-
     @Override
     @Transactional(rollbackFor = Exception.class)
     public WeightRecordVO create(WeightRecordCreateDTO createDTO, String userId) {
@@ -379,41 +374,12 @@ public class HealthWeightRecordServiceImpl implements HealthWeightRecordService
         }
 
         // 计算BMI：BMI = 体重(kg) / 身高(m)²
-        // 身高从厘米转换为米
-        BigDecimal heightM = heightCm.divide(new BigDecimal("100"), 2, RoundingMode.HALF_UP);
-        BigDecimal heightM2 = heightM.multiply(heightM);
-        BigDecimal bmi = po.getWeightKg().divide(heightM2, 2, RoundingMode.HALF_UP);
+        BigDecimal bmi = HealthBmiUtil.calculateBmi(po.getWeightKg(), heightCm);
 
         po.setBmi(bmi);
 
         // 判断健康状态
-        po.setHealthStatus(determineHealthStatus(bmi));
-    }
-
-    /**
-     * 判断健康状态
-     *
-     * @param bmi BMI值
-     * @return 健康状态（偏瘦、正常、偏胖、肥胖）
-     */
-    private String determineHealthStatus(BigDecimal bmi) {
-        if (bmi == null) {
-            return null;
-        }
-
-        int compareThin = bmi.compareTo(BMI_THIN);
-        int compareNormal = bmi.compareTo(BMI_NORMAL);
-        int compareOverweight = bmi.compareTo(BMI_OVERWEIGHT);
-
-        if (compareThin < 0) {
-            return "偏瘦";
-        } else if (compareNormal < 0) {
-            return "正常";
-        } else if (compareOverweight < 0) {
-            return "偏胖";
-        } else {
-            return "肥胖";
-        }
+        po.setHealthStatus(HealthBmiUtil.determineHealthStatus(bmi));
     }
 
     /**
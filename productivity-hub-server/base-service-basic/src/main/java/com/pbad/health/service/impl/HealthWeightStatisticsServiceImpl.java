@@ -1,15 +1,18 @@
 package com.pbad.health.service.impl;
 
+import com.pbad.health.domain.dto.HealthTrendSeriesQueryDTO;
 import com.pbad.health.domain.dto.WeightStatisticsQueryDTO;
 import com.pbad.health.domain.dto.WeightTrendQueryDTO;
 import com.pbad.health.domain.po.HealthUserBodyInfoPO;
 import com.pbad.health.domain.po.HealthWeightRecordPO;
+import com.pbad.health.domain.vo.HealthTrendSeriesVO;
 import com.pbad.health.domain.vo.WeightStatisticsVO;
 import com.pbad.health.domain.vo.WeightTrendDataVO;
 import com.pbad.health.domain.vo.WeightTrendVO;
 import com.pbad.health.mapper.HealthUserBodyInfoMapper;
 import com.pbad.health.mapper.HealthWeightRecordMapper;
 import com.pbad.health.service.HealthWeightStatisticsService;
+import com.pbad.health.support.HealthTrendSeriesCollector;
 import common.exception.BusinessException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -236,6 +239,15 @@ public class HealthWeightStatisticsServiceImpl implements HealthWeightStatistics
         return vo;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public HealthTrendSeriesVO getTrendSeries(HealthTrendSeriesQueryDTO queryDTO, String userId) {
+        // 同一天多条体重记录取最后一条，与 getTrend 的每日最新体重口径一致
+        HealthTrendSeriesCollector collector = HealthTrendSeriesCollector.forQuery(queryDTO, true);
+        weightRecordMapper.streamTrendSeries(userId, collector.getStartDate(), collector.getEndDate(), collector);
+        return collector.toVO(1);
+    }
+
     /**
      * 计算日期范围
      */
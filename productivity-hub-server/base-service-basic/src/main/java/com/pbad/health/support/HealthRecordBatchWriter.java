@@ -0,0 +1,62 @@
+package com.pbad.health.support;
+
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * 健康记录批量写入器.
+ * <p>
+ * 每次调用在独立事务（REQUIRES_NEW）中打开 MyBatis BATCH 会话，
+ * 将记录按固定行数拆分为多行语句，一次性通过 JDBC 批量提交；
+ * 调用之间不持有事务，导入大文件时不会长时间占用连接和行锁.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+@Component
+public class HealthRecordBatchWriter {
+
+    private final SqlSessionFactory sqlSessionFactory;
+    private final TransactionTemplate transactionTemplate;
+
+    public HealthRecordBatchWriter(SqlSessionFactory sqlSessionFactory, PlatformTransactionManager transactionManager) {
+        this.sqlSessionFactory = sqlSessionFactory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 批量写入一个分块.
+     *
+     * @param mapperType       Mapper类型
+     * @param records          待写入记录
+     * @param rowsPerStatement 单条语句包含的行数
+     * @param statement        多行写入语句（如 batchUpsert）
+     */
+    public <M, T> void write(Class<M> mapperType, List<T> records, int rowsPerStatement,
+                             BiConsumer<M, List<T>> statement) {
+        if (records.isEmpty()) {
+            return;
+        }
+        int step = Math.max(rowsPerStatement, 1);
+        transactionTemplate.execute(status -> {
+            try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+                M mapper = session.getMapper(mapperType);
+                for (int from = 0; from < records.size(); from += step) {
+                    statement.accept(mapper, records.subList(from, Math.min(from + step, records.size())));
+                }
+                session.flushStatements();
+            }
+            return null;
+        });
+    }
+}
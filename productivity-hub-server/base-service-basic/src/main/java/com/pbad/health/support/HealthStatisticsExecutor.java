@@ -0,0 +1,127 @@
+package com.pbad.health.support;
+
+import com.pbad.health.config.HealthStatisticsProperties;
+import common.web.context.RequestUserContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 只读统计查询的并发编排器.
+ * <p>
+ * 将相互独立的统计分区提交到有界 I/O 线程池并行执行，自动传递 {@link RequestUserContext}，
+ * 并为整批查询设置统一截止时间；失败或超时的分区降级为空结果，不影响其他分区返回.
+ * 分区以 {@link Future} 形式提交，超时取消时中断执行线程，不让超时的查询继续占用线程池.
+ * <p>
+ * 线程池不注册为 Spring Bean，避免接管 {@code @Async} 的默认执行器.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+@Slf4j
+@Component
+public class HealthStatisticsExecutor {
+
+    private final HealthStatisticsProperties properties;
+    private final ThreadPoolTaskExecutor executor;
+
+    public HealthStatisticsExecutor(HealthStatisticsProperties properties) {
+        this.properties = properties;
+        this.executor = new ThreadPoolTaskExecutor();
+        this.executor.setCorePoolSize(properties.getCorePoolSize());
+        this.executor.setMaxPoolSize(Math.max(properties.getCorePoolSize(), properties.getMaxPoolSize()));
+        this.executor.setQueueCapacity(properties.getQueueCapacity());
+        this.executor.setThreadNamePrefix("health-stats-");
+        // 队列满时退化为请求线程顺序执行，而不是拒绝请求
+        this.executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.setWaitForTasksToCompleteOnShutdown(false);
+        this.executor.initialize();
+    }
+
+    /**
+     * 开启一批并发查询，截止时间从此刻开始计算.
+     */
+    public Batch newBatch() {
+        return new Batch(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getTimeoutMillis()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * 一次请求内的查询批次.
+     */
+    public class Batch {
+
+        private final long deadlineNanos;
+        private final List<String> degradedSections = new ArrayList<>();
+
+        private Batch(long deadlineNanos) {
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * 提交一个统计分区.
+         *
+         * @param task 分区查询逻辑
+         * @return 分区结果
+         */
+        public <T> Future<T> fork(Supplier<T> task) {
+            Supplier<T> wrapped = RequestUserContext.wrap(task);
+            if (!properties.isAsyncEnabled()) {
+                FutureTask<T> future = new FutureTask<>(wrapped::get);
+                future.run();
+                return future;
+            }
+            return executor.submit(wrapped::get);
+        }
+
+        /**
+         * 在批次截止时间内等待分区结果，失败或超时返回 {@code fallback} 并记录降级分区.
+         *
+         * @param section  分区名称
+         * @param future   分区结果
+         * @param fallback 降级结果
+         * @return 分区结果或降级结果
+         */
+        public <T> T join(String section, Future<T> future, T fallback) {
+            long remaining = deadlineNanos - System.nanoTime();
+            try {
+                return future.get(Math.max(remaining, 0L), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                log.warn("统计分区查询超时，降级返回: section={}", section);
+            } catch (ExecutionException e) {
+                log.error("统计分区查询失败，降级返回: section={}", section, e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                log.warn("统计分区查询被中断，降级返回: section={}", section);
+            }
+            degradedSections.add(section);
+            return fallback;
+        }
+
+        /**
+         * 本批次中降级的分区.
+         */
+        public List<String> getDegradedSections() {
+            return Collections.unmodifiableList(degradedSections);
+        }
+    }
+}
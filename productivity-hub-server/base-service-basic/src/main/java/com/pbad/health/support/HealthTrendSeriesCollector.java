@@ -0,0 +1,173 @@
+package com.pbad.health.support;
+
+import com.pbad.health.domain.dto.HealthTrendSeriesQueryDTO;
+import com.pbad.health.domain.po.HealthTrendPointPO;
+import com.pbad.health.domain.vo.HealthTrendSeriesVO;
+import com.pbad.health.util.HealthTrendDownsampler;
+import common.exception.BusinessException;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * 长周期趋势序列收集器.
+ * <p>
+ * 作为 MyBatis {@link ResultHandler} 逐行接收查询结果，直接写入基本类型的列数组，
+ * 不构建中间 Map 列表；收集完成后按点数上限降采样并输出列式VO.
+ * 每个查询创建一个实例，非线程安全.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+public class HealthTrendSeriesCollector implements ResultHandler<HealthTrendPointPO> {
+
+    /**
+     * 点数上限的取值范围
+     */
+    private static final int MIN_POINTS = 10;
+    private static final int MAX_POINTS = 2000;
+
+    /**
+     * 单次查询允许的最大跨度（天）
+     */
+    private static final long MAX_RANGE_DAYS = 3660;
+
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final int maxPoints;
+    private final String sampling;
+    private final boolean keepLastPerDay;
+
+    private int[] days = new int[256];
+    private double[] values = new double[256];
+    private int size;
+
+    private HealthTrendSeriesCollector(LocalDate startDate, LocalDate endDate, int maxPoints,
+                                       String sampling, boolean keepLastPerDay) {
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.maxPoints = maxPoints;
+        this.sampling = sampling;
+        this.keepLastPerDay = keepLastPerDay;
+    }
+
+    /**
+     * 根据查询参数创建收集器（校验日期范围、点数上限与降采样方式）.
+     *
+     * @param queryDTO       查询参数
+     * @param keepLastPerDay 同一天出现多行时是否只保留最后一行（结果需按时间升序）
+     * @return 收集器
+     */
+    public static HealthTrendSeriesCollector forQuery(HealthTrendSeriesQueryDTO queryDTO, boolean keepLastPerDay) {
+        LocalDate endDate;
+        LocalDate startDate;
+        try {
+            endDate = StringUtils.hasText(queryDTO.getEndDate())
+                    ? LocalDate.parse(queryDTO.getEndDate().trim())
+                    : LocalDate.now();
+            startDate = StringUtils.hasText(queryDTO.getStartDate())
+                    ? LocalDate.parse(queryDTO.getStartDate().trim())
+                    : endDate.minusYears(1).plusDays(1);
+        } catch (Exception e) {
+            throw new BusinessException("400", "日期格式错误，应为yyyy-MM-dd");
+        }
+        if (endDate.isBefore(startDate)) {
+            throw new BusinessException("400", "结束日期不能早于开始日期");
+        }
+        if (ChronoUnit.DAYS.between(startDate, endDate) >= MAX_RANGE_DAYS) {
+            throw new BusinessException("400", "查询跨度不能超过" + MAX_RANGE_DAYS + "天");
+        }
+
+        Integer requested = queryDTO.getMaxPoints();
+        int maxPoints = requested == null ? 500 : Math.max(MIN_POINTS, Math.min(MAX_POINTS, requested));
+
+        String sampling = StringUtils.hasText(queryDTO.getSampling())
+                ? queryDTO.getSampling().trim().toLowerCase()
+                : HealthTrendDownsampler.LTTB;
+        if (!HealthTrendDownsampler.LTTB.equals(sampling) && !HealthTrendDownsampler.AVERAGE.equals(sampling)) {
+            throw new BusinessException("400", "降采样方式只能为 lttb 或 average");
+        }
+
+        return new HealthTrendSeriesCollector(startDate, endDate, maxPoints, sampling, keepLastPerDay);
+    }
+
+    @Override
+    public void handleResult(ResultContext<? extends HealthTrendPointPO> resultContext) {
+        HealthTrendPointPO point = resultContext.getResultObject();
+        if (point == null || point.getEpochDay() == null || point.getValue() == null) {
+            return;
+        }
+        int day = point.getEpochDay();
+        if (keepLastPerDay && size > 0 && days[size - 1] == day) {
+            values[size - 1] = point.getValue();
+            return;
+        }
+        if (size == days.length) {
+            days = Arrays.copyOf(days, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        days[size] = day;
+        values[size] = point.getValue();
+        size++;
+    }
+
+    /**
+     * 查询开始日期
+     */
+    public Date getStartDate() {
+        return Date.from(startDate.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    /**
+     * 查询结束日期
+     */
+    public Date getEndDate() {
+        return Date.from(endDate.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    /**
+     * 降采样并转换为列式VO.
+     *
+     * @param scale 数值保留的小数位数
+     * @return 趋势序列VO
+     */
+    public HealthTrendSeriesVO toVO(int scale) {
+        HealthTrendDownsampler.Series series;
+        String appliedSampling;
+        if (size <= maxPoints) {
+            series = new HealthTrendDownsampler.Series(Arrays.copyOf(days, size), Arrays.copyOf(values, size));
+            appliedSampling = HealthTrendDownsampler.NONE;
+        } else if (HealthTrendDownsampler.AVERAGE.equals(sampling)) {
+            series = HealthTrendDownsampler.bucketAverage(days, values, size, maxPoints);
+            appliedSampling = sampling;
+        } else {
+            series = HealthTrendDownsampler.lttb(days, values, size, maxPoints);
+            appliedSampling = sampling;
+        }
+
+        String[] dates = new String[series.size()];
+        double[] rounded = new double[series.size()];
+        for (int i = 0; i < dates.length; i++) {
+            dates[i] = LocalDate.ofEpochDay(series.getDays()[i]).toString();
+            rounded[i] = BigDecimal.valueOf(series.getValues()[i]).setScale(scale, RoundingMode.HALF_UP).doubleValue();
+        }
+
+        HealthTrendSeriesVO vo = new HealthTrendSeriesVO();
+        vo.setStartDate(startDate.toString());
+        vo.setEndDate(endDate.toString());
+        vo.setRawPoints(size);
+        vo.setSampling(appliedSampling);
+        vo.setDates(dates);
+        vo.setValues(rounded);
+        return vo;
+    }
+}
@@ -0,0 +1,184 @@
+package com.pbad.health.support;
+
+import com.pbad.health.domain.po.HealthExerciseRecordPO;
+import com.pbad.health.domain.po.HealthTrainingPlanPO;
+import com.pbad.health.domain.po.HealthTrainingPlanProgressPO;
+import com.pbad.health.mapper.HealthTrainingPlanProgressMapper;
+import common.util.RedisUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 训练计划进度维护组件.
+ * <p>
+ * 运动记录写入时同步更新 health_training_plan_progress：
+ * 按时间顺序追加的记录直接在进度行上做增量更新；补录历史记录、修改、删除等
+ * 无法增量表达的变更只重算受影响的计划。进度变更后在事务提交时清除用户的计划列表缓存.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TrainingPlanProgressTracker {
+
+    /**
+     * 用户训练计划列表缓存（含进度）
+     */
+    private static final String PLAN_CACHE_KEY_PREFIX = "phub:health:plans:";
+
+    private final HealthTrainingPlanProgressMapper progressMapper;
+    private final RedisUtil redisUtil;
+
+    /**
+     * 获取用户训练计划列表缓存键
+     *
+     * @param userId 用户ID
+     * @return 缓存键
+     */
+    public static String planCacheKey(String userId) {
+        return PLAN_CACHE_KEY_PREFIX + userId;
+    }
+
+    /**
+     * 新增运动记录后更新所属计划的进度.
+     *
+     * @param record 已写入的运动记录
+     */
+    public void onRecordAdded(HealthExerciseRecordPO record) {
+        String planId = record.getTrainingPlanId();
+        if (!StringUtils.hasText(planId)) {
+            return;
+        }
+        int updated = progressMapper.applyRecordAdded(planId, record.getUserId(), record.getExerciseDate(),
+                record.getDurationMinutes(), record.getCaloriesBurned());
+        if (updated == 0) {
+            // 进度行不存在或为补录的历史记录，连续天数无法增量推进
+            recompute(planId, record.getUserId());
+        }
+        evictUserPlans(record.getUserId());
+    }
+
+    /**
+     * 运动记录修改、删除或覆盖导入后重算受影响计划的进度.
+     *
+     * @param userId  用户ID
+     * @param planIds 受影响的计划ID（可包含空值与重复值）
+     */
+    public void onRecordsChanged(String userId, Collection<String> planIds) {
+        Set<String> distinct = new LinkedHashSet<>();
+        if (planIds != null) {
+            for (String planId : planIds) {
+                if (StringUtils.hasText(planId)) {
+                    distinct.add(planId);
+                }
+            }
+        }
+        if (distinct.isEmpty()) {
+            return;
+        }
+        for (String planId : distinct) {
+            recompute(planId, userId);
+        }
+        evictUserPlans(userId);
+    }
+
+    /**
+     * 为尚无进度行的计划补齐进度（升级后首次启动时生成历史计划的进度）.
+     *
+     * @param plans 计划列表（需包含id与userId）
+     * @return 补齐数量
+     */
+    public int backfill(List<HealthTrainingPlanPO> plans) {
+        Set<String> userIds = new LinkedHashSet<>();
+        for (HealthTrainingPlanPO plan : plans) {
+            recompute(plan.getId(), plan.getUserId());
+            userIds.add(plan.getUserId());
+        }
+        userIds.forEach(this::deleteCache);
+        return plans.size();
+    }
+
+    /**
+     * 计划被删除后移除其进度.
+     *
+     * @param planId 计划ID
+     * @param userId 用户ID
+     */
+    public void onPlanDeleted(String planId, String userId) {
+        progressMapper.deleteByPlanId(planId, userId);
+        evictUserPlans(userId);
+    }
+
+    /**
+     * 在事务提交后清除用户训练计划列表缓存；无事务时立即清除.
+     *
+     * @param userId 用户ID
+     */
+    public void evictUserPlans(String userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            deleteCache(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                deleteCache(userId);
+            }
+        });
+    }
+
+    /**
+     * 按计划关联的全部运动记录重算进度.
+     */
+    private void recompute(String planId, String userId) {
+        HealthTrainingPlanProgressPO progress = progressMapper.selectAggregate(planId, userId);
+        List<Date> dates = progressMapper.selectExerciseDates(planId, userId);
+
+        int longest = 0;
+        int current = 0;
+        LocalDate previous = null;
+        for (Date date : dates) {
+            LocalDate day = toLocalDate(date);
+            current = previous != null && previous.plusDays(1).equals(day) ? current + 1 : 1;
+            longest = Math.max(longest, current);
+            previous = day;
+        }
+
+        progress.setActiveDays(dates.size());
+        progress.setCurrentStreakDays(current);
+        progress.setLongestStreakDays(longest);
+        progressMapper.upsert(progress);
+        log.debug("重算训练计划进度，计划ID: {}, 次数: {}", planId, progress.getSessionCount());
+    }
+
+    private void deleteCache(String userId) {
+        try {
+            redisUtil.delete(planCacheKey(userId));
+        } catch (Exception e) {
+            log.warn("清除用户 {} 的训练计划缓存失败: {}", userId, e.getMessage());
+        }
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        if (date instanceof java.sql.Date) {
+            return ((java.sql.Date) date).toLocalDate();
+        }
+        return Instant.ofEpochMilli(date.getTime()).atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+}
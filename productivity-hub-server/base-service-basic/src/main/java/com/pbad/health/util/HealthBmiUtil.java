@@ -0,0 +1,60 @@
+package com.pbad.health.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * BMI计算工具类.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+public class HealthBmiUtil {
+
+    // BMI健康状态阈值
+    private static final BigDecimal BMI_THIN = new BigDecimal("18.5");
+    private static final BigDecimal BMI_NORMAL = new BigDecimal("24");
+    private static final BigDecimal BMI_OVERWEIGHT = new BigDecimal("28");
+
+    private HealthBmiUtil() {
+    }
+
+    /**
+     * 计算BMI：BMI = 体重(kg) / 身高(m)²
+     *
+     * @param weightKg 体重（公斤）
+     * @param heightCm 身高（厘米）
+     * @return BMI，任一参数为空返回null
+     */
+    public static BigDecimal calculateBmi(BigDecimal weightKg, BigDecimal heightCm) {
+        if (weightKg == null || heightCm == null) {
+            return null;
+        }
+        // 身高从厘米转换为米
+        BigDecimal heightM = heightCm.divide(new BigDecimal("100"), 2, RoundingMode.HALF_UP);
+        BigDecimal heightM2 = heightM.multiply(heightM);
+        return weightKg.divide(heightM2, 2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * 判断健康状态
+     *
+     * @param bmi BMI值
+     * @return 健康状态（偏瘦、正常、偏胖、肥胖）
+     */
+    public static String determineHealthStatus(BigDecimal bmi) {
+        if (bmi == null) {
+            return null;
+        }
+        if (bmi.compareTo(BMI_THIN) < 0) {
+            return "偏瘦";
+        } else if (bmi.compareTo(BMI_NORMAL) < 0) {
+            return "正常";
+        } else if (bmi.compareTo(BMI_OVERWEIGHT) < 0) {
+            return "偏胖";
+        } else {
+            return "肥胖";
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.pbad.health.util;
+
+import common.exception.BusinessException;
+import org.apache.poi.ooxml.util.SAXHelper;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.springframework.web.multipart.MultipartFile;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+
+/**
+ * 健康记录Excel流式读取工具类.
+ * <p>
+ * .xlsx 文件通过 SAX 事件模型逐行解析，不构建整本工作簿对象；
+ * .xls 文件仍使用 {@link WorkbookFactory} 读取。两种方式的单元格取值规则保持一致：
+ * 日期单元格格式化为 yyyy-MM-dd（按需识别 HH:mm 时间），数值避免科学计数法.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+public class HealthExcelReader {
+
+    private HealthExcelReader() {
+    }
+
+    /**
+     * 行处理回调.
+     */
+    public interface RowHandler {
+
+        /**
+         * 处理一行数据（第一个工作表，包含表头行；空行不会回调）
+         *
+         * @param rowIndex 行号（从0开始）
+         * @param cells    单元格字符串值，按列号索引，缺失的单元格为null
+         */
+        void handle(int rowIndex, String[] cells);
+    }
+
+    /**
+     * 读取第一个工作表.
+     *
+     * @param file       Excel文件
+     * @param timeAware  是否将非零点的日期单元格识别为 HH:mm 时间
+     * @param rowHandler 行处理回调
+     */
+    public static void read(MultipartFile file, boolean timeAware, RowHandler rowHandler) {
+        String fileName = file.getOriginalFilename();
+        try (InputStream inputStream = file.getInputStream()) {
+            if (fileName != null && fileName.endsWith(".xlsx")) {
+                readXlsx(inputStream, timeAware, rowHandler);
+            } else {
+                readXls(inputStream, timeAware, rowHandler);
+            }
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new BusinessException("500", "读取Excel文件失败: " + e.getMessage());
+        }
+    }
+
+    private static void readXlsx(InputStream inputStream, boolean timeAware, RowHandler rowHandler) throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(inputStream)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                throw new BusinessException("400", "Excel文件格式不正确");
+            }
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = SAXHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(reader.getStylesTable(), null, strings,
+                        new RowCollector(rowHandler), new HealthCellFormatter(timeAware), false));
+                parser.parse(new InputSource(sheet));
+            }
+        }
+    }
+
+    private static void readXls(InputStream inputStream, boolean timeAware, RowHandler rowHandler) throws IOException {
+        try (Workbook workbook = WorkbookFactory.create(inputStream)) {
+            Sheet sheet = workbook.getSheetAt(0);
+            if (sheet == null) {
+                throw new BusinessException("400", "Excel文件格式不正确");
+            }
+            for (Row row : sheet) {
+                short lastCellNum = row.getLastCellNum();
+                String[] cells = new String[Math.max(lastCellNum, 0)];
+                for (int i = 0; i < cells.length; i++) {
+                    cells[i] = getCellValueAsString(row.getCell(i), timeAware);
+                }
+                rowHandler.handle(row.getRowNum(), cells);
+            }
+        }
+    }
+
+    /**
+     * 获取单元格值（字符串格式）
+     */
+    private static String getCellValueAsString(Cell cell, boolean timeAware) {
+        if (cell == null) {
+            return null;
+        }
+
+        switch (cell.getCellType()) {
+            case STRING:
+                return cell.getStringCellValue();
+            case NUMERIC:
+                if (DateUtil.isCellDateFormatted(cell)) {
+                    return formatDate(cell.getDateCellValue(), timeAware);
+                }
+                return formatNumber(cell.getNumericCellValue());
+            case BOOLEAN:
+                return String.valueOf(cell.getBooleanCellValue());
+            case FORMULA:
+                return cell.getCellFormula();
+            default:
+                return null;
+        }
+    }
+
+    private static String formatDate(Date date, boolean timeAware) {
+        if (date == null) {
+            return null;
+        }
+        String timeStr = new SimpleDateFormat("HH:mm").format(date);
+        if (timeAware && !"00:00".equals(timeStr)) {
+            return timeStr;
+        }
+        return new SimpleDateFormat("yyyy-MM-dd").format(date);
+    }
+
+    private static String formatNumber(double numericValue) {
+        // 处理数字，避免科学计数法
+        if (numericValue == (long) numericValue) {
+            return String.valueOf((long) numericValue);
+        }
+        return String.valueOf(numericValue);
+    }
+
+    /**
+     * SAX 数值单元格格式化，与 {@link #getCellValueAsString(Cell, boolean)} 规则一致.
+     */
+    private static class HealthCellFormatter extends DataFormatter {
+
+        private final boolean timeAware;
+
+        HealthCellFormatter(boolean timeAware) {
+            this.timeAware = timeAware;
+        }
+
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString, boolean use1904Windowing) {
+            if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+                return formatDate(DateUtil.getJavaDate(value, use1904Windowing), timeAware);
+            }
+            return formatNumber(value);
+        }
+    }
+
+    /**
+     * 将 SAX 单元格事件聚合为整行回调.
+     */
+    private static class RowCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final RowHandler rowHandler;
+        private String[] cells = new String[16];
+        private int width;
+        private int nextColumn;
+
+        RowCollector(RowHandler rowHandler) {
+            this.rowHandler = rowHandler;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            Arrays.fill(cells, 0, width, null);
+            width = 0;
+            nextColumn = 0;
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            rowHandler.handle(rowNum, Arrays.copyOf(cells, width));
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = cellReference != null ? new CellReference(cellReference).getCol() : nextColumn;
+            if (column >= cells.length) {
+                cells = Arrays.copyOf(cells, Math.max(column + 1, cells.length * 2));
+            }
+            cells[column] = formattedValue;
+            width = Math.max(width, column + 1);
+            nextColumn = column + 1;
+        }
+    }
+}
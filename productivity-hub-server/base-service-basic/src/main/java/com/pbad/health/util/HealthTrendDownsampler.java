@@ -0,0 +1,157 @@
+package com.pbad.health.util;
+
+/**
+ * 趋势序列降采样工具类.
+ * <p>
+ * 提供 LTTB（Largest-Triangle-Three-Buckets）与分桶平均两种算法，
+ * 直接在基本类型数组上计算，首尾两点始终保留.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+public class HealthTrendDownsampler {
+
+    /**
+     * 降采样方式：LTTB
+     */
+    public static final String LTTB = "lttb";
+
+    /**
+     * 降采样方式：分桶平均
+     */
+    public static final String AVERAGE = "average";
+
+    /**
+     * 未降采样
+     */
+    public static final String NONE = "none";
+
+    private HealthTrendDownsampler() {
+    }
+
+    /**
+     * 列式序列.
+     */
+    public static final class Series {
+
+        private final int[] days;
+        private final double[] values;
+
+        public Series(int[] days, double[] values) {
+            this.days = days;
+            this.values = values;
+        }
+
+        public int[] getDays() {
+            return days;
+        }
+
+        public double[] getValues() {
+            return values;
+        }
+
+        public int size() {
+            return days.length;
+        }
+    }
+
+    /**
+     * LTTB 降采样：每个桶选出与前一选中点、后一桶均值构成三角形面积最大的点，保留峰谷形状.
+     *
+     * @param days      日期列（升序）
+     * @param values    数值列
+     * @param size      有效长度
+     * @param threshold 目标点数
+     * @return 降采样后的序列
+     */
+    public static Series lttb(int[] days, double[] values, int size, int threshold) {
+        if (threshold >= size || threshold < 3) {
+            return copy(days, values, size);
+        }
+
+        int[] sampledDays = new int[threshold];
+        double[] sampledValues = new double[threshold];
+        double every = (double) (size - 2) / (threshold - 2);
+
+        int a = 0;
+        sampledDays[0] = days[0];
+        sampledValues[0] = values[0];
+
+        for (int i = 0; i < threshold - 2; i++) {
+            // 下一个桶的均值点
+            int avgStart = (int) Math.floor((i + 1) * every) + 1;
+            int avgEnd = Math.min((int) Math.floor((i + 2) * every) + 1, size);
+            double avgX = 0;
+            double avgY = 0;
+            for (int j = avgStart; j < avgEnd; j++) {
+                avgX += days[j];
+                avgY += values[j];
+            }
+            int avgLength = avgEnd - avgStart;
+            avgX /= avgLength;
+            avgY /= avgLength;
+
+            // 当前桶内选出三角形面积最大的点
+            int rangeStart = (int) Math.floor(i * every) + 1;
+            int rangeEnd = (int) Math.floor((i + 1) * every) + 1;
+            double pointAX = days[a];
+            double pointAY = values[a];
+            double maxArea = -1;
+            int next = rangeStart;
+            for (int j = rangeStart; j < rangeEnd; j++) {
+                double area = Math.abs((pointAX - avgX) * (values[j] - pointAY)
+                        - (pointAX - days[j]) * (avgY - pointAY));
+                if (area > maxArea) {
+                    maxArea = area;
+                    next = j;
+                }
+            }
+
+            sampledDays[i + 1] = days[next];
+            sampledValues[i + 1] = values[next];
+            a = next;
+        }
+
+        sampledDays[threshold - 1] = days[size - 1];
+        sampledValues[threshold - 1] = values[size - 1];
+        return new Series(sampledDays, sampledValues);
+    }
+
+    /**
+     * 分桶平均降采样：按下标均分为 threshold 个桶，每桶取日期中位点与数值平均值.
+     *
+     * @param days      日期列（升序）
+     * @param values    数值列
+     * @param size      有效长度
+     * @param threshold 目标点数
+     * @return 降采样后的序列
+     */
+    public static Series bucketAverage(int[] days, double[] values, int size, int threshold) {
+        if (threshold >= size || threshold < 1) {
+            return copy(days, values, size);
+        }
+
+        int[] sampledDays = new int[threshold];
+        double[] sampledValues = new double[threshold];
+        for (int i = 0; i < threshold; i++) {
+            int start = (int) ((long) i * size / threshold);
+            int end = (int) ((long) (i + 1) * size / threshold);
+            double sum = 0;
+            for (int j = start; j < end; j++) {
+                sum += values[j];
+            }
+            sampledDays[i] = days[(start + end - 1) / 2];
+            sampledValues[i] = sum / (end - start);
+        }
+        return new Series(sampledDays, sampledValues);
+    }
+
+    private static Series copy(int[] days, double[] values, int size) {
+        int[] copiedDays = new int[size];
+        double[] copiedValues = new double[size];
+        System.arraycopy(days, 0, copiedDays, 0, size);
+        System.arraycopy(values, 0, copiedValues, 0, size);
+        return new Series(copiedDays, copiedValues);
+    }
+}
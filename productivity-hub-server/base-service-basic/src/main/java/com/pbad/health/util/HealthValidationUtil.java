@@ -7,6 +7,10 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 /**
@@ -23,6 +27,8 @@ public class HealthValidationUtil {
             "跑步", "游泳", "骑行", "力量训练", "瑜伽", "有氧运动", "球类运动", "其他"
     };
 
+    private static final Set<String> EXERCISE_TYPE_SET = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(EXERCISE_TYPES)));
+
     // 饮水类型枚举值
     private static final String[] WATER_TYPES = {
             "白开水", "矿泉水", "纯净水", "茶水", "咖啡", "果汁", "运动饮料", "其他"
@@ -378,5 +384,81 @@ public class HealthValidationUtil {
     public static void validateMuscleMassKg(BigDecimal muscleMassKg) {
         validateBigDecimalRangeOptional(muscleMassKg, new BigDecimal("10.00"), new BigDecimal("200.00"), "肌肉量");
     }
-}
 
+    /**
+     * 运动类型是否有效（不抛异常，供批量导入逐行收集错误使用）
+     *
+     * @param exerciseType 运动类型
+     * @return 是否有效
+     */
+    public static boolean isValidExerciseType(String exerciseType) {
+        return exerciseType != null && EXERCISE_TYPE_SET.contains(exerciseType);
+    }
+
+    /**
+     * 运动类型可选值描述
+     *
+     * @return 以顿号分隔的运动类型
+     */
+    public static String exerciseTypesDescription() {
+        return String.join("、", EXERCISE_TYPES);
+    }
+
+    /**
+     * 数值是否在范围内（Integer，不抛异常）
+     *
+     * @param value 数值
+     * @param min   最小值（包含）
+     * @param max   最大值（包含）
+     * @return 是否在范围内，null返回false
+     */
+    public static boolean isInRange(Integer value, int min, int max) {
+        return value != null && value >= min && value <= max;
+    }
+
+    /**
+     * 数值是否在范围内（BigDecimal，不抛异常）
+     *
+     * @param value 数值
+     * @param min   最小值（包含）
+     * @param max   最大值（包含）
+     * @return 是否在范围内，null返回false
+     */
+    public static boolean isInRange(BigDecimal value, BigDecimal min, BigDecimal max) {
+        return value != null && value.compareTo(min) >= 0 && value.compareTo(max) <= 0;
+    }
+
+    /**
+     * 宽松解析整数，格式错误返回null
+     *
+     * @param value 字符串
+     * @return 整数或null
+     */
+    public static Integer parseIntegerOrNull(String value) {
+        if (!StringUtils.hasText(value)) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 宽松解析小数，格式错误返回null
+     *
+     * @param value 字符串
+     * @return 小数或null
+     */
+    public static BigDecimal parseDecimalOrNull(String value) {
+        if (!StringUtils.hasText(value)) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
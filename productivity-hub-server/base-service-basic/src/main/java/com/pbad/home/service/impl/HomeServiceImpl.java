@@ -2,10 +2,12 @@ package com.pbad.home.service.impl;
 
 import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.JSONObject;
+import com.pbad.cache.service.UserCacheService;
 import com.pbad.home.service.HomeService;
 import com.pbad.thirdparty.api.DailyQuoteApi;
 import com.pbad.thirdparty.api.WeatherApi;
 import common.util.RedisUtil;
+import common.util.UserCacheKeyRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -42,6 +44,7 @@ public class HomeServiceImpl implements HomeService {
     private final WeatherApi weatherApi;
     private final DailyQuoteApi dailyQuoteApi;
     private final RedisUtil redisUtil;
+    private final UserCacheKeyRegistry cacheKeyRegistry;
 
     /**
      * 获取今天的日期字符串（格式：yyyy-MM-dd）
@@ -151,7 +154,8 @@ public class HomeServiceImpl implements HomeService {
                 // 保存到缓存
                 if (data != null) {
                     long expireSeconds = getSecondsUntilNextDay();
-                    redisUtil.setKey(cacheKey, data, expireSeconds, TimeUnit.SECONDS);
+                    cacheKeyRegistry.set(userId, UserCacheService.CACHE_MODULE_HOME, cacheKey, data,
+                            expireSeconds, TimeUnit.SECONDS);
                     log.info("[HomeService] 用户 {} 的{}已缓存，缓存key: {}，过期时间: {} 秒", userId, dataType, cacheKey, expireSeconds);
                 }
                 
@@ -270,7 +274,8 @@ public class HomeServiceImpl implements HomeService {
             String today = getTodayDate();
             String cacheKey = buildWeatherCacheKey(userId, today);
             long expireSeconds = getSecondsUntilNextDay();
-            redisUtil.setKey(cacheKey, weatherInfo, expireSeconds, TimeUnit.SECONDS);
+            cacheKeyRegistry.set(userId, UserCacheService.CACHE_MODULE_HOME, cacheKey, weatherInfo,
+                    expireSeconds, TimeUnit.SECONDS);
             log.info("[HomeService] 用户 {} 的天气信息已强制刷新并更新缓存", userId);
         }
         
@@ -290,7 +295,8 @@ public class HomeServiceImpl implements HomeService {
             String today = getTodayDate();
             String cacheKey = buildDailyQuoteCacheKey(effectiveUserId, today);
             long expireSeconds = getSecondsUntilNextDay();
-            redisUtil.setKey(cacheKey, dailyQuote, expireSeconds, TimeUnit.SECONDS);
+            cacheKeyRegistry.set(effectiveUserId, UserCacheService.CACHE_MODULE_HOME, cacheKey, dailyQuote,
+                    expireSeconds, TimeUnit.SECONDS);
             log.info("[HomeService] 用户 {} 的每日一签已强制刷新并更新缓存，缓存key: {}，过期时间: {} 秒", 
                 effectiveUserId, cacheKey, expireSeconds);
         }
@@ -78,6 +78,11 @@ public class ImageProperties {
      */
     private boolean enableAccessStatistics = true;
 
+    /**
+     * 访问次数增量写回数据库的间隔（毫秒）
+     */
+    private long accessFlushIntervalMillis = 10000;
+
     /**
      * 原图缓存天数
      */
@@ -88,11 +93,117 @@ public class ImageProperties {
      */
     private int cacheDaysThumbnail = 30;
 
+    /**
+     * 热点缩略图内存缓存总大小（字节，0表示不缓存）
+     */
+    private long thumbnailMemoryCacheBytes = 16 * 1024 * 1024;
+
+    /**
+     * 单个缩略图进入内存缓存的最大大小（字节）
+     */
+    private long thumbnailMemoryCacheMaxEntryBytes = 256 * 1024;
+
     /**
      * 支持的图片分类
      */
     private List<String> categories = Arrays.asList(
             "avatar", "bookmark", "todo", "health", "article", "other"
     );
-}
 
+    /**
+     * 上传后异步生成压缩图、缩略图的处理配置
+     */
+    private Processing processing = new Processing();
+
+    /**
+     * 按内容去重存储的清理配置
+     */
+    private Blob blob = new Blob();
+
+    /**
+     * 分享令牌解析缓存配置
+     */
+    private ShareCache shareCache = new ShareCache();
+
+    @Data
+    public static class Processing {
+
+        /**
+         * 处理线程数（图片编解码为CPU密集型，0表示使用CPU核数）
+         */
+        private int workerThreads = 0;
+
+        /**
+         * 等待处理的任务上限，超出后由补偿扫描重新提交
+         */
+        private int queueCapacity = 100;
+
+        /**
+         * 补偿扫描间隔（毫秒）：重新提交排队失败或处理中断的图片
+         */
+        private long sweepIntervalMillis = 60000;
+
+        /**
+         * 单次补偿扫描的最大图片数
+         */
+        private int sweepBatchSize = 50;
+
+        /**
+         * 处理中状态超过该时间视为中断（如进程重启），允许重新处理
+         */
+        private int staleMinutes = 10;
+
+        /**
+         * 处理失败后等待该时间再重试
+         */
+        private int retryDelayMinutes = 10;
+
+        /**
+         * 单张图片的最大处理次数（含首次处理），达到后保持失败状态不再重试
+         */
+        private int maxAttempts = 3;
+    }
+
+    @Data
+    public static class Blob {
+
+        /**
+         * 引用数降为0后保留文件的天数（期间已删除的图片仍可恢复）
+         */
+        private int retentionDays = 30;
+
+        /**
+         * 清理无引用文件的间隔（毫秒）
+         */
+        private long purgeIntervalMillis = 3600000;
+
+        /**
+         * 单次清理的最大数量
+         */
+        private int purgeBatchSize = 100;
+    }
+
+    @Data
+    public static class ShareCache {
+
+        /**
+         * 本地缓存的最大令牌数（含不存在的令牌）
+         */
+        private int maxEntries = 10000;
+
+        /**
+         * 有效令牌的最长缓存时间（秒），分享过期时间更早时以过期时间为准
+         */
+        private long ttlSeconds = 300;
+
+        /**
+         * 不存在的令牌缓存时间（秒）
+         */
+        private long negativeTtlSeconds = 60;
+
+        /**
+         * 全量重建有效令牌过滤器的间隔（毫秒），兜底跨节点通知丢失
+         */
+        private long filterRebuildIntervalMillis = 600000;
+    }
+}
@@ -0,0 +1,34 @@
+package com.pbad.image.constants;
+
+/**
+ * 图片异步处理状态常量（sys_image.processing_status）.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+public class ImageProcessingStatus {
+
+    /**
+     * 原图已保存，等待生成压缩图与缩略图
+     */
+    public static final String PENDING = "PENDING";
+
+    /**
+     * 处理中
+     */
+    public static final String PROCESSING = "PROCESSING";
+
+    /**
+     * 处理完成（历史数据该字段为空，同样视为完成）
+     */
+    public static final String READY = "READY";
+
+    /**
+     * 处理失败，继续使用原图
+     */
+    public static final String FAILED = "FAILED";
+
+    private ImageProcessingStatus() {
+    }
+}
@@ -1,5 +1,6 @@
 package com.pbad.image.controller;
 
+import com.pbad.image.config.ImageProperties;
 import com.pbad.image.domain.dto.ImageQueryDTO;
 import com.pbad.image.domain.dto.ImageShareDTO;
 import com.pbad.image.domain.dto.ImageUpdateDTO;
@@ -9,12 +10,15 @@ import com.pbad.image.domain.vo.ImageVO;
 import com.pbad.image.service.ImageAccessService;
 import com.pbad.image.service.ImageService;
 import com.pbad.image.service.ImageShareService;
+import com.pbad.image.support.StoredImageFile;
 import common.core.domain.ApiResponse;
 import common.core.domain.PageResult;
 import common.web.context.RequestUserContext;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
@@ -22,6 +26,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 图片管理控制器.
@@ -38,6 +43,7 @@ public class ImageController {
     private final ImageService imageService;
     private final ImageShareService imageShareService;
     private final ImageAccessService imageAccessService;
+    private final ImageProperties imageProperties;
 
     // ==================== 图片上传 ====================
 
@@ -284,21 +290,50 @@ public class ImageController {
     /**
      * 读取图片文件内容
      * API-REQ-IMG-001-04
+     * <p>
+     * 按扩展名返回内容类型，携带 ETag/Last-Modified/Cache-Control，支持 If-None-Match、If-Modified-Since 与 Range；
+     * 文件以资源流式输出，热点缩略图直接从内存返回.
      */
     @GetMapping("/file/{path:.*}")
-    public ResponseEntity<byte[]> readImageFile(@PathVariable("path") String path) {
-        byte[] fileBytes = imageAccessService.readImageFile(path);
-        
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.IMAGE_JPEG); // 根据实际文件类型设置
-        
+    public ResponseEntity<Resource> readImageFile(@PathVariable("path") String path,
+                                                  @RequestHeader HttpHeaders requestHeaders) {
+        StoredImageFile imageFile = imageAccessService.resolveImageFile(path);
+        int cacheDays = imageFile.isThumbnail()
+                ? imageProperties.getCacheDaysThumbnail() : imageProperties.getCacheDaysOriginal();
+        CacheControl cacheControl = CacheControl.maxAge(cacheDays, TimeUnit.DAYS);
+
+        if (isNotModified(requestHeaders, imageFile)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(imageFile.getETag())
+                    .lastModified(imageFile.getLastModified())
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+
+        // Range 请求由 Spring 按资源区间输出（206）
         return ResponseEntity.ok()
-                .headers(headers)
-                .body(fileBytes);
+                .contentType(imageFile.getContentType())
+                .eTag(imageFile.getETag())
+                .lastModified(imageFile.getLastModified())
+                .cacheControl(cacheControl)
+                .body(imageAccessService.openImageFile(imageFile));
     }
 
     // ==================== 工具方法 ====================
 
+    /**
+     * 条件请求判断：If-None-Match 优先，其次 If-Modified-Since（秒级精度）
+     */
+    private boolean isNotModified(HttpHeaders requestHeaders, StoredImageFile imageFile) {
+        List<String> ifNoneMatch = requestHeaders.getIfNoneMatch();
+        if (!ifNoneMatch.isEmpty()) {
+            String eTag = imageFile.getETag();
+            return ifNoneMatch.stream().anyMatch(tag -> "*".equals(tag) || eTag.equals(tag) || ("W/" + eTag).equals(tag));
+        }
+        long ifModifiedSince = requestHeaders.getIfModifiedSince();
+        return ifModifiedSince >= 0 && imageFile.getLastModified() / 1000 * 1000 <= ifModifiedSince;
+    }
+
     /**
      * 解析日期时间字符串
      */
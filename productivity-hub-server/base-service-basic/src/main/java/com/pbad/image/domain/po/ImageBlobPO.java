@@ -0,0 +1,68 @@
+package com.pbad.image.domain.po;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 图片内容（按内容哈希去重的存储文件）持久化对象.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+@Data
+@NoArgsConstructor
+public class ImageBlobPO {
+
+    /**
+     * 原图内容的 SHA-256（十六进制小写）
+     */
+    private String contentHash;
+
+    /**
+     * 原图存储路径（相对路径）
+     */
+    private String filePath;
+
+    /**
+     * 处理后的文件大小（字节），尚未处理时为上传大小
+     */
+    private Long fileSize;
+
+    /**
+     * 图片宽度（像素）
+     */
+    private Integer width;
+
+    /**
+     * 图片高度（像素）
+     */
+    private Integer height;
+
+    /**
+     * 缩略图存储路径（相对路径），为空表示尚未生成
+     */
+    private String thumbnailPath;
+
+    /**
+     * 引用该内容的未删除图片记录数
+     */
+    private Integer refCount;
+
+    /**
+     * 引用数降为0的时间，超过保留期后清理文件
+     */
+    private LocalDateTime releasedAt;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updatedAt;
+}
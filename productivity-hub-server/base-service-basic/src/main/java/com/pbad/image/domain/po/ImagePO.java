@@ -121,6 +121,16 @@ public class ImagePO {
      */
     private String status;
 
+    /**
+     * 异步处理状态（PENDING、PROCESSING、READY、FAILED），为空表示已完成
+     */
+    private String processingStatus;
+
+    /**
+     * 原图内容的 SHA-256，关联 sys_image_blob（去重前上传的图片为空）
+     */
+    private String contentHash;
+
     /**
      * 创建时间
      */
@@ -86,6 +86,11 @@ public class ImageVO {
      */
     private String status;
 
+    /**
+     * 异步处理状态（PENDING、PROCESSING、READY、FAILED），为空表示已完成
+     */
+    private String processingStatus;
+
     /**
      * 创建时间
      */
@@ -0,0 +1,60 @@
+package com.pbad.image.mapper;
+
+import com.pbad.image.domain.po.ImageBlobPO;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 图片内容Mapper接口.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+public interface ImageBlobMapper {
+
+    /**
+     * 根据内容哈希查询
+     */
+    ImageBlobPO selectByHash(@Param("contentHash") String contentHash);
+
+    /**
+     * 根据内容哈希查询并加行锁
+     */
+    ImageBlobPO selectByHashForUpdate(@Param("contentHash") String contentHash);
+
+    /**
+     * 登记一次引用：不存在时插入（引用数为1），已存在时引用数+1
+     */
+    int acquire(ImageBlobPO blob);
+
+    /**
+     * 为已存在的内容增加引用数（恢复图片时使用）
+     */
+    int acquireExisting(@Param("contentHash") String contentHash,
+                        @Param("count") int count);
+
+    /**
+     * 释放引用，引用数降为0时记录释放时间
+     */
+    int release(@Param("contentHash") String contentHash,
+                @Param("count") int count);
+
+    /**
+     * 写入处理结果（仅在尚未生成缩略图时生效）
+     */
+    int updateRenditions(ImageBlobPO blob);
+
+    /**
+     * 查询引用数为0且释放时间早于 releasedBefore 的内容哈希
+     */
+    List<String> selectReleasedBefore(@Param("releasedBefore") LocalDateTime releasedBefore,
+                                      @Param("limit") int limit);
+
+    /**
+     * 删除无引用的内容记录
+     */
+    int deleteUnreferenced(@Param("contentHash") String contentHash);
+}
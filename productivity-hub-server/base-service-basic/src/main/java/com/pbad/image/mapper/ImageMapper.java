@@ -5,6 +5,7 @@ import org.apache.ibatis.annotations.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 图片信息Mapper接口.
@@ -35,6 +36,17 @@ public interface ImageMapper {
      */
     ImagePO selectByShareToken(@Param("shareToken") String shareToken);
 
+    /**
+     * 查询所有当前有效的分享令牌
+     */
+    List<String> selectActiveShareTokens();
+
+    /**
+     * 查询指定图片的分享令牌
+     */
+    List<String> selectShareTokens(@Param("ids") List<String> ids,
+                                   @Param("userId") String userId);
+
     /**
      * 分页查询图片列表
      */
@@ -98,11 +110,62 @@ public interface ImageMapper {
                       @Param("userId") String userId,
                       @Param("updatedAt") LocalDateTime updatedAt);
 
+    /**
+     * 锁定图片记录并返回其内容哈希（每条记录一个，可重复）
+     *
+     * @param deleted true=已删除的记录，false=未删除的记录
+     */
+    List<String> lockContentHashes(@Param("ids") List<String> ids,
+                                   @Param("userId") String userId,
+                                   @Param("deleted") boolean deleted);
+
     /**
      * 增加访问次数
      */
     int incrementAccessCount(@Param("id") String id);
 
+    /**
+     * 批量累加访问次数
+     *
+     * @param deltas 图片ID -> 访问次数增量
+     */
+    int batchIncrementAccessCount(@Param("deltas") Map<String, Long> deltas);
+
+    /**
+     * 认领待处理图片（待处理，处理中但认领时间早于 staleBefore，或处理失败且认领时间早于 retryBefore），
+     * 处理中与处理失败的图片仅在处理次数小于 maxAttempts 时可认领
+     */
+    int claimProcessing(@Param("id") String id,
+                        @Param("staleBefore") LocalDateTime staleBefore,
+                        @Param("retryBefore") LocalDateTime retryBefore,
+                        @Param("maxAttempts") int maxAttempts);
+
+    /**
+     * 写入处理结果（文件大小、尺寸、缩略图与处理状态）
+     */
+    int updateRenditions(ImagePO image);
+
+    /**
+     * 更新处理状态
+     */
+    int updateProcessingStatus(@Param("id") String id,
+                               @Param("processingStatus") String processingStatus);
+
+    /**
+     * 查询需要补偿处理的图片ID
+     */
+    List<String> selectProcessingBacklog(@Param("pendingBefore") LocalDateTime pendingBefore,
+                                         @Param("staleBefore") LocalDateTime staleBefore,
+                                         @Param("retryBefore") LocalDateTime retryBefore,
+                                         @Param("maxAttempts") int maxAttempts,
+                                         @Param("limit") int limit);
+
+    /**
+     * 处理中断且已达最大处理次数的图片标记为失败
+     */
+    int failExhaustedProcessing(@Param("staleBefore") LocalDateTime staleBefore,
+                                @Param("maxAttempts") int maxAttempts);
+
     /**
      * 统计图片总数
      */
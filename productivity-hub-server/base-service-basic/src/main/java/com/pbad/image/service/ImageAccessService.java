@@ -1,6 +1,8 @@
 package com.pbad.image.service;
 
 import com.pbad.image.domain.vo.ImageVO;
+import com.pbad.image.support.StoredImageFile;
+import org.springframework.core.io.Resource;
 
 /**
  * 图片访问服务接口.
@@ -29,11 +31,19 @@ public interface ImageAccessService {
     ImageVO accessImageByShareToken(String shareToken);
 
     /**
-     * 读取图片文件内容
+     * 解析图片文件（只读取文件元数据，用于条件请求判断）
      *
      * @param path 文件路径（相对路径）
-     * @return 文件字节数组
+     * @return 图片文件元数据
      */
-    byte[] readImageFile(String path);
+    StoredImageFile resolveImageFile(String path);
+
+    /**
+     * 打开图片文件内容：热点缩略图从内存返回，其余以文件资源流式输出（支持 Range）
+     *
+     * @param imageFile 已解析的图片文件
+     * @return 文件资源
+     */
+    Resource openImageFile(StoredImageFile imageFile);
 }
 
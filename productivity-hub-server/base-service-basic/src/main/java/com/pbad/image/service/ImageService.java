@@ -130,5 +130,13 @@ public interface ImageService {
      * @return 图片PO
      */
     ImagePO getImagePOByIdAndUserId(String id, String userId);
+
+    /**
+     * 图片PO转换为VO（不访问数据库，访问次数包含尚未写回的增量）
+     *
+     * @param imagePO 图片PO
+     * @return 图片VO
+     */
+    ImageVO convertToVO(ImagePO imagePO);
 }
 
@@ -1,6 +1,7 @@
 package com.pbad.image.service;
 
 import java.io.IOException;
+import java.nio.file.Path;
 
 /**
  * 图片存储服务接口.
@@ -33,6 +34,25 @@ public interface ImageStorageService {
      */
     String saveThumbnail(String category, String extension, byte[] fileBytes) throws IOException;
 
+    /**
+     * 文件不存在时保存到指定路径（按内容寻址的路径，已存在说明内容相同）
+     *
+     * @param path      相对路径
+     * @param fileBytes 文件字节数组
+     * @return true=本次写入，false=文件已存在
+     * @throws IOException 保存失败时抛出
+     */
+    boolean saveImageIfAbsent(String path, byte[] fileBytes) throws IOException;
+
+    /**
+     * 原子替换已存储的图片文件内容（路径不变）
+     *
+     * @param path      相对路径
+     * @param fileBytes 新的文件字节数组
+     * @throws IOException 写入失败时抛出
+     */
+    void replaceImage(String path, byte[] fileBytes) throws IOException;
+
     /**
      * 读取图片文件
      *
@@ -42,6 +62,14 @@ public interface ImageStorageService {
      */
     byte[] readImage(String path) throws IOException;
 
+    /**
+     * 解析图片文件路径（不读取内容）
+     *
+     * @param path 相对路径
+     * @return 绝对路径，路径非法时返回null
+     */
+    Path resolveImage(String path);
+
     /**
      * 删除图片文件
      *
@@ -8,14 +8,29 @@ import com.pbad.image.constants.ImageErrorCode;
 import com.pbad.image.service.ImageAccessService;
 import com.pbad.image.service.ImageService;
 import com.pbad.image.service.ImageStorageService;
+import com.pbad.image.support.ImageAccessCounter;
+import com.pbad.image.support.ShareTokenResolver;
+import com.pbad.image.support.StoredImageFile;
+import com.pbad.image.support.ThumbnailMemoryCache;
 import common.exception.BusinessException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 
 /**
  * 图片访问服务实现类.
@@ -29,13 +44,30 @@ import java.io.IOException;
 @RequiredArgsConstructor
 public class ImageAccessServiceImpl implements ImageAccessService {
 
+    /**
+     * 允许上传的图片扩展名对应的内容类型
+     */
+    private static final Map<String, MediaType> CONTENT_TYPES = new HashMap<>();
+
+    static {
+        CONTENT_TYPES.put("jpg", MediaType.IMAGE_JPEG);
+        CONTENT_TYPES.put("jpeg", MediaType.IMAGE_JPEG);
+        CONTENT_TYPES.put("png", MediaType.IMAGE_PNG);
+        CONTENT_TYPES.put("gif", MediaType.IMAGE_GIF);
+        CONTENT_TYPES.put("webp", MediaType.parseMediaType("image/webp"));
+        CONTENT_TYPES.put("bmp", MediaType.parseMediaType("image/bmp"));
+    }
+
     private final ImageMapper imageMapper;
     private final ImageService imageService;
     private final ImageStorageService imageStorageService;
     private final ImageProperties imageProperties;
+    private final ThumbnailMemoryCache thumbnailCache;
+    private final ImageAccessCounter accessCounter;
+    private final ShareTokenResolver shareTokenResolver;
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
+    @Transactional(readOnly = true)
     public ImageVO accessImageById(String id, String userId) {
         ImagePO imagePO;
         if (StringUtils.hasText(userId)) {
@@ -52,23 +84,22 @@ public class ImageAccessServiceImpl implements ImageAccessService {
             }
         }
 
-        // 增加访问统计
+        // 增加访问统计（内存累加，定时批量写回）
         if (imageProperties.isEnableAccessStatistics()) {
-            imageMapper.incrementAccessCount(id);
+            accessCounter.record(id);
         }
 
         return imageService.getImageById(id, imagePO.getUserId());
     }
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
     public ImageVO accessImageByShareToken(String shareToken) {
         if (!StringUtils.hasText(shareToken)) {
             throw new BusinessException(ImageErrorCode.INVALID_PARAMETER, "分享令牌不能为空");
         }
 
-        // 根据分享令牌查询图片
-        ImagePO imagePO = imageMapper.selectByShareToken(shareToken);
+        // 解析分享令牌（本地缓存，不存在的令牌不访问数据库）
+        ImagePO imagePO = shareTokenResolver.resolve(shareToken);
         if (imagePO == null) {
             throw new BusinessException(ImageErrorCode.SHARE_NOT_FOUND_OR_EXPIRED, "分享链接不存在或已失效");
         }
@@ -78,27 +109,66 @@ public class ImageAccessServiceImpl implements ImageAccessService {
             throw new BusinessException(ImageErrorCode.SHARE_NOT_FOUND_OR_EXPIRED, "分享链接已过期");
         }
 
-        // 增加访问统计
+        // 增加访问统计（内存累加，定时批量写回）
         if (imageProperties.isEnableAccessStatistics()) {
-            imageMapper.incrementAccessCount(imagePO.getId());
+            accessCounter.record(imagePO.getId());
         }
 
-        return imageService.getImageById(imagePO.getId(), imagePO.getUserId());
+        return imageService.convertToVO(imagePO);
     }
 
     @Override
-    @Transactional(readOnly = true)
-    public byte[] readImageFile(String path) {
+    public StoredImageFile resolveImageFile(String path) {
         if (!StringUtils.hasText(path)) {
             throw new BusinessException(ImageErrorCode.INVALID_PARAMETER, "文件路径不能为空");
         }
+        Path file = imageStorageService.resolveImage(path);
+        if (file == null) {
+            throw new BusinessException(ImageErrorCode.INVALID_PARAMETER, "文件路径不合法");
+        }
 
+        BasicFileAttributes attributes;
         try {
-            return imageStorageService.readImage(path);
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
         } catch (IOException e) {
-            log.error("读取图片文件失败: {}", path, e);
-            throw new BusinessException(ImageErrorCode.IMAGE_PROCESSING_FAILED, "读取图片文件失败: " + e.getMessage());
+            throw new BusinessException(ImageErrorCode.IMAGE_NOT_FOUND, "图片文件不存在");
+        }
+        if (!attributes.isRegularFile()) {
+            throw new BusinessException(ImageErrorCode.IMAGE_NOT_FOUND, "图片文件不存在");
         }
+
+        String normalizedPath = path.replace('\\', '/');
+        boolean thumbnail = normalizedPath.contains("/thumbnails/");
+        return new StoredImageFile(normalizedPath, file, resolveContentType(file.getFileName().toString()),
+                attributes.size(), attributes.lastModifiedTime().toMillis(), thumbnail);
     }
-}
 
+    @Override
+    public Resource openImageFile(StoredImageFile imageFile) {
+        if (imageFile.isThumbnail()) {
+            try {
+                byte[] cached = thumbnailCache.get(imageFile);
+                if (cached != null) {
+                    return new ByteArrayResource(cached);
+                }
+            } catch (IOException e) {
+                log.error("读取图片文件失败: {}", imageFile.getPath(), e);
+                throw new BusinessException(ImageErrorCode.IMAGE_PROCESSING_FAILED, "读取图片文件失败: " + e.getMessage());
+            }
+        }
+        return new FileSystemResource(imageFile.getFile());
+    }
+
+    /**
+     * 按扩展名推断内容类型
+     */
+    private static MediaType resolveContentType(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        String extension = dot >= 0 ? fileName.substring(dot + 1).toLowerCase(Locale.ROOT) : "";
+        MediaType mediaType = CONTENT_TYPES.get(extension);
+        if (mediaType != null) {
+            return mediaType;
+        }
+        return MediaTypeFactory.getMediaType(fileName).orElse(MediaType.APPLICATION_OCTET_STREAM);
+    }
+}
@@ -6,15 +6,19 @@ import com.pbad.generator.api.IdGeneratorApi;
 import com.pbad.image.config.ImageProperties;
 import com.pbad.image.domain.dto.ImageQueryDTO;
 import com.pbad.image.domain.dto.ImageUpdateDTO;
+import com.pbad.image.domain.po.ImageBlobPO;
 import com.pbad.image.domain.po.ImagePO;
 import com.pbad.image.domain.vo.ImageStatisticsVO;
 import com.pbad.image.domain.vo.ImageVO;
 import com.pbad.image.mapper.ImageMapper;
-import com.pbad.image.service.ImageCompressService;
 import com.pbad.image.service.ImageService;
 import com.pbad.image.service.ImageStorageService;
-import com.pbad.image.service.ImageThumbnailService;
 import com.pbad.image.constants.ImageErrorCode;
+import com.pbad.image.constants.ImageProcessingStatus;
+import com.pbad.image.support.ImageAccessCounter;
+import com.pbad.image.support.ImageBlobStore;
+import com.pbad.image.support.ImageRenditionProcessor;
+import com.pbad.image.support.ShareTokenResolver;
 import com.pbad.image.utils.ImageUtils;
 import common.core.domain.PageResult;
 import common.exception.BusinessException;
@@ -25,11 +29,11 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -52,8 +56,10 @@ public class ImageServiceImpl implements ImageService {
 
     private final ImageMapper imageMapper;
     private final ImageStorageService imageStorageService;
-    private final ImageCompressService imageCompressService;
-    private final ImageThumbnailService imageThumbnailService;
+    private final ImageRenditionProcessor renditionProcessor;
+    private final ImageAccessCounter accessCounter;
+    private final ImageBlobStore blobStore;
+    private final ShareTokenResolver shareTokenResolver;
     private final ImageProperties imageProperties;
     private final IdGeneratorApi idGeneratorApi;
 
@@ -65,8 +71,9 @@ public class ImageServiceImpl implements ImageService {
         validateFile(file);
 
         try {
-            // 读取文件字节
-            byte[] fileBytes = file.getBytes();
+            // 读取文件字节，同时计算内容哈希
+            ImageBlobStore.UploadedContent content = ImageBlobStore.read(file);
+            byte[] fileBytes = content.getBytes();
             String originalFilename = file.getOriginalFilename();
             String contentType = file.getContentType();
             String extension = getFileExtension(originalFilename);
@@ -75,28 +82,16 @@ public class ImageServiceImpl implements ImageService {
             validateFileType(contentType, extension);
             validateFileSize(fileBytes.length);
 
-            // 读取图片信息
-            BufferedImage image = ImageUtils.readImage(fileBytes);
-            int width = image.getWidth();
-            int height = image.getHeight();
+            // 只解析图片头部获取尺寸，像素解码、压缩与缩略图交给异步处理
+            int[] size = ImageUtils.readImageSize(fileBytes);
 
-            // 压缩图片（如果需要）
-            byte[] compressedBytes = fileBytes;
-            if (fileBytes.length > imageProperties.getMaxFileSize()) {
-                compressedBytes = imageCompressService.compressImage(image, getFormatName(extension), imageProperties.getMaxFileSize());
-            }
-
-            // 生成缩略图
-            BufferedImage thumbnail = imageThumbnailService.generateThumbnail(image);
-            byte[] thumbnailBytes = ImageUtils.writeImage(thumbnail, ImageUtils.getFormatName(extension));
+            // 按内容登记：相同内容只保存一份原图，已生成的压缩图与缩略图直接复用
+            ImageBlobPO blob = blobStore.acquire(content.getHash(), extension, fileBytes, size);
+            String filePath = blob.getFilePath();
+            boolean processed = StringUtils.hasText(blob.getThumbnailPath());
 
-            // 保存文件
-            String filePath = imageStorageService.saveImage(category, extension, compressedBytes);
-            String thumbnailPath = imageStorageService.saveThumbnail(category, extension, thumbnailBytes);
-
-            // 生成访问URL
+            // 生成访问URL（缩略图生成前先使用原图地址）
             String fileUrl = imageStorageService.generateFileUrl(filePath);
-            String thumbnailUrl = imageStorageService.generateThumbnailUrl(thumbnailPath);
 
             // 生成存储文件名
             String storedFilename = extractFilenameFromPath(filePath);
@@ -109,19 +104,29 @@ public class ImageServiceImpl implements ImageService {
             imagePO.setStoredFilename(storedFilename);
             imagePO.setFilePath(filePath);
             imagePO.setFileUrl(fileUrl);
-            imagePO.setFileSize((long) compressedBytes.length);
             imagePO.setFileType(contentType);
             imagePO.setFileExtension(extension);
-            imagePO.setWidth(width);
-            imagePO.setHeight(height);
             imagePO.setCategory(category != null ? category : "other");
             imagePO.setBusinessModule(businessModule);
             imagePO.setBusinessId(businessId);
             imagePO.setDescription(description);
-            imagePO.setThumbnailPath(thumbnailPath);
-            imagePO.setThumbnailUrl(thumbnailUrl);
+            if (processed) {
+                imagePO.setFileSize(blob.getFileSize());
+                imagePO.setWidth(blob.getWidth());
+                imagePO.setHeight(blob.getHeight());
+                imagePO.setThumbnailPath(blob.getThumbnailPath());
+                imagePO.setThumbnailUrl(imageStorageService.generateThumbnailUrl(blob.getThumbnailPath()));
+                imagePO.setProcessingStatus(ImageProcessingStatus.READY);
+            } else {
+                imagePO.setFileSize((long) fileBytes.length);
+                imagePO.setWidth(size[0]);
+                imagePO.setHeight(size[1]);
+                imagePO.setThumbnailUrl(fileUrl);
+                imagePO.setProcessingStatus(ImageProcessingStatus.PENDING);
+            }
             imagePO.setAccessCount(0L);
             imagePO.setStatus(STATUS_ACTIVE);
+            imagePO.setContentHash(content.getHash());
             imagePO.setCreatedAt(LocalDateTime.now());
             imagePO.setUpdatedAt(LocalDateTime.now());
 
@@ -129,6 +134,9 @@ public class ImageServiceImpl implements ImageService {
             if (inserted <= 0) {
                 throw new BusinessException(ImageErrorCode.IMAGE_PROCESSING_FAILED, "保存图片记录失败");
             }
+            if (!processed) {
+                renditionProcessor.submitAfterCommit(imagePO.getId());
+            }
 
             return convertToVO(imagePO);
         } catch (IOException e) {
@@ -250,6 +258,7 @@ public class ImageServiceImpl implements ImageService {
         if (updated <= 0) {
             throw new BusinessException(ImageErrorCode.IMAGE_PROCESSING_FAILED, "更新图片信息失败");
         }
+        shareTokenResolver.invalidate(Collections.singletonList(imagePO.getShareToken()));
 
         return convertToVO(imageMapper.selectByIdAndUserId(id, userId));
     }
@@ -266,10 +275,14 @@ public class ImageServiceImpl implements ImageService {
             return; // 已经删除，直接返回
         }
 
+        // 释放内容引用（锁定记录，避免并发删除重复释放）
+        blobStore.release(imageMapper.lockContentHashes(Collections.singletonList(id), userId, false));
+
         int updated = imageMapper.updateStatus(id, userId, STATUS_DELETED, LocalDateTime.now());
         if (updated <= 0) {
             throw new BusinessException(ImageErrorCode.IMAGE_PROCESSING_FAILED, "删除图片失败");
         }
+        shareTokenResolver.invalidate(Collections.singletonList(imagePO.getShareToken()));
     }
 
     @Override
@@ -279,7 +292,9 @@ public class ImageServiceImpl implements ImageService {
             return 0;
         }
 
+        blobStore.release(imageMapper.lockContentHashes(ids, userId, false));
         int updated = imageMapper.batchUpdateStatus(ids, userId, STATUS_DELETED, LocalDateTime.now());
+        shareTokenResolver.invalidate(imageMapper.selectShareTokens(ids, userId));
         return updated;
     }
 
@@ -295,10 +310,18 @@ public class ImageServiceImpl implements ImageService {
             throw new BusinessException(ImageErrorCode.INVALID_STATUS_FOR_RESTORE, "只能恢复已删除的图片");
         }
 
+        // 重新登记内容引用，超过保留期已被清理的内容无法恢复
+        for (String contentHash : imageMapper.lockContentHashes(Collections.singletonList(id), userId, true)) {
+            if (!blobStore.reacquire(contentHash)) {
+                throw new BusinessException(ImageErrorCode.IMAGE_DELETED, "图片文件已清理，无法恢复");
+            }
+        }
+
         int updated = imageMapper.updateStatus(id, userId, STATUS_ACTIVE, LocalDateTime.now());
         if (updated <= 0) {
             throw new BusinessException(ImageErrorCode.IMAGE_PROCESSING_FAILED, "恢复图片失败");
         }
+        shareTokenResolver.invalidate(Collections.singletonList(imagePO.getShareToken()));
 
         return convertToVO(imageMapper.selectByIdAndUserId(id, userId));
     }
@@ -319,6 +342,7 @@ public class ImageServiceImpl implements ImageService {
         if (updated <= 0) {
             throw new BusinessException(ImageErrorCode.IMAGE_PROCESSING_FAILED, "归档图片失败");
         }
+        shareTokenResolver.invalidate(Collections.singletonList(imagePO.getShareToken()));
 
         return convertToVO(imageMapper.selectByIdAndUserId(id, userId));
     }
@@ -472,27 +496,6 @@ public class ImageServiceImpl implements ImageService {
         return "jpg";
     }
 
-    /**
-     * 获取格式名称
-     */
-    private String getFormatName(String extension) {
-        switch (extension.toLowerCase()) {
-            case "jpg":
-            case "jpeg":
-                return "jpg";
-            case "png":
-                return "png";
-            case "gif":
-                return "gif";
-            case "webp":
-                return "webp";
-            case "bmp":
-                return "bmp";
-            default:
-                return "jpg";
-        }
-    }
-
     /**
      * 从路径中提取文件名
      */
@@ -525,7 +528,8 @@ public class ImageServiceImpl implements ImageService {
     /**
      * PO转VO
      */
-    private ImageVO convertToVO(ImagePO po) {
+    @Override
+    public ImageVO convertToVO(ImagePO po) {
         if (po == null) {
             return null;
         }
@@ -542,8 +546,9 @@ public class ImageServiceImpl implements ImageService {
         vo.setBusinessModule(po.getBusinessModule());
         vo.setBusinessId(po.getBusinessId());
         vo.setDescription(po.getDescription());
-        vo.setAccessCount(po.getAccessCount());
+        vo.setAccessCount(accessCounter.liveCount(po.getId(), po.getAccessCount()));
         vo.setStatus(po.getStatus());
+        vo.setProcessingStatus(po.getProcessingStatus());
         vo.setCreatedAt(po.getCreatedAt());
         vo.setUpdatedAt(po.getUpdatedAt());
         return vo;
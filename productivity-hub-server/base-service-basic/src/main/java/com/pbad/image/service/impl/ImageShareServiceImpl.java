@@ -7,6 +7,7 @@ import com.pbad.image.domain.vo.ImageShareVO;
 import com.pbad.image.mapper.ImageMapper;
 import com.pbad.image.service.ImageService;
 import com.pbad.image.service.ImageShareService;
+import com.pbad.image.support.ShareTokenResolver;
 import common.exception.BusinessException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -16,6 +17,8 @@ import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.UUID;
 
 /**
@@ -34,6 +37,7 @@ public class ImageShareServiceImpl implements ImageShareService {
 
     private final ImageMapper imageMapper;
     private final ImageService imageService;
+    private final ShareTokenResolver shareTokenResolver;
 
     @Override
     @Transactional(rollbackFor = Exception.class)
@@ -66,6 +70,8 @@ public class ImageShareServiceImpl implements ImageShareService {
         if (updated <= 0) {
             throw new BusinessException(ImageErrorCode.IMAGE_PROCESSING_FAILED, "创建分享链接失败");
         }
+        // 原令牌随之失效
+        shareTokenResolver.invalidate(Arrays.asList(imagePO.getShareToken(), shareToken));
 
         // 构建分享信息VO
         ImageShareVO shareVO = new ImageShareVO();
@@ -91,17 +97,17 @@ public class ImageShareServiceImpl implements ImageShareService {
         if (updated <= 0) {
             throw new BusinessException(ImageErrorCode.IMAGE_PROCESSING_FAILED, "取消分享失败");
         }
+        shareTokenResolver.invalidate(Collections.singletonList(imagePO.getShareToken()));
     }
 
     @Override
-    @Transactional(readOnly = true)
     public ImageShareVO getShareInfo(String shareToken) {
         if (!StringUtils.hasText(shareToken)) {
             throw new BusinessException(ImageErrorCode.INVALID_PARAMETER, "分享令牌不能为空");
         }
 
-        // 根据分享令牌查询图片
-        ImagePO imagePO = imageMapper.selectByShareToken(shareToken);
+        // 解析分享令牌（本地缓存，不存在的令牌不访问数据库）
+        ImagePO imagePO = shareTokenResolver.resolve(shareToken);
         if (imagePO == null) {
             throw new BusinessException(ImageErrorCode.SHARE_NOT_FOUND_OR_EXPIRED, "分享链接不存在或已失效");
         }
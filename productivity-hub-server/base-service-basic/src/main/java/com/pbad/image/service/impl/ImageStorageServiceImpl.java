@@ -8,6 +8,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.nio.file.Path;
 
 /**
  * 图片存储服务实现类.
@@ -37,11 +38,33 @@ public class ImageStorageServiceImpl implements ImageStorageService {
         return path;
     }
 
+    @Override
+    public boolean saveImageIfAbsent(String path, byte[] fileBytes) throws IOException {
+        String baseDir = imageProperties.getBaseDir();
+        if (FileStorageUtils.fileExists(baseDir, path)) {
+            return false;
+        }
+        // 并发写入相同内容时通过原子移动落盘，读取方不会看到写了一半的文件
+        FileStorageUtils.ensureDirectoryExists(baseDir, path);
+        FileStorageUtils.replaceFile(baseDir, path, fileBytes);
+        return true;
+    }
+
     @Override
     public byte[] readImage(String path) throws IOException {
         return FileStorageUtils.readFile(imageProperties.getBaseDir(), path);
     }
 
+    @Override
+    public void replaceImage(String path, byte[] fileBytes) throws IOException {
+        FileStorageUtils.replaceFile(imageProperties.getBaseDir(), path, fileBytes);
+    }
+
+    @Override
+    public Path resolveImage(String path) {
+        return FileStorageUtils.resolvePath(imageProperties.getBaseDir(), path);
+    }
+
     @Override
     public boolean deleteImage(String path) {
         return FileStorageUtils.deleteFile(imageProperties.getBaseDir(), path);
@@ -0,0 +1,113 @@
+package com.pbad.image.support;
+
+import com.pbad.image.mapper.ImageMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 图片访问次数写回缓冲.
+ * <p>
+ * 访问时只在内存中累加每张图片的增量，定时以一条 {@code UPDATE ... CASE id} 批量写回数据库，停机前再写回一次，
+ * 图片访问不再对同一行逐次加锁更新。写回时通过 {@link ConcurrentMap#remove(Object)} 原子地取走增量，
+ * 之后到达的访问计入新的增量；写回失败的增量会合并回缓冲区等待下次写回.
+ * <p>
+ * 每个节点各自缓冲并写回自己的增量，增量可直接相加，多节点之间无需协调；读取时只能合并本节点未写回的增量.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ImageAccessCounter {
+
+    /**
+     * 单条语句写回的图片数
+     */
+    private static final int FLUSH_BATCH_SIZE = 500;
+
+    private final ImageMapper imageMapper;
+
+    private final ConcurrentMap<String, Long> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 记录一次访问.
+     *
+     * @param imageId 图片ID
+     */
+    public void record(String imageId) {
+        pending.merge(imageId, 1L, Long::sum);
+    }
+
+    /**
+     * 合并本节点尚未写回的增量.
+     *
+     * @param imageId     图片ID
+     * @param storedCount 数据库中的访问次数
+     * @return 实时访问次数
+     */
+    public Long liveCount(String imageId, Long storedCount) {
+        Long delta = imageId != null ? pending.get(imageId) : null;
+        if (delta == null) {
+            return storedCount;
+        }
+        return (storedCount != null ? storedCount : 0L) + delta;
+    }
+
+    /**
+     * 定时写回访问次数增量.
+     */
+    @Scheduled(fixedDelayString = "${app.image.access-flush-interval-millis:10000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        // 按ID排序，多节点同时写回时以相同顺序加行锁
+        TreeMap<String, Long> drained = new TreeMap<>();
+        for (String imageId : new ArrayList<>(pending.keySet())) {
+            Long delta = pending.remove(imageId);
+            if (delta != null && delta > 0) {
+                drained.put(imageId, delta);
+            }
+        }
+
+        List<String> imageIds = new ArrayList<>(drained.keySet());
+        int flushed = 0;
+        for (int from = 0; from < imageIds.size(); from += FLUSH_BATCH_SIZE) {
+            Map<String, Long> batch = drained.subMap(imageIds.get(from), true,
+                    imageIds.get(Math.min(from + FLUSH_BATCH_SIZE, imageIds.size()) - 1), true);
+            try {
+                imageMapper.batchIncrementAccessCount(Collections.unmodifiableMap(batch));
+                flushed += batch.size();
+            } catch (Exception e) {
+                log.warn("写回图片访问次数失败，{} 张图片的增量将在下次重试: {}", batch.size(), e.getMessage());
+                batch.forEach((imageId, delta) -> pending.merge(imageId, delta, Long::sum));
+            }
+        }
+        log.debug("写回图片访问次数 {} 张", flushed);
+    }
+
+    /**
+     * 停机前写回剩余增量.
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("停机前写回图片访问次数失败: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.pbad.image.support;
+
+import com.pbad.image.config.ImageProperties;
+import com.pbad.image.domain.po.ImageBlobPO;
+import com.pbad.image.mapper.ImageBlobMapper;
+import com.pbad.image.service.ImageStorageService;
+import com.pbad.image.utils.FileStorageUtils;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 按内容寻址的图片存储.
+ * <p>
+ * 上传时在读取文件流的同时计算 SHA-256，相同内容只保存一份原图（路径由哈希决定），
+ * 压缩图与缩略图也只生成一次；sys_image_blob 记录每份内容被多少条未删除的图片引用。
+ * 图片删除只释放引用，引用数降为0并超过保留期后才清理文件，保留期内已删除的图片仍可恢复.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ImageBlobStore {
+
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    private final ImageBlobMapper blobMapper;
+    private final ImageStorageService imageStorageService;
+    private final ImageProperties imageProperties;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 读取上传文件并计算内容哈希（边读边算，不额外遍历一次字节数组）.
+     *
+     * @param file 上传文件
+     * @return 文件内容与哈希
+     * @throws IOException 读取失败时抛出
+     */
+    public static UploadedContent read(MultipartFile file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(HASH_ALGORITHM + " 不可用", e);
+        }
+        byte[] bytes;
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+            bytes = StreamUtils.copyToByteArray(in);
+        }
+        return new UploadedContent(bytes, toHex(digest.digest()));
+    }
+
+    /**
+     * 为新上传的图片登记一次内容引用，内容首次出现时保存原图.
+     * <p>
+     * 先登记引用再检查文件：清理任务持有内容行锁删除文件，登记会等待清理提交后重新插入，
+     * 随后发现文件已不存在并重新写入，不会引用到已被删除的文件.
+     *
+     * @param contentHash 内容哈希
+     * @param extension   文件扩展名（内容首次出现时决定存储路径）
+     * @param fileBytes   文件内容
+     * @param size        图片尺寸 [宽, 高]
+     * @return 登记后的内容记录（缩略图为空表示尚未处理）
+     * @throws IOException 保存原图失败时抛出
+     */
+    public ImageBlobPO acquire(String contentHash, String extension, byte[] fileBytes, int[] size) throws IOException {
+        ImageBlobPO existing = blobMapper.selectByHash(contentHash);
+        ImageBlobPO blob = new ImageBlobPO();
+        blob.setContentHash(contentHash);
+        blob.setFilePath(existing != null
+                ? existing.getFilePath() : FileStorageUtils.generateContentPath(contentHash, extension));
+        blob.setFileSize((long) fileBytes.length);
+        blob.setWidth(size[0]);
+        blob.setHeight(size[1]);
+        blobMapper.acquire(blob);
+
+        ImageBlobPO acquired = blobMapper.selectByHash(contentHash);
+        if (imageStorageService.saveImageIfAbsent(acquired.getFilePath(), fileBytes) && existing != null) {
+            log.warn("图片内容文件缺失，已重新写入: {}", acquired.getFilePath());
+        }
+        return acquired;
+    }
+
+    /**
+     * 恢复已删除的图片时重新登记引用.
+     *
+     * @param contentHash 内容哈希
+     * @return false=内容已被清理
+     */
+    public boolean reacquire(String contentHash) {
+        return blobMapper.acquireExisting(contentHash, 1) > 0;
+    }
+
+    /**
+     * 图片删除后释放内容引用.
+     *
+     * @param contentHashes 被删除图片的内容哈希（每张图片一个，可重复）
+     */
+    public void release(Collection<String> contentHashes) {
+        // 按哈希排序后更新，多个事务同时释放时加锁顺序一致
+        Map<String, Integer> counts = new TreeMap<>();
+        for (String contentHash : contentHashes) {
+            if (StringUtils.hasText(contentHash)) {
+                counts.merge(contentHash, 1, Integer::sum);
+            }
+        }
+        counts.forEach(blobMapper::release);
+    }
+
+    /**
+     * 清理超过保留期仍无引用的内容文件.
+     */
+    @Scheduled(fixedDelayString = "${app.image.blob.purge-interval-millis:3600000}")
+    public void purgeReleased() {
+        ImageProperties.Blob config = imageProperties.getBlob();
+        List<String> contentHashes;
+        try {
+            contentHashes = blobMapper.selectReleasedBefore(
+                    LocalDateTime.now().minusDays(config.getRetentionDays()), config.getPurgeBatchSize());
+        } catch (Exception e) {
+            log.warn("查询待清理图片内容失败: {}", e.getMessage());
+            return;
+        }
+        int purged = 0;
+        for (String contentHash : contentHashes) {
+            try {
+                if (Boolean.TRUE.equals(transactionTemplate.execute(status -> purge(contentHash)))) {
+                    purged++;
+                }
+            } catch (Exception e) {
+                log.warn("清理图片内容失败: contentHash={}, {}", contentHash, e.getMessage());
+            }
+        }
+        if (purged > 0) {
+            log.info("清理无引用的图片内容 {} 份", purged);
+        }
+    }
+
+    /**
+     * 持有内容行锁确认仍无引用后删除记录与文件.
+     */
+    private boolean purge(String contentHash) {
+        ImageBlobPO blob = blobMapper.selectByHashForUpdate(contentHash);
+        if (blob == null || blob.getRefCount() == null || blob.getRefCount() > 0) {
+            return false;
+        }
+        blobMapper.deleteUnreferenced(contentHash);
+        imageStorageService.deleteImage(blob.getFilePath());
+        if (StringUtils.hasText(blob.getThumbnailPath())) {
+            imageStorageService.deleteImage(blob.getThumbnailPath());
+        }
+        return true;
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * 上传文件内容与哈希
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class UploadedContent {
+
+        private final byte[] bytes;
+
+        private final String hash;
+    }
+}
@@ -0,0 +1,252 @@
+package com.pbad.image.support;
+
+import com.pbad.image.config.ImageProperties;
+import com.pbad.image.constants.ImageProcessingStatus;
+import com.pbad.image.domain.po.ImageBlobPO;
+import com.pbad.image.domain.po.ImagePO;
+import com.pbad.image.mapper.ImageBlobMapper;
+import com.pbad.image.mapper.ImageMapper;
+import com.pbad.image.service.ImageCompressService;
+import com.pbad.image.service.ImageStorageService;
+import com.pbad.image.service.ImageThumbnailService;
+import com.pbad.image.utils.ImageUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PreDestroy;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 图片异步处理器.
+ * <p>
+ * 上传时只保存原图并写入 PENDING 状态，压缩图与缩略图在按CPU核数配置的有界线程池中生成：
+ * 超过大小限制的原图压缩后原子替换（访问地址不变），缩略图单独保存，结果与处理状态写回图片记录。
+ * 队列已满或进程重启导致未处理的图片由定时补偿扫描重新提交，认领通过条件更新保证同一图片只由一个节点处理.
+ * 中断与失败按认领时间判断是否重新处理，每张图片的处理次数受 maxAttempts 限制.
+ * 相同内容的图片共享一份处理结果：内容已处理过时直接复用，并发处理同一内容时以先写入的结果为准.
+ * <p>
+ * 线程池不注册为 Spring Bean，避免接管 {@code @Async} 的默认执行器.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+@Slf4j
+@Component
+public class ImageRenditionProcessor {
+
+    private final ImageMapper imageMapper;
+    private final ImageBlobMapper blobMapper;
+    private final ImageStorageService imageStorageService;
+    private final ImageCompressService imageCompressService;
+    private final ImageThumbnailService imageThumbnailService;
+    private final ImageProperties imageProperties;
+    private final ShareTokenResolver shareTokenResolver;
+    private final ThreadPoolTaskExecutor executor;
+
+    public ImageRenditionProcessor(ImageMapper imageMapper, ImageBlobMapper blobMapper,
+                                   ImageStorageService imageStorageService, ImageCompressService imageCompressService,
+                                   ImageThumbnailService imageThumbnailService, ImageProperties imageProperties,
+                                   ShareTokenResolver shareTokenResolver) {
+        this.imageMapper = imageMapper;
+        this.blobMapper = blobMapper;
+        this.imageStorageService = imageStorageService;
+        this.imageCompressService = imageCompressService;
+        this.imageThumbnailService = imageThumbnailService;
+        this.imageProperties = imageProperties;
+        this.shareTokenResolver = shareTokenResolver;
+
+        ImageProperties.Processing processing = imageProperties.getProcessing();
+        int threads = processing.getWorkerThreads() > 0
+                ? processing.getWorkerThreads() : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolTaskExecutor();
+        this.executor.setCorePoolSize(threads);
+        this.executor.setMaxPoolSize(threads);
+        this.executor.setQueueCapacity(processing.getQueueCapacity());
+        this.executor.setThreadNamePrefix("image-render-");
+        // 队列满时拒绝（默认 AbortPolicy），图片保持 PENDING 由补偿扫描处理，不占用请求线程
+        this.executor.setWaitForTasksToCompleteOnShutdown(false);
+        this.executor.initialize();
+    }
+
+    /**
+     * 在事务提交后提交处理任务，保证工作线程能读取到图片记录；无事务时立即提交.
+     *
+     * @param imageId 图片ID
+     */
+    public void submitAfterCommit(String imageId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit(imageId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                submit(imageId);
+            }
+        });
+    }
+
+    /**
+     * 补偿扫描：重新提交排队失败的待处理图片、处理中断和已过重试间隔的失败图片，
+     * 处理中断且已达最大处理次数的图片标记为失败.
+     */
+    @Scheduled(fixedDelayString = "${app.image.processing.sweep-interval-millis:60000}")
+    public void sweepBacklog() {
+        ImageProperties.Processing processing = imageProperties.getProcessing();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime staleBefore = now.minusMinutes(processing.getStaleMinutes());
+        List<String> backlog;
+        try {
+            int exhausted = imageMapper.failExhaustedProcessing(staleBefore, processing.getMaxAttempts());
+            if (exhausted > 0) {
+                log.warn("图片处理次数已达上限，标记为失败 {} 张", exhausted);
+            }
+            backlog = imageMapper.selectProcessingBacklog(
+                    now.minusNanos(processing.getSweepIntervalMillis() * 1_000_000L),
+                    staleBefore,
+                    now.minusMinutes(processing.getRetryDelayMinutes()),
+                    processing.getMaxAttempts(),
+                    processing.getSweepBatchSize());
+        } catch (Exception e) {
+            log.warn("查询待处理图片失败: {}", e.getMessage());
+            return;
+        }
+        for (String imageId : backlog) {
+            if (!submit(imageId)) {
+                break;
+            }
+        }
+        if (!backlog.isEmpty()) {
+            log.info("重新提交待处理图片 {} 张", backlog.size());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private boolean submit(String imageId) {
+        try {
+            executor.execute(() -> process(imageId));
+            return true;
+        } catch (TaskRejectedException e) {
+            log.warn("图片处理队列已满，等待补偿扫描: imageId={}", imageId);
+            return false;
+        }
+    }
+
+    private void process(String imageId) {
+        ImageProperties.Processing processing = imageProperties.getProcessing();
+        LocalDateTime now = LocalDateTime.now();
+        if (imageMapper.claimProcessing(imageId, now.minusMinutes(processing.getStaleMinutes()),
+                now.minusMinutes(processing.getRetryDelayMinutes()), processing.getMaxAttempts()) == 0) {
+            // 已被其他线程或节点认领、已处理完成或已达最大处理次数
+            return;
+        }
+        ImagePO image = imageMapper.selectById(imageId);
+        if (image == null) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            render(image);
+            image.setProcessingStatus(ImageProcessingStatus.READY);
+            imageMapper.updateRenditions(image);
+            // 已分享的图片刷新缓存中的缩略图地址
+            shareTokenResolver.invalidate(Collections.singletonList(image.getShareToken()));
+            log.debug("图片处理完成: imageId={}, 耗时{}ms", imageId, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("图片处理失败，继续使用原图: imageId={}", imageId, e);
+            imageMapper.updateProcessingStatus(imageId, ImageProcessingStatus.FAILED);
+        }
+    }
+
+    /**
+     * 生成压缩图与缩略图，结果写入 image（尚未落库）.
+     */
+    private void render(ImagePO image) throws IOException {
+        ImageBlobPO blob = StringUtils.hasText(image.getContentHash())
+                ? blobMapper.selectByHash(image.getContentHash()) : null;
+        if (blob != null && StringUtils.hasText(blob.getThumbnailPath())) {
+            // 相同内容已处理完成，直接复用
+            applyBlob(image, blob);
+            return;
+        }
+
+        // 共享的原图可能已被处理相同内容的其他线程压缩替换，以实际读取的文件为准
+        byte[] original = imageStorageService.readImage(image.getFilePath());
+        BufferedImage decoded = ImageUtils.readImage(original);
+        if (!ImageUtils.isValidImage(decoded)) {
+            throw new IOException("图片文件损坏或无法读取");
+        }
+        image.setFileSize((long) original.length);
+        image.setWidth(decoded.getWidth());
+        image.setHeight(decoded.getHeight());
+        String formatName = ImageUtils.getFormatName(image.getFileExtension());
+
+        // 压缩图：超过大小限制时压缩并原子替换原图，访问地址不变
+        long maxFileSize = imageProperties.getMaxFileSize();
+        if (original.length > maxFileSize) {
+            byte[] compressed = imageCompressService.compressImage(decoded, formatName, maxFileSize);
+            if (compressed.length < original.length) {
+                imageStorageService.replaceImage(image.getFilePath(), compressed);
+                int[] size = ImageUtils.readImageSize(compressed);
+                image.setFileSize((long) compressed.length);
+                image.setWidth(size[0]);
+                image.setHeight(size[1]);
+            }
+        }
+
+        // 缩略图
+        BufferedImage thumbnail = imageThumbnailService.generateThumbnail(decoded);
+        byte[] thumbnailBytes = ImageUtils.writeImage(thumbnail, formatName);
+        String thumbnailPath = imageStorageService.saveThumbnail(image.getCategory(), image.getFileExtension(), thumbnailBytes);
+
+        if (blob == null) {
+            // 去重前上传的图片独占缩略图，重新处理时替换之前生成的缩略图
+            String previousThumbnail = image.getThumbnailPath();
+            image.setThumbnailPath(thumbnailPath);
+            image.setThumbnailUrl(imageStorageService.generateThumbnailUrl(thumbnailPath));
+            if (StringUtils.hasText(previousThumbnail)) {
+                imageStorageService.deleteImage(previousThumbnail);
+            }
+            return;
+        }
+
+        blob.setFileSize(image.getFileSize());
+        blob.setWidth(image.getWidth());
+        blob.setHeight(image.getHeight());
+        blob.setThumbnailPath(thumbnailPath);
+        if (blobMapper.updateRenditions(blob) > 0) {
+            applyBlob(image, blob);
+            return;
+        }
+        // 相同内容已由其他线程先处理完成，丢弃本次生成的缩略图
+        imageStorageService.deleteImage(thumbnailPath);
+        ImageBlobPO current = blobMapper.selectByHash(image.getContentHash());
+        if (current == null || !StringUtils.hasText(current.getThumbnailPath())) {
+            throw new IOException("图片内容记录不存在: " + image.getContentHash());
+        }
+        applyBlob(image, current);
+    }
+
+    private void applyBlob(ImagePO image, ImageBlobPO blob) {
+        image.setFileSize(blob.getFileSize());
+        image.setWidth(blob.getWidth());
+        image.setHeight(blob.getHeight());
+        image.setThumbnailPath(blob.getThumbnailPath());
+        image.setThumbnailUrl(imageStorageService.generateThumbnailUrl(blob.getThumbnailPath()));
+    }
+}
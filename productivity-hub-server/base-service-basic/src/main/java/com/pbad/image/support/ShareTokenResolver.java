@@ -0,0 +1,281 @@
+package com.pbad.image.support;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.pbad.image.config.ImageProperties;
+import com.pbad.image.domain.po.ImagePO;
+import com.pbad.image.mapper.ImageMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 分享令牌解析器.
+ * <p>
+ * 公开分享链接按令牌解析图片时依次经过三层过滤，命中任一层即不再访问数据库：
+ * 格式不符的令牌直接拒绝；有效令牌布隆过滤器判定不存在的令牌直接拒绝（抵御随机令牌扫描）；
+ * 按访问顺序淘汰的本地缓存保存解析结果，有效令牌缓存到分享过期时间（且不超过最长缓存时间），
+ * 不存在的令牌短时间负缓存.
+ * <p>
+ * 分享创建、取消以及图片状态、信息变更时调用 {@link #invalidate(Collection)}：事务提交后清除本地缓存，
+ * 并通过 Redis 频道通知其他节点；过滤器定时全量重建，兜底节点错过的通知.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+@Slf4j
+@Component
+public class ShareTokenResolver {
+
+    /**
+     * 跨节点失效通知频道（消息体为令牌）
+     */
+    private static final String INVALIDATE_CHANNEL = "phub:image:share:invalidate";
+
+    /**
+     * 分享令牌为去掉连字符的 UUID
+     */
+    private static final int TOKEN_LENGTH = 32;
+
+    private static final double FILTER_FALSE_POSITIVE_RATE = 0.001;
+
+    private final ImageMapper imageMapper;
+    private final ImageProperties imageProperties;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisConnectionFactory connectionFactory;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+
+    /**
+     * 失效次数，加载期间发生失效时丢弃加载结果，避免旧数据回填缓存
+     */
+    private long invalidations;
+
+    /**
+     * 有效令牌过滤器，尚未构建完成时为null（此时不做过滤）
+     */
+    private volatile BloomFilter<CharSequence> filter;
+
+    /**
+     * 重建过滤器期间新增的令牌，重建完成后补入新过滤器
+     */
+    private volatile Set<String> addedDuringRebuild;
+
+    private RedisMessageListenerContainer listenerContainer;
+
+    public ShareTokenResolver(ImageMapper imageMapper, ImageProperties imageProperties,
+                              StringRedisTemplate redisTemplate, RedisConnectionFactory connectionFactory) {
+        this.imageMapper = imageMapper;
+        this.imageProperties = imageProperties;
+        this.redisTemplate = redisTemplate;
+        this.connectionFactory = connectionFactory;
+    }
+
+    @PostConstruct
+    public void start() {
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(connectionFactory);
+        listenerContainer.addMessageListener((message, pattern) ->
+                        evict(Collections.singletonList(new String(message.getBody(), StandardCharsets.UTF_8))),
+                new ChannelTopic(INVALIDATE_CHANNEL));
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws Exception {
+        if (listenerContainer != null) {
+            listenerContainer.destroy();
+        }
+    }
+
+    /**
+     * 解析分享令牌.
+     *
+     * @param shareToken 分享令牌
+     * @return 分享中的图片（缓存共享的只读快照，调用方不得修改），不存在或已失效返回null
+     */
+    public ImagePO resolve(String shareToken) {
+        if (!isWellFormed(shareToken)) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        long invalidationsBeforeLoad;
+        synchronized (this) {
+            Entry entry = entries.get(shareToken);
+            if (entry != null && entry.expiresAt > now) {
+                return entry.image;
+            }
+            invalidationsBeforeLoad = invalidations;
+        }
+        BloomFilter<CharSequence> current = filter;
+        if (current != null && !current.mightContain(shareToken)) {
+            return null;
+        }
+
+        ImagePO image = imageMapper.selectByShareToken(shareToken);
+        ImageProperties.ShareCache config = imageProperties.getShareCache();
+        long expiresAt;
+        if (image == null) {
+            expiresAt = now + config.getNegativeTtlSeconds() * 1000;
+        } else {
+            expiresAt = now + config.getTtlSeconds() * 1000;
+            if (image.getShareExpiresAt() != null) {
+                expiresAt = Math.min(expiresAt,
+                        image.getShareExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            }
+        }
+        synchronized (this) {
+            if (invalidations == invalidationsBeforeLoad && config.getMaxEntries() > 0) {
+                entries.put(shareToken, new Entry(image, expiresAt));
+                trimTo(config.getMaxEntries());
+            }
+        }
+        return image;
+    }
+
+    /**
+     * 令牌对应的分享发生变化（新建、取消、图片状态或信息变更）.
+     * <p>
+     * 令牌立即加入过滤器（新令牌提交后即可被解析），本地缓存在事务提交后清除并通知其他节点；无事务时立即执行.
+     *
+     * @param shareTokens 受影响的令牌（忽略空值）
+     */
+    public void invalidate(Collection<String> shareTokens) {
+        List<String> tokens = new ArrayList<>();
+        for (String shareToken : shareTokens) {
+            if (StringUtils.hasText(shareToken)) {
+                tokens.add(shareToken);
+                addToFilter(shareToken);
+            }
+        }
+        if (tokens.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictAndPublish(tokens);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                evictAndPublish(tokens);
+            }
+        });
+    }
+
+    /**
+     * 全量重建有效令牌过滤器（启动时立即执行一次）.
+     */
+    @Scheduled(fixedDelayString = "${app.image.share-cache.filter-rebuild-interval-millis:600000}")
+    public void rebuildFilter() {
+        Set<String> added = ConcurrentHashMap.newKeySet();
+        addedDuringRebuild = added;
+        try {
+            List<String> tokens = imageMapper.selectActiveShareTokens();
+            BloomFilter<CharSequence> rebuilt = BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8),
+                    Math.max(tokens.size() * 2, imageProperties.getShareCache().getMaxEntries()),
+                    FILTER_FALSE_POSITIVE_RATE);
+            tokens.forEach(rebuilt::put);
+            filter = rebuilt;
+            added.forEach(rebuilt::put);
+            log.debug("重建分享令牌过滤器，有效令牌 {} 个", tokens.size());
+        } catch (Exception e) {
+            log.warn("重建分享令牌过滤器失败，保留原过滤器: {}", e.getMessage());
+        } finally {
+            addedDuringRebuild = null;
+        }
+    }
+
+    private void addToFilter(String shareToken) {
+        BloomFilter<CharSequence> current = filter;
+        if (current != null) {
+            current.put(shareToken);
+        }
+        Set<String> added = addedDuringRebuild;
+        if (added != null) {
+            added.add(shareToken);
+        }
+    }
+
+    private void evictAndPublish(List<String> tokens) {
+        evict(tokens);
+        for (String token : tokens) {
+            try {
+                redisTemplate.convertAndSend(INVALIDATE_CHANNEL, token);
+            } catch (Exception e) {
+                log.warn("发布分享令牌失效通知失败: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 清除本地缓存；其他节点通知的令牌可能是新建的，同时加入过滤器.
+     */
+    private void evict(Collection<String> tokens) {
+        for (String token : tokens) {
+            addToFilter(token);
+        }
+        synchronized (this) {
+            invalidations++;
+            tokens.forEach(entries::remove);
+        }
+    }
+
+    private void trimTo(int maxEntries) {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static boolean isWellFormed(String shareToken) {
+        if (shareToken == null || shareToken.length() != TOKEN_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < TOKEN_LENGTH; i++) {
+            char c = shareToken.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class Entry {
+
+        /**
+         * 为null表示令牌不存在或已失效
+         */
+        private final ImagePO image;
+        private final long expiresAt;
+
+        private Entry(ImagePO image, long expiresAt) {
+            this.image = image;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.pbad.image.support;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.MediaType;
+
+import java.nio.file.Path;
+
+/**
+ * 已解析的图片文件（仅包含元数据，不包含文件内容）.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+@Getter
+@AllArgsConstructor
+public class StoredImageFile {
+
+    /**
+     * 存储相对路径
+     */
+    private final String path;
+
+    /**
+     * 文件绝对路径
+     */
+    private final Path file;
+
+    /**
+     * 内容类型（按扩展名推断）
+     */
+    private final MediaType contentType;
+
+    /**
+     * 文件大小（字节）
+     */
+    private final long contentLength;
+
+    /**
+     * 最后修改时间（毫秒）
+     */
+    private final long lastModified;
+
+    /**
+     * 是否为缩略图
+     */
+    private final boolean thumbnail;
+
+    /**
+     * 基于修改时间与文件大小的强校验 ETag
+     *
+     * @return ETag（含双引号）
+     */
+    public String getETag() {
+        return "\"" + Long.toHexString(lastModified) + "-" + Long.toHexString(contentLength) + "\"";
+    }
+}
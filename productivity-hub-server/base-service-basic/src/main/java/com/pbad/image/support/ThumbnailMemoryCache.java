@@ -0,0 +1,92 @@
+package com.pbad.image.support;
+
+import com.pbad.image.config.ImageProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 热点缩略图内存缓存.
+ * <p>
+ * 按访问顺序淘汰的 LRU，以缓存内容的总字节数为上限；条目记录文件的修改时间与大小，
+ * 文件被替换后自动重新加载。超过单条上限的文件不进入缓存.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ThumbnailMemoryCache {
+
+    private final ImageProperties imageProperties;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+
+    private long totalBytes;
+
+    /**
+     * 获取缩略图内容，未命中时从磁盘加载并放入缓存.
+     *
+     * @param imageFile 已解析的缩略图文件
+     * @return 文件内容，不适合缓存时返回null
+     * @throws IOException 读取失败时抛出
+     */
+    public byte[] get(StoredImageFile imageFile) throws IOException {
+        long capacity = imageProperties.getThumbnailMemoryCacheBytes();
+        if (capacity <= 0 || imageFile.getContentLength() > imageProperties.getThumbnailMemoryCacheMaxEntryBytes()
+                || imageFile.getContentLength() > capacity) {
+            return null;
+        }
+        String key = imageFile.getPath();
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.lastModified == imageFile.getLastModified()
+                    && entry.bytes.length == imageFile.getContentLength()) {
+                return entry.bytes;
+            }
+        }
+
+        // 在锁外读取磁盘，并发加载同一文件时以最后写入者为准
+        byte[] bytes = Files.readAllBytes(imageFile.getFile());
+        if (bytes.length != imageFile.getContentLength()) {
+            // 读取期间文件被替换，本次不缓存
+            return bytes;
+        }
+        synchronized (this) {
+            Entry previous = entries.put(key, new Entry(bytes, imageFile.getLastModified()));
+            if (previous != null) {
+                totalBytes -= previous.bytes.length;
+            }
+            totalBytes += bytes.length;
+            trimTo(capacity);
+        }
+        return bytes;
+    }
+
+    private void trimTo(long capacity) {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (totalBytes > capacity && iterator.hasNext()) {
+            totalBytes -= iterator.next().getValue().bytes.length;
+            iterator.remove();
+        }
+    }
+
+    private static final class Entry {
+
+        private final byte[] bytes;
+        private final long lastModified;
+
+        private Entry(byte[] bytes, long lastModified) {
+            this.bytes = bytes;
+            this.lastModified = lastModified;
+        }
+    }
+}
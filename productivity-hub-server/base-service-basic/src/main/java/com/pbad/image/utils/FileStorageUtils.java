@@ -5,9 +5,11 @@ import org.springframework.util.StringUtils;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.UUID;
@@ -52,6 +54,19 @@ public class FileStorageUtils {
         return category + File.separator + dateDir + File.separator + "thumbnails" + File.separator + filename;
     }
 
+    /**
+     * 生成按内容寻址的存储路径（相对路径），相同内容始终对应同一路径
+     * 格式：blobs/{hash前两位}/{hash}.{extension}
+     *
+     * @param contentHash 内容哈希（十六进制）
+     * @param extension   文件扩展名
+     * @return 相对路径
+     */
+    public static String generateContentPath(String contentHash, String extension) {
+        return "blobs" + File.separator + contentHash.substring(0, 2) + File.separator
+                + contentHash + "." + extension;
+    }
+
     /**
      * 确保目录存在，如果不存在则创建
      *
@@ -90,6 +105,29 @@ public class FileStorageUtils {
         return file.getAbsolutePath();
     }
 
+    /**
+     * 原子替换文件内容：先写入同目录临时文件，再移动覆盖目标文件，读取方不会看到写了一半的文件
+     *
+     * @param baseDir   基础目录
+     * @param path      相对路径
+     * @param fileBytes 文件字节数组
+     * @throws IOException 写入失败时抛出
+     */
+    public static void replaceFile(String baseDir, String path, byte[] fileBytes) throws IOException {
+        Path target = new File(baseDir, path).toPath();
+        Path temp = Files.createTempFile(target.getParent(), ".replace-", ".tmp");
+        try {
+            Files.write(temp, fileBytes);
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
     /**
      * 读取文件
      *
@@ -106,6 +144,22 @@ public class FileStorageUtils {
         return Files.readAllBytes(file.toPath());
     }
 
+    /**
+     * 解析文件路径，拒绝指向基础目录之外的路径（如包含 ..）
+     *
+     * @param baseDir 基础目录
+     * @param path    相对路径
+     * @return 规范化后的绝对路径，路径非法时返回null
+     */
+    public static Path resolvePath(String baseDir, String path) {
+        if (!StringUtils.hasText(path)) {
+            return null;
+        }
+        Path base = Paths.get(baseDir).toAbsolutePath().normalize();
+        Path target = base.resolve(path).normalize();
+        return target.startsWith(base) && !target.equals(base) ? target : null;
+    }
+
     /**
      * 删除文件
      *
@@ -2,11 +2,17 @@ package com.pbad.image.utils;
 
 import lombok.extern.slf4j.Slf4j;
 
+import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.Iterator;
 
 /**
  * 图片压缩工具类.
@@ -18,8 +24,31 @@ import java.io.IOException;
 @Slf4j
 public class ImageCompressUtils {
 
+    /**
+     * JPEG 质量搜索下限
+     */
+    private static final float MIN_QUALITY = 0.3f;
+
+    /**
+     * 质量二分搜索的最大编码次数
+     */
+    private static final int QUALITY_SEARCH_STEPS = 5;
+
+    /**
+     * 最低质量仍超限时的最大缩放次数
+     */
+    private static final int MAX_RESCALE_ATTEMPTS = 3;
+
+    /**
+     * 缩放后的最小边长
+     */
+    private static final int MIN_DIMENSION = 100;
+
     /**
      * 压缩图片到指定大小（字节）
+     * <p>
+     * JPEG 在 [0.3, quality] 区间内对质量做二分搜索，取不超过 maxSize 的最高质量；
+     * 最低质量仍超限时按体积比例缩小尺寸后重新搜索。同一次压缩复用一个 ImageWriter 与输出缓冲区.
      *
      * @param image       原始图片
      * @param formatName  图片格式（如：jpeg、png）
@@ -33,51 +62,113 @@ public class ImageCompressUtils {
             throw new IllegalArgumentException("图片不能为空");
         }
 
-        // 先尝试不压缩，如果已经小于限制，直接返回
-        byte[] originalBytes = ImageUtils.writeImage(image, formatName);
-        if (originalBytes.length <= maxSize) {
-            return originalBytes;
+        boolean lossy = isJpeg(formatName);
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(lossy ? "jpeg" : formatName);
+        if (!writers.hasNext()) {
+            throw new IOException("不支持的图片格式: " + formatName);
         }
+        ImageWriter writer = writers.next();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        float maxQuality = Math.max(Math.min(quality, 1.0f), MIN_QUALITY);
+        try {
+            // JPEG 先铺白色背景去掉透明通道，之后的缩放都基于该图，避免透明区域变黑
+            BufferedImage source = lossy ? toRgb(image) : image;
+            BufferedImage current = source;
+            byte[] smallest = null;
+            for (int attempt = 0; attempt <= MAX_RESCALE_ATTEMPTS; attempt++) {
+                if (lossy) {
+                    byte[] best = encode(writer, current, maxQuality, buffer);
+                    if (best.length <= maxSize) {
+                        return best;
+                    }
+                    smallest = encode(writer, current, MIN_QUALITY, buffer);
+                    if (smallest.length <= maxSize) {
+                        return searchQuality(writer, current, maxSize, maxQuality, smallest, buffer);
+                    }
+                } else {
+                    smallest = encode(writer, current, -1f, buffer);
+                    if (smallest.length <= maxSize) {
+                        return smallest;
+                    }
+                }
 
-        // 计算压缩比例
-        float ratio = (float) maxSize / originalBytes.length;
-        ratio = Math.min(ratio, 0.95f); // 最多压缩到95%，避免过度压缩
-
-        // 计算新尺寸
-        int newWidth = (int) (image.getWidth() * Math.sqrt(ratio));
-        int newHeight = (int) (image.getHeight() * Math.sqrt(ratio));
-
-        // 确保最小尺寸
-        newWidth = Math.max(newWidth, 100);
-        newHeight = Math.max(newHeight, 100);
-
-        // 创建缩放后的图片
-        BufferedImage scaledImage = scaleImage(image, newWidth, newHeight);
+                // 最低质量仍超限，按体积比例缩小尺寸（面积与体积近似成正比）
+                double scale = Math.sqrt((double) maxSize / smallest.length) * 0.95;
+                int newWidth = Math.max((int) (current.getWidth() * scale), MIN_DIMENSION);
+                int newHeight = Math.max((int) (current.getHeight() * scale), MIN_DIMENSION);
+                if (newWidth >= current.getWidth() && newHeight >= current.getHeight()) {
+                    break;
+                }
+                current = scaleImage(source, newWidth, newHeight);
+            }
+            return lossy ? encode(writer, current, MIN_QUALITY, buffer) : encode(writer, current, -1f, buffer);
+        } catch (IOException e) {
+            log.error("压缩图片失败", e);
+            throw new IOException("图片压缩失败", e);
+        } finally {
+            writer.dispose();
+        }
+    }
 
-        // 尝试不同的质量值进行压缩
-        float[] qualityLevels = {quality, quality * 0.9f, quality * 0.8f, quality * 0.7f, quality * 0.6f};
-        for (float q : qualityLevels) {
-            byte[] compressed = compressWithQuality(scaledImage, formatName, q);
-            if (compressed.length <= maxSize) {
-                return compressed;
+    /**
+     * 在 (MIN_QUALITY, maxQuality) 区间二分搜索不超过 maxSize 的最高质量.
+     */
+    private static byte[] searchQuality(ImageWriter writer, BufferedImage image, long maxSize, float maxQuality,
+                                        byte[] fitting, ByteArrayOutputStream buffer) throws IOException {
+        float low = MIN_QUALITY;
+        float high = maxQuality;
+        byte[] best = fitting;
+        for (int step = 0; step < QUALITY_SEARCH_STEPS; step++) {
+            float mid = (low + high) / 2;
+            byte[] bytes = encode(writer, image, mid, buffer);
+            if (bytes.length <= maxSize) {
+                best = bytes;
+                low = mid;
+            } else {
+                high = mid;
             }
         }
+        return best;
+    }
 
-        // 如果还是太大，继续缩小尺寸
-        int attempts = 0;
-        while (attempts < 5) {
-            newWidth = (int) (newWidth * 0.9);
-            newHeight = (int) (newHeight * 0.9);
-            scaledImage = scaleImage(image, newWidth, newHeight);
-            byte[] compressed = compressWithQuality(scaledImage, formatName, quality * 0.6f);
-            if (compressed.length <= maxSize) {
-                return compressed;
+    /**
+     * 使用复用的 ImageWriter 编码图片，quality 小于0表示使用格式默认参数.
+     */
+    private static byte[] encode(ImageWriter writer, BufferedImage image, float quality,
+                                 ByteArrayOutputStream buffer) throws IOException {
+        buffer.reset();
+        try (ImageOutputStream output = new MemoryCacheImageOutputStream(buffer)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (quality >= 0 && param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(quality);
             }
-            attempts++;
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.reset();
         }
+        return buffer.toByteArray();
+    }
 
-        // 最后一次尝试，使用最低质量
-        return compressWithQuality(scaledImage, formatName, 0.5f);
+    private static boolean isJpeg(String formatName) {
+        return "jpeg".equalsIgnoreCase(formatName) || "jpg".equalsIgnoreCase(formatName);
+    }
+
+    /**
+     * JPEG 不支持透明通道，带透明通道的图片先绘制到白色背景上.
+     */
+    private static BufferedImage toRgb(BufferedImage image) {
+        if (!image.getColorModel().hasAlpha()) {
+            return image;
+        }
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, image.getWidth(), image.getHeight());
+        g.drawImage(image, 0, 0, null);
+        g.dispose();
+        return rgb;
     }
 
     /**
@@ -86,10 +177,11 @@ public class ImageCompressUtils {
      * @param image    原始图片
      * @param newWidth 新宽度
      * @param newHeight 新高度
-     * @return 缩放后的图片
+     * @return 缩放后的图片，保留原图是否带透明通道
      */
     private static BufferedImage scaleImage(BufferedImage image, int newWidth, int newHeight) {
-        BufferedImage scaledImage = new BufferedImage(newWidth, newHeight, BufferedImage.TYPE_INT_RGB);
+        int type = image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage scaledImage = new BufferedImage(newWidth, newHeight, type);
         Graphics2D g = scaledImage.createGraphics();
         g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
         g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
@@ -98,40 +190,4 @@ public class ImageCompressUtils {
         g.dispose();
         return scaledImage;
     }
-
-    /**
-     * 使用指定质量压缩图片
-     *
-     * @param image     图片
-     * @param formatName 格式名
-     * @param quality   质量（0.0-1.0）
-     * @return 压缩后的字节数组
-     * @throws IOException 压缩失败时抛出
-     */
-    private static byte[] compressWithQuality(BufferedImage image, String formatName, float quality) throws IOException {
-        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-            // JPEG格式支持质量压缩
-            if ("jpeg".equals(formatName) || "jpg".equals(formatName)) {
-                javax.imageio.ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
-                javax.imageio.stream.ImageOutputStream ios = ImageIO.createImageOutputStream(outputStream);
-                writer.setOutput(ios);
-                javax.imageio.ImageWriteParam param = writer.getDefaultWriteParam();
-                if (param.canWriteCompressed()) {
-                    param.setCompressionMode(javax.imageio.ImageWriteParam.MODE_EXPLICIT);
-                    param.setCompressionQuality(quality);
-                }
-                writer.write(null, new javax.imageio.IIOImage(image, null, null), param);
-                writer.dispose();
-                ios.close();
-            } else {
-                // 其他格式直接写入
-                ImageIO.write(image, formatName, outputStream);
-            }
-            return outputStream.toByteArray();
-        } catch (IOException e) {
-            log.error("压缩图片失败", e);
-            throw new IOException("图片压缩失败", e);
-        }
-    }
 }
-
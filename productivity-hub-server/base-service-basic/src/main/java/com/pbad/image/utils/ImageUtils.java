@@ -3,11 +3,14 @@ package com.pbad.image.utils;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Iterator;
 
 /**
  * 图片工具类.
@@ -46,6 +49,29 @@ public class ImageUtils {
         return readImage(new ByteArrayInputStream(imageBytes));
     }
 
+    /**
+     * 只解析图片头部读取尺寸，不解码像素数据
+     *
+     * @param imageBytes 图片字节数组
+     * @return int数组，[0]=宽度，[1]=高度
+     * @throws IOException 无法识别的图片格式时抛出
+     */
+    public static int[] readImageSize(byte[] imageBytes) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(imageBytes))) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("图片文件损坏或无法读取");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                return new int[]{reader.getWidth(0), reader.getHeight(0)};
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
     /**
      * 将BufferedImage写入字节数组
      *
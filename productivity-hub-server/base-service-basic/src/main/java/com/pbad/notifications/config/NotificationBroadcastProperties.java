@@ -0,0 +1,48 @@
+package com.pbad.notifications.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 通知广播配置属性.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.notification.broadcast")
+public class NotificationBroadcastProperties {
+
+    /**
+     * 每页用户数，一页对应一条多行INSERT和一次批量推送（不超过 IdGeneratorApi.MAX_BATCH_SIZE）
+     */
+    private int pageSize = 500;
+
+    /**
+     * 并行执行的广播数
+     */
+    private int workerThreads = 1;
+
+    /**
+     * 排队等待的广播数上限
+     */
+    private int queueCapacity = 20;
+
+    /**
+     * 广播进度保留时间（小时）
+     */
+    private int progressTtlHours = 24;
+
+    /**
+     * 执行中的广播刷新心跳的间隔（毫秒）
+     */
+    private long heartbeatIntervalMillis = 10000;
+
+    /**
+     * 心跳超过该时长未刷新的排队/执行中广播视为已中断（毫秒），可重新发起并从中断处继续
+     */
+    private long staleMillis = 60000;
+}
@@ -0,0 +1,57 @@
+package com.pbad.notifications.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 通知收件箱配置属性.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.notification.inbox")
+public class NotificationInboxProperties {
+
+    /**
+     * 未读计数缓存时间（小时），过期后从数据库重新统计，用于纠正计数偏差
+     */
+    private int counterTtlHours = 24;
+
+    /**
+     * 单页最大条数
+     */
+    private int maxPageSize = 100;
+
+    /**
+     * 已读通知归档配置
+     */
+    private Retention retention = new Retention();
+
+    @Data
+    public static class Retention {
+
+        /**
+         * 已读通知保留天数，超过后移入归档表；0 表示不归档
+         */
+        private int readDays = 90;
+
+        /**
+         * 每批归档条数，一批在一个独立事务内完成
+         */
+        private int batchSize = 500;
+
+        /**
+         * 单次执行最多归档的批数
+         */
+        private int maxBatches = 20;
+
+        /**
+         * 执行间隔（毫秒）
+         */
+        private long intervalMillis = 3600000;
+    }
+}
@@ -1,6 +1,7 @@
 package com.pbad.notifications.controller;
 
 import com.pbad.notifications.domain.dto.NotificationPublishDTO;
+import com.pbad.notifications.domain.vo.NotificationInboxVO;
 import com.pbad.notifications.domain.vo.NotificationVO;
 import com.pbad.notifications.service.NotificationService;
 import common.core.domain.ApiResponse;
@@ -47,6 +48,44 @@ public class NotificationController {
         return ApiResponse.ok(result);
     }
 
+    /**
+     * 当前用户的收件箱（游标分页）.
+     */
+    @GetMapping("/inbox")
+    public ApiResponse<NotificationInboxVO> inbox(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "pageSize", defaultValue = "10") int pageSize) {
+        String userId = currentUserId();
+        if (userId == null) {
+            return ApiResponse.unauthorized("未登录或登录已过期");
+        }
+        return ApiResponse.ok(notificationService.inbox(cursor, pageSize, userId));
+    }
+
+    /**
+     * 当前用户的未读通知数.
+     */
+    @GetMapping("/unread-count")
+    public ApiResponse<Long> unreadCount() {
+        String userId = currentUserId();
+        if (userId == null) {
+            return ApiResponse.unauthorized("未登录或登录已过期");
+        }
+        return ApiResponse.ok(notificationService.getUnreadCount(userId));
+    }
+
+    /**
+     * 将当前用户的全部通知标记为已读.
+     */
+    @PostMapping("/read-all")
+    public ApiResponse<Integer> markAllRead() {
+        String userId = currentUserId();
+        if (userId == null) {
+            return ApiResponse.unauthorized("未登录或登录已过期");
+        }
+        return ApiResponse.ok(notificationService.markAllRead(userId));
+    }
+
     /**
      * 将指定通知标记为已读（仅当前用户自己的通知有效）.
      */
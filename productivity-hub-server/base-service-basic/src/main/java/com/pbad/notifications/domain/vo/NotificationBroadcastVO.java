@@ -0,0 +1,36 @@
+package com.pbad.notifications.domain.vo;
+
+import lombok.Data;
+
+/**
+ * 通知广播进度 VO.
+ */
+@Data
+public class NotificationBroadcastVO {
+
+    private String broadcastId;
+
+    /**
+     * QUEUED / RUNNING / COMPLETED / FAILED
+     */
+    private String status;
+
+    /**
+     * 开始时的用户总数
+     */
+    private Long total;
+
+    /**
+     * 已写入通知的用户数
+     */
+    private Long processed;
+
+    private String startedAt;
+
+    private String finishedAt;
+
+    /**
+     * 失败原因
+     */
+    private String error;
+}
@@ -0,0 +1,26 @@
+package com.pbad.notifications.domain.vo;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 通知收件箱分页 VO（游标分页）.
+ */
+@Data
+public class NotificationInboxVO {
+
+    private List<NotificationVO> items;
+
+    /**
+     * 下一页游标，没有更多时为null
+     */
+    private String nextCursor;
+
+    private Boolean hasMore;
+
+    /**
+     * 当前未读总数
+     */
+    private Long unreadCount;
+}
@@ -4,6 +4,7 @@ import com.pbad.notifications.domain.po.NotificationPO;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Mapper
@@ -11,13 +12,36 @@ public interface NotificationMapper {
 
     int insert(NotificationPO notification);
 
+    int batchInsert(@Param("notifications") List<NotificationPO> notifications);
+
     List<NotificationPO> selectPageByUser(@Param("userId") String userId,
                                           @Param("offset") int offset,
                                           @Param("pageSize") int pageSize);
 
     long countByUser(@Param("userId") String userId);
 
+    /**
+     * 游标分页：查询 (createdAt, id) 之前的通知，游标为空时从最新开始.
+     */
+    List<NotificationPO> selectInboxPage(@Param("userId") String userId,
+                                         @Param("beforeCreatedAt") String beforeCreatedAt,
+                                         @Param("beforeId") String beforeId,
+                                         @Param("limit") int limit);
+
+    long countUnreadByUser(@Param("userId") String userId);
+
+    /**
+     * 标记已读，仅未读通知会被更新.
+     */
     int markRead(@Param("id") String id, @Param("userId") String userId);
+
+    int markAllRead(@Param("userId") String userId);
+
+    List<String> selectArchivableIds(@Param("before") LocalDateTime before, @Param("limit") int limit);
+
+    int archiveByIds(@Param("ids") List<String> ids);
+
+    int deleteArchivedByIds(@Param("ids") List<String> ids);
 }
 
 
@@ -1,6 +1,8 @@
 package com.pbad.notifications.service;
 
 import com.pbad.notifications.domain.dto.NotificationPublishDTO;
+import com.pbad.notifications.domain.vo.NotificationBroadcastVO;
+import com.pbad.notifications.domain.vo.NotificationInboxVO;
 import com.pbad.notifications.domain.vo.NotificationVO;
 import common.core.domain.PageResult;
 
@@ -11,15 +13,46 @@ public interface NotificationService {
      */
     void publish(NotificationPublishDTO dto);
 
+    /**
+     * 给全部用户发布同一条通知：异步分页写入并只推送给在线用户.
+     *
+     * @param broadcastId 广播ID（同一ID正在广播时忽略），用于查询进度
+     * @param template    通知内容（userId 忽略）
+     */
+    void broadcast(String broadcastId, NotificationPublishDTO template);
+
+    /**
+     * 查询广播进度，没有广播记录时返回null.
+     */
+    NotificationBroadcastVO getBroadcastProgress(String broadcastId);
+
     /**
      * 查询当前用户的通知列表（分页）.
      */
     PageResult<NotificationVO> pageByCurrentUser(int pageNum, int pageSize, String userId);
 
+    /**
+     * 查询当前用户的收件箱（游标分页，按创建时间倒序）.
+     *
+     * @param cursor   上一页返回的游标，为空表示第一页
+     * @param pageSize 每页条数
+     */
+    NotificationInboxVO inbox(String cursor, int pageSize, String userId);
+
+    /**
+     * 查询当前用户的未读通知数.
+     */
+    long getUnreadCount(String userId);
+
     /**
      * 标记指定通知为已读（仅限当前用户）.
      */
     void markRead(String id, String userId);
+
+    /**
+     * 将当前用户的全部通知标记为已读，返回更新条数.
+     */
+    int markAllRead(String userId);
 }
 
 
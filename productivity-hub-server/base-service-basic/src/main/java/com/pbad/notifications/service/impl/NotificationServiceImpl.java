@@ -3,17 +3,25 @@ package com.pbad.notifications.service.impl;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pbad.generator.api.IdGeneratorApi;
+import com.pbad.notifications.config.NotificationInboxProperties;
 import com.pbad.notifications.domain.dto.NotificationPublishDTO;
 import com.pbad.notifications.domain.po.NotificationPO;
+import com.pbad.notifications.domain.vo.NotificationBroadcastVO;
+import com.pbad.notifications.domain.vo.NotificationInboxVO;
 import com.pbad.notifications.domain.vo.NotificationVO;
 import com.pbad.notifications.mapper.NotificationMapper;
+import com.pbad.notifications.support.NotificationBroadcaster;
+import com.pbad.notifications.support.NotificationUnreadCounter;
 import com.pbad.websocket.api.WebSocketApi;
 import com.pbad.websocket.model.MessageDTO;
 import common.core.domain.PageResult;
+import common.exception.BusinessException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -31,10 +39,18 @@ public class NotificationServiceImpl implements com.pbad.notifications.service.N
 
     private final IdGeneratorApi idGeneratorApi;
 
+    private final NotificationBroadcaster notificationBroadcaster;
+
+    private final NotificationUnreadCounter unreadCounter;
+
+    private final NotificationInboxProperties inboxProperties;
+
     private static final String WS_TYPE_NOTIFICATION = "notification";
 
     private static final String CLIENT_WEB = "web";
 
+    private static final String CURSOR_SEPARATOR = "|";
+
     @Override
     public void publish(NotificationPublishDTO dto) {
         if (dto == null || dto.getUserId() == null) {
@@ -51,6 +67,7 @@ public class NotificationServiceImpl implements com.pbad.notifications.service.N
         po.setReadFlag(0);
         po.setExtraData(toJsonSafe(dto.getExtra()));
         notificationMapper.insert(po);
+        unreadCounter.incrementAfterCommit(Collections.singletonList(dto.getUserId()), 1);
 
         // 2. 组装 WebSocket 消息并推送（包含通知 ID）
         Map<String, Object> payload = buildWsPayload(dto, notificationId);
@@ -65,6 +82,19 @@ public class NotificationServiceImpl implements com.pbad.notifications.service.N
         webSocketApi.sendMessageToClientUser(messageDTO);
     }
 
+    @Override
+    public void broadcast(String broadcastId, NotificationPublishDTO template) {
+        if (broadcastId == null || template == null) {
+            return;
+        }
+        notificationBroadcaster.broadcastAfterCommit(broadcastId, template);
+    }
+
+    @Override
+    public NotificationBroadcastVO getBroadcastProgress(String broadcastId) {
+        return notificationBroadcaster.getProgress(broadcastId);
+    }
+
     @Override
     public PageResult<NotificationVO> pageByCurrentUser(int pageNum, int pageSize, String userId) {
         if (pageNum <= 0) {
@@ -89,12 +119,75 @@ public class NotificationServiceImpl implements com.pbad.notifications.service.N
         return page;
     }
 
+    @Override
+    public NotificationInboxVO inbox(String cursor, int pageSize, String userId) {
+        if (pageSize <= 0) {
+            pageSize = 10;
+        }
+        pageSize = Math.min(pageSize, inboxProperties.getMaxPageSize());
+        String[] position = decodeCursor(cursor);
+        // 多查一条判断是否还有下一页
+        List<NotificationPO> rows = notificationMapper.selectInboxPage(userId,
+                position == null ? null : position[0], position == null ? null : position[1], pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+
+        NotificationInboxVO inbox = new NotificationInboxVO();
+        inbox.setItems(rows.stream().map(this::toVO).collect(Collectors.toList()));
+        inbox.setHasMore(hasMore);
+        inbox.setNextCursor(hasMore ? encodeCursor(rows.get(rows.size() - 1)) : null);
+        inbox.setUnreadCount(unreadCounter.get(userId));
+        return inbox;
+    }
+
+    @Override
+    public long getUnreadCount(String userId) {
+        return unreadCounter.get(userId);
+    }
+
     @Override
     public void markRead(String id, String userId) {
         if (id == null || userId == null) {
             return;
         }
-        notificationMapper.markRead(id, userId);
+        if (notificationMapper.markRead(id, userId) > 0) {
+            unreadCounter.incrementAfterCommit(Collections.singletonList(userId), -1);
+        }
+    }
+
+    @Override
+    public int markAllRead(String userId) {
+        int updated = notificationMapper.markAllRead(userId);
+        if (updated > 0) {
+            unreadCounter.evictAfterCommit(userId);
+        }
+        return updated;
+    }
+
+    /**
+     * 游标为 "创建时间|ID" 的 URL 安全 Base64 编码.
+     */
+    private static String encodeCursor(NotificationPO po) {
+        String raw = po.getCreatedAt() + CURSOR_SEPARATOR + po.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int split = raw.lastIndexOf(CURSOR_SEPARATOR);
+            if (split > 0 && split < raw.length() - 1) {
+                return new String[]{raw.substring(0, split), raw.substring(split + 1)};
+            }
+        } catch (IllegalArgumentException ignored) {
+            // 按无效游标处理
+        }
+        throw new BusinessException("400", "无效的分页游标");
     }
 
     private NotificationVO toVO(NotificationPO po) {
@@ -0,0 +1,67 @@
+package com.pbad.notifications.support;
+
+import com.pbad.notifications.config.NotificationInboxProperties;
+import com.pbad.notifications.mapper.NotificationMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 已读通知归档.
+ * <p>
+ * 定时把超过保留期的已读通知分批移入归档表：每批先复制再删除，在一个独立事务内完成，
+ * 单次执行的批数有上限，避免长时间占用连接。未读通知不归档，未读计数不受影响.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NotificationArchiver {
+
+    private final NotificationMapper notificationMapper;
+    private final NotificationInboxProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 归档超过保留期的已读通知.
+     */
+    @Scheduled(fixedDelayString = "${app.notification.inbox.retention.interval-millis:3600000}")
+    public void archiveRead() {
+        NotificationInboxProperties.Retention retention = properties.getRetention();
+        if (retention.getReadDays() <= 0) {
+            return;
+        }
+        LocalDateTime before = LocalDateTime.now().minusDays(retention.getReadDays());
+        int batchSize = Math.max(1, retention.getBatchSize());
+        long archived = 0;
+        try {
+            for (int batch = 0; batch < retention.getMaxBatches(); batch++) {
+                List<String> ids = notificationMapper.selectArchivableIds(before, batchSize);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                Integer moved = transactionTemplate.execute(status -> {
+                    notificationMapper.archiveByIds(ids);
+                    return notificationMapper.deleteArchivedByIds(ids);
+                });
+                archived += moved != null ? moved : 0;
+                if (ids.size() < batchSize) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("归档已读通知失败: {}", e.getMessage());
+        }
+        if (archived > 0) {
+            log.info("归档已读通知 {} 条", archived);
+        }
+    }
+}
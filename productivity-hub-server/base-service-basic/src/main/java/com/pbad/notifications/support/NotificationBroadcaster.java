@@ -0,0 +1,357 @@
+package com.pbad.notifications.support;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pbad.auth.mapper.UserMapper;
+import com.pbad.generator.api.IdGeneratorApi;
+import com.pbad.notifications.config.NotificationBroadcastProperties;
+import com.pbad.notifications.domain.dto.NotificationPublishDTO;
+import com.pbad.notifications.domain.po.NotificationPO;
+import com.pbad.notifications.domain.vo.NotificationBroadcastVO;
+import com.pbad.notifications.mapper.NotificationMapper;
+import com.pbad.websocket.api.WebSocketApi;
+import com.pbad.websocket.model.MessageDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 通知广播器.
+ * <p>
+ * 给全部用户发送同一条通知时在独立线程池中执行：按主键键集分页读取用户ID，每页批量申请通知ID、
+ * 用一条多行INSERT写入通知，再通过一次批量推送发给该页中在线的用户（不在线的用户登录后从通知列表读取）.
+ * 推送内容除通知ID外完全相同，公共部分只序列化一次，每个用户只拼接自己的通知ID.
+ * <p>
+ * 广播进度保存在 Redis 哈希中，供管理端查询；线程池不注册为 Spring Bean，避免接管 {@code @Async} 的默认执行器.
+ * 发起广播时用脚本原子地认领进度哈希并写入本次的持有者标识，之后的进度写入都校验持有者，被其他请求接管后立即停止.
+ * 排队或执行中的广播定时刷新心跳，节点宕机或停止后心跳超时即视为中断；重新发起中断或失败的广播时从记录的
+ * 最后一个用户ID继续（中断前已写入但未记录进度的一页会重复发送），已完成的广播重新发起时从头开始.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+@Slf4j
+@Component
+public class NotificationBroadcaster {
+
+    public static final String STATUS_QUEUED = "QUEUED";
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    private static final String KEY_PREFIX = "phub:notification:broadcast:";
+    private static final String WS_TYPE_NOTIFICATION = "notification";
+    private static final String CLIENT_WEB = "web";
+    private static final String MESSAGE_HEAD = "{\"type\":\"" + WS_TYPE_NOTIFICATION + "\",\"id\":\"";
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /**
+     * 认领广播：排队/执行中且心跳未超时返回0；否则记为排队并写入持有者与心跳，返回1.
+     * 之前已完成或不存在时清空进度从头开始，失败或中断时保留 processed/lastId 以便继续.
+     * ARGV: 持有者, 当前毫秒, 心跳超时毫秒, 过期秒数
+     */
+    private static final DefaultRedisScript<Long> CLAIM_SCRIPT = new DefaultRedisScript<>(
+            "local status = redis.call('HGET', KEYS[1], 'status') "
+                    + "local active = status == '" + STATUS_QUEUED + "' or status == '" + STATUS_RUNNING + "' "
+                    + "if active and tonumber(ARGV[2]) - tonumber(redis.call('HGET', KEYS[1], 'heartbeat') or '0') "
+                    + "    < tonumber(ARGV[3]) then return 0 end "
+                    + "if not active and status ~= '" + STATUS_FAILED + "' then "
+                    + "  redis.call('DEL', KEYS[1]) "
+                    + "  redis.call('HSET', KEYS[1], 'processed', '0') "
+                    + "end "
+                    + "redis.call('HDEL', KEYS[1], 'error', 'finishedAt') "
+                    + "redis.call('HMSET', KEYS[1], 'status', '" + STATUS_QUEUED + "', 'owner', ARGV[1], 'heartbeat', ARGV[2]) "
+                    + "redis.call('EXPIRE', KEYS[1], ARGV[4]) "
+                    + "return 1", Long.class);
+
+    /**
+     * 持有者一致时写入字段（ARGV[2..] 为 字段, 值 交替），返回1；已被接管返回0
+     */
+    private static final DefaultRedisScript<Long> UPDATE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('HGET', KEYS[1], 'owner') ~= ARGV[1] then return 0 end "
+                    + "for i = 2, #ARGV, 2 do redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1]) end "
+                    + "return 1", Long.class);
+
+    private final UserMapper userMapper;
+    private final NotificationMapper notificationMapper;
+    private final IdGeneratorApi idGeneratorApi;
+    private final WebSocketApi webSocketApi;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final NotificationBroadcastProperties properties;
+    private final NotificationUnreadCounter unreadCounter;
+    private final ThreadPoolTaskExecutor executor;
+
+    /**
+     * 本节点排队或执行中的广播：进度键 -> 持有者
+     */
+    private final Map<String, String> owned = new ConcurrentHashMap<>();
+
+    public NotificationBroadcaster(UserMapper userMapper, NotificationMapper notificationMapper,
+                                   IdGeneratorApi idGeneratorApi, WebSocketApi webSocketApi,
+                                   StringRedisTemplate redisTemplate, ObjectMapper objectMapper,
+                                   NotificationBroadcastProperties properties, NotificationUnreadCounter unreadCounter) {
+        this.userMapper = userMapper;
+        this.notificationMapper = notificationMapper;
+        this.idGeneratorApi = idGeneratorApi;
+        this.webSocketApi = webSocketApi;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.unreadCounter = unreadCounter;
+
+        int threads = Math.max(1, properties.getWorkerThreads());
+        this.executor = new ThreadPoolTaskExecutor();
+        this.executor.setCorePoolSize(threads);
+        this.executor.setMaxPoolSize(threads);
+        this.executor.setQueueCapacity(properties.getQueueCapacity());
+        this.executor.setThreadNamePrefix("notify-broadcast-");
+        this.executor.setWaitForTasksToCompleteOnShutdown(false);
+        this.executor.initialize();
+    }
+
+    /**
+     * 在事务提交后开始广播；无事务时立即开始。同一广播正在进行时忽略本次请求.
+     *
+     * @param broadcastId 广播ID（如公告ID），用于查询进度
+     * @param template    通知内容（userId 忽略）
+     */
+    public void broadcastAfterCommit(String broadcastId, NotificationPublishDTO template) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit(broadcastId, template);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                submit(broadcastId, template);
+            }
+        });
+    }
+
+    /**
+     * 查询广播进度.
+     *
+     * @param broadcastId 广播ID
+     * @return 没有广播记录时返回null
+     */
+    public NotificationBroadcastVO getProgress(String broadcastId) {
+        Map<Object, Object> entries = redisTemplate.opsForHash().entries(KEY_PREFIX + broadcastId);
+        if (entries.isEmpty()) {
+            return null;
+        }
+        String status = (String) entries.get("status");
+        String error = (String) entries.get("error");
+        if ((STATUS_QUEUED.equals(status) || STATUS_RUNNING.equals(status)) && isStale(entries.get("heartbeat"))) {
+            status = STATUS_FAILED;
+            error = "广播已中断";
+        }
+        NotificationBroadcastVO vo = new NotificationBroadcastVO();
+        vo.setBroadcastId(broadcastId);
+        vo.setStatus(status);
+        vo.setTotal(toLong(entries.get("total")));
+        vo.setProcessed(toLong(entries.get("processed")));
+        vo.setStartedAt((String) entries.get("startedAt"));
+        vo.setFinishedAt((String) entries.get("finishedAt"));
+        vo.setError(error);
+        return vo;
+    }
+
+    /**
+     * 刷新本节点排队与执行中广播的心跳，已被接管的不再刷新.
+     */
+    @Scheduled(fixedDelayString = "${app.notification.broadcast.heartbeat-interval-millis:10000}")
+    public void heartbeat() {
+        String now = String.valueOf(System.currentTimeMillis());
+        for (Map.Entry<String, String> entry : owned.entrySet()) {
+            try {
+                if (!update(entry.getKey(), entry.getValue(), "heartbeat", now)) {
+                    owned.remove(entry.getKey(), entry.getValue());
+                }
+            } catch (Exception e) {
+                log.warn("刷新通知广播心跳失败: key={}, {}", entry.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        // 未完成的广播记为失败，重新发起时从中断处继续
+        for (Map.Entry<String, String> entry : owned.entrySet()) {
+            finish(entry.getKey(), entry.getValue(), STATUS_FAILED, "服务停止");
+        }
+    }
+
+    private void submit(String broadcastId, NotificationPublishDTO template) {
+        String key = KEY_PREFIX + broadcastId;
+        String owner = UUID.randomUUID().toString().replace("-", "");
+        try {
+            Long claimed = redisTemplate.execute(CLAIM_SCRIPT, Collections.singletonList(key), owner,
+                    String.valueOf(System.currentTimeMillis()), String.valueOf(properties.getStaleMillis()),
+                    String.valueOf(TimeUnit.HOURS.toSeconds(properties.getProgressTtlHours())));
+            if (claimed == null || claimed == 0) {
+                log.info("通知广播正在进行，忽略重复请求: broadcastId={}", broadcastId);
+                return;
+            }
+        } catch (Exception e) {
+            log.error("初始化通知广播进度失败: broadcastId={}", broadcastId, e);
+            return;
+        }
+        owned.put(key, owner);
+        try {
+            executor.execute(() -> run(key, owner, template));
+        } catch (TaskRejectedException e) {
+            log.warn("通知广播队列已满: broadcastId={}", broadcastId);
+            owned.remove(key, owner);
+            finish(key, owner, STATUS_FAILED, "广播队列已满");
+        }
+    }
+
+    private void run(String key, String owner, NotificationPublishDTO template) {
+        long start = System.currentTimeMillis();
+        String extraData = toJson(template.getExtra());
+        MessageDTO messageTemplate = new MessageDTO().setClient(CLIENT_WEB).setType(WS_TYPE_NOTIFICATION);
+        int pageSize = Math.min(Math.max(1, properties.getPageSize()), IdGeneratorApi.MAX_BATCH_SIZE);
+        String lastId = null;
+        long processed = 0;
+        try {
+            String messageTail = buildMessageTail(template);
+            // 失败或中断后重新发起时从记录的位置继续
+            List<Object> resume = redisTemplate.opsForHash().multiGet(key, Arrays.asList("lastId", "processed"));
+            lastId = (String) resume.get(0);
+            processed = resume.get(1) == null ? 0 : Long.parseLong(resume.get(1).toString());
+            if (!update(key, owner, "status", STATUS_RUNNING, "total", String.valueOf(userMapper.countAll()),
+                    "startedAt", LocalDateTime.now().format(TIME_FORMAT),
+                    "heartbeat", String.valueOf(System.currentTimeMillis()))) {
+                log.info("通知广播已被其他请求接管: key={}", key);
+                return;
+            }
+            while (true) {
+                List<String> userIds = userMapper.selectIdsAfter(lastId, pageSize);
+                if (userIds.isEmpty()) {
+                    break;
+                }
+                List<String> ids = idGeneratorApi.generateIds(userIds.size());
+                List<NotificationPO> notifications = new ArrayList<>(userIds.size());
+                Map<String, String> userMessages = new HashMap<>(userIds.size() * 2);
+                for (int i = 0; i < userIds.size(); i++) {
+                    NotificationPO po = new NotificationPO();
+                    po.setId(ids.get(i));
+                    po.setUserId(userIds.get(i));
+                    po.setTitle(template.getTitle());
+                    po.setContent(template.getContent());
+                    po.setLink(template.getPath());
+                    po.setReadFlag(0);
+                    po.setExtraData(extraData);
+                    notifications.add(po);
+                    // 通知ID为纯数字，无需转义
+                    userMessages.put(userIds.get(i), MESSAGE_HEAD + ids.get(i) + messageTail);
+                }
+                notificationMapper.batchInsert(notifications);
+                unreadCounter.incrementAfterCommit(userIds, 1);
+                webSocketApi.sendMessageToEachClientUser(messageTemplate, userMessages);
+
+                processed += userIds.size();
+                lastId = userIds.get(userIds.size() - 1);
+                if (!update(key, owner, "processed", String.valueOf(processed), "lastId", lastId,
+                        "heartbeat", String.valueOf(System.currentTimeMillis()))) {
+                    log.info("通知广播已被其他请求接管，停止发送: key={}, 已处理{}个用户", key, processed);
+                    return;
+                }
+                if (userIds.size() < pageSize) {
+                    break;
+                }
+            }
+            finish(key, owner, STATUS_COMPLETED, null);
+            log.info("通知广播完成: key={}, 用户数={}, 耗时{}ms", key, processed, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("通知广播失败: key={}, 已处理{}个用户, lastUserId={}", key, processed, lastId, e);
+            finish(key, owner, STATUS_FAILED, e.getMessage());
+        } finally {
+            owned.remove(key, owner);
+        }
+    }
+
+    private void finish(String key, String owner, String status, String error) {
+        try {
+            if (error != null) {
+                update(key, owner, "status", status, "finishedAt", LocalDateTime.now().format(TIME_FORMAT), "error", error);
+            } else {
+                update(key, owner, "status", status, "finishedAt", LocalDateTime.now().format(TIME_FORMAT));
+            }
+        } catch (Exception e) {
+            log.warn("写入通知广播进度失败: key={}, status={}", key, status);
+        }
+    }
+
+    /**
+     * 持有者一致时写入进度字段.
+     *
+     * @return 已被其他请求接管时返回false
+     */
+    private boolean update(String key, String owner, String... fieldsAndValues) {
+        Object[] args = new Object[fieldsAndValues.length + 1];
+        args[0] = owner;
+        System.arraycopy(fieldsAndValues, 0, args, 1, fieldsAndValues.length);
+        Long updated = redisTemplate.execute(UPDATE_SCRIPT, Collections.singletonList(key), args);
+        return updated != null && updated == 1;
+    }
+
+    private boolean isStale(Object heartbeat) {
+        long beat = heartbeat == null ? 0 : Long.parseLong(heartbeat.toString());
+        return System.currentTimeMillis() - beat >= properties.getStaleMillis();
+    }
+
+    /**
+     * 序列化推送内容中通知ID之后的公共部分（与单条推送的字段顺序一致）.
+     */
+    private String buildMessageTail(NotificationPublishDTO template) {
+        Map<String, Object> shared = new LinkedHashMap<>();
+        shared.put("title", template.getTitle());
+        shared.put("content", template.getContent());
+        shared.put("path", template.getPath());
+        shared.put("extra", template.getExtra() == null ? Collections.emptyMap() : template.getExtra());
+        String json = toJson(shared);
+        if (json == null) {
+            throw new IllegalStateException("通知内容序列化失败");
+        }
+        return "\"," + json.substring(1);
+    }
+
+    private String toJson(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private static Long toLong(Object value) {
+        return value == null ? null : Long.valueOf(value.toString());
+    }
+}
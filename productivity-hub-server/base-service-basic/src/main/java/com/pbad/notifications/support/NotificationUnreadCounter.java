@@ -0,0 +1,196 @@
+package com.pbad.notifications.support;
+
+import com.pbad.notifications.config.NotificationInboxProperties;
+import com.pbad.notifications.mapper.NotificationMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 通知未读计数.
+ * <p>
+ * 每个用户一个 Redis 哈希（field=unread），发布通知时加一、标记已读时减一，角标查询只读一个字段。
+ * 计数只在已加载时增减（不存在时不创建），未加载时从数据库统计后写入并设置过期时间，过期后重新统计以纠正偏差；
+ * 全部已读后清除计数。Redis 读写失败时直接统计数据库.
+ * <p>
+ * 计数未加载时的增减与清除都递增同一哈希中的 version 字段：加载前先读 version，统计数据库后只在 version
+ * 未变化时写入，避免把统计期间已被增减或清除的旧值写入缓存（此时本次直接返回数据库统计值，下次查询再加载）.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NotificationUnreadCounter {
+
+    private static final String KEY_PREFIX = "phub:notification:inbox:";
+    private static final String UNREAD_FIELD = "unread";
+    private static final String VERSION_FIELD = "version";
+
+    /**
+     * 计数已加载时增减（不小于0）并返回新值；未加载时递增 version（ARGV[2] 为过期秒数）并返回-1
+     */
+    private static final String INCREMENT_SCRIPT =
+            "if redis.call('HEXISTS', KEYS[1], '" + UNREAD_FIELD + "') == 0 then "
+                    + "  redis.call('HINCRBY', KEYS[1], '" + VERSION_FIELD + "', 1) "
+                    + "  redis.call('EXPIRE', KEYS[1], ARGV[2]) "
+                    + "  return -1 "
+                    + "end "
+                    + "local v = redis.call('HINCRBY', KEYS[1], '" + UNREAD_FIELD + "', ARGV[1]) "
+                    + "if v < 0 then redis.call('HSET', KEYS[1], '" + UNREAD_FIELD + "', 0) v = 0 end "
+                    + "return v";
+
+    /**
+     * 清除计数并递增 version（ARGV[1] 为过期秒数）
+     */
+    private static final String INVALIDATE_SCRIPT =
+            "redis.call('HDEL', KEYS[1], '" + UNREAD_FIELD + "') "
+                    + "redis.call('HINCRBY', KEYS[1], '" + VERSION_FIELD + "', 1) "
+                    + "redis.call('EXPIRE', KEYS[1], ARGV[1]) "
+                    + "return 1";
+
+    /**
+     * 计数未加载且 version 仍为 ARGV[3] 时写入数据库统计值并设置过期时间，返回当前值；version 已变化返回-1
+     */
+    private static final DefaultRedisScript<Long> LOAD_SCRIPT = new DefaultRedisScript<>(
+            "local current = redis.call('HGET', KEYS[1], '" + UNREAD_FIELD + "') "
+                    + "if current then return tonumber(current) end "
+                    + "if (redis.call('HGET', KEYS[1], '" + VERSION_FIELD + "') or '0') ~= ARGV[3] then return -1 end "
+                    + "redis.call('HSET', KEYS[1], '" + UNREAD_FIELD + "', ARGV[1]) "
+                    + "redis.call('EXPIRE', KEYS[1], ARGV[2]) "
+                    + "return tonumber(ARGV[1])", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final NotificationMapper notificationMapper;
+    private final NotificationInboxProperties properties;
+
+    /**
+     * 查询用户的未读数.
+     *
+     * @param userId 用户ID
+     * @return 未读数
+     */
+    public long get(String userId) {
+        String key = KEY_PREFIX + userId;
+        Object version;
+        try {
+            List<Object> cached = redisTemplate.opsForHash().multiGet(key, Arrays.asList(UNREAD_FIELD, VERSION_FIELD));
+            if (cached.get(0) != null) {
+                return Long.parseLong(cached.get(0).toString());
+            }
+            version = cached.get(1);
+        } catch (Exception e) {
+            log.warn("读取用户 {} 的未读通知数失败: {}", userId, e.getMessage());
+            return notificationMapper.countUnreadByUser(userId);
+        }
+        // 先读 version 再统计，统计期间计数被增减或清除时不写入
+        long count = notificationMapper.countUnreadByUser(userId);
+        try {
+            Long loaded = redisTemplate.execute(LOAD_SCRIPT, Collections.singletonList(key),
+                    String.valueOf(count), ttlSeconds(), version == null ? "0" : version.toString());
+            return loaded != null && loaded >= 0 ? loaded : count;
+        } catch (Exception e) {
+            log.warn("写入用户 {} 的未读通知数失败: {}", userId, e.getMessage());
+            return count;
+        }
+    }
+
+    /**
+     * 在事务提交后调整用户的未读数；无事务时立即调整.
+     *
+     * @param userIds 用户ID
+     * @param delta   增减值
+     */
+    public void incrementAfterCommit(Collection<String> userIds, long delta) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            increment(userIds, delta);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                increment(userIds, delta);
+            }
+        });
+    }
+
+    /**
+     * 在事务提交后清除用户的未读数，下次查询时从数据库统计；无事务时立即清除.
+     *
+     * @param userId 用户ID
+     */
+    public void evictAfterCommit(String userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                evict(userId);
+            }
+        });
+    }
+
+    private void increment(Collection<String> userIds, long delta) {
+        String value = String.valueOf(delta);
+        String ttl = ttlSeconds();
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                for (String userId : userIds) {
+                    conn.eval(INCREMENT_SCRIPT, ReturnType.INTEGER, 1, KEY_PREFIX + userId, value, ttl);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("更新未读通知数失败，清除计数: users={}, {}", userIds.size(), e.getMessage());
+            try {
+                invalidate(userIds);
+            } catch (Exception ignored) {
+                // 计数过期后从数据库重新统计
+            }
+        }
+    }
+
+    private void evict(String userId) {
+        try {
+            invalidate(Collections.singletonList(userId));
+        } catch (Exception e) {
+            log.warn("清除用户 {} 的未读通知数失败: {}", userId, e.getMessage());
+        }
+    }
+
+    private void invalidate(Collection<String> userIds) {
+        String ttl = ttlSeconds();
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (String userId : userIds) {
+                conn.eval(INVALIDATE_SCRIPT, ReturnType.INTEGER, 1, KEY_PREFIX + userId, ttl);
+            }
+            return null;
+        });
+    }
+
+    private String ttlSeconds() {
+        return String.valueOf(TimeUnit.HOURS.toSeconds(properties.getCounterTtlHours()));
+    }
+}
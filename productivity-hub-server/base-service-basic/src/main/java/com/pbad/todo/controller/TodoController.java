@@ -73,8 +73,14 @@ public class TodoController {
                                      @RequestParam(required = false) String status,
                                      @RequestParam(required = false) Integer pageNum,
                                      @RequestParam(required = false) Integer pageSize,
+                                     @RequestParam(required = false) String cursor,
                                      HttpServletRequest request) {
         String userId = currentUserId(request);
+        // 提供了游标参数（首页传空值）时按游标分页，翻页开销不随任务总数增长
+        if (cursor != null) {
+            int size = pageSize != null && pageSize > 0 ? pageSize : 20;
+            return ApiResponse.ok(taskService.listTasksByCursor(userId, moduleId, status, cursor, size));
+        }
         // 如果提供了分页参数，返回分页结果
         if (pageNum != null && pageNum > 0 && pageSize != null && pageSize > 0) {
             PageResult<TodoTaskVO> pageResult = taskService.listTasksWithPage(userId, moduleId, status, pageNum, pageSize);
@@ -0,0 +1,19 @@
+package com.pbad.todo.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * 任务列表游标（上一页最后一条任务的排序键）.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoTaskCursorDTO {
+    private Integer sortRank;
+    private Date dueDate;
+    private String id;
+}
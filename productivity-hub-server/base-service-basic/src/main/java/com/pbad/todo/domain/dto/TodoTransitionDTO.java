@@ -0,0 +1,21 @@
+package com.pbad.todo.domain.dto;
+
+import lombok.Data;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 任务状态流转参数：任务处于 fromStatuses 之一时流转到 toStatus，并写入对应事件.
+ */
+@Data
+public class TodoTransitionDTO {
+    private String taskId;
+    private String userId;
+    private List<String> fromStatuses;
+    private String toStatus;
+    private String eventId;
+    private String eventType;
+    private String payload;
+    private Date occurredAt;
+}
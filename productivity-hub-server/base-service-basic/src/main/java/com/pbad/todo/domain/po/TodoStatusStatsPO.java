@@ -0,0 +1,28 @@
+package com.pbad.todo.domain.po;
+
+import lombok.Data;
+
+/**
+ * 按模块、状态分组的统计 PO.
+ */
+@Data
+public class TodoStatusStatsPO {
+    private String moduleId;
+    /**
+     * 模块已删除时为 null
+     */
+    private String moduleName;
+    private String status;
+    /**
+     * 该分组的全部任务数（不受时间范围限制）
+     */
+    private Long totalTasks;
+    /**
+     * 时间范围内的任务数
+     */
+    private Long rangeTasks;
+    /**
+     * 时间范围内任务的累计时长（含进行中的任务当前已运行的时长）
+     */
+    private Long durationMs;
+}
@@ -30,5 +30,17 @@ public class TodoTaskPO {
     private Date lastEventAt;
     private Date createdAt;
     private Date updatedAt;
+    /**
+     * 列表排序键（数据库生成列，越大越靠前）
+     */
+    private Integer sortRank;
+    /**
+     * 所属模块名称（状态流转查询的关联结果，非表字段）
+     */
+    private String moduleName;
+    /**
+     * 本次状态流转是否生效（状态流转查询结果，非表字段）
+     */
+    private Boolean transitionApplied;
 }
 
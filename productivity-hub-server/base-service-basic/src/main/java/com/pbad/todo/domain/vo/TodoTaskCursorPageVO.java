@@ -0,0 +1,18 @@
+package com.pbad.todo.domain.vo;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 任务游标分页结果.
+ */
+@Data
+public class TodoTaskCursorPageVO {
+    private List<TodoTaskVO> items;
+    /**
+     * 下一页游标，没有更多数据时为 null
+     */
+    private String nextCursor;
+    private Boolean hasMore;
+}
@@ -3,12 +3,19 @@ package com.pbad.todo.mapper;
 import com.pbad.todo.domain.po.TodoEventPO;
 import org.apache.ibatis.annotations.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface TodoEventMapper {
 
     int insertEvent(TodoEventPO event);
 
+    int batchInsertEvents(@Param("events") List<TodoEventPO> events);
+
     List<TodoEventPO> selectByTodoId(@Param("todoId") String todoId, @Param("userId") String userId);
+
+    List<TodoEventPO> selectTimelineEvents(@Param("userId") String userId,
+                                           @Param("start") LocalDateTime start,
+                                           @Param("end") LocalDateTime end);
 }
 
@@ -3,6 +3,7 @@ package com.pbad.todo.mapper;
 import com.pbad.todo.domain.po.TodoModulePO;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface TodoModuleMapper {
@@ -11,8 +12,14 @@ public interface TodoModuleMapper {
 
     TodoModulePO selectById(@Param("id") String id, @Param("userId") String userId);
 
+    List<TodoModulePO> selectByIds(@Param("userId") String userId, @Param("ids") Collection<String> ids);
+
     TodoModulePO selectByName(@Param("userId") String userId, @Param("name") String name);
 
+    List<TodoModulePO> selectByNames(@Param("userId") String userId, @Param("names") Collection<String> names);
+
+    int batchInsert(@Param("modules") List<TodoModulePO> modules);
+
     int insert(TodoModulePO module);
 
     int update(TodoModulePO module);
@@ -1,7 +1,9 @@
 package com.pbad.todo.mapper;
 
-import com.pbad.todo.domain.po.TodoDailyStatsPO;
+import com.pbad.todo.domain.dto.TodoTaskCursorDTO;
+import com.pbad.todo.domain.dto.TodoTransitionDTO;
 import com.pbad.todo.domain.po.TodoModuleStatsPO;
+import com.pbad.todo.domain.po.TodoStatusStatsPO;
 import com.pbad.todo.domain.po.TodoTaskPO;
 import org.apache.ibatis.annotations.Param;
 
@@ -20,6 +22,12 @@ public interface TodoTaskMapper {
                                          @Param("offset") int offset,
                                          @Param("limit") int limit);
 
+    List<TodoTaskPO> selectPageAfter(@Param("userId") String userId,
+                                     @Param("moduleId") String moduleId,
+                                     @Param("status") String status,
+                                     @Param("cursor") TodoTaskCursorDTO cursor,
+                                     @Param("limit") int limit);
+
     Long countByUser(@Param("userId") String userId,
                      @Param("moduleId") String moduleId,
                      @Param("status") String status);
@@ -31,8 +39,12 @@ public interface TodoTaskMapper {
 
     int insertTask(TodoTaskPO task);
 
+    int batchInsertTasks(@Param("tasks") List<TodoTaskPO> tasks);
+
     int updateTask(TodoTaskPO task);
 
+    TodoTaskPO applyTransition(TodoTransitionDTO transition);
+
     int deleteTask(@Param("id") String id, @Param("userId") String userId);
 
     int batchDeleteTasks(@Param("ids") List<String> ids, @Param("userId") String userId);
@@ -41,14 +53,8 @@ public interface TodoTaskMapper {
                                               @Param("start") LocalDateTime start,
                                               @Param("end") LocalDateTime end);
 
-    List<TodoDailyStatsPO> aggregateDaily(@Param("userId") String userId,
-                                          @Param("start") LocalDateTime start,
-                                          @Param("end") LocalDateTime end);
-
-    Long countByStatus(@Param("userId") String userId, @Param("status") String status);
-
-    Long sumDuration(@Param("userId") String userId,
-                     @Param("start") LocalDateTime start,
-                     @Param("end") LocalDateTime end);
+    List<TodoStatusStatsPO> aggregateByModuleAndStatus(@Param("userId") String userId,
+                                                       @Param("start") LocalDateTime start,
+                                                       @Param("end") LocalDateTime end);
 }
 
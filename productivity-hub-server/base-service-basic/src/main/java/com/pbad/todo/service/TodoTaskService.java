@@ -6,6 +6,7 @@ import com.pbad.todo.domain.dto.TodoTaskUpdateDTO;
 import com.pbad.todo.domain.dto.TodoImportItemDTO;
 import com.pbad.todo.domain.vo.TodoEventVO;
 import com.pbad.todo.domain.vo.TodoStatsVO;
+import com.pbad.todo.domain.vo.TodoTaskCursorPageVO;
 import com.pbad.todo.domain.vo.TodoTaskVO;
 import com.pbad.todo.domain.vo.TodoImportResultVO;
 import common.core.domain.PageResult;
@@ -18,6 +19,8 @@ public interface TodoTaskService {
 
     PageResult<TodoTaskVO> listTasksWithPage(String userId, String moduleId, String status, int pageNum, int pageSize);
 
+    TodoTaskCursorPageVO listTasksByCursor(String userId, String moduleId, String status, String cursor, int pageSize);
+
     TodoTaskVO getTask(String id, String userId);
 
     TodoTaskVO createTask(TodoTaskCreateDTO dto, String userId);
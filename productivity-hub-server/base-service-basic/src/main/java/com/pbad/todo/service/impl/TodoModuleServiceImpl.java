@@ -9,6 +9,7 @@ import com.pbad.todo.domain.vo.TodoModuleVO;
 import com.pbad.todo.mapper.TodoModuleMapper;
 import com.pbad.todo.mapper.TodoTaskMapper;
 import com.pbad.todo.service.TodoModuleService;
+import com.pbad.todo.support.TodoStatsCache;
 import common.exception.BusinessException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -28,6 +29,7 @@ public class TodoModuleServiceImpl implements TodoModuleService {
     private final TodoModuleMapper moduleMapper;
     private final TodoTaskMapper taskMapper;
     private final IdGeneratorApi idGeneratorApi;
+    private final TodoStatsCache statsCache;
 
     @Override
     @Transactional(readOnly = true)
@@ -94,6 +96,8 @@ public class TodoModuleServiceImpl implements TodoModuleService {
         if (updated <= 0) {
             throw new BusinessException("500", "更新模块失败");
         }
+        // 统计中包含模块名称
+        statsCache.evictAfterCommit(userId);
         Map<String, TodoModuleStatsPO> statsMap = buildStatsMap(userId);
         return convertToVO(existing, statsMap.get(existing.getId()));
     }
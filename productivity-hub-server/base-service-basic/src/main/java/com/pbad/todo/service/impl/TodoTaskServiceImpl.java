@@ -4,19 +4,21 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pbad.generator.api.IdGeneratorApi;
 import com.pbad.todo.domain.dto.TodoTaskCreateDTO;
+import com.pbad.todo.domain.dto.TodoTaskCursorDTO;
 import com.pbad.todo.domain.dto.TodoTaskInterruptDTO;
 import com.pbad.todo.domain.dto.TodoTaskUpdateDTO;
+import com.pbad.todo.domain.dto.TodoTransitionDTO;
 import com.pbad.todo.domain.dto.TodoImportItemDTO;
 import com.pbad.todo.domain.enums.TodoEventType;
 import com.pbad.todo.domain.enums.TodoPriority;
 import com.pbad.todo.domain.enums.TodoStatus;
-import com.pbad.todo.domain.po.TodoDailyStatsPO;
 import com.pbad.todo.domain.po.TodoEventPO;
 import com.pbad.todo.domain.po.TodoModulePO;
-import com.pbad.todo.domain.po.TodoModuleStatsPO;
+import com.pbad.todo.domain.po.TodoStatusStatsPO;
 import com.pbad.todo.domain.po.TodoTaskPO;
 import com.pbad.todo.domain.vo.TodoEventVO;
 import com.pbad.todo.domain.vo.TodoStatsVO;
+import com.pbad.todo.domain.vo.TodoTaskCursorPageVO;
 import com.pbad.todo.domain.vo.TodoTaskVO;
 import com.pbad.todo.domain.vo.TodoImportResultVO;
 import com.pbad.todo.mapper.TodoEventMapper;
@@ -25,25 +27,36 @@ import com.pbad.todo.mapper.TodoTaskMapper;
 import com.github.pagehelper.PageHelper;
 import com.github.pagehelper.PageInfo;
 import com.pbad.todo.service.TodoTaskService;
+import com.pbad.todo.support.TodoStatsCache;
+import com.pbad.todo.support.TodoTimelineBuilder;
 import common.core.domain.PageResult;
 import common.exception.BusinessException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -53,16 +66,37 @@ public class TodoTaskServiceImpl implements TodoTaskService {
 
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private static final List<String> RUNNING_STATUSES = Collections.singletonList(TodoStatus.IN_PROGRESS.name());
+
+    private static final List<String> PAUSED_STATUSES = Collections.singletonList(TodoStatus.PAUSED.name());
+
+    private static final List<String> STARTABLE_STATUSES = Arrays.asList(
+            TodoStatus.PENDING.name(), TodoStatus.INTERRUPTED.name());
+
+    private static final List<String> UNFINISHED_STATUSES = Arrays.asList(
+            TodoStatus.PENDING.name(), TodoStatus.IN_PROGRESS.name(),
+            TodoStatus.PAUSED.name(), TodoStatus.INTERRUPTED.name());
+
     private final TodoTaskMapper taskMapper;
     private final TodoModuleMapper moduleMapper;
     private final TodoEventMapper eventMapper;
     private final IdGeneratorApi idGeneratorApi;
+    private final TodoStatsCache statsCache;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 导入时单条多行INSERT语句包含的任务数，每批独立提交
+     */
+    @Value("${app.todo.import.batch-size:500}")
+    private int importBatchSize;
 
     @Override
     @Transactional(readOnly = true)
     public List<TodoTaskVO> listTasks(String userId, String moduleId, String status) {
         List<TodoTaskPO> tasks = taskMapper.selectByUser(userId, moduleId, status);
-        return tasks.stream().map(this::convertToVO).collect(Collectors.toList());
+        return convertToVOs(tasks);
     }
 
     @Override
@@ -78,12 +112,29 @@ public class TodoTaskServiceImpl implements TodoTaskService {
         PageInfo<TodoTaskPO> pageInfo = new PageInfo<>(tasks);
         
         // 转换为 VO
-        List<TodoTaskVO> items = tasks.stream().map(this::convertToVO).collect(Collectors.toList());
+        List<TodoTaskVO> items = convertToVOs(tasks);
         
         // 转换为 PageResult
         return PageResult.of(pageInfo.getPageNum(), pageInfo.getPageSize(), pageInfo.getTotal(), items);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public TodoTaskCursorPageVO listTasksByCursor(String userId, String moduleId, String status, String cursor, int pageSize) {
+        int limit = Math.min(Math.max(pageSize, 1), MAX_PAGE_SIZE);
+        // 多取一条判断是否还有下一页，不统计总数
+        List<TodoTaskPO> tasks = taskMapper.selectPageAfter(userId, moduleId, status, decodeCursor(cursor), limit + 1);
+        boolean hasMore = tasks.size() > limit;
+        if (hasMore) {
+            tasks = tasks.subList(0, limit);
+        }
+        TodoTaskCursorPageVO page = new TodoTaskCursorPageVO();
+        page.setItems(convertToVOs(tasks));
+        page.setHasMore(hasMore);
+        page.setNextCursor(hasMore ? encodeCursor(tasks.get(tasks.size() - 1)) : null);
+        return page;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public TodoTaskVO getTask(String id, String userId) {
@@ -127,6 +178,7 @@ public class TodoTaskServiceImpl implements TodoTaskService {
             throw new BusinessException("500", "创建任务失败");
         }
         recordEvent(task.getId(), userId, TodoEventType.CREATE, now, null);
+        statsCache.evictAfterCommit(userId);
         return convertToVO(taskMapper.selectById(task.getId(), userId));
     }
 
@@ -165,6 +217,7 @@ public class TodoTaskServiceImpl implements TodoTaskService {
         if (updated <= 0) {
             throw new BusinessException("500", "更新任务失败");
         }
+        statsCache.evictAfterCommit(userId);
         return convertToVO(taskMapper.selectById(task.getId(), userId));
     }
 
@@ -179,6 +232,7 @@ public class TodoTaskServiceImpl implements TodoTaskService {
         if (deleted <= 0) {
             throw new BusinessException("500", "删除任务失败");
         }
+        statsCache.evictAfterCommit(userId);
     }
 
     @Override
@@ -200,118 +254,68 @@ public class TodoTaskServiceImpl implements TodoTaskService {
         if (deleted <= 0) {
             throw new BusinessException("500", "批量删除任务失败");
         }
+        statsCache.evictAfterCommit(userId);
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public TodoTaskVO startTask(String id, String userId) {
-        TodoTaskPO task = requireTask(id, userId);
-        TodoStatus previousStatus = parseStatus(task.getStatus());
-        if (!previousStatus.canStart()) {
-            throw new BusinessException("400", "任务状态不允许开始");
-        }
-        Date now = new Date();
-        pauseOtherRunningTasks(userId, id, now);
-
-        if (task.getPauseStartedAt() != null) {
-            long paused = now.getTime() - task.getPauseStartedAt().getTime();
-            task.setPausedDurationMs(safeDuration(task.getPausedDurationMs()) + Math.max(paused, 0));
-            task.setPauseStartedAt(null);
-        }
-        if (task.getStartedAt() == null) {
-            task.setStartedAt(now);
-        }
-        task.setActiveStartAt(now);
-        task.setEndedAt(null);
-        task.setStatus(TodoStatus.IN_PROGRESS.name());
-        task.setLastEventAt(now);
-        task.setUpdatedAt(now);
-
-        int updated = taskMapper.updateTask(task);
-        if (updated <= 0) {
-            throw new BusinessException("500", "开始任务失败");
-        }
-        TodoEventType eventType = TodoStatus.PAUSED.equals(previousStatus) ? TodoEventType.RESUME : TodoEventType.START;
-        recordEvent(task.getId(), userId, eventType, now, null);
-        return convertToVO(taskMapper.selectById(id, userId));
+        return start(id, userId, false);
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public TodoTaskVO pauseTask(String id, String userId, boolean system) {
-        TodoTaskPO task = requireTask(id, userId);
-        if (!TodoStatus.IN_PROGRESS.name().equals(task.getStatus())) {
+        TodoTaskPO task = transition(id, userId, RUNNING_STATUSES, TodoStatus.PAUSED,
+                TodoEventType.PAUSE, system ? "system-auto" : null, new Date());
+        if (!Boolean.TRUE.equals(task.getTransitionApplied())) {
             throw new BusinessException("400", "仅进行中的任务可以暂停");
         }
-        Date now = new Date();
-        task = pauseInternal(task, now);
-        recordEvent(task.getId(), userId, TodoEventType.PAUSE, now, system ? "system-auto" : null);
-        return convertToVO(task);
+        statsCache.evictAfterCommit(userId);
+        return convertToVO(task, task.getModuleName());
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public TodoTaskVO resumeTask(String id, String userId) {
-        return startTask(id, userId);
+        return start(id, userId, true);
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public TodoTaskVO completeTask(String id, String userId) {
-        TodoTaskPO task = requireTask(id, userId);
-        if (TodoStatus.COMPLETED.name().equals(task.getStatus())) {
-            return convertToVO(task);
-        }
-        Date now = new Date();
-        accumulateRunningDuration(task, now);
-        accumulatePausedDuration(task, now);
-
-        task.setStatus(TodoStatus.COMPLETED.name());
-        task.setEndedAt(now);
-        task.setActiveStartAt(null);
-        task.setPauseStartedAt(null);
-        task.setLastEventAt(now);
-        task.setUpdatedAt(now);
-
-        int updated = taskMapper.updateTask(task);
-        if (updated <= 0) {
+        TodoTaskPO task = transition(id, userId, UNFINISHED_STATUSES, TodoStatus.COMPLETED,
+                TodoEventType.COMPLETE, null, new Date());
+        if (!Boolean.TRUE.equals(task.getTransitionApplied())) {
+            if (TodoStatus.COMPLETED.name().equals(task.getStatus())) {
+                return convertToVO(task, task.getModuleName());
+            }
             throw new BusinessException("500", "完成任务失败");
         }
-        recordEvent(task.getId(), userId, TodoEventType.COMPLETE, now, null);
-        return convertToVO(taskMapper.selectById(id, userId));
+        statsCache.evictAfterCommit(userId);
+        return convertToVO(task, task.getModuleName());
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public TodoTaskVO interruptTask(String id, String userId, TodoTaskInterruptDTO interruptDTO, boolean system) {
-        TodoTaskPO task = requireTask(id, userId);
-        if (task.getStatus() != null && TodoStatus.COMPLETED.name().equals(task.getStatus())) {
-            throw new BusinessException("400", "已完成的任务无法中断");
-        }
-        Date now = new Date();
-        accumulateRunningDuration(task, now);
-        accumulatePausedDuration(task, now);
-
-        task.setStatus(TodoStatus.INTERRUPTED.name());
-        task.setEndedAt(now);
-        task.setActiveStartAt(null);
-        task.setPauseStartedAt(null);
-        task.setLastEventAt(now);
-        task.setUpdatedAt(now);
-
-        int updated = taskMapper.updateTask(task);
-        if (updated <= 0) {
+        String payload = interruptDTO != null ? interruptDTO.getReason() : null;
+        TodoTaskPO task = transition(id, userId, UNFINISHED_STATUSES, TodoStatus.INTERRUPTED,
+                system ? TodoEventType.SYSTEM_INTERRUPT : TodoEventType.INTERRUPT, payload, new Date());
+        if (!Boolean.TRUE.equals(task.getTransitionApplied())) {
+            if (TodoStatus.COMPLETED.name().equals(task.getStatus())) {
+                throw new BusinessException("400", "已完成的任务无法中断");
+            }
             throw new BusinessException("500", "中断任务失败");
         }
-        String payload = interruptDTO != null ? interruptDTO.getReason() : null;
-        recordEvent(task.getId(), userId, system ? TodoEventType.SYSTEM_INTERRUPT : TodoEventType.INTERRUPT, now, payload);
-        return convertToVO(taskMapper.selectById(id, userId));
+        statsCache.evictAfterCommit(userId);
+        return convertToVO(task, task.getModuleName());
     }
 
     @Override
     @Transactional(readOnly = true)
     public TodoTaskVO getActiveTask(String userId) {
-        List<TodoTaskPO> running = taskMapper.selectByStatuses(userId, Collections.singletonList(TodoStatus.IN_PROGRESS.name()));
+        List<TodoTaskPO> running = taskMapper.selectByStatuses(userId, RUNNING_STATUSES);
         if (CollectionUtils.isEmpty(running)) {
             return null;
         }
@@ -321,28 +325,60 @@ public class TodoTaskServiceImpl implements TodoTaskService {
     @Override
     @Transactional(readOnly = true)
     public TodoStatsVO getStats(String userId, LocalDateTime start, LocalDateTime end) {
-        TodoStatsVO vo = new TodoStatsVO();
-        Long total = taskMapper.countByStatus(userId, null);
-        Long completed = taskMapper.countByStatus(userId, TodoStatus.COMPLETED.name());
-        Long inProgress = taskMapper.countByStatus(userId, TodoStatus.IN_PROGRESS.name());
-        Long interrupted = taskMapper.countByStatus(userId, TodoStatus.INTERRUPTED.name());
-        Long duration = taskMapper.sumDuration(userId, start, end);
-
-        vo.setTotalTasks(safeCount(total));
-        vo.setCompletedTasks(safeCount(completed));
-        vo.setInProgressTasks(safeCount(inProgress));
-        vo.setInterruptedTasks(safeCount(interrupted));
-        vo.setTotalDurationMs(duration == null ? 0L : duration);
-
-        List<TodoModuleStatsPO> moduleStats = taskMapper.aggregateByModule(userId, start, end);
-        if (moduleStats != null) {
-            vo.setModuleStats(moduleStats.stream().map(this::convertModuleStat).collect(Collectors.toList()));
-        }
-
-        List<TodoDailyStatsPO> dailyStats = taskMapper.aggregateDaily(userId, start, end);
-        if (dailyStats != null) {
-            vo.setTimeline(dailyStats.stream().map(this::convertDailyStat).collect(Collectors.toList()));
+        TodoStatsVO cached = statsCache.get(userId, start, end);
+        if (cached != null) {
+            return cached;
         }
+        TodoStatsVO vo = new TodoStatsVO();
+        long total = 0;
+        long completed = 0;
+        long inProgress = 0;
+        long interrupted = 0;
+        long duration = 0;
+        // 按模块汇总时间范围内的任务，保持模块首次出现的顺序
+        Map<String, TodoStatsVO.ModuleStat> moduleStats = new LinkedHashMap<>();
+        for (TodoStatusStatsPO row : taskMapper.aggregateByModuleAndStatus(userId, start, end)) {
+            long count = safeCount(row.getTotalTasks());
+            long rangeCount = safeCount(row.getRangeTasks());
+            long rangeDuration = safeDuration(row.getDurationMs());
+            boolean isCompleted = TodoStatus.COMPLETED.name().equals(row.getStatus());
+            total += count;
+            if (isCompleted) {
+                completed += count;
+            } else if (TodoStatus.IN_PROGRESS.name().equals(row.getStatus())) {
+                inProgress += count;
+            } else if (TodoStatus.INTERRUPTED.name().equals(row.getStatus())) {
+                interrupted += count;
+            }
+            duration += rangeDuration;
+            if (row.getModuleName() == null || rangeCount == 0) {
+                continue;
+            }
+            TodoStatsVO.ModuleStat stat = moduleStats.computeIfAbsent(row.getModuleId(), moduleId -> {
+                TodoStatsVO.ModuleStat created = new TodoStatsVO.ModuleStat();
+                created.setModuleId(moduleId);
+                created.setModuleName(row.getModuleName());
+                created.setTotalTasks(0L);
+                created.setCompletedTasks(0L);
+                created.setDurationMs(0L);
+                return created;
+            });
+            stat.setTotalTasks(stat.getTotalTasks() + rangeCount);
+            if (isCompleted) {
+                stat.setCompletedTasks(stat.getCompletedTasks() + rangeCount);
+            }
+            stat.setDurationMs(stat.getDurationMs() + rangeDuration);
+        }
+        vo.setTotalTasks(total);
+        vo.setCompletedTasks(completed);
+        vo.setInProgressTasks(inProgress);
+        vo.setInterruptedTasks(interrupted);
+        vo.setTotalDurationMs(duration);
+        vo.setModuleStats(new ArrayList<>(moduleStats.values()));
+
+        // 按日统计由计时事件一次遍历得出，时长按实际计时所在的日期拆分
+        vo.setTimeline(TodoTimelineBuilder.build(eventMapper.selectTimelineEvents(userId, start, end), end));
+        statsCache.put(userId, start, end, vo);
         return vo;
     }
 
@@ -353,8 +389,11 @@ public class TodoTaskServiceImpl implements TodoTaskService {
         return events.stream().map(this::convertEventToVO).collect(Collectors.toList());
     }
 
+    /**
+     * 先校验全部记录并收集模块名称，模块一次查询、缺失的一次多行插入；
+     * 任务与创建事件按批次多行插入，每批独立提交，某批失败时逐条重试以定位失败的记录，不影响其他批次.
+     */
     @Override
-    @Transactional(rollbackFor = Exception.class)
     public TodoImportResultVO importTasks(String userId, List<TodoImportItemDTO> items) {
         TodoImportResultVO result = new TodoImportResultVO();
         if (items == null || items.isEmpty()) {
@@ -362,10 +401,9 @@ public class TodoTaskServiceImpl implements TodoTaskService {
         }
         result.setTotal(items.size());
 
-        // 缓存已存在/已创建的模块，避免重复查询与创建
-        Map<String, TodoModulePO> moduleCache = new HashMap<>();
-        int createdModuleCount = 0;
-
+        List<ImportRow> rows = new ArrayList<>();
+        Set<String> moduleNames = new LinkedHashSet<>();
+        Date now = new Date();
         for (int i = 0; i < items.size(); i++) {
             TodoImportItemDTO item = items.get(i);
             String indexPrefix = "第" + (i + 1) + "行：";
@@ -382,65 +420,119 @@ public class TodoTaskServiceImpl implements TodoTaskService {
                     result.getErrors().add(indexPrefix + "模块名称不能为空");
                     continue;
                 }
-
-                // 获取或创建模块
                 String moduleName = item.getModuleName().trim();
-                TodoModulePO module = moduleCache.get(moduleName);
-                if (module == null) {
-                    module = moduleMapper.selectByName(userId, moduleName);
-                    if (module == null) {
-                        module = new TodoModulePO();
-                        module.setId(idGeneratorApi.generateId());
-                        module.setUserId(userId);
-                        module.setName(moduleName);
-                        module.setDescription(null);
-                        module.setStatus("ENABLED");
-                        module.setSortOrder(0);
-                        Date now = new Date();
-                        module.setCreatedAt(now);
-                        module.setUpdatedAt(now);
-                        moduleMapper.insert(module);
-                        createdModuleCount++;
-                    }
-                    moduleCache.put(moduleName, module);
-                }
-
-                // 构造任务
-                TodoTaskPO task = new TodoTaskPO();
-                task.setId(idGeneratorApi.generateId());
-                task.setUserId(userId);
-                task.setModuleId(module.getId());
-                task.setTitle(item.getTitle().trim());
-                task.setDescription(StringUtils.hasText(item.getDescription()) ? item.getDescription().trim() : null);
-                task.setPriority(normalizePriority(item.getPriority()).name());
-                task.setDueDate(parseDueDate(item.getDueDate()));
-                task.setTagsJson(serializeTags(item.getTags()));
-                task.setStatus(TodoStatus.PENDING.name());
-                Date now = new Date();
-                task.setCreatedAt(now);
-                task.setUpdatedAt(now);
-                task.setLastEventAt(now);
-                task.setDurationMs(0L);
-                task.setPausedDurationMs(0L);
-
-                int inserted = taskMapper.insertTask(task);
-                if (inserted <= 0) {
-                    result.getErrors().add(indexPrefix + "保存任务失败");
-                    continue;
-                }
-                recordEvent(task.getId(), userId, TodoEventType.CREATE, now, "import");
-                result.setSuccess(result.getSuccess() + 1);
+                rows.add(new ImportRow(indexPrefix, moduleName, buildImportedTask(userId, item, now)));
+                moduleNames.add(moduleName);
             } catch (Exception ex) {
                 log.warn("导入待办任务失败, index={}", i, ex);
                 result.getErrors().add(indexPrefix + "导入失败：" + ex.getMessage());
             }
         }
 
-        result.setCreatedModules(createdModuleCount);
+        if (!rows.isEmpty()) {
+            Map<String, String> moduleIds = transactionTemplate.execute(status -> resolveModules(userId, moduleNames, result));
+            // 每个任务占用任务ID与事件ID两个，按批申请，单批不超过一次预留的上限
+            int step = Math.min(Math.max(importBatchSize, 1), IdGeneratorApi.MAX_BATCH_SIZE / 2);
+            for (int from = 0; from < rows.size(); from += step) {
+                List<ImportRow> batch = rows.subList(from, Math.min(from + step, rows.size()));
+                List<String> ids = idGeneratorApi.generateIds(batch.size() * 2);
+                for (int i = 0; i < batch.size(); i++) {
+                    ImportRow row = batch.get(i);
+                    row.task.setId(ids.get(i * 2));
+                    row.task.setModuleId(moduleIds.get(row.moduleName));
+                    row.event = buildEvent(ids.get(i * 2 + 1), row.task.getId(), userId, TodoEventType.CREATE, now, "import");
+                }
+                writeImportBatch(batch, result);
+            }
+        }
+
         result.setFailed(result.getTotal() - result.getSuccess());
+        if (result.getSuccess() > 0 || result.getCreatedModules() > 0) {
+            statsCache.evictAfterCommit(userId);
+        }
         return result;
     }
 
+    private TodoTaskPO buildImportedTask(String userId, TodoImportItemDTO item, Date now) {
+        TodoTaskPO task = new TodoTaskPO();
+        task.setUserId(userId);
+        task.setTitle(item.getTitle().trim());
+        task.setDescription(StringUtils.hasText(item.getDescription()) ? item.getDescription().trim() : null);
+        task.setPriority(normalizePriority(item.getPriority()).name());
+        task.setDueDate(parseDueDate(item.getDueDate()));
+        task.setTagsJson(serializeTags(item.getTags()));
+        task.setStatus(TodoStatus.PENDING.name());
+        task.setCreatedAt(now);
+        task.setUpdatedAt(now);
+        task.setLastEventAt(now);
+        task.setDurationMs(0L);
+        task.setPausedDurationMs(0L);
+        return task;
+    }
+
+    /**
+     * 查询已存在的模块，不存在的一次创建.
+     * <p>
+     * 名称按去除首尾空格、忽略大小写匹配，与数据库排序规则的比较方式一致，大小写不同的名称只对应一个模块.
+     *
+     * @return 模块名称（忽略大小写） -> 模块ID
+     */
+    private Map<String, String> resolveModules(String userId, Set<String> names, TodoImportResultVO result) {
+        Map<String, String> moduleIds = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (TodoModulePO module : moduleMapper.selectByNames(userId, names)) {
+            moduleIds.putIfAbsent(module.getName().trim(), module.getId());
+        }
+        List<TodoModulePO> created = new ArrayList<>();
+        Date now = new Date();
+        for (String name : names) {
+            if (moduleIds.containsKey(name)) {
+                continue;
+            }
+            TodoModulePO module = new TodoModulePO();
+            module.setId(idGeneratorApi.generateId());
+            module.setUserId(userId);
+            module.setName(name);
+            module.setStatus("ENABLED");
+            module.setSortOrder(0);
+            module.setCreatedAt(now);
+            module.setUpdatedAt(now);
+            created.add(module);
+            moduleIds.put(name, module.getId());
+        }
+        if (!created.isEmpty()) {
+            moduleMapper.batchInsert(created);
+        }
+        result.setCreatedModules(created.size());
+        return moduleIds;
+    }
+
+    private void writeImportBatch(List<ImportRow> batch, TodoImportResultVO result) {
+        try {
+            transactionTemplate.execute(status -> {
+                taskMapper.batchInsertTasks(batch.stream().map(row -> row.task).collect(Collectors.toList()));
+                eventMapper.batchInsertEvents(batch.stream().map(row -> row.event).collect(Collectors.toList()));
+                return null;
+            });
+            result.setSuccess(result.getSuccess() + batch.size());
+            return;
+        } catch (Exception ex) {
+            log.warn("批量导入待办任务失败，逐条重试, size={}", batch.size(), ex);
+        }
+        for (ImportRow row : batch) {
+            try {
+                transactionTemplate.execute(status -> {
+                    taskMapper.insertTask(row.task);
+                    eventMapper.insertEvent(row.event);
+                    return null;
+                });
+                result.setSuccess(result.getSuccess() + 1);
+            } catch (Exception ex) {
+                log.warn("导入待办任务失败: {}", row.indexPrefix, ex);
+                result.getErrors().add(row.indexPrefix + "保存任务失败");
+            }
+        }
+    }
+
     private TodoEventVO convertEventToVO(TodoEventPO po) {
         TodoEventVO vo = new TodoEventVO();
         vo.setId(po.getId());
@@ -451,67 +543,67 @@ public class TodoTaskServiceImpl implements TodoTaskService {
         return vo;
     }
 
-    private TodoStatsVO.ModuleStat convertModuleStat(TodoModuleStatsPO po) {
-        TodoStatsVO.ModuleStat stat = new TodoStatsVO.ModuleStat();
-        stat.setModuleId(po.getModuleId());
-        stat.setModuleName(po.getModuleName());
-        stat.setTotalTasks(safeCount(po.getTotalTasks()));
-        stat.setCompletedTasks(safeCount(po.getCompletedTasks()));
-        stat.setDurationMs(po.getDurationMs() == null ? 0L : po.getDurationMs());
-        return stat;
+    /**
+     * 开始或恢复任务：暂停中的任务记为 RESUME，待办与已中断的任务记为 START，按调用方预期的流转先尝试.
+     */
+    private TodoTaskVO start(String id, String userId, boolean resumeFirst) {
+        Date now = new Date();
+        TodoTaskPO task = resumeFirst ? resume(id, userId, now) : startFresh(id, userId, now);
+        if (!Boolean.TRUE.equals(task.getTransitionApplied())) {
+            boolean otherApplies = resumeFirst
+                    ? STARTABLE_STATUSES.contains(task.getStatus()) : PAUSED_STATUSES.contains(task.getStatus());
+            if (otherApplies) {
+                task = resumeFirst ? startFresh(id, userId, now) : resume(id, userId, now);
+            }
+        }
+        if (!Boolean.TRUE.equals(task.getTransitionApplied())) {
+            throw new BusinessException("400", "任务状态不允许开始");
+        }
+        pauseOtherRunningTasks(userId, id, now);
+        statsCache.evictAfterCommit(userId);
+        return convertToVO(task, task.getModuleName());
     }
 
-    private TodoStatsVO.DailyStat convertDailyStat(TodoDailyStatsPO po) {
-        TodoStatsVO.DailyStat stat = new TodoStatsVO.DailyStat();
-        if (po.getDate() != null) {
-            stat.setDate(java.time.LocalDate.parse(po.getDate()));
-        }
-        stat.setCompletedTasks(safeCount(po.getCompletedTasks()));
-        stat.setDurationMs(po.getDurationMs() == null ? 0L : po.getDurationMs());
-        return stat;
+    private TodoTaskPO startFresh(String id, String userId, Date now) {
+        return transition(id, userId, STARTABLE_STATUSES, TodoStatus.IN_PROGRESS, TodoEventType.START, null, now);
     }
 
-    private TodoTaskPO pauseInternal(TodoTaskPO task, Date now) {
-        accumulateRunningDuration(task, now);
-        task.setPauseStartedAt(now);
-        task.setActiveStartAt(null);
-        task.setStatus(TodoStatus.PAUSED.name());
-        task.setLastEventAt(now);
-        task.setUpdatedAt(now);
-        taskMapper.updateTask(task);
-        return taskMapper.selectById(task.getId(), task.getUserId());
+    private TodoTaskPO resume(String id, String userId, Date now) {
+        return transition(id, userId, PAUSED_STATUSES, TodoStatus.IN_PROGRESS, TodoEventType.RESUME, null, now);
     }
 
     private void pauseOtherRunningTasks(String userId, String excludeTaskId, Date now) {
-        List<TodoTaskPO> running = taskMapper.selectByStatuses(userId, Collections.singletonList(TodoStatus.IN_PROGRESS.name()));
-        if (CollectionUtils.isEmpty(running)) {
-            return;
-        }
+        List<TodoTaskPO> running = taskMapper.selectByStatuses(userId, RUNNING_STATUSES);
         for (TodoTaskPO active : running) {
-            if (Objects.equals(active.getId(), excludeTaskId)) {
-                continue;
+            if (!Objects.equals(active.getId(), excludeTaskId)) {
+                // 已被其他请求暂停或结束时条件不满足，直接跳过
+                transition(active.getId(), userId, RUNNING_STATUSES, TodoStatus.PAUSED,
+                        TodoEventType.PAUSE, "auto-switch", now);
             }
-            TodoTaskPO paused = pauseInternal(active, now);
-            recordEvent(paused.getId(), userId, TodoEventType.PAUSE, now, "auto-switch");
         }
     }
 
-    private void accumulateRunningDuration(TodoTaskPO task, Date now) {
-        if (task.getActiveStartAt() == null) {
-            return;
-        }
-        long elapsed = now.getTime() - task.getActiveStartAt().getTime();
-        task.setDurationMs(safeDuration(task.getDurationMs()) + Math.max(elapsed, 0));
-        task.setActiveStartAt(null);
-    }
-
-    private void accumulatePausedDuration(TodoTaskPO task, Date now) {
-        if (task.getPauseStartedAt() == null) {
-            return;
+    /**
+     * 执行一次状态流转：条件更新、写入事件并返回流转后的任务，一次数据库往返.
+     *
+     * @return 流转后的任务，transitionApplied 为 false 表示任务当前状态不在 fromStatuses 中
+     */
+    private TodoTaskPO transition(String id, String userId, List<String> fromStatuses, TodoStatus toStatus,
+                                  TodoEventType eventType, String payload, Date now) {
+        TodoTransitionDTO transition = new TodoTransitionDTO();
+        transition.setTaskId(id);
+        transition.setUserId(userId);
+        transition.setFromStatuses(fromStatuses);
+        transition.setToStatus(toStatus.name());
+        transition.setEventId(idGeneratorApi.generateId());
+        transition.setEventType(eventType.name());
+        transition.setPayload(payload);
+        transition.setOccurredAt(now);
+        TodoTaskPO task = taskMapper.applyTransition(transition);
+        if (task == null) {
+            throw new BusinessException("404", "任务不存在");
         }
-        long paused = now.getTime() - task.getPauseStartedAt().getTime();
-        task.setPausedDurationMs(safeDuration(task.getPausedDurationMs()) + Math.max(paused, 0));
-        task.setPauseStartedAt(null);
+        return task;
     }
 
     private TodoTaskPO requireTask(String id, String userId) {
@@ -550,11 +642,37 @@ public class TodoTaskServiceImpl implements TodoTaskService {
     }
 
     private TodoTaskVO convertToVO(TodoTaskPO po) {
+        TodoModulePO module = moduleMapper.selectById(po.getModuleId(), po.getUserId());
+        return convertToVO(po, module != null ? module.getName() : null);
+    }
+
+    /**
+     * 批量转换同一用户的任务，所属模块一次查询.
+     */
+    private List<TodoTaskVO> convertToVOs(List<TodoTaskPO> tasks) {
+        if (tasks.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Set<String> moduleIds = tasks.stream()
+                .map(TodoTaskPO::getModuleId)
+                .filter(StringUtils::hasText)
+                .collect(Collectors.toSet());
+        Map<String, String> moduleNames = new HashMap<>();
+        if (!moduleIds.isEmpty()) {
+            for (TodoModulePO module : moduleMapper.selectByIds(tasks.get(0).getUserId(), moduleIds)) {
+                moduleNames.put(module.getId(), module.getName());
+            }
+        }
+        return tasks.stream()
+                .map(task -> convertToVO(task, moduleNames.get(task.getModuleId())))
+                .collect(Collectors.toList());
+    }
+
+    private TodoTaskVO convertToVO(TodoTaskPO po, String moduleName) {
         TodoTaskVO vo = new TodoTaskVO();
         vo.setId(po.getId());
         vo.setModuleId(po.getModuleId());
-        TodoModulePO module = moduleMapper.selectById(po.getModuleId(), po.getUserId());
-        vo.setModuleName(module != null ? module.getName() : null);
+        vo.setModuleName(moduleName);
         vo.setTitle(po.getTitle());
         vo.setDescription(po.getDescription());
         vo.setPriority(po.getPriority());
@@ -578,6 +696,30 @@ public class TodoTaskServiceImpl implements TodoTaskService {
         return vo;
     }
 
+    /**
+     * 游标格式：Base64URL("{sortRank}_{截止日期毫秒，无截止日期为空}_{id}")
+     */
+    private static String encodeCursor(TodoTaskPO last) {
+        String raw = last.getSortRank() + "_"
+                + (last.getDueDate() != null ? String.valueOf(last.getDueDate().getTime()) : "") + "_"
+                + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static TodoTaskCursorDTO decodeCursor(String cursor) {
+        if (!StringUtils.hasText(cursor)) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("_", 3);
+            Date dueDate = parts[1].isEmpty() ? null : new Date(Long.parseLong(parts[1]));
+            return new TodoTaskCursorDTO(Integer.valueOf(parts[0]), dueDate, parts[2]);
+        } catch (RuntimeException e) {
+            throw new BusinessException("400", "分页游标无效");
+        }
+    }
+
     /**
      * 解析截止日期字符串（支持 yyyy-MM-dd 或 yyyy-MM-dd HH:mm:ss 格式）为 Date，null 或空字符串返回 null。
      */
@@ -630,23 +772,34 @@ public class TodoTaskServiceImpl implements TodoTaskService {
     }
 
     private void recordEvent(String todoId, String userId, TodoEventType type, Date when, String payload) {
+        eventMapper.insertEvent(buildEvent(idGeneratorApi.generateId(), todoId, userId, type, when, payload));
+    }
+
+    private TodoEventPO buildEvent(String id, String todoId, String userId, TodoEventType type, Date when, String payload) {
         TodoEventPO event = new TodoEventPO();
-        event.setId(idGeneratorApi.generateId());
+        event.setId(id);
         event.setTodoId(todoId);
         event.setUserId(userId);
         event.setEventType(type.name());
         event.setOccurredAt(when);
         event.setPayload(payload);
         event.setCreatedAt(when);
-        eventMapper.insertEvent(event);
+        return event;
     }
 
-    private TodoStatus parseStatus(String status) {
-        try {
-            return TodoStatus.valueOf(status);
-        } catch (Exception e) {
-            return TodoStatus.PENDING;
+    /**
+     * 通过校验的导入记录.
+     */
+    private static class ImportRow {
+        private final String indexPrefix;
+        private final String moduleName;
+        private final TodoTaskPO task;
+        private TodoEventPO event;
+
+        ImportRow(String indexPrefix, String moduleName, TodoTaskPO task) {
+            this.indexPrefix = indexPrefix;
+            this.moduleName = moduleName;
+            this.task = task;
         }
     }
 }
-
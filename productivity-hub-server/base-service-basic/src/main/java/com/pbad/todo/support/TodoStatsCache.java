@@ -0,0 +1,116 @@
+package com.pbad.todo.support;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pbad.todo.domain.vo.TodoStatsVO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 任务统计缓存.
+ * <p>
+ * 每个用户一个 Redis 哈希（field=统计时间范围），整体设置较短的过期时间；
+ * 任务新增、编辑、删除与状态流转后在事务提交时删除整个哈希。缓存读写失败时直接查询数据库.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TodoStatsCache {
+
+    private static final String KEY_PREFIX = "phub:todo:stats:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 缓存时间（秒），0 表示不缓存
+     */
+    @Value("${app.todo.stats-cache-seconds:30}")
+    private long ttlSeconds;
+
+    /**
+     * 读取缓存的统计.
+     *
+     * @param userId 用户ID
+     * @param start  统计开始时间
+     * @param end    统计结束时间
+     * @return 未缓存时返回null
+     */
+    public TodoStatsVO get(String userId, LocalDateTime start, LocalDateTime end) {
+        if (ttlSeconds <= 0) {
+            return null;
+        }
+        try {
+            Object json = redisTemplate.opsForHash().get(KEY_PREFIX + userId, field(start, end));
+            return json != null ? objectMapper.readValue(json.toString(), TodoStatsVO.class) : null;
+        } catch (Exception e) {
+            log.warn("读取用户 {} 的任务统计缓存失败: {}", userId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 缓存统计结果.
+     *
+     * @param userId 用户ID
+     * @param start  统计开始时间
+     * @param end    统计结束时间
+     * @param stats  统计结果
+     */
+    public void put(String userId, LocalDateTime start, LocalDateTime end, TodoStatsVO stats) {
+        if (ttlSeconds <= 0) {
+            return;
+        }
+        String key = KEY_PREFIX + userId;
+        try {
+            redisTemplate.opsForHash().put(key, field(start, end), objectMapper.writeValueAsString(stats));
+            redisTemplate.expire(key, ttlSeconds, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.warn("写入用户 {} 的任务统计缓存失败: {}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * 在事务提交后清除用户的统计缓存；无事务时立即清除.
+     *
+     * @param userId 用户ID
+     */
+    public void evictAfterCommit(String userId) {
+        if (ttlSeconds <= 0) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                evict(userId);
+            }
+        });
+    }
+
+    private void evict(String userId) {
+        try {
+            redisTemplate.delete(KEY_PREFIX + userId);
+        } catch (Exception e) {
+            log.warn("清除用户 {} 的任务统计缓存失败: {}", userId, e.getMessage());
+        }
+    }
+
+    private static String field(LocalDateTime start, LocalDateTime end) {
+        return start + "|" + end;
+    }
+}
@@ -0,0 +1,135 @@
+package com.pbad.todo.support;
+
+import com.pbad.todo.domain.enums.TodoEventType;
+import com.pbad.todo.domain.po.TodoEventPO;
+import com.pbad.todo.domain.vo.TodoStatsVO;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 按日统计时间线构建器.
+ * <p>
+ * 对按时间排序的计时事件做一次遍历：START/RESUME 开始一段计时，PAUSE/COMPLETE/INTERRUPT 结束计时，
+ * 计时区间跨天时按自然日拆分累计时长；COMPLETE 计入当天的完成数。遍历结束仍在计时的任务计到统计结束时间（不超过当前时间）.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+public final class TodoTimelineBuilder {
+
+    private static final int COMPLETED = 0;
+    private static final int DURATION = 1;
+
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final long closeAt;
+
+    /**
+     * 计时中的任务 -> 本段计时开始时间
+     */
+    private final Map<String, Long> openSince = new HashMap<>();
+
+    /**
+     * 日期 -> [完成数, 时长]
+     */
+    private final TreeMap<LocalDate, long[]> days = new TreeMap<>();
+
+    private TodoTimelineBuilder(LocalDateTime end) {
+        long now = System.currentTimeMillis();
+        this.closeAt = end == null ? now : Math.min(now, end.atZone(zone).toInstant().toEpochMilli());
+    }
+
+    /**
+     * 由计时事件构建按日统计.
+     *
+     * @param events 按发生时间排序的计时事件
+     * @param end    统计结束时间，为空表示当前时间
+     * @return 按日期升序的统计
+     */
+    public static List<TodoStatsVO.DailyStat> build(List<TodoEventPO> events, LocalDateTime end) {
+        TodoTimelineBuilder builder = new TodoTimelineBuilder(end);
+        for (TodoEventPO event : events) {
+            builder.accept(event);
+        }
+        return builder.finish();
+    }
+
+    private void accept(TodoEventPO event) {
+        if (event.getOccurredAt() == null || event.getEventType() == null) {
+            return;
+        }
+        long at = event.getOccurredAt().getTime();
+        TodoEventType type;
+        try {
+            type = TodoEventType.valueOf(event.getEventType());
+        } catch (IllegalArgumentException ex) {
+            return;
+        }
+        switch (type) {
+            case START:
+            case RESUME:
+                close(event.getTodoId(), at);
+                openSince.put(event.getTodoId(), at);
+                break;
+            case COMPLETE:
+                close(event.getTodoId(), at);
+                day(at)[COMPLETED]++;
+                break;
+            case PAUSE:
+            case INTERRUPT:
+            case SYSTEM_INTERRUPT:
+                close(event.getTodoId(), at);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private List<TodoStatsVO.DailyStat> finish() {
+        for (Long since : openSince.values()) {
+            accumulate(since, closeAt);
+        }
+        openSince.clear();
+        List<TodoStatsVO.DailyStat> timeline = new ArrayList<>(days.size());
+        days.forEach((date, values) -> {
+            TodoStatsVO.DailyStat stat = new TodoStatsVO.DailyStat();
+            stat.setDate(date);
+            stat.setCompletedTasks(values[COMPLETED]);
+            stat.setDurationMs(values[DURATION]);
+            timeline.add(stat);
+        });
+        return timeline;
+    }
+
+    private void close(String todoId, long at) {
+        Long since = openSince.remove(todoId);
+        if (since != null) {
+            accumulate(since, Math.min(at, closeAt));
+        }
+    }
+
+    /**
+     * 累计 [from, to) 的时长，跨天时按自然日拆分.
+     */
+    private void accumulate(long from, long to) {
+        while (from < to) {
+            LocalDate date = Instant.ofEpochMilli(from).atZone(zone).toLocalDate();
+            long nextDay = date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+            long until = Math.min(to, nextDay);
+            days.computeIfAbsent(date, key -> new long[2])[DURATION] += until - from;
+            from = until;
+        }
+    }
+
+    private long[] day(long at) {
+        return days.computeIfAbsent(Instant.ofEpochMilli(at).atZone(zone).toLocalDate(), key -> new long[2]);
+    }
+}
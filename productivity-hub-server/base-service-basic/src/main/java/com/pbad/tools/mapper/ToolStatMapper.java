@@ -3,6 +3,7 @@ package com.pbad.tools.mapper;
 import com.pbad.tools.domain.po.ToolStatPO;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.Date;
 import java.util.List;
 
 /**
@@ -52,5 +53,29 @@ public interface ToolStatMapper {
      * @return 更新行数
      */
     int batchUpsert(@Param("list") List<ToolStatPO> toolStats);
+
+    /**
+     * 批量累加点击次数（不存在则插入，存在则在原值上累加 clicks 增量）
+     *
+     * @param toolStats 工具统计增量列表
+     * @return 影响行数
+     */
+    int batchIncrementClicks(@Param("list") List<ToolStatPO> toolStats);
+
+    /**
+     * 登记已落库的点击计数代（代ID已存在时不插入）
+     *
+     * @param generation 代ID
+     * @return 插入行数，0表示该代已落库
+     */
+    int insertSyncGeneration(@Param("generation") String generation);
+
+    /**
+     * 清理指定时间之前的落库代记录
+     *
+     * @param before 截止时间
+     * @return 删除行数
+     */
+    int deleteSyncGenerationsBefore(@Param("before") Date before);
 }
 
@@ -0,0 +1,46 @@
+package com.pbad.tools.schedule;
+
+import com.pbad.tools.service.ToolService;
+import com.pbad.tools.support.ToolClickCounter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 工具点击数合并定时任务.
+ * <p>
+ * 每隔几秒将进程内累加的点击数合并到Redis计数哈希，有新点击时重建统计列表缓存，
+ * 排名的滞后时间不超过一个合并周期.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ToolClickFlushTask {
+
+    private final ToolClickCounter clickCounter;
+    private final ToolService toolService;
+
+    @Scheduled(fixedDelayString = "${app.tool.click.flush-interval-millis:5000}")
+    public void flushClicks() {
+        int flushed;
+        try {
+            flushed = clickCounter.flush();
+        } catch (Exception e) {
+            log.warn("合并工具点击数到Redis失败，下次重试: {}", e.getMessage());
+            return;
+        }
+        if (flushed == 0) {
+            return;
+        }
+        try {
+            toolService.refreshToolStats();
+        } catch (Exception e) {
+            log.warn("刷新工具统计列表缓存失败: {}", e.getMessage());
+        }
+    }
+}
@@ -3,21 +3,26 @@ package com.pbad.tools.schedule;
 import com.pbad.config.service.ConfigService;
 import com.pbad.tools.domain.po.ToolStatPO;
 import com.pbad.tools.mapper.ToolStatMapper;
+import com.pbad.tools.support.ToolClickCounter;
 import common.util.RedisUtil;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 工具统计同步定时任务.
  * <p>
- * 每小时将Redis中的工具统计数据同步到数据库.
+ * 每小时将Redis中的工具点击增量同步到数据库：先把当前计数哈希原子地切换为一个代，
+ * 再在同一事务中登记代ID并用多行 INSERT ... ON DUPLICATE KEY UPDATE 累加增量，
+ * 提交后才删除代数据。落库失败的代保留在Redis中，下次执行时按代ID重试，已登记的代不会重复累加.
  * </p>
  *
  * @author: pbad
@@ -26,14 +31,39 @@ import java.util.Set;
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class ToolStatSyncTask {
 
-    private static final String REDIS_KEY_PREFIX = "tool:stat:";
+    private static final String REDIS_STATS_CACHE_KEY = "tool:stats:list";
+
+    /**
+     * 单条多行语句包含的工具数
+     */
+    private static final int BATCH_SIZE = 100;
+
+    /**
+     * 落库代记录保留天数
+     */
+    private static final int GENERATION_RETENTION_DAYS = 30;
 
     private final RedisUtil redisUtil;
     private final ToolStatMapper toolStatMapper;
     private final ConfigService configService;
+    private final ToolClickCounter clickCounter;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 旧版计数键是否已并入（每个进程只需处理一次）
+     */
+    private volatile boolean legacyFolded;
+
+    public ToolStatSyncTask(RedisUtil redisUtil, ToolStatMapper toolStatMapper, ConfigService configService,
+                            ToolClickCounter clickCounter, PlatformTransactionManager transactionManager) {
+        this.redisUtil = redisUtil;
+        this.toolStatMapper = toolStatMapper;
+        this.configService = configService;
+        this.clickCounter = clickCounter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
 
     /**
      * 每小时执行一次，将Redis热点数据落库.
@@ -42,7 +72,6 @@ public class ToolStatSyncTask {
      * </p>
      */
     @Scheduled(cron = "0 0 * * * ?", zone = "Asia/Shanghai")
-    @Transactional(rollbackFor = Exception.class)
     public void syncToolStatsToDatabase() {
         if (!isTaskEnabled("toolStatSync.enabled")) {
             log.info("工具统计数据同步任务已被关闭，跳过执行");
@@ -50,109 +79,94 @@ public class ToolStatSyncTask {
         }
         log.info("开始执行工具统计数据同步任务：将Redis热点数据落库");
         try {
-            // 获取所有Redis中的工具统计key
-            Set<String> redisKeys = redisUtil.keys(REDIS_KEY_PREFIX + "*");
-            if (redisKeys == null || redisKeys.isEmpty()) {
-                log.info("Redis中没有工具统计数据，跳过同步");
-                return;
-            }
-
-            List<ToolStatPO> toolStatsToSync = new ArrayList<>();
-            int syncedCount = 0;
-            int deletedCount = 0;
-
-            for (String redisKey : redisKeys) {
+            foldLegacyCountersOnce();
+            flushLocalClicks();
+            clickCounter.swap();
+
+            // 包括本次切换的代以及之前落库失败的代
+            int syncedGenerations = 0;
+            int syncedTools = 0;
+            for (String generation : clickCounter.pendingGenerations()) {
                 try {
-                    String toolId = redisKey.substring(REDIS_KEY_PREFIX.length());
-                    Object clicksObj = redisUtil.getValue(redisKey);
-                    if (clicksObj == null) {
-                        continue;
-                    }
-
-                    Integer clicks = parseClicks(clicksObj);
-                    if (clicks == null || clicks <= 0) {
-                        // 跳过无效数据
-                        continue;
-                    }
-
-                    // 查询数据库中是否已存在
-                    ToolStatPO existingStat = toolStatMapper.selectById(toolId);
-                    if (existingStat != null) {
-                        // 更新：将Redis增量累加到数据库
-                        existingStat.setClicks(existingStat.getClicks() + clicks);
-                        toolStatsToSync.add(existingStat);
-                    } else {
-                        // 新增：创建新记录
-                        ToolStatPO newStat = new ToolStatPO();
-                        newStat.setId(toolId);
-                        newStat.setToolName(toolId); // 默认使用toolId作为名称
-                        newStat.setClicks(clicks);
-                        toolStatsToSync.add(newStat);
-                    }
-
-                    // 删除Redis中的key（因为已经落库）
-                    redisUtil.delete(redisKey);
-                    deletedCount++;
-
+                    syncedTools += syncGeneration(generation);
+                    syncedGenerations++;
                 } catch (Exception e) {
-                    log.warn("处理Redis key {} 时发生错误: {}", redisKey, e.getMessage());
+                    log.warn("工具点击计数代 {} 落库失败，将在下次执行时重试: {}", generation, e.getMessage());
                 }
             }
-
-            // 批量更新或插入到数据库
-            if (!toolStatsToSync.isEmpty()) {
-                int batchSize = 100; // 每批处理100条
-                for (int i = 0; i < toolStatsToSync.size(); i += batchSize) {
-                    int end = Math.min(i + batchSize, toolStatsToSync.size());
-                    List<ToolStatPO> batch = toolStatsToSync.subList(i, end);
-                    toolStatMapper.batchUpsert(batch);
-                    syncedCount += batch.size();
-                }
-                log.info("成功同步 {} 条工具统计数据到数据库，删除 {} 个Redis key", syncedCount, deletedCount);
+            if (syncedGenerations > 0) {
+                log.info("成功同步 {} 个代、{} 条工具统计增量到数据库", syncedGenerations, syncedTools);
+                // 清除统计列表缓存，下次查询时重新构建
+                redisUtil.delete(REDIS_STATS_CACHE_KEY);
             } else {
                 log.info("没有需要同步的数据");
             }
 
-            // 清除统计列表缓存，下次查询时重新构建
-            redisUtil.delete("tool:stats:list");
-
+            toolStatMapper.deleteSyncGenerationsBefore(
+                    new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(GENERATION_RETENTION_DAYS)));
         } catch (Exception e) {
             log.error("工具统计数据同步失败: {}", e.getMessage(), e);
         }
     }
 
-    private boolean isTaskEnabled(String key) {
+    /**
+     * 落库一个代：登记代ID与累加增量在同一事务中完成，提交后删除代数据.
+     *
+     * @param generation 代ID
+     * @return 本次累加的工具数（代此前已落库时为0）
+     */
+    private int syncGeneration(String generation) {
+        Map<String, Long> counts = clickCounter.read(generation);
+        List<ToolStatPO> deltas = new ArrayList<>(counts.size());
+        counts.forEach((toolId, clicks) -> {
+            ToolStatPO delta = new ToolStatPO();
+            delta.setId(toolId);
+            delta.setToolName(toolId); // 新记录默认使用toolId作为名称
+            delta.setClicks((int) Math.min(clicks, Integer.MAX_VALUE));
+            deltas.add(delta);
+        });
+
+        Integer applied = transactionTemplate.execute(status -> {
+            if (deltas.isEmpty() || toolStatMapper.insertSyncGeneration(generation) == 0) {
+                // 空代，或上次已提交但未来得及删除代数据
+                return 0;
+            }
+            for (int from = 0; from < deltas.size(); from += BATCH_SIZE) {
+                toolStatMapper.batchIncrementClicks(deltas.subList(from, Math.min(from + BATCH_SIZE, deltas.size())));
+            }
+            return deltas.size();
+        });
+        clickCounter.complete(generation);
+        return applied != null ? applied : 0;
+    }
+
+    private void flushLocalClicks() {
         try {
-            String value = configService.getTemplateConfigValue("schedule", key);
-            return !"false".equalsIgnoreCase(value) && !"0".equals(value);
-        } catch (Exception ex) {
-            // 如果配置不存在或读取失败，默认视为开启
-            return true;
+            clickCounter.flush();
+        } catch (Exception e) {
+            // 本节点未合并的点击留到下一次落库
+            log.warn("合并进程内工具点击数失败: {}", e.getMessage());
         }
     }
 
-    /**
-     * 解析点击次数
-     */
-    private Integer parseClicks(Object clicksObj) {
-        if (clicksObj == null) {
-            return null;
-        }
-        if (clicksObj instanceof Integer) {
-            return (Integer) clicksObj;
-        }
-        if (clicksObj instanceof Long) {
-            return ((Long) clicksObj).intValue();
+    private void foldLegacyCountersOnce() {
+        if (legacyFolded) {
+            return;
         }
-        if (clicksObj instanceof Number) {
-            return ((Number) clicksObj).intValue();
+        long folded = clickCounter.foldLegacyCounters();
+        if (folded > 0) {
+            log.info("已将 {} 个旧版工具统计键并入点击计数哈希", folded);
         }
+        legacyFolded = true;
+    }
+
+    private boolean isTaskEnabled(String key) {
         try {
-            return Integer.parseInt(clicksObj.toString());
-        } catch (NumberFormatException e) {
-            log.warn("无法解析点击次数: {}", clicksObj);
-            return null;
+            String value = configService.getTemplateConfigValue("schedule", key);
+            return !"false".equalsIgnoreCase(value) && !"0".equals(value);
+        } catch (Exception ex) {
+            // 如果配置不存在或读取失败，默认视为开启
+            return true;
         }
     }
 }
-
@@ -28,5 +28,12 @@ public interface ToolService {
      * @return 更新后的完整统计列表（按点击次数降序）
      */
     List<ToolStatVO> trackToolUsage(ToolTrackDTO trackDTO);
+
+    /**
+     * 从数据库与未落库的点击增量重建统计列表并刷新缓存
+     *
+     * @return 工具统计列表（按点击次数降序）
+     */
+    List<ToolStatVO> refreshToolStats();
 }
 
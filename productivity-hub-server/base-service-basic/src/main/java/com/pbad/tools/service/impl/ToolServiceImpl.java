@@ -7,6 +7,7 @@ import com.pbad.tools.domain.po.ToolStatPO;
 import com.pbad.tools.domain.vo.ToolStatVO;
 import com.pbad.tools.mapper.ToolStatMapper;
 import com.pbad.tools.service.ToolService;
+import com.pbad.tools.support.ToolClickCounter;
 import common.util.RedisUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -31,12 +32,12 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ToolServiceImpl implements ToolService {
 
-    private static final String REDIS_KEY_PREFIX = "tool:stat:";
     private static final String REDIS_STATS_CACHE_KEY = "tool:stats:list";
     private static final long REDIS_CACHE_EXPIRE_HOURS = 24; // Redis缓存过期时间24小时
 
     private final ToolStatMapper toolStatMapper;
     private final RedisUtil redisUtil;
+    private final ToolClickCounter clickCounter;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Override
@@ -93,12 +94,19 @@ public class ToolServiceImpl implements ToolService {
             }
         }
 
+        return refreshToolStats();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ToolStatVO> refreshToolStats() {
         // 从数据库获取
         List<ToolStatPO> poList = toolStatMapper.selectAllOrderByClicks();
         List<ToolStatVO> voList = poList.stream().map(this::convertToVO).collect(Collectors.toList());
 
         // 合并Redis中的实时数据
         voList = mergeWithRedisData(voList);
+        voList.sort((a, b) -> b.getClicks().compareTo(a.getClicks()));
 
         // 更新Redis缓存
         updateStatsCache(voList);
@@ -113,17 +121,13 @@ public class ToolServiceImpl implements ToolService {
         }
 
         String toolId = trackDTO.getToolId();
-        String redisKey = REDIS_KEY_PREFIX + toolId;
-
-        // 使用Redis原子操作自动+1，并设置过期时间
-        Long clicks = redisUtil.increment(redisKey, REDIS_CACHE_EXPIRE_HOURS, TimeUnit.HOURS);
 
-        // 清除统计列表缓存，下次查询时重新构建
-        redisUtil.delete(REDIS_STATS_CACHE_KEY);
+        // 进程内累加，定时合并到Redis后刷新统计列表缓存，点击不再逐次清除缓存
+        clickCounter.increment(toolId);
 
-        log.debug("工具 {} 点击次数已更新为: {}", toolId, clicks);
+        log.debug("工具 {} 点击次数+1", toolId);
 
-        // 返回更新后的完整统计列表
+        // 返回统计列表（排名最多滞后一个合并周期）
         return getToolStats();
     }
 
@@ -134,31 +138,21 @@ public class ToolServiceImpl implements ToolService {
         Map<String, ToolStatVO> statMap = dbStats.stream()
                 .collect(Collectors.toMap(ToolStatVO::getId, vo -> vo, (a, b) -> a));
 
-        // 获取所有Redis中的工具统计key
-        Set<String> redisKeys = redisUtil.keys(REDIS_KEY_PREFIX + "*");
-        if (redisKeys != null && !redisKeys.isEmpty()) {
-            for (String redisKey : redisKeys) {
-                String toolId = redisKey.substring(REDIS_KEY_PREFIX.length());
-                Object clicksObj = redisUtil.getValue(redisKey);
-                if (clicksObj != null) {
-                    Integer clicks = parseClicks(clicksObj);
-                    if (clicks != null && clicks > 0) {
-                        ToolStatVO vo = statMap.get(toolId);
-                        if (vo != null) {
-                            // 合并：Redis中的增量 + 数据库中的基础值
-                            vo.setClicks(vo.getClicks() + clicks);
-                        } else {
-                            // Redis中有但数据库中没有，创建新记录
-                            vo = new ToolStatVO();
-                            vo.setId(toolId);
-                            vo.setName(toolId); // 默认使用toolId作为名称
-                            vo.setClicks(clicks);
-                            statMap.put(toolId, vo);
-                        }
-                    }
-                }
+        // 未落库的点击增量（当前计数 + 等待落库的代）
+        clickCounter.unsyncedCounts().forEach((toolId, clicks) -> {
+            ToolStatVO vo = statMap.get(toolId);
+            if (vo != null) {
+                // 合并：Redis中的增量 + 数据库中的基础值
+                vo.setClicks(vo.getClicks() + clicks.intValue());
+            } else {
+                // Redis中有但数据库中没有，创建新记录
+                vo = new ToolStatVO();
+                vo.setId(toolId);
+                vo.setName(toolId); // 默认使用toolId作为名称
+                vo.setClicks(clicks.intValue());
+                statMap.put(toolId, vo);
             }
-        }
+        });
 
         return new ArrayList<>(statMap.values());
     }
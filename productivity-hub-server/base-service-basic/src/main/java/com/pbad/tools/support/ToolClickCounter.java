@@ -0,0 +1,289 @@
+package com.pbad.tools.support;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 工具点击计数器.
+ * <p>
+ * 所有工具的未落库点击数保存在同一个 Redis 哈希中（field=工具ID，value=增量），点击时 HINCRBY。
+ * 落库时通过 Lua 将整个哈希原子地 RENAME 为一个"代"（generation），并把代ID登记到待落库集合，
+ * 之后到达的点击写入新的哈希，不会与正在落库的数据交错；代数据只在数据库提交之后才删除，
+ * 落库失败的代会在下一次任务中按同一代ID重试.
+ * <p>
+ * 点击先累加到进程内按工具划分的 {@link LongAdder}，由定时任务每隔几秒通过管道 HINCRBY 合并到哈希，
+ * 单次点击不再产生 Redis 访问；进程内计数的工具数有上限，超出后新工具直接写入哈希.
+ *
+ * @author: pbad
+ * @date: 2025-01-XX
+ * @version: 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ToolClickCounter {
+
+    /**
+     * 未落库的点击增量（field=工具ID）
+     */
+    private static final String LIVE_KEY = "phub:tool:clicks";
+
+    /**
+     * 已切换、等待落库的代ID集合
+     */
+    private static final String PENDING_KEY = "phub:tool:clicks:pending";
+
+    /**
+     * 代数据键前缀（后接代ID）
+     */
+    private static final String GENERATION_KEY_PREFIX = "phub:tool:clicks:gen:";
+
+    /**
+     * 旧版按工具拆分的计数键前缀（tool:stat:{toolId}）
+     */
+    private static final String LEGACY_KEY_PREFIX = "tool:stat:";
+
+    private static final int LEGACY_SCAN_COUNT = 200;
+
+    /**
+     * 存在未落库增量时切换为新的代并登记，返回1；没有增量返回0
+     */
+    private static final DefaultRedisScript<Long> SWAP_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end "
+                    + "redis.call('RENAME', KEYS[1], KEYS[2]) "
+                    + "redis.call('SADD', KEYS[3], ARGV[1]) "
+                    + "return 1", Long.class);
+
+    /**
+     * 代落库完成后删除代数据并注销
+     */
+    private static final DefaultRedisScript<Long> COMPLETE_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('DEL', KEYS[1]) "
+                    + "return redis.call('SREM', KEYS[2], ARGV[1])", Long.class);
+
+    /**
+     * 将旧版计数键原子地并入哈希并删除（KEYS[1]=哈希，KEYS[i+1] 对应 ARGV[i] 工具ID）
+     */
+    private static final DefaultRedisScript<Long> FOLD_LEGACY_SCRIPT = new DefaultRedisScript<>(
+            "local folded = 0 "
+                    + "for i = 1, #ARGV do "
+                    + "  local v = tonumber(redis.call('GET', KEYS[i + 1])) "
+                    + "  if v and v > 0 then "
+                    + "    redis.call('HINCRBY', KEYS[1], ARGV[i], v) "
+                    + "    folded = folded + 1 "
+                    + "  end "
+                    + "  redis.call('DEL', KEYS[i + 1]) "
+                    + "end "
+                    + "return folded", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * 尚未合并到 Redis 的进程内点击数
+     */
+    private final ConcurrentMap<String, LongAdder> localCounts = new ConcurrentHashMap<>();
+
+    /**
+     * 进程内累加的最大工具数（工具ID来自请求参数，需限制内存占用）
+     */
+    @Value("${app.tool.click.max-local-tools:1000}")
+    private int maxLocalTools;
+
+    /**
+     * 工具点击数+1（进程内累加，由 {@link #flush()} 合并到 Redis）.
+     *
+     * @param toolId 工具ID
+     */
+    public void increment(String toolId) {
+        LongAdder adder = localCounts.get(toolId);
+        if (adder == null) {
+            if (localCounts.size() >= maxLocalTools) {
+                redisTemplate.opsForHash().increment(LIVE_KEY, toolId, 1);
+                return;
+            }
+            adder = localCounts.computeIfAbsent(toolId, key -> new LongAdder());
+        }
+        adder.increment();
+    }
+
+    /**
+     * 将进程内点击数通过管道 HINCRBY 合并到计数哈希.
+     * <p>
+     * 每个工具只扣减本次读到的数量，合并期间到达的点击留到下一次；写入失败时扣减的数量会加回.
+     * 定时合并、落库前合并与停机合并可能同时调用，串行执行，避免同一批点击被读到两次.
+     *
+     * @return 合并的工具数
+     */
+    public synchronized int flush() {
+        Map<String, Long> drained = new HashMap<>();
+        localCounts.forEach((toolId, adder) -> {
+            long clicks = adder.sum();
+            if (clicks > 0) {
+                adder.add(-clicks);
+                drained.put(toolId, clicks);
+            }
+        });
+        if (drained.isEmpty()) {
+            return 0;
+        }
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                drained.forEach((toolId, clicks) -> stringConnection.hIncrBy(LIVE_KEY, toolId, clicks));
+                return null;
+            });
+        } catch (RuntimeException e) {
+            drained.forEach((toolId, clicks) -> localCounts.computeIfAbsent(toolId, key -> new LongAdder()).add(clicks));
+            throw e;
+        }
+        return drained.size();
+    }
+
+    /**
+     * 停机前合并剩余的进程内点击数.
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("停机前合并工具点击数失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 将当前未落库的增量切换为新的代.
+     *
+     * @return 代ID，没有增量时返回null
+     */
+    public String swap() {
+        String generation = UUID.randomUUID().toString().replace("-", "");
+        Long swapped = redisTemplate.execute(SWAP_SCRIPT,
+                Arrays.asList(LIVE_KEY, GENERATION_KEY_PREFIX + generation, PENDING_KEY), generation);
+        return swapped != null && swapped > 0 ? generation : null;
+    }
+
+    /**
+     * 所有等待落库的代ID（包括之前落库失败的代）.
+     *
+     * @return 代ID集合
+     */
+    public Set<String> pendingGenerations() {
+        Set<String> generations = redisTemplate.opsForSet().members(PENDING_KEY);
+        return generations != null ? generations : Collections.emptySet();
+    }
+
+    /**
+     * 读取一个代的点击增量.
+     *
+     * @param generation 代ID
+     * @return 工具ID -> 增量（已忽略非正数与无法解析的值）
+     */
+    public Map<String, Long> read(String generation) {
+        return toCounts(redisTemplate.opsForHash().entries(GENERATION_KEY_PREFIX + generation));
+    }
+
+    /**
+     * 代已落库，删除代数据.
+     *
+     * @param generation 代ID
+     */
+    public void complete(String generation) {
+        redisTemplate.execute(COMPLETE_SCRIPT,
+                Arrays.asList(GENERATION_KEY_PREFIX + generation, PENDING_KEY), generation);
+    }
+
+    /**
+     * 所有尚未落库的点击增量（当前哈希 + 等待落库的代 + 本进程尚未合并的点击），用于与数据库中的累计值合并展示.
+     *
+     * @return 工具ID -> 增量
+     */
+    public Map<String, Long> unsyncedCounts() {
+        Map<String, Long> counts = toCounts(redisTemplate.opsForHash().entries(LIVE_KEY));
+        for (String generation : pendingGenerations()) {
+            read(generation).forEach((toolId, clicks) -> counts.merge(toolId, clicks, Long::sum));
+        }
+        localCounts.forEach((toolId, adder) -> {
+            long clicks = adder.sum();
+            if (clicks > 0) {
+                counts.merge(toolId, clicks, Long::sum);
+            }
+        });
+        return counts;
+    }
+
+    /**
+     * 将旧版 tool:stat:{toolId} 计数键并入哈希（升级后残留数据只需处理一次）.
+     *
+     * @return 并入的工具数量
+     */
+    public long foldLegacyCounters() {
+        List<String> legacyKeys = redisTemplate.execute((RedisCallback<List<String>>) connection -> {
+            List<String> keys = new ArrayList<>();
+            ScanOptions options = ScanOptions.scanOptions()
+                    .match(LEGACY_KEY_PREFIX + "*").count(LEGACY_SCAN_COUNT).build();
+            try (Cursor<byte[]> cursor = connection.scan(options)) {
+                while (cursor.hasNext()) {
+                    keys.add(new String(cursor.next(), StandardCharsets.UTF_8));
+                }
+            } catch (Exception e) {
+                log.warn("扫描旧版工具统计键失败: {}", e.getMessage());
+            }
+            return keys;
+        });
+        if (legacyKeys == null || legacyKeys.isEmpty()) {
+            return 0;
+        }
+        long folded = 0;
+        for (int from = 0; from < legacyKeys.size(); from += LEGACY_SCAN_COUNT) {
+            List<String> batch = legacyKeys.subList(from, Math.min(from + LEGACY_SCAN_COUNT, legacyKeys.size()));
+            List<String> keys = new ArrayList<>(batch.size() + 1);
+            keys.add(LIVE_KEY);
+            keys.addAll(batch);
+            Object[] toolIds = batch.stream().map(key -> key.substring(LEGACY_KEY_PREFIX.length())).toArray();
+            Long result = redisTemplate.execute(FOLD_LEGACY_SCRIPT, keys, toolIds);
+            folded += result != null ? result : 0;
+        }
+        return folded;
+    }
+
+    private static Map<String, Long> toCounts(Map<Object, Object> entries) {
+        Map<String, Long> counts = new HashMap<>();
+        if (entries == null) {
+            return counts;
+        }
+        entries.forEach((field, value) -> {
+            try {
+                long clicks = Long.parseLong(String.valueOf(value));
+                if (clicks > 0) {
+                    counts.put(String.valueOf(field), clicks);
+                }
+            } catch (NumberFormatException e) {
+                log.warn("无法解析工具 {} 的点击次数: {}", field, value);
+            }
+        });
+        return counts;
+    }
+}